@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks;
+
+import com.google.android.apps.mytracks.util.FrameTimeMonitor;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.test.AndroidTestCase;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests {@link ChartView}.
+ */
+public class ChartViewTest extends AndroidTestCase {
+
+  private static final String TAG = ChartViewTest.class.getSimpleName();
+  private static final int NUM_POINTS = 20000;
+  private static final int NUM_BATCHES = 100;
+  private static final int WIDTH = 720;
+  private static final int HEIGHT = 480;
+  private static final int FRAMES_PER_ZOOM_LEVEL = 5;
+  private static final long WAIT_TIMEOUT = 10000;
+
+  // A zoom step should show up within a few frames
+  private static final long ZOOM_STEP_BUDGET_NANOS = 6 * FrameTimeMonitor.FRAME_BUDGET_NANOS;
+
+  private ChartView chartView;
+  private Bitmap bitmap;
+  private Canvas canvas;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    chartView = new ChartView(getContext());
+    chartView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    chartView.layout(0, 0, WIDTH, HEIGHT);
+
+    // Starts the path thread so the paths are built off the calling thread
+    chartView.onAttachedToWindow();
+    bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    canvas = new Canvas(bitmap);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    chartView.onDetachedFromWindow();
+    bitmap.recycle();
+    super.tearDown();
+  }
+
+  /**
+   * Tests that zooming through all the levels of a 20k point chart keeps
+   * onDraw within the frame budget and each zoom step, including building and
+   * swapping in the new paths, within a few frames.
+   */
+  public void testZoom_frameBudget() throws Exception {
+    chartView.addDataPoints(createDataPoints(0, NUM_POINTS));
+    assertTrue(chartView.waitForPaths(WAIT_TIMEOUT));
+
+    FrameTimeMonitor drawMonitor = chartView.getDrawMonitor();
+    FrameTimeMonitor stepMonitor = new FrameTimeMonitor(TAG, "zoom", Integer.MAX_VALUE);
+    drawMonitor.reset();
+    int frames = 0;
+    do {
+      long start = stepMonitor.start();
+      chartView.zoomIn();
+      assertTrue(chartView.waitForPaths(WAIT_TIMEOUT));
+      chartView.draw(canvas);
+      stepMonitor.end(start);
+      frames++;
+      for (int i = 0; i < FRAMES_PER_ZOOM_LEVEL; i++) {
+        chartView.scrollBy(WIDTH / FRAMES_PER_ZOOM_LEVEL);
+        chartView.draw(canvas);
+        frames++;
+      }
+    } while (chartView.canZoomIn());
+    while (chartView.canZoomOut()) {
+      long start = stepMonitor.start();
+      chartView.zoomOut();
+      assertTrue(chartView.waitForPaths(WAIT_TIMEOUT));
+      chartView.draw(canvas);
+      stepMonitor.end(start);
+      frames++;
+    }
+
+    assertEquals(frames, drawMonitor.getCount());
+    assertTrue(drawMonitor.toString(),
+        drawMonitor.getAverageNanos() < FrameTimeMonitor.FRAME_BUDGET_NANOS);
+    assertTrue(drawMonitor.toString(), drawMonitor.getOverBudgetCount() <= frames / 10);
+    assertTrue(stepMonitor.toString(), stepMonitor.getAverageNanos() < ZOOM_STEP_BUDGET_NANOS);
+  }
+
+  /**
+   * Tests that drawing while data points are added on another thread keeps
+   * onDraw within the frame budget.
+   */
+  public void testDraw_whileAddingDataPoints() throws Exception {
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    Thread thread = new Thread() {
+        @Override
+      public void run() {
+        try {
+          int batchSize = NUM_POINTS / NUM_BATCHES;
+          for (int i = 0; i < NUM_BATCHES; i++) {
+            chartView.addDataPoints(createDataPoints(i * batchSize, batchSize));
+          }
+        } catch (Throwable t) {
+          error.set(t);
+        }
+      }
+    };
+
+    // The draw monitor reports and resets periodically, so time the draws here
+    FrameTimeMonitor drawMonitor = new FrameTimeMonitor(TAG, "draw", Integer.MAX_VALUE);
+    thread.start();
+    do {
+      long start = drawMonitor.start();
+      chartView.draw(canvas);
+      drawMonitor.end(start);
+    } while (thread.isAlive());
+    thread.join();
+    assertNull(String.valueOf(error.get()), error.get());
+    assertTrue(chartView.waitForPaths(WAIT_TIMEOUT));
+    chartView.draw(canvas);
+
+    assertTrue(drawMonitor.toString(),
+        drawMonitor.getAverageNanos() < FrameTimeMonitor.FRAME_BUDGET_NANOS);
+    assertTrue(drawMonitor.toString(),
+        drawMonitor.getOverBudgetCount() <= drawMonitor.getCount() / 10);
+  }
+
+  /**
+   * Creates data points with elevation and speed.
+   * 
+   * @param start the index of the first data point
+   * @param count the number of data points
+   */
+  private static ArrayList<double[]> createDataPoints(int start, int count) {
+    ArrayList<double[]> dataPoints = new ArrayList<double[]>();
+    for (int i = start; i < start + count; i++) {
+      double[] dataPoint = new double[ChartView.NUM_SERIES + 1];
+      dataPoint[0] = i * 0.01;
+      for (int j = 1; j < dataPoint.length; j++) {
+        dataPoint[j] = Double.NaN;
+      }
+      dataPoint[ChartView.ELEVATION_SERIES + 1] = 100.0 + 50.0 * Math.sin(i / 100.0);
+      dataPoint[ChartView.SPEED_SERIES + 1] = 20.0 + 5.0 * Math.cos(i / 50.0);
+      dataPoints.add(dataPoint);
+    }
+    return dataPoints;
+  }
+}
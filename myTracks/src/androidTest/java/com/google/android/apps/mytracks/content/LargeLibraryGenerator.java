@@ -0,0 +1,293 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.android.apps.mytracks.content.Sensor.SensorData;
+import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
+import com.google.android.apps.mytracks.content.Sensor.SensorState;
+import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.services.TrackRecordingService;
+import com.google.android.apps.mytracks.stats.TripStatistics;
+import com.google.android.apps.mytracks.stats.TripStatisticsUpdater;
+import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
+import com.google.android.apps.mytracks.util.TrackIconUtils;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills a {@link MyTracksProvider} database with a large synthetic library, to
+ * benchmark the provider at realistic sizes. Each track is a seeded random
+ * ride, run or walk at one point per second, with pauses, a sensor point per
+ * track point, a statistics marker every {@link #STATISTICS_INTERVAL} points
+ * and a few waypoints. Points are inserted in batches like the recording
+ * service. Tracks are one day apart, most recent first, so the aggregated
+ * stats span many weeks and months.
+ */
+public class LargeLibraryGenerator {
+
+  // The number of points between statistics markers, 10 minutes
+  static final int STATISTICS_INTERVAL = 600;
+
+  // The number of points between waypoints
+  static final int WAYPOINT_INTERVAL = 1500;
+
+  // The number of points between pauses, 1 hour
+  static final int PAUSE_INTERVAL = 3600;
+
+  // The default number of points per insert transaction
+  static final int DEFAULT_BATCH_SIZE = 500;
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private static final long ONE_DAY = 24L * 60L * 60L * 1000L;
+  private static final int MIN_RECORDING_DISTANCE = 10;
+  private static final double WEIGHT = 65.0;
+
+  // The words of the track names and descriptions, also the search terms
+  static final String[] WORDS = { "morning", "evening", "lake", "river", "hill", "park",
+      "forest", "coast", "bridge", "city", "loop", "trail", "commute", "tempo", "easy", "long" };
+
+  private static final String[] CATEGORIES = { "biking", "running", "walking" };
+  private static final String[] ICONS = {
+      TrackIconUtils.BIKE, TrackIconUtils.RUN, TrackIconUtils.WALK };
+  private static final ActivityType[] ACTIVITY_TYPES = {
+      ActivityType.CYCLING, ActivityType.RUNNING, ActivityType.WALKING };
+  private static final float[] SPEEDS = { 7f, 3f, 1.4f }; // in meters per second
+
+  private final MyTracksProviderUtils myTracksProviderUtils;
+  private final Random random;
+  private final int batchSize;
+
+  /**
+   * Constructor.
+   * 
+   * @param myTracksProviderUtils the my tracks provider utils
+   * @param seed the random seed
+   * @param batchSize the number of points per insert transaction
+   */
+  public LargeLibraryGenerator(
+      MyTracksProviderUtils myTracksProviderUtils, long seed, int batchSize) {
+    this.myTracksProviderUtils = myTracksProviderUtils;
+    this.random = new Random(seed);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Generates tracks. Returns the track ids, oldest track first.
+   * 
+   * @param numberOfTracks the number of tracks
+   * @param pointsPerTrack the number of points per track, at least 1
+   */
+  public long[] generate(int numberOfTracks, int pointsPerTrack) {
+    long[] trackIds = new long[numberOfTracks];
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < numberOfTracks; i++) {
+      long startTime = now - (numberOfTracks - i) * ONE_DAY;
+      trackIds[i] = generateTrack(i, startTime, pointsPerTrack);
+    }
+    return trackIds;
+  }
+
+  /**
+   * Generates a track. Returns the track id.
+   * 
+   * @param index the track index
+   * @param startTime the start time
+   * @param numberOfPoints the number of points
+   */
+  private long generateTrack(int index, long startTime, int numberOfPoints) {
+    int type = random.nextInt(CATEGORIES.length);
+    Track track = new Track();
+    track.setName(getWord() + " " + getWord() + " " + CATEGORIES[type] + " " + index);
+    track.setDescription(getWord() + " " + getWord() + " " + getWord() + " " + getWord());
+    track.setCategory(CATEGORIES[type]);
+    track.setIcon(ICONS[type]);
+    TripStatistics startStatistics = new TripStatistics();
+    startStatistics.setStartTime(startTime);
+    track.setTripStatistics(startStatistics);
+    long trackId = Long.parseLong(myTracksProviderUtils.insertTrack(track).getLastPathSegment());
+    track.setId(trackId);
+
+    TripStatisticsUpdater trackUpdater = new TripStatisticsUpdater(startTime);
+    TripStatisticsUpdater markerUpdater = new TripStatisticsUpdater(startTime);
+    List<Location> locations = new ArrayList<Location>(batchSize);
+    List<SensorDataSet> sensorDataSets = new ArrayList<SensorDataSet>(batchSize);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
+    Location lastValidLocation = null;
+    long startId = -1L;
+    long stopId = -1L;
+    int count = 0;
+
+    long time = startTime;
+    double latitude = 37.0 + random.nextDouble();
+    double longitude = -122.0 + random.nextDouble();
+    double altitude = 100.0 * random.nextDouble();
+    double bearing = 360.0 * random.nextDouble();
+    int heartRate = 100;
+    for (int i = 0; i < numberOfPoints; i++) {
+      Location location;
+      if (i > 0 && i % PAUSE_INTERVAL == 0) {
+        location = createLocation(time, TrackRecordingService.PAUSE_LATITUDE, 0.0);
+        addLocation(location, trackUpdater, markerUpdater, type, locations);
+        time += 5 * 60 * 1000L;
+        location = createLocation(time, TrackRecordingService.RESUME_LATITUDE, 0.0);
+      } else {
+        float speed = (float) Math.max(0.0, SPEEDS[type] * (1.0 + 0.2 * random.nextGaussian()));
+        bearing += 5.0 * random.nextGaussian();
+        altitude += random.nextGaussian();
+        latitude += speed * Math.cos(Math.toRadians(bearing)) / METERS_PER_DEGREE;
+        longitude += speed * Math.sin(Math.toRadians(bearing))
+            / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+        location = createLocation(time, latitude, longitude);
+        location.setAltitude(altitude);
+        location.setSpeed(speed);
+        location.setBearing((float) ((bearing % 360.0 + 360.0) % 360.0));
+        location.setAccuracy(3f + 5f * random.nextFloat());
+        lastValidLocation = location;
+
+        heartRate = Math.max(60, Math.min(190, heartRate + random.nextInt(5) - 2));
+        sensorDataSets.add(createSensorDataSet(time, heartRate, type));
+      }
+      addLocation(location, trackUpdater, markerUpdater, type, locations);
+
+      if (locations.size() >= batchSize || i == numberOfPoints - 1) {
+        if (!sensorDataSets.isEmpty()) {
+          myTracksProviderUtils.insertSensorPoints(sensorDataSets, trackId);
+          sensorDataSets.clear();
+        }
+        long[] ids = myTracksProviderUtils.insertTrackPoints(locations, trackId);
+        if (startId == -1L) {
+          startId = ids[0];
+        }
+        stopId = ids[ids.length - 1];
+        count += ids.length;
+        locations.clear();
+      }
+
+      if (i > 0 && i % STATISTICS_INTERVAL == 0) {
+        TripStatistics tripStatistics = markerUpdater.getTripStatistics();
+        markerUpdater = new TripStatisticsUpdater(time);
+        waypoints.add(createWaypoint(trackId, WaypointType.STATISTICS, lastValidLocation,
+            trackUpdater.getTripStatistics(), tripStatistics));
+      } else if (i > 0 && i % WAYPOINT_INTERVAL == 0) {
+        waypoints.add(createWaypoint(trackId, WaypointType.WAYPOINT, lastValidLocation,
+            trackUpdater.getTripStatistics(), null));
+      }
+      time += 1000L;
+    }
+
+    // Like the recording service, the first waypoint holds the track statistics
+    TripStatistics tripStatistics = trackUpdater.getTripStatistics();
+    myTracksProviderUtils.insertWaypoint(createWaypoint(
+        trackId, WaypointType.STATISTICS, lastValidLocation, tripStatistics, tripStatistics));
+    for (Waypoint waypoint : waypoints) {
+      myTracksProviderUtils.insertWaypoint(waypoint);
+    }
+
+    track.setStartId(startId);
+    track.setStopId(stopId);
+    track.setNumberOfPoints(count);
+    track.setTripStatistics(tripStatistics);
+    myTracksProviderUtils.updateTrack(track);
+    return trackId;
+  }
+
+  /**
+   * Adds a location to the statistics updaters and the pending locations.
+   * 
+   * @param location the location
+   * @param trackUpdater the track trip statistics updater
+   * @param markerUpdater the marker trip statistics updater
+   * @param type the track type
+   * @param locations the pending locations
+   */
+  private void addLocation(Location location, TripStatisticsUpdater trackUpdater,
+      TripStatisticsUpdater markerUpdater, int type, List<Location> locations) {
+    trackUpdater.addLocation(
+        location, MIN_RECORDING_DISTANCE, true, ACTIVITY_TYPES[type], WEIGHT);
+    markerUpdater.addLocation(
+        location, MIN_RECORDING_DISTANCE, true, ACTIVITY_TYPES[type], WEIGHT);
+    locations.add(location);
+  }
+
+  /**
+   * Creates a location.
+   * 
+   * @param time the time
+   * @param latitude the latitude
+   * @param longitude the longitude
+   */
+  private Location createLocation(long time, double latitude, double longitude) {
+    Location location = new Location(LocationManager.GPS_PROVIDER);
+    location.setTime(time);
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    return location;
+  }
+
+  /**
+   * Creates a sensor data set with heart rate, battery level and, when biking,
+   * cadence and power.
+   * 
+   * @param time the time
+   * @param heartRate the heart rate
+   * @param type the track type
+   */
+  private SensorDataSet createSensorDataSet(long time, int heartRate, int type) {
+    SensorDataSet.Builder builder = SensorDataSet.newBuilder()
+        .setCreationTime(time)
+        .setHeartRate(SensorData.newBuilder().setValue(heartRate).setState(SensorState.SENDING))
+        .setBatteryLevel(SensorData.newBuilder().setValue(80).setState(SensorState.SENDING));
+    if (ACTIVITY_TYPES[type] == ActivityType.CYCLING) {
+      builder.setCadence(SensorData.newBuilder()
+          .setValue(80 + random.nextInt(20)).setState(SensorState.SENDING));
+      builder.setPower(SensorData.newBuilder()
+          .setValue(150 + random.nextInt(100)).setState(SensorState.SENDING));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates a waypoint.
+   * 
+   * @param trackId the track id
+   * @param waypointType the waypoint type
+   * @param location the location
+   * @param trackStatistics the track trip statistics so far
+   * @param tripStatistics the waypoint trip statistics, null for a waypoint
+   */
+  private Waypoint createWaypoint(long trackId, WaypointType waypointType, Location location,
+      TripStatistics trackStatistics, TripStatistics tripStatistics) {
+    String name = getWord() + " " + getWord();
+    return new Waypoint(name, name, "", "", trackId, waypointType,
+        trackStatistics.getTotalDistance(), trackStatistics.getTotalTime(), -1L, -1L,
+        location, tripStatistics, "");
+  }
+
+  /**
+   * Gets a random word.
+   */
+  private String getWord() {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+}
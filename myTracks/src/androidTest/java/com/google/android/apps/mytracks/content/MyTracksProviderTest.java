@@ -18,6 +18,9 @@ package com.google.android.apps.mytracks.content;
 
 import com.google.android.apps.mytracks.content.MyTracksProvider.DatabaseHelper;
 
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.test.AndroidTestCase;
@@ -49,6 +52,12 @@ public class MyTracksProviderTest extends AndroidTestCase {
     assertTrue(hasTable(TracksColumns.TABLE_NAME));
     assertTrue(hasTable(TrackPointsColumns.TABLE_NAME));
     assertTrue(hasTable(WaypointsColumns.TABLE_NAME));
+    assertTrue(hasTable(TracksSearchColumns.TABLE_NAME));
+    assertTrue(hasTable(WaypointsSearchColumns.TABLE_NAME));
+    assertTrue(hasTable(TracksSpatialColumns.TABLE_NAME));
+    assertTrue(hasTable(WaypointsSpatialColumns.TABLE_NAME));
+    assertTrue(hasTable(AggregatedStatsColumns.TABLE_NAME));
+    assertTrue(hasTable(SensorPointsColumns.TABLE_NAME));
   }
 
   /**
@@ -177,6 +186,126 @@ public class MyTracksProviderTest extends AndroidTestCase {
     assertFalse(hasColumn(TracksColumns.TABLE_NAME, TracksColumns.CALORIE));
   }
 
+  /**
+   * Tests {@link MyTracksProvider.DatabaseHelper#onUpgrade(SQLiteDatabase, int,
+   * int)} when version is 22. Verifies the search tables are populated.
+   */
+  public void testDatabaseHelper_onUpgrade_Version22_search() {
+    db.execSQL("INSERT INTO " + TracksColumns.TABLE_NAME + " (" + TracksColumns.NAME
+        + ") VALUES ('test track')");
+    db.execSQL("INSERT INTO " + WaypointsColumns.TABLE_NAME + " (" + WaypointsColumns.NAME
+        + ") VALUES ('test marker')");
+    dropTable(TracksSearchColumns.TABLE_NAME);
+    dropTable(WaypointsSearchColumns.TABLE_NAME);
+
+    DatabaseHelper databaseHelper = new DatabaseHelper(getContext());
+    databaseHelper.onUpgrade(db, 22, MyTracksProvider.DATABASE_VERSION);
+
+    assertEquals(1, getSearchCount(TracksSearchColumns.TABLE_NAME, "tra*"));
+    assertEquals(1, getSearchCount(WaypointsSearchColumns.TABLE_NAME, "mark*"));
+    assertEquals(0, getSearchCount(WaypointsSearchColumns.TABLE_NAME, "tra*"));
+  }
+
+  /**
+   * Tests {@link MyTracksProvider.DatabaseHelper#onUpgrade(SQLiteDatabase, int,
+   * int)} when version is 24. Verifies the aggregated stats table is marked
+   * for populating.
+   */
+  public void testDatabaseHelper_onUpgrade_Version24() {
+    dropTable(AggregatedStatsColumns.TABLE_NAME);
+
+    DatabaseHelper databaseHelper = new DatabaseHelper(getContext());
+    databaseHelper.onUpgrade(db, 24, MyTracksProvider.DATABASE_VERSION);
+
+    assertTrue(hasTable(AggregatedStatsColumns.TABLE_NAME));
+    Cursor cursor = db.rawQuery("SELECT MAX(" + AggregatedStatsColumns.DIRTY + ") FROM "
+        + AggregatedStatsColumns.TABLE_NAME, null);
+    try {
+      cursor.moveToFirst();
+      assertEquals(AggregatedStatsTriggers.DIRTY_TABLE, cursor.getInt(0));
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Tests {@link MyTracksProvider.DatabaseHelper#onUpgrade(SQLiteDatabase, int,
+   * int)} when version is 25.
+   */
+  public void testDatabaseHelper_onUpgrade_Version25() {
+    setupUpgrade(25);
+
+    assertTrue(hasColumn(TracksColumns.TABLE_NAME, TracksColumns.CALORIEDURATION));
+    assertTrue(hasColumn(TracksColumns.TABLE_NAME, TracksColumns.CALORIEDRAG));
+    assertTrue(hasColumn(WaypointsColumns.TABLE_NAME, WaypointsColumns.CALORIEDURATION));
+    assertTrue(hasColumn(WaypointsColumns.TABLE_NAME, WaypointsColumns.CALORIEDRAG));
+
+    // Upgrading again keeps the columns
+    DatabaseHelper databaseHelper = new DatabaseHelper(getContext());
+    databaseHelper.onUpgrade(db, 25, MyTracksProvider.DATABASE_VERSION);
+    assertTrue(hasColumn(TracksColumns.TABLE_NAME, TracksColumns.CALORIEDURATION));
+  }
+
+  /**
+   * Tests {@link MyTracksProvider.DatabaseHelper#onUpgrade(SQLiteDatabase, int,
+   * int)} when version is 26.
+   */
+  public void testDatabaseHelper_onUpgrade_Version26() {
+    dropTable(SensorPointsColumns.TABLE_NAME);
+
+    DatabaseHelper databaseHelper = new DatabaseHelper(getContext());
+    databaseHelper.onUpgrade(db, 26, MyTracksProvider.DATABASE_VERSION);
+
+    assertTrue(hasTable(SensorPointsColumns.TABLE_NAME));
+    assertTrue(hasColumn(TrackPointsColumns.TABLE_NAME, TrackPointsColumns.SENSOR));
+  }
+
+  /**
+   * Tests {@link MyTracksProvider.DatabaseHelper#onUpgrade(SQLiteDatabase, int,
+   * int)} when version is 27. Verifies the aggregated stats table gets the
+   * period column and is marked for populating.
+   */
+  public void testDatabaseHelper_onUpgrade_Version27() {
+    DatabaseHelper databaseHelper = new DatabaseHelper(getContext());
+    databaseHelper.onUpgrade(db, 27, MyTracksProvider.DATABASE_VERSION);
+
+    assertTrue(hasColumn(AggregatedStatsColumns.TABLE_NAME, AggregatedStatsColumns.PERIOD));
+    Cursor cursor = db.rawQuery("SELECT MAX(" + AggregatedStatsColumns.DIRTY + ") FROM "
+        + AggregatedStatsColumns.TABLE_NAME, null);
+    try {
+      cursor.moveToFirst();
+      assertEquals(AggregatedStatsTriggers.DIRTY_TABLE, cursor.getInt(0));
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Tests that the aggregated stats month row is keyed on the local date of the
+   * month start and that only a statistics change marks the rows dirty.
+   */
+  public void testAggregatedStatsTriggers() {
+    ContentValues values = new ContentValues();
+    values.put(TracksColumns.NAME, "name");
+    values.put(TracksColumns.STARTTIME, 1000L);
+    values.put(TracksColumns.MAXSPEED, 5.0);
+    long trackId = db.insert(TracksColumns.TABLE_NAME, null, values);
+    assertEquals(getLocalMonth(1000L), DatabaseUtils.stringForQuery(db, "SELECT "
+        + AggregatedStatsColumns.PERIOD + " FROM " + AggregatedStatsColumns.TABLE_NAME
+        + " WHERE " + AggregatedStatsColumns.TYPE + "=" + AggregatedStatsColumns.TYPE_MONTH, null));
+    db.execSQL("UPDATE " + AggregatedStatsColumns.TABLE_NAME + " SET "
+        + AggregatedStatsColumns.DIRTY + "=0");
+
+    String[] whereArgs = new String[] { Long.toString(trackId) };
+    values.put(TracksColumns.NAME, "new name");
+    db.update(TracksColumns.TABLE_NAME, values, TracksColumns._ID + "=?", whereArgs);
+    assertEquals(0L, getMaxDirty());
+
+    values.put(TracksColumns.MAXSPEED, 4.0);
+    db.update(TracksColumns.TABLE_NAME, values, TracksColumns._ID + "=?", whereArgs);
+    assertEquals(AggregatedStatsTriggers.DIRTY_ROW, getMaxDirty());
+  }
+
   /**
    * Tests {@link MyTracksProvider#onCreate(android.content.Context)}.
    */
@@ -196,12 +325,33 @@ public class MyTracksProviderTest extends AndroidTestCase {
   }
 
   /**
-   * Creates a table, containing one column.
+   * Creates a table, containing the test column and the columns indexed by the
+   * search and spatial tables.
    * 
    * @param table the table name
    */
   private void createTable(String table) {
-    db.execSQL("CREATE TABLE " + table + " (test INTEGER)");
+    db.execSQL("CREATE TABLE " + table + " (test INTEGER, _id INTEGER, name STRING, "
+        + "description STRING, category STRING, minlat INTEGER, maxlat INTEGER, "
+        + "minlon INTEGER, maxlon INTEGER, latitude INTEGER, longitude INTEGER)");
+  }
+
+  /**
+   * Gets the number of rows matching a full-text query.
+   * 
+   * @param table the search table name
+   * @param matchQuery the match query
+   */
+  private int getSearchCount(String table, String matchQuery) {
+    Cursor cursor = db.rawQuery(
+        "SELECT count(*) FROM " + table + " WHERE " + table + " MATCH ?",
+        new String[] { matchQuery });
+    try {
+      cursor.moveToFirst();
+      return cursor.getInt(0);
+    } finally {
+      cursor.close();
+    }
   }
 
   /**
@@ -227,6 +377,24 @@ public class MyTracksProviderTest extends AndroidTestCase {
     }
   }
 
+  /**
+   * Gets the max dirty value of the aggregated stats table.
+   */
+  private long getMaxDirty() {
+    return DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX(" + AggregatedStatsColumns.DIRTY
+        + "), 0) FROM " + AggregatedStatsColumns.TABLE_NAME, null);
+  }
+
+  /**
+   * Gets the local date of the month start of a time.
+   * 
+   * @param time the time
+   */
+  private String getLocalMonth(long time) {
+    return DatabaseUtils.stringForQuery(db, "SELECT date(" + time / 1000L
+        + ", 'unixepoch', 'localtime', 'start of month')", null);
+  }
+
   /**
    * Returns true if the column in the table exists.
    * 
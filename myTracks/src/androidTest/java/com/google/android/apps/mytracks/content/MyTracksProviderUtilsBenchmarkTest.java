@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationIterator;
+import com.google.android.apps.mytracks.content.SearchEngine.SearchQuery;
+import com.google.android.apps.mytracks.services.TrackRecordingServiceTest.MockContext;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Build;
+import android.os.Bundle;
+import android.test.InstrumentationTestCase;
+import android.test.InstrumentationTestRunner;
+import android.test.RenamingDelegatingContext;
+import android.test.mock.MockContentResolver;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Benchmarks the {@link MyTracksProviderUtils} hot calls on a large synthetic
+ * library from {@link LargeLibraryGenerator}, in a separate database. The
+ * report is written to provider_benchmark.json in the external files
+ * directory of the app. The library size and the insert batch size can be set
+ * with instrumentation arguments, e.g. for 10k tracks and 50M points:
+ * 
+ * <pre>
+ * adb shell am instrument -w -e class \
+ *     com.google.android.apps.mytracks.content.MyTracksProviderUtilsBenchmarkTest \
+ *     -e benchmarkTracks 10000 -e benchmarkPoints 5000 -e benchmarkBatchSize 500 ...
+ * </pre>
+ */
+public class MyTracksProviderUtilsBenchmarkTest extends InstrumentationTestCase {
+
+  private static final String TAG = MyTracksProviderUtilsBenchmarkTest.class.getSimpleName();
+
+  private static final String REPORT_FILE_NAME = "provider_benchmark.json";
+  private static final String DATABASE_PREFIX = "benchmark.";
+
+  // The default library size, small enough for a regular test run
+  private static final int DEFAULT_TRACKS = 20;
+  private static final int DEFAULT_POINTS = 3600;
+
+  // The max iterations of the per track operations
+  private static final int MAX_OPEN_TRACKS = 50;
+  private static final int MAX_ITERATED_TRACKS = 10;
+  private static final int MAX_DELETED_TRACKS = 10;
+  private static final int AGGREGATED_STATS_ITERATIONS = 5;
+
+  private Context context;
+  private MyTracksProviderUtils providerUtils;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Context targetContext = getInstrumentation().getTargetContext();
+    MockContentResolver mockContentResolver = new MockContentResolver();
+    context = new MockContext(
+        mockContentResolver, new RenamingDelegatingContext(targetContext, DATABASE_PREFIX));
+    MyTracksProvider provider = new MyTracksProvider();
+    provider.attachInfo(context, null);
+    mockContentResolver.addProvider(MyTracksProviderUtils.AUTHORITY, provider);
+
+    providerUtils = MyTracksProviderUtils.Factory.get(context);
+    providerUtils.deleteAllTracks(context);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    providerUtils.deleteAllTracks(context);
+    super.tearDown();
+  }
+
+  /**
+   * Generates the library, runs the benchmarks and writes the report.
+   */
+  @LargeTest
+  public void testBenchmark() throws Exception {
+    Bundle arguments = getInstrumentation() instanceof InstrumentationTestRunner
+        ? ((InstrumentationTestRunner) getInstrumentation()).getArguments() : null;
+    int numberOfTracks = getArgument(arguments, "benchmarkTracks", DEFAULT_TRACKS);
+    int pointsPerTrack = getArgument(arguments, "benchmarkPoints", DEFAULT_POINTS);
+    int batchSize = getArgument(
+        arguments, "benchmarkBatchSize", LargeLibraryGenerator.DEFAULT_BATCH_SIZE);
+
+    ProviderBenchmark benchmark = new ProviderBenchmark();
+    benchmark.put("device", Build.MODEL);
+    benchmark.put("sdk", Build.VERSION.SDK_INT);
+    benchmark.put("database_version", MyTracksProvider.DATABASE_VERSION);
+    benchmark.put("tracks", numberOfTracks);
+    benchmark.put("points_per_track", pointsPerTrack);
+    benchmark.put("batch_size", batchSize);
+
+    long startTime = System.currentTimeMillis();
+    final long[] trackIds = new LargeLibraryGenerator(providerUtils, 1L, batchSize).generate(
+        numberOfTracks, pointsPerTrack);
+    long generateTime = System.currentTimeMillis() - startTime;
+    benchmark.put("generate_ms", generateTime);
+    benchmark.put("insert_points_per_s", generateTime == 0L ? 0L
+        : (long) numberOfTracks * pointsPerTrack * 1000L / generateTime);
+    benchmark.put("database_bytes",
+        context.getDatabasePath(MyTracksProvider.DATABASE_NAME).length());
+
+    final Random random = new Random(1L);
+    benchmark.measure("open_track", Math.min(numberOfTracks, MAX_OPEN_TRACKS),
+        new ProviderBenchmark.Operation() {
+            @Override
+          public void run(int iteration) {
+            openTrack(trackIds[random.nextInt(trackIds.length)]);
+          }
+        });
+    benchmark.measure("iterate_points", Math.min(numberOfTracks, MAX_ITERATED_TRACKS),
+        new ProviderBenchmark.Operation() {
+            @Override
+          public void run(int iteration) {
+            assertTrue(iteratePoints(trackIds[random.nextInt(trackIds.length)]) > 0);
+          }
+        });
+    final SearchEngine searchEngine = new SearchEngine(providerUtils);
+    final long now = System.currentTimeMillis();
+    benchmark.measure("search", LargeLibraryGenerator.WORDS.length,
+        new ProviderBenchmark.Operation() {
+            @Override
+          public void run(int iteration) {
+            searchEngine.search(
+                new SearchQuery(LargeLibraryGenerator.WORDS[iteration], null, -1L, now));
+          }
+        });
+    benchmark.measure("aggregated_stats", AGGREGATED_STATS_ITERATIONS,
+        new ProviderBenchmark.Operation() {
+            @Override
+          public void run(int iteration) {
+            assertFalse(providerUtils.getAggregatedStats().isEmpty());
+          }
+        });
+    benchmark.measure("delete_track", Math.min(numberOfTracks, MAX_DELETED_TRACKS),
+        new ProviderBenchmark.Operation() {
+            @Override
+          public void run(int iteration) {
+            providerUtils.deleteTrack(context, trackIds[iteration]);
+          }
+        });
+
+    Log.i(TAG, benchmark.toString());
+    File dir = getInstrumentation().getTargetContext().getExternalFilesDir(null);
+    if (dir == null) {
+      dir = getInstrumentation().getTargetContext().getFilesDir();
+    }
+    benchmark.writeReport(new File(dir, REPORT_FILE_NAME));
+  }
+
+  /**
+   * Opens a track like the track detail screen: reads the track and its
+   * waypoints.
+   * 
+   * @param trackId the track id
+   */
+  private void openTrack(long trackId) {
+    assertNotNull(providerUtils.getTrack(trackId));
+    Cursor cursor = null;
+    try {
+      cursor = providerUtils.getWaypointCursor(trackId, -1L, -1);
+      assertNotNull(cursor);
+      while (cursor.moveToNext()) {
+        providerUtils.createWaypoint(cursor);
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+
+  /**
+   * Iterates the points of a track, with their sensor data. Returns the number
+   * of points.
+   * 
+   * @param trackId the track id
+   */
+  private int iteratePoints(long trackId) {
+    int count = 0;
+    LocationIterator locationIterator = null;
+    try {
+      locationIterator = providerUtils.getTrackPointLocationIterator(
+          trackId, -1L, false, MyTracksProviderUtils.DEFAULT_LOCATION_FACTORY);
+      while (locationIterator.hasNext()) {
+        locationIterator.next();
+        count++;
+      }
+    } finally {
+      if (locationIterator != null) {
+        locationIterator.close();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets an integer instrumentation argument.
+   * 
+   * @param arguments the arguments, can be null
+   * @param key the key
+   * @param defaultValue the default value
+   */
+  private static int getArgument(Bundle arguments, String key, int defaultValue) {
+    String value = arguments != null ? arguments.getString(key) : null;
+    return value != null ? Integer.parseInt(value) : defaultValue;
+  }
+}
@@ -17,6 +17,9 @@ package com.google.android.apps.mytracks.content;
 
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationFactory;
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationIterator;
+import com.google.android.apps.mytracks.content.Sensor.SensorData;
+import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
+import com.google.android.apps.mytracks.content.Sensor.SensorState;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
 import com.google.android.apps.mytracks.services.TrackRecordingServiceTest.MockContext;
 import com.google.android.apps.mytracks.stats.TripStatistics;
@@ -24,10 +27,12 @@ import com.google.android.testing.mocking.AndroidMock;
 import com.google.android.testing.mocking.UsesMocks;
 
 import android.content.ContentResolver;
+import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.location.Location;
+import android.net.Uri;
 import android.test.AndroidTestCase;
 import android.test.RenamingDelegatingContext;
 import android.test.mock.MockContentResolver;
@@ -305,6 +310,52 @@ public class MyTracksProviderUtilsImplTest extends AndroidTestCase {
     assertEquals(trackId, allTracks.get(allTracks.size() - 1).getId());
   }
   
+  /**
+   * Tests the method {@link MyTracksProviderUtilsImpl#getAggregatedStats()}.
+   */
+  public void testGetAggregatedStats() {
+    assertTrue(providerUtils.getAggregatedStats().isEmpty());
+
+    Track run = getTrack(1L, 0);
+    run.setCategory("running");
+    setTripStatistics(run.getTripStatistics(), 1000.0, 5.0);
+    providerUtils.insertTrack(run);
+    Track bike = getTrack(2L, 0);
+    bike.setCategory("biking");
+    setTripStatistics(bike.getTripStatistics(), 3000.0, 10.0);
+    providerUtils.insertTrack(bike);
+
+    // All tracks, two categories, one month, and one week
+    List<AggregatedStats> aggregatedStats = providerUtils.getAggregatedStats();
+    assertEquals(5, aggregatedStats.size());
+    AggregatedStats all = aggregatedStats.get(0);
+    assertEquals(AggregatedStatsColumns.TYPE_ALL, all.getType());
+    assertEquals(2, all.getNumTracks());
+    assertEquals(4000.0, all.getTripStatistics().getTotalDistance());
+    assertEquals(10.0, all.getTripStatistics().getMaxSpeed());
+    assertEquals(AggregatedStatsColumns.TYPE_CATEGORY, aggregatedStats.get(1).getType());
+    assertEquals("biking", aggregatedStats.get(1).getCategory());
+    assertEquals(3000.0, aggregatedStats.get(1).getTripStatistics().getTotalDistance());
+    assertEquals(AggregatedStatsColumns.TYPE_MONTH, aggregatedStats.get(3).getType());
+    assertEquals(2, aggregatedStats.get(3).getNumTracks());
+    assertEquals(AggregatedStatsColumns.TYPE_WEEK, aggregatedStats.get(4).getType());
+
+    // Lowering the max speed recomputes the extremes
+    setTripStatistics(bike.getTripStatistics(), 3000.0, 4.0);
+    providerUtils.updateTrack(bike);
+    all = providerUtils.getAggregatedStats().get(0);
+    assertEquals(5.0, all.getTripStatistics().getMaxSpeed());
+
+    // Deleting a track removes its category
+    providerUtils.deleteTrack(context, 1L);
+    aggregatedStats = providerUtils.getAggregatedStats();
+    assertEquals(4, aggregatedStats.size());
+    all = aggregatedStats.get(0);
+    assertEquals(1, all.getNumTracks());
+    assertEquals(3000.0, all.getTripStatistics().getTotalDistance());
+    assertEquals(4.0, all.getTripStatistics().getMaxSpeed());
+  }
+
   /**
    * Tests the method {@link MyTracksProviderUtilsImpl#getLastTrack()}
    */
@@ -336,9 +387,63 @@ public class MyTracksProviderUtilsImplTest extends AndroidTestCase {
     assertEquals(nameOld, providerUtils.getTrack(trackId).getName()); 
     track.setName(nameNew);
     providerUtils.updateTrack(track);
-    assertEquals(nameNew, providerUtils.getTrack(trackId).getName()); 
+    assertEquals(nameNew, providerUtils.getTrack(trackId).getName());
   }
-  
+
+  /**
+   * Tests the method
+   * {@link MyTracksProviderUtilsImpl#getTrackSummary(String[], long)}.
+   */
+  public void testGetTrackSummary() {
+    long trackId = System.currentTimeMillis();
+    Track track = getTrack(trackId, 0);
+    track.setName("name");
+    track.setDriveId("driveId");
+    track.setModifiedTime(100L);
+    setTripStatistics(track.getTripStatistics(), 1000.0, 5.0);
+    providerUtils.insertTrack(track);
+
+    TrackSummary summary = providerUtils.getTrackSummary(TrackSummary.SYNC_PROJECTION, trackId);
+    assertEquals(trackId, summary.getId());
+    assertEquals("name", summary.getName());
+    assertEquals("driveId", summary.getDriveId());
+    assertEquals(100L, summary.getModifiedTime());
+
+    // Columns outside of the projection keep their defaults
+    assertEquals(0.0, summary.getTotalDistance());
+    assertTrue(Double.isNaN(summary.getMeanLatitude()));
+
+    summary = providerUtils.getTrackSummary(TrackSummary.SEARCH_PROJECTION, trackId);
+    assertEquals(1000.0, summary.getTotalDistance());
+    assertNull(summary.getDriveId());
+
+    assertNull(providerUtils.getTrackSummary(TrackSummary.SYNC_PROJECTION, trackId + 1));
+  }
+
+  /**
+   * Tests the method
+   * {@link MyTracksProviderUtilsImpl#updateTrackDriveInfo(long, String, long, boolean, String)}
+   * .
+   */
+  public void testUpdateTrackDriveInfo() {
+    long trackId = System.currentTimeMillis();
+    Track track = getTrack(trackId, 0);
+    track.setName("name");
+    setTripStatistics(track.getTripStatistics(), 1000.0, 5.0);
+    providerUtils.insertTrack(track);
+
+    providerUtils.updateTrackDriveInfo(trackId, "driveId", 200L, true, "owner");
+    track = providerUtils.getTrack(trackId);
+    assertEquals("driveId", track.getDriveId());
+    assertEquals(200L, track.getModifiedTime());
+    assertTrue(track.isSharedWithMe());
+    assertEquals("owner", track.getSharedOwner());
+
+    // Other columns are not touched
+    assertEquals("name", track.getName());
+    assertEquals(1000.0, track.getTripStatistics().getTotalDistance());
+  }
+
   /**
    * Tests the method {@link MyTracksProviderUtilsImpl#createContentValues(Waypoint)}.
    */
@@ -635,6 +740,37 @@ public class MyTracksProviderUtilsImplTest extends AndroidTestCase {
     assertEquals(TEST_DESC_NEW, providerUtils.getWaypoint(1).getDescription());
   }
 
+  /**
+   * Tests the method {@link MyTracksProviderUtilsImpl#updateWaypoints(List)}.
+   */
+  public void testUpdateWaypoints() {
+    long trackId = System.currentTimeMillis();
+    Track track = getTrack(trackId, 10);
+    providerUtils.insertTrack(track);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
+    for (int i = 0; i < 3; i++) {
+      Waypoint waypoint = new Waypoint();
+      waypoint.setTrackId(trackId);
+      TripStatistics tripStatistics = new TripStatistics();
+      tripStatistics.getCalorieInputs().set(1000.0 * i, 10.0 * i, 1.0 * i, 100.0 * i);
+      waypoint.setTripStatistics(tripStatistics);
+      Uri uri = providerUtils.insertWaypoint(waypoint);
+      waypoints.add(providerUtils.getWaypoint(Long.parseLong(uri.getLastPathSegment())));
+    }
+    for (Waypoint waypoint : waypoints) {
+      waypoint.setDescription(TEST_DESC_NEW);
+      waypoint.getTripStatistics().setCalorie(waypoint.getId());
+    }
+    assertTrue(providerUtils.updateWaypoints(waypoints));
+
+    for (int i = 0; i < 3; i++) {
+      Waypoint waypoint = providerUtils.getWaypoint(waypoints.get(i).getId());
+      assertEquals(TEST_DESC_NEW, waypoint.getDescription());
+      assertEquals((double) waypoint.getId(), waypoint.getTripStatistics().getCalorie());
+      assertEquals(10.0 * i, waypoint.getTripStatistics().getCalorieInputs().getDistance());
+    }
+  }
+
   /**
    * Tests the method {@link MyTracksProviderUtilsImpl#bulkInsertTrackPoint(Location[],
    * int, long)}.
@@ -848,6 +984,173 @@ public class MyTracksProviderUtilsImplTest extends AndroidTestCase {
     assertFalse(locationIterator.hasNext());
   }
 
+  /**
+   * Tests that the location iterator joins the sensor points to the track
+   * points, in ascending and descending order.
+   */
+  public void testGetTrackPointLocationIterator_sensorPoints() {
+    long trackId = System.currentTimeMillis();
+    Track track = getTrack(trackId, 10);
+    for (int i = 0; i < 10; i++) {
+      track.getLocations().get(i).setTime((i + 1) * 10000L);
+    }
+    insertTrackWithLocations(track);
+
+    // Sensor points 1 second before the first 5 track points
+    List<SensorDataSet> sensorDataSets = new ArrayList<SensorDataSet>();
+    for (int i = 0; i < 5; i++) {
+      sensorDataSets.add(SensorDataSet.newBuilder()
+          .setCreationTime((i + 1) * 10000L - 1000L)
+          .setHeartRate(SensorData.newBuilder().setValue(100 + i).setState(SensorState.SENDING))
+          .build());
+    }
+    assertEquals(5, providerUtils.insertSensorPoints(sensorDataSets, trackId));
+
+    checkSensorPoints(trackId, false);
+    checkSensorPoints(trackId, true);
+
+    providerUtils.deleteTrack(context, trackId);
+    Cursor cursor = providerUtils.getSensorPointCursor(trackId, -1L, false);
+    try {
+      assertEquals(0, cursor.getCount());
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Checks the sensor data sets of the track points of
+   * {@link #testGetTrackPointLocationIterator_sensorPoints()}.
+   * 
+   * @param trackId the track id
+   * @param descending true for descending
+   */
+  private void checkSensorPoints(long trackId, boolean descending) {
+    LocationIterator locationIterator = providerUtils.getTrackPointLocationIterator(
+        trackId, -1L, descending, MyTracksProviderUtils.DEFAULT_LOCATION_FACTORY);
+    try {
+      for (int i = 0; i < 10; i++) {
+        assertTrue(locationIterator.hasNext());
+        MyTracksLocation location = (MyTracksLocation) locationIterator.next();
+        int index = descending ? 9 - i : i;
+        if (index < 5) {
+          assertEquals(100 + index, location.getSensorDataSet().getHeartRate().getValue());
+          assertFalse(location.getSensorDataSet().hasCadence());
+        } else {
+          assertNull(location.getSensorDataSet());
+        }
+      }
+      assertFalse(locationIterator.hasNext());
+    } finally {
+      locationIterator.close();
+    }
+  }
+
+  /**
+   * Tests the method
+   * {@link MyTracksProviderUtilsImpl#getTrackCursorInBounds(int, int, int, int, int)}
+   * .
+   */
+  public void testGetTrackCursorInBounds() {
+    long insideId = insertTrackWithBounds(1L, 37000000, 37100000, -57100000, -57000000);
+    insertTrackWithBounds(2L, 38000000, 38100000, -57100000, -57000000);
+    // Track without bounds
+    providerUtils.insertTrack(getTrack(3L, 0));
+
+    Cursor cursor = providerUtils.getTrackCursorInBounds(
+        37050000, 37500000, -57050000, -56000000, -1);
+    try {
+      assertEquals(1, cursor.getCount());
+      assertTrue(cursor.moveToFirst());
+      assertEquals(insideId, providerUtils.createTrack(cursor).getId());
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Tests the method
+   * {@link MyTracksProviderUtilsImpl#getNearestTracks(Location, int)}.
+   */
+  public void testGetNearestTracks() {
+    long farId = insertTrackWithBounds(1L, 40000000, 40100000, -57100000, -57000000);
+    long nearId = insertTrackWithBounds(2L, 37000000, 37100000, -57100000, -57000000);
+    long nearerId = insertTrackWithBounds(3L, 37100000, 37200000, -57100000, -57000000);
+
+    Location location = new Location("test");
+    location.setLatitude(37.3);
+    location.setLongitude(-57.05);
+    List<Track> tracks = providerUtils.getNearestTracks(location, 2);
+    assertEquals(2, tracks.size());
+    assertEquals(nearerId, tracks.get(0).getId());
+    assertEquals(nearId, tracks.get(1).getId());
+
+    tracks = providerUtils.getNearestTracks(location, 5);
+    assertEquals(3, tracks.size());
+    assertEquals(farId, tracks.get(2).getId());
+  }
+
+  /**
+   * Tests the method
+   * {@link MyTracksProviderUtilsImpl#getNearestWaypoints(Location, int)}.
+   */
+  public void testGetNearestWaypoints() {
+    long trackId = 1L;
+    Waypoint far = new Waypoint();
+    far.setTrackId(trackId);
+    far.setLocation(createLocation(1000));
+    long farId = ContentUris.parseId(providerUtils.insertWaypoint(far));
+    Waypoint near = new Waypoint();
+    near.setTrackId(trackId);
+    near.setLocation(createLocation(1));
+    long nearId = ContentUris.parseId(providerUtils.insertWaypoint(near));
+
+    List<Waypoint> waypoints = providerUtils.getNearestWaypoints(createLocation(0), 1);
+    assertEquals(1, waypoints.size());
+    assertEquals(nearId, waypoints.get(0).getId());
+
+    // Moving the near waypoint far away updates the spatial index
+    near.setId(nearId);
+    near.setLocation(createLocation(5000));
+    providerUtils.updateWaypoint(near);
+    waypoints = providerUtils.getNearestWaypoints(createLocation(0), 1);
+    assertEquals(farId, waypoints.get(0).getId());
+  }
+
+  /**
+   * Sets the trip statistics of a track started on 2026-10-14.
+   * 
+   * @param tripStatistics the trip statistics
+   * @param totalDistance the total distance
+   * @param maxSpeed the max speed
+   */
+  private void setTripStatistics(
+      TripStatistics tripStatistics, double totalDistance, double maxSpeed) {
+    tripStatistics.setStartTime(1791979200000L);
+    tripStatistics.setStopTime(1791982800000L);
+    tripStatistics.setTotalDistance(totalDistance);
+    tripStatistics.setTotalTime(3600000L);
+    tripStatistics.setMovingTime(3000000L);
+    tripStatistics.setMaxSpeed(maxSpeed);
+  }
+
+  /**
+   * Inserts a track with bounds.
+   * 
+   * @param id the track id
+   * @param minLatitude the min latitude in microdegrees
+   * @param maxLatitude the max latitude in microdegrees
+   * @param minLongitude the min longitude in microdegrees
+   * @param maxLongitude the max longitude in microdegrees
+   */
+  private long insertTrackWithBounds(
+      long id, int minLatitude, int maxLatitude, int minLongitude, int maxLongitude) {
+    Track track = getTrack(id, 0);
+    track.getTripStatistics().setBounds(minLongitude, maxLatitude, maxLongitude, minLatitude);
+    providerUtils.insertTrack(track);
+    return id;
+  }
+
   /**
    * Simulates a track which is used for testing.
    * 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Times operations and collects the results in a JSON report, so runs with
+ * different indexes, schemas or batch sizes can be compared. Each operation
+ * reports its count and its mean, p50, p90, p99 and max time in microseconds.
+ */
+public class ProviderBenchmark {
+
+  private static final String TAG = ProviderBenchmark.class.getSimpleName();
+
+  /**
+   * An operation to time.
+   */
+  public interface Operation {
+
+    /**
+     * Runs the operation once.
+     * 
+     * @param iteration the iteration, from 0
+     */
+    public void run(int iteration);
+  }
+
+  private final JSONObject report = new JSONObject();
+  private final JSONObject operations = new JSONObject();
+
+  public ProviderBenchmark() {
+    put(report, "operations", operations);
+  }
+
+  /**
+   * Adds a value to the report.
+   * 
+   * @param name the name
+   * @param value the value
+   */
+  public void put(String name, Object value) {
+    put(report, name, value);
+  }
+
+  /**
+   * Times an operation.
+   * 
+   * @param name the operation name
+   * @param iterations the number of iterations
+   * @param operation the operation
+   */
+  public void measure(String name, int iterations, Operation operation) {
+    long[] times = new long[iterations];
+    for (int i = 0; i < iterations; i++) {
+      long startTime = System.nanoTime();
+      operation.run(i);
+      times[i] = (System.nanoTime() - startTime) / 1000L;
+    }
+    Arrays.sort(times);
+    long total = 0L;
+    for (long time : times) {
+      total += time;
+    }
+
+    JSONObject result = new JSONObject();
+    put(result, "count", iterations);
+    if (iterations > 0) {
+      put(result, "mean_us", total / iterations);
+      put(result, "p50_us", getPercentile(times, 50));
+      put(result, "p90_us", getPercentile(times, 90));
+      put(result, "p99_us", getPercentile(times, 99));
+      put(result, "max_us", times[iterations - 1]);
+    }
+    put(operations, name, result);
+    Log.i(TAG, name + ": " + result);
+  }
+
+  /**
+   * Gets the report.
+   */
+  public JSONObject getReport() {
+    return report;
+  }
+
+  /**
+   * Writes the report to a file.
+   * 
+   * @param file the file
+   */
+  public void writeReport(File file) throws IOException {
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    try {
+      writer.write(toString());
+    } finally {
+      writer.close();
+    }
+    Log.i(TAG, "Wrote " + file);
+  }
+
+  @Override
+  public String toString() {
+    try {
+      return report.toString(2);
+    } catch (JSONException e) {
+      return report.toString();
+    }
+  }
+
+  /**
+   * Gets a percentile of sorted values, with the nearest rank method.
+   * 
+   * @param sortedValues the sorted values, not empty
+   * @param percentile the percentile
+   */
+  static long getPercentile(long[] sortedValues, int percentile) {
+    int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+    return sortedValues[Math.max(rank, 1) - 1];
+  }
+
+  private static void put(JSONObject jsonObject, String name, Object value) {
+    try {
+      jsonObject.put(name, value);
+    } catch (JSONException e) {
+      throw new IllegalArgumentException("Invalid " + name, e);
+    }
+  }
+}
@@ -152,9 +152,9 @@ public class SearchEngineTest extends AndroidTestCase {
     long descriptionMatchId = insertTrack("bb", "aa", "cc");
     long categoryMatchId = insertTrack("bb", "cc", "aa");
     long titleMatchId = insertTrack("aa", "bb", "cc");
-    long titleCategoryMatchId = insertTrack("aa", "bb", "ca");
-    long titleDescriptionMatchId = insertTrack("aa", "ba", "cc");
-    long allMatchId = insertTrack("aa", "ba", "ca");
+    long titleCategoryMatchId = insertTrack("aa", "bb", "ac");
+    long titleDescriptionMatchId = insertTrack("aa", "ab", "cc");
+    long allMatchId = insertTrack("aa", "ab", "ac");
 
     SearchQuery query = new SearchQuery("a", null, -1, NOW);
     ArrayList<ScoredResult> results = new ArrayList<ScoredResult>(engine.search(query));
@@ -178,9 +178,9 @@ public class SearchEngineTest extends AndroidTestCase {
     long descriptionMatchId = insertWaypoint("bb", "aa", "cc");
     long categoryMatchId = insertWaypoint("bb", "cc", "aa");
     long titleMatchId = insertWaypoint("aa", "bb", "cc");
-    long titleCategoryMatchId = insertWaypoint("aa", "bb", "ca");
-    long titleDescriptionMatchId = insertWaypoint("aa", "ba", "cc");
-    long allMatchId = insertWaypoint("aa", "ba", "ca");
+    long titleCategoryMatchId = insertWaypoint("aa", "bb", "ac");
+    long titleDescriptionMatchId = insertWaypoint("aa", "ab", "cc");
+    long allMatchId = insertWaypoint("aa", "ab", "ac");
 
     SearchQuery query = new SearchQuery("a", null, -1, NOW);
     ArrayList<ScoredResult> results = new ArrayList<ScoredResult>(engine.search(query));
@@ -290,6 +290,42 @@ public class SearchEngineTest extends AndroidTestCase {
     assertWaypointResults(results, currentId, otherId);
   }
 
+  public void testSearchPrefix() {
+    // Terms are matched by prefix, not by substring.
+    insertTrack("bab", "", "");
+    long firstWordId = insertTrack("abc def", "", "");
+    long secondWordId = insertTrack("def abc", "", "");
+
+    SearchQuery query = new SearchQuery("ab", null, -1, NOW);
+    ArrayList<ScoredResult> results = new ArrayList<ScoredResult>(engine.search(query));
+
+    assertTrackResults(results, secondWordId, firstWordId);
+  }
+
+  public void testSearchUpdatedTrack() {
+    // The search index follows track updates and deletes.
+    long trackId = insertTrack("aa", "", "");
+    long deletedTrackId = insertTrack("ab", "", "");
+    Track track = providerUtils.getTrack(trackId);
+    track.setName("bb");
+    providerUtils.updateTrack(track);
+    providerUtils.deleteTrack(getContext(), deletedTrackId);
+
+    SearchQuery query = new SearchQuery("a", null, -1, NOW);
+    assertTrue(engine.search(query).isEmpty());
+
+    query = new SearchQuery("b", null, -1, NOW);
+    ArrayList<ScoredResult> results = new ArrayList<ScoredResult>(engine.search(query));
+    assertTrackResults(results, trackId);
+  }
+
+  public void testGetMatchQuery() {
+    assertEquals("a*", SearchEngine.getMatchQuery("a"));
+    assertEquals("ab* cd*", SearchEngine.getMatchQuery(" ab, \"cd\" "));
+    assertEquals("or* not*", SearchEngine.getMatchQuery("or -not"));
+    assertNull(SearchEngine.getMatchQuery(" - "));
+  }
+
   private void assertTrackResult(long trackId, ScoredResult result) {
     assertNotNull("Not a track", result.track);
     assertNull("Ambiguous result", result.waypoint);
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.android.apps.mytracks.content.TrackDataHub.TrackPointEvent;
+
+import android.content.ComponentCallbacks2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link TrackDataCache}.
+ */
+public class TrackDataCacheTest extends TestCase {
+
+  private static final int MAX_POINTS = 100;
+
+  private TrackDataCache trackDataCache;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    trackDataCache = new TrackDataCache(MAX_POINTS);
+  }
+
+  /**
+   * Tests that a taken entry is removed from the cache.
+   */
+  public void testTake() {
+    trackDataCache.put(createEntry(1L, 10));
+    assertEquals(10, trackDataCache.getSize());
+    assertEquals(1L, trackDataCache.take(1L).trackId);
+    assertNull(trackDataCache.take(1L));
+    assertEquals(0, trackDataCache.getSize());
+  }
+
+  /**
+   * Tests that the least recently used entries are evicted first.
+   */
+  public void testPut_evict() {
+    trackDataCache.put(createEntry(1L, 40));
+    trackDataCache.put(createEntry(2L, 40));
+    trackDataCache.put(createEntry(3L, 40));
+    assertEquals(80, trackDataCache.getSize());
+    assertNull(trackDataCache.take(1L));
+    assertNotNull(trackDataCache.take(2L));
+    assertNotNull(trackDataCache.take(3L));
+  }
+
+  /**
+   * Tests that an entry larger than the cache is not cached.
+   */
+  public void testPut_tooLarge() {
+    trackDataCache.put(createEntry(1L, MAX_POINTS + 1));
+    assertEquals(0, trackDataCache.getSize());
+  }
+
+  /**
+   * Tests that the cache is trimmed under memory pressure.
+   */
+  public void testOnTrimMemory() {
+    trackDataCache.put(createEntry(1L, 40));
+    trackDataCache.put(createEntry(2L, 40));
+    trackDataCache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+    assertEquals(40, trackDataCache.getSize());
+    trackDataCache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    assertEquals(0, trackDataCache.getSize());
+  }
+
+  /**
+   * Creates an entry.
+   * 
+   * @param trackId the track id
+   * @param numEvents the number of track point events
+   */
+  private TrackDataCache.Entry createEntry(long trackId, int numEvents) {
+    TrackDataCache.Entry entry = trackDataCache.newEntry();
+    entry.trackId = trackId;
+    List<TrackPointEvent> replayBuffer = new ArrayList<TrackPointEvent>();
+    for (int i = 0; i < numEvents; i++) {
+      replayBuffer.add(null);
+    }
+    entry.replayBuffer = replayBuffer;
+    assertTrue(trackDataCache.isTrackPointsFresh(entry));
+    return entry;
+  }
+}
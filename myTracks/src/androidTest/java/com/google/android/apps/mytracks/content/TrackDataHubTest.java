@@ -30,6 +30,7 @@ import com.google.android.maps.mytracks.R;
 import com.google.android.testing.mocking.AndroidMock;
 import com.google.android.testing.mocking.UsesMocks;
 
+import android.content.ContentUris;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
@@ -37,6 +38,8 @@ import android.database.ContentObserver;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.location.Location;
+import android.net.Uri;
+import android.os.CancellationSignal;
 import android.provider.BaseColumns;
 import android.test.AndroidTestCase;
 import android.test.RenamingDelegatingContext;
@@ -64,6 +67,7 @@ public class TrackDataHubTest extends AndroidTestCase {
   private MyTracksProviderUtils myTracksProviderUtils;
   private DataSource dataSource;
   private TrackDataManager trackDataManager;
+  private TrackDataCache trackDataCache;
   private TrackDataHub trackDataHub;
   private TrackDataListener trackDataListener1;
   private TrackDataListener trackDataListener2;
@@ -80,19 +84,8 @@ public class TrackDataHubTest extends AndroidTestCase {
     myTracksProviderUtils = AndroidMock.createMock(MyTracksProviderUtils.class);
     dataSource = AndroidMock.createMock(DataSource.class, context);
     trackDataManager = new TrackDataManager();
-    trackDataHub = new TrackDataHub(
-        context, trackDataManager, myTracksProviderUtils, TARGET_POINTS) {
-        @Override
-      protected DataSource newDataSource() {
-        return dataSource;
-      }
-
-        @Override
-      protected void runInHanderThread(Runnable runnable) {
-        // Run everything in the same thread
-        runnable.run();
-      }
-    };
+    trackDataCache = new TrackDataCache(TrackDataCache.MAX_CACHED_POINTS);
+    trackDataHub = newTrackDataHub();
 
     trackDataListener1 = AndroidMock.createStrictMock(
         "trackDataListener1", TrackDataListener.class);
@@ -260,6 +253,206 @@ public class TrackDataHubTest extends AndroidTestCase {
     verifyAndReset();
   }
 
+  /**
+   * Tests waypoint deltas for waypoint inserts, updates and deletes.
+   */
+  public void testWaypointsTableUpdate_delta() {
+    Waypoint waypoint1 = new Waypoint();
+    Waypoint waypoint2 = new Waypoint();
+    Waypoint waypoint3 = new Waypoint();
+    Location location = new Location("gps");
+    location.setLatitude(10.0);
+    location.setLongitude(8.0);
+    waypoint1.setId(1L);
+    waypoint2.setId(2L);
+    waypoint3.setId(3L);
+    waypoint1.setLocation(location);
+    waypoint2.setLocation(location);
+    waypoint3.setLocation(location);
+
+    // Register a listener
+    Capture<ContentObserver> contentObserverCapture = new Capture<ContentObserver>();
+    expect(myTracksProviderUtils.getWaypointCursor(
+        eq(TRACK_ID), AndroidMock.leq(-1L), eq(TrackDataHub.MAX_DISPLAYED_WAYPOINTS)))
+        .andStubAnswer(new FixedSizeCursorAnswer(2));
+    expect(myTracksProviderUtils.createWaypoint(isA(Cursor.class)))
+        .andReturn(waypoint1).andReturn(waypoint2);
+    dataSource.registerContentObserver(
+        eq(WaypointsColumns.CONTENT_URI), capture(contentObserverCapture));
+    trackDataListener1.clearWaypoints();
+    trackDataListener1.onNewWaypoint(waypoint1);
+    trackDataListener1.onNewWaypoint(waypoint2);
+    trackDataListener1.onNewWaypointsDone();
+    replay();
+
+    trackDataHub.start();
+    trackDataHub.loadTrack(TRACK_ID);
+    trackDataHub.registerTrackDataListener(
+        trackDataListener1, EnumSet.of(TrackDataType.WAYPOINTS_TABLE));
+    verifyAndReset();
+
+    // Insert a waypoint - only loads the new waypoint
+    ContentObserver contentObserver = contentObserverCapture.getValue();
+    expect(myTracksProviderUtils.getWaypointCursor(
+        TRACK_ID, 3L, TrackDataHub.MAX_DISPLAYED_WAYPOINTS - 2))
+        .andStubAnswer(new FixedSizeCursorAnswer(1));
+    expect(myTracksProviderUtils.createWaypoint(isA(Cursor.class))).andReturn(waypoint3);
+    trackDataListener1.onNewWaypoint(waypoint3);
+    trackDataListener1.onNewWaypointsDone();
+    replay();
+
+    contentObserver.onChange(false, ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, 3L));
+    verifyAndReset();
+
+    // Update a waypoint
+    expect(myTracksProviderUtils.getWaypoint(2L)).andReturn(waypoint2);
+    trackDataListener1.onWaypointUpdated(waypoint2);
+    trackDataListener1.onNewWaypointsDone();
+    replay();
+
+    contentObserver.onChange(false, ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, 2L));
+    verifyAndReset();
+
+    // Delete a waypoint
+    expect(myTracksProviderUtils.getWaypoint(1L)).andReturn(null);
+    trackDataListener1.onWaypointDeleted(1L);
+    trackDataListener1.onNewWaypointsDone();
+    replay();
+
+    contentObserver.onChange(false, ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, 1L));
+    verifyAndReset();
+
+    // Change a waypoint of another track - nothing to notify
+    expect(myTracksProviderUtils.getWaypointCursor(
+        TRACK_ID, 4L, TrackDataHub.MAX_DISPLAYED_WAYPOINTS - 2)).andReturn(null);
+    replay();
+
+    contentObserver.onChange(false, ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, 1L));
+    contentObserver.onChange(false, ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, 4L));
+    verifyAndReset();
+  }
+
+  /**
+   * Tests that a track loaded by a stopped hub is restored from the
+   * {@link TrackDataCache} without reading the track again.
+   */
+  public void testTrackDataCache() {
+    Track track = new Track();
+    Waypoint waypoint = new Waypoint();
+    Location location = new Location("gps");
+    location.setLatitude(10.0);
+    location.setLongitude(8.0);
+    waypoint.setId(1L);
+    waypoint.setLocation(location);
+    EnumSet<TrackDataType> trackDataTypes = EnumSet.of(TrackDataType.TRACKS_TABLE,
+        TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE, TrackDataType.WAYPOINTS_TABLE);
+
+    // Load the track
+    dataSource.registerContentObserver(isA(Uri.class), isA(ContentObserver.class));
+    AndroidMock.expectLastCall().times(3);
+    expect(myTracksProviderUtils.getTrack(TRACK_ID)).andReturn(track);
+    FixedSizeLocationIterator locationIterator = new FixedSizeLocationIterator(1, 10, 5);
+    expect(myTracksProviderUtils.getTrackPointLocationIterator(
+        eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator);
+    expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID)).andReturn(10L);
+    expect(myTracksProviderUtils.getWaypointCursor(
+        TRACK_ID, -1L, TrackDataHub.MAX_DISPLAYED_WAYPOINTS))
+        .andStubAnswer(new FixedSizeCursorAnswer(1));
+    expect(myTracksProviderUtils.createWaypoint(isA(Cursor.class))).andReturn(waypoint);
+    expectTrackDataCacheLoad(track, locationIterator, waypoint);
+    replay();
+
+    trackDataHub.start();
+    trackDataHub.loadTrack(TRACK_ID);
+    trackDataHub.registerTrackDataListener(trackDataListener1, trackDataTypes);
+    verifyAndReset();
+
+    // Stop the hub
+    dataSource.unregisterContentObserver(isA(ContentObserver.class));
+    AndroidMock.expectLastCall().times(3);
+    dataSource.unregisterOnSharedPreferenceChangeListener(
+        isA(OnSharedPreferenceChangeListener.class));
+    replay();
+
+    trackDataHub.stop();
+    assertTrue(trackDataCache.getSize() > 0);
+    verifyAndReset();
+
+    // Load the track with a new hub
+    trackDataManager = new TrackDataManager();
+    trackDataHub = newTrackDataHub();
+    dataSource.registerContentObserver(isA(Uri.class), isA(ContentObserver.class));
+    AndroidMock.expectLastCall().times(3);
+    expectTrackDataCacheLoad(track, locationIterator, waypoint);
+    replay();
+
+    trackDataHub.start();
+    trackDataHub.loadTrack(TRACK_ID);
+    trackDataHub.registerTrackDataListener(trackDataListener1, trackDataTypes);
+    assertEquals(0, trackDataCache.getSize());
+    verifyAndReset();
+  }
+
+  /**
+   * Tests prefetching a track into the {@link TrackDataCache}.
+   */
+  public void testPrefetchTrack() {
+    Waypoint waypoint = new Waypoint();
+    waypoint.setId(1L);
+    expect(myTracksProviderUtils.getTrack(TRACK_ID)).andReturn(new Track());
+    FixedSizeLocationIterator locationIterator = new FixedSizeLocationIterator(1, 10, 5);
+    expect(myTracksProviderUtils.getTrackPointLocationIterator(
+        eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator);
+    expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID)).andReturn(10L);
+    expect(myTracksProviderUtils.getWaypointCursor(
+        TRACK_ID, -1L, TrackDataHub.MAX_DISPLAYED_WAYPOINTS))
+        .andStubAnswer(new FixedSizeCursorAnswer(1));
+    expect(myTracksProviderUtils.createWaypoint(isA(Cursor.class))).andReturn(waypoint);
+    replay();
+
+    assertTrue(trackDataHub.prefetchTrack(TRACK_ID, new CancellationSignal()));
+    assertTrue(trackDataCache.contains(TRACK_ID));
+    assertEquals(11, trackDataCache.getSize());
+    verifyAndReset();
+
+    // Prefetch again - already cached
+    replay();
+    assertTrue(trackDataHub.prefetchTrack(TRACK_ID, new CancellationSignal()));
+    verifyAndReset();
+
+    // Prefetch canceled - not cached
+    CancellationSignal cancellationSignal = new CancellationSignal();
+    cancellationSignal.cancel();
+    expect(myTracksProviderUtils.getTrack(TRACK_ID + 1)).andReturn(new Track());
+    expect(myTracksProviderUtils.getTrackPointLocationIterator(
+        eq(TRACK_ID + 1), eq(0L), eq(false), isA(LocationFactory.class)))
+        .andReturn(new FixedSizeLocationIterator(101, 10));
+    expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID + 1)).andReturn(110L);
+    replay();
+    assertFalse(trackDataHub.prefetchTrack(TRACK_ID + 1, cancellationSignal));
+    assertFalse(trackDataCache.contains(TRACK_ID + 1));
+    verifyAndReset();
+  }
+
+  /**
+   * Expects the track data of {@link #testTrackDataCache()} delivered to the
+   * first listener.
+   * 
+   * @param track the track
+   * @param locationIterator the location iterator
+   * @param waypoint the waypoint
+   */
+  private void expectTrackDataCacheLoad(
+      Track track, FixedSizeLocationIterator locationIterator, Waypoint waypoint) {
+    trackDataListener1.onTrackUpdated(track);
+    trackDataListener1.clearTrackPoints();
+    locationIterator.expectLocationsDelivered(trackDataListener1);
+    trackDataListener1.onNewTrackPointsDone();
+    trackDataListener1.clearWaypoints();
+    trackDataListener1.onNewWaypoint(waypoint);
+    trackDataListener1.onNewWaypointsDone();
+  }
+
   /**
    * Tests track points table update.
    */
@@ -284,11 +477,7 @@ public class TrackDataHubTest extends AndroidTestCase {
         trackDataListener1, EnumSet.of(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE));
     verifyAndReset();
 
-    // Register a second listener
-    locationIterator = new FixedSizeLocationIterator(1, 10, 5);
-    expect(myTracksProviderUtils.getTrackPointLocationIterator(
-        eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator);
-    expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID)).andReturn(10L);
+    // Register a second listener - should be replayed without reading the track
     trackDataListener2.clearTrackPoints();
     locationIterator.expectLocationsDelivered(trackDataListener2);
     trackDataListener2.onNewTrackPointsDone();
@@ -442,20 +631,54 @@ public class TrackDataHubTest extends AndroidTestCase {
 
     expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID)).andReturn(200L);
     AndroidMock.expectLastCall().anyTimes();
-    FixedSizeLocationIterator locationIterator1 = new FixedSizeLocationIterator(
+    FixedSizeLocationIterator locationIterator = new FixedSizeLocationIterator(
         1, 200, 4, 25, 71, 120);
+    expect(myTracksProviderUtils.getTrackPointLocationIterator(
+        eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator);
+
+    // The second listener gets the sampled out points from the replay buffer
+    trackDataListener1.clearTrackPoints();
+    locationIterator.expectSampledLocationsDelivered(trackDataListener1, 4, false);
+    trackDataListener1.onNewTrackPointsDone();
+    trackDataListener2.clearTrackPoints();
+    locationIterator.expectSampledLocationsDelivered(trackDataListener2, 4, true);
+    trackDataListener2.onNewTrackPointsDone();
+    replay();
+
+    trackDataHub.start();
+    trackDataHub.loadTrack(TRACK_ID);
+    trackDataHub.registerTrackDataListener(
+        trackDataListener1, EnumSet.of(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE));
+    trackDataHub.registerTrackDataListener(trackDataListener2, EnumSet.of(
+        TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE, TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE));
+    verifyAndReset();
+  }
+
+  /**
+   * Tests track points table update with a track too large for the replay
+   * buffer.
+   */
+  public void testTrackPointsTableUpdate_replayBufferFull() {
+    Capture<ContentObserver> contentObserverCapture = new Capture<ContentObserver>();
+    dataSource.registerContentObserver(
+        eq(TrackPointsColumns.CONTENT_URI), capture(contentObserverCapture));
+
+    int size = TrackDataHub.MAX_REPLAY_FACTOR * TARGET_POINTS + 50;
+    expect(myTracksProviderUtils.getLastTrackPointId(TRACK_ID)).andReturn((long) size);
+    AndroidMock.expectLastCall().anyTimes();
+    FixedSizeLocationIterator locationIterator1 = new FixedSizeLocationIterator(1, size, 25);
     expect(myTracksProviderUtils.getTrackPointLocationIterator(
         eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator1);
-    FixedSizeLocationIterator locationIterator2 = new FixedSizeLocationIterator(
-        1, 200, 4, 25, 71, 120);
+    FixedSizeLocationIterator locationIterator2 = new FixedSizeLocationIterator(1, size, 25);
     expect(myTracksProviderUtils.getTrackPointLocationIterator(
         eq(TRACK_ID), eq(0L), eq(false), isA(LocationFactory.class))).andReturn(locationIterator2);
 
+    // The second listener reads the track again
     trackDataListener1.clearTrackPoints();
-    locationIterator1.expectSampledLocationsDelivered(trackDataListener1, 4, false);
+    locationIterator1.expectSampledLocationsDelivered(trackDataListener1, 5, false);
     trackDataListener1.onNewTrackPointsDone();
     trackDataListener2.clearTrackPoints();
-    locationIterator2.expectSampledLocationsDelivered(trackDataListener2, 4, true);
+    locationIterator2.expectSampledLocationsDelivered(trackDataListener2, 5, false);
     trackDataListener2.onNewTrackPointsDone();
     replay();
 
@@ -463,8 +686,8 @@ public class TrackDataHubTest extends AndroidTestCase {
     trackDataHub.loadTrack(TRACK_ID);
     trackDataHub.registerTrackDataListener(
         trackDataListener1, EnumSet.of(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE));
-    trackDataHub.registerTrackDataListener(trackDataListener2, EnumSet.of(
-        TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE, TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE));
+    trackDataHub.registerTrackDataListener(
+        trackDataListener2, EnumSet.of(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE));
     verifyAndReset();
   }
 
@@ -586,6 +809,25 @@ public class TrackDataHubTest extends AndroidTestCase {
     verifyAndReset();
   }
 
+  /**
+   * Creates a track data hub running everything in the same thread.
+   */
+  private TrackDataHub newTrackDataHub() {
+    return new TrackDataHub(
+        context, trackDataManager, myTracksProviderUtils, trackDataCache, TARGET_POINTS) {
+        @Override
+      protected DataSource newDataSource() {
+        return dataSource;
+      }
+
+        @Override
+      protected void runInHanderThread(Runnable runnable) {
+        // Run everything in the same thread
+        runnable.run();
+      }
+    };
+  }
+
   /**
    * Replays mocks.
    */
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link KalmanLocationFilter}.
+ */
+public class KalmanLocationFilterTest extends TestCase {
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private static final float ACCURACY = 5f;
+  private static final int RECORDING_DISTANCE_INTERVAL = 10;
+
+  private KalmanLocationFilter kalmanLocationFilter;
+  private Random random;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    kalmanLocationFilter = new KalmanLocationFilter();
+    random = new Random(0);
+  }
+
+  /**
+   * Tests that the jitter of a still user is mostly removed, so fewer
+   * locations are recorded.
+   */
+  public void testStill() {
+    List<Location> truth = new ArrayList<Location>();
+    for (int i = 0; i < 300; i++) {
+      truth.add(createLocation(0.0, 0.0, i * 1000L));
+    }
+    List<Location> track = addNoise(truth);
+    LocationFilterEvaluator.Result result = LocationFilterEvaluator.evaluate(
+        track, kalmanLocationFilter, RECORDING_DISTANCE_INTERVAL);
+    assertTrue(result.toString(), result.filteredDistance * 2 < result.rawDistance);
+    assertTrue(result.toString(), result.filteredRecorded * 3 < result.rawRecorded);
+  }
+
+  /**
+   * Tests that the filtered locations of a user moving straight are closer to
+   * the true locations than the raw locations.
+   */
+  public void testMoving() {
+    List<Location> truth = new ArrayList<Location>();
+    for (int i = 0; i < 300; i++) {
+      truth.add(createLocation(0.0, i * 5.0, i * 1000L));
+    }
+    List<Location> track = addNoise(truth);
+    double rawError = 0.0;
+    double filteredError = 0.0;
+    for (int i = 0; i < track.size(); i++) {
+      Location filtered = kalmanLocationFilter.filter(track.get(i));
+      rawError += truth.get(i).distanceTo(track.get(i));
+      filteredError += truth.get(i).distanceTo(filtered);
+    }
+    assertTrue(filteredError < rawError * 0.75);
+  }
+
+  /**
+   * Tests that the filter restarts after a gap and after a reset.
+   */
+  public void testRestart() {
+    kalmanLocationFilter.filter(createLocation(0.0, 0.0, 0L));
+    Location location = createLocation(100.0, 0.0, KalmanLocationFilter.MAX_GAP + 1);
+    assertSame(location, kalmanLocationFilter.filter(location));
+
+    kalmanLocationFilter.reset();
+    location = createLocation(200.0, 0.0, KalmanLocationFilter.MAX_GAP + 2);
+    assertSame(location, kalmanLocationFilter.filter(location));
+  }
+
+  /**
+   * Tests that locations without accuracy are not filtered.
+   */
+  public void testNoAccuracy() {
+    kalmanLocationFilter.filter(createLocation(0.0, 0.0, 0L));
+    Location location = createLocation(100.0, 0.0, 1000L);
+    location.removeAccuracy();
+    assertSame(location, kalmanLocationFilter.filter(location));
+  }
+
+  /**
+   * Adds gaussian noise of the accuracy to locations.
+   *
+   * @param locations the locations
+   */
+  private List<Location> addNoise(List<Location> locations) {
+    List<Location> noisy = new ArrayList<Location>();
+    for (Location location : locations) {
+      Location copy = new Location(location);
+      copy.setLatitude(location.getLatitude()
+          + random.nextGaussian() * ACCURACY / METERS_PER_DEGREE);
+      copy.setLongitude(location.getLongitude()
+          + random.nextGaussian() * ACCURACY / METERS_PER_DEGREE);
+      noisy.add(copy);
+    }
+    return noisy;
+  }
+
+  /**
+   * Creates a location.
+   *
+   * @param x the east offset from the origin in meters
+   * @param y the north offset from the origin in meters
+   * @param time the time
+   */
+  private Location createLocation(double x, double y, long time) {
+    Location location = new Location(LocationManager.GPS_PROVIDER);
+    location.setLatitude(y / METERS_PER_DEGREE);
+    location.setLongitude(x / METERS_PER_DEGREE);
+    location.setAccuracy(ACCURACY);
+    location.setTime(time);
+    return location;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+  private LatencyHistogram latencyHistogram;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    latencyHistogram = new LatencyHistogram();
+  }
+
+  /**
+   * Tests that an empty histogram returns 0.
+   */
+  public void testEmpty() {
+    assertEquals(0L, latencyHistogram.getCount());
+    assertEquals(0L, latencyHistogram.getMin());
+    assertEquals(0L, latencyHistogram.getMax());
+    assertEquals(0.0, latencyHistogram.getMean());
+    assertEquals(0L, latencyHistogram.getValueAtPercentile(99));
+  }
+
+  /**
+   * Tests that every value falls in a bucket whose highest value is within the
+   * relative error.
+   */
+  public void testGetIndex() {
+    long[] values = { 0L, 1L, 7L, 8L, 9L, 15L, 16L, 1000L, 123456789L, Long.MAX_VALUE };
+    for (long value : values) {
+      int index = LatencyHistogram.getIndex(value);
+      long highestValue = LatencyHistogram.getHighestValue(index);
+      assertTrue(highestValue >= value);
+      assertTrue(highestValue - value <= value / LatencyHistogram.SUB_BUCKETS);
+      if (index > 0) {
+        assertTrue(LatencyHistogram.getHighestValue(index - 1) < value);
+      }
+    }
+  }
+
+  /**
+   * Tests the percentiles of 1 to 1000.
+   */
+  public void testGetValueAtPercentile() {
+    for (int i = 1; i <= 1000; i++) {
+      latencyHistogram.record(i);
+    }
+    assertEquals(1000L, latencyHistogram.getCount());
+    assertEquals(1L, latencyHistogram.getMin());
+    assertEquals(1000L, latencyHistogram.getMax());
+    assertEquals(500.5, latencyHistogram.getMean());
+    assertWithinError(500L, latencyHistogram.getValueAtPercentile(50));
+    assertWithinError(900L, latencyHistogram.getValueAtPercentile(90));
+    assertWithinError(990L, latencyHistogram.getValueAtPercentile(99));
+    assertEquals(1000L, latencyHistogram.getValueAtPercentile(100));
+  }
+
+  /**
+   * Tests that negative values are recorded as 0.
+   */
+  public void testRecord_negative() {
+    latencyHistogram.record(-5L);
+    assertEquals(1L, latencyHistogram.getCount());
+    assertEquals(0L, latencyHistogram.getMax());
+  }
+
+  /**
+   * Tests reset.
+   */
+  public void testReset() {
+    latencyHistogram.record(100L);
+    latencyHistogram.reset();
+    assertEquals(0L, latencyHistogram.getCount());
+    assertEquals(0L, latencyHistogram.getValueAtPercentile(50));
+  }
+
+  private void assertWithinError(long expected, long actual) {
+    assertTrue(actual >= expected);
+    assertTrue(actual - expected <= expected / LatencyHistogram.SUB_BUCKETS);
+  }
+}
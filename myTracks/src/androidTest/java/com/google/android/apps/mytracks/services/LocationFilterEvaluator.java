@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.content.Context;
+import android.location.Location;
+
+import java.util.List;
+
+/**
+ * Replays a track through a {@link LocationFilter}, to compare the raw and the
+ * filtered track: the distance, the number of locations recorded at a
+ * recording distance interval, and the mean correction. Recorded tracks can be
+ * loaded with {@link LocationListenerPolicySimulator#getTrack(Context, long)}.
+ */
+public class LocationFilterEvaluator {
+
+  /**
+   * The result of an evaluation.
+   */
+  public static class Result {
+    public final double rawDistance; // in meters
+    public final double filteredDistance; // in meters
+    public final int rawRecorded;
+    public final int filteredRecorded;
+    public final double meanCorrection; // in meters
+
+    private Result(double rawDistance, double filteredDistance, int rawRecorded,
+        int filteredRecorded, double meanCorrection) {
+      this.rawDistance = rawDistance;
+      this.filteredDistance = filteredDistance;
+      this.rawRecorded = rawRecorded;
+      this.filteredRecorded = filteredRecorded;
+      this.meanCorrection = meanCorrection;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("distance %.0f m -> %.0f m, recorded %d -> %d, mean correction %.1f m",
+          rawDistance, filteredDistance, rawRecorded, filteredRecorded, meanCorrection);
+    }
+  }
+
+  private LocationFilterEvaluator() {}
+
+  /**
+   * Evaluates a filter on a track.
+   *
+   * @param track the valid track locations, in time order
+   * @param filter the filter
+   * @param recordingDistanceInterval the recording distance interval, in
+   *          meters
+   */
+  public static Result evaluate(
+      List<Location> track, LocationFilter filter, int recordingDistanceInterval) {
+    filter.reset();
+    double rawDistance = 0.0;
+    double filteredDistance = 0.0;
+    double totalCorrection = 0.0;
+    int rawRecorded = 0;
+    int filteredRecorded = 0;
+    Location lastRaw = null;
+    Location lastFiltered = null;
+    Location lastRawRecorded = null;
+    Location lastFilteredRecorded = null;
+    for (Location raw : track) {
+      Location filtered = filter.filter(new Location(raw));
+      totalCorrection += raw.distanceTo(filtered);
+      if (lastRaw != null) {
+        rawDistance += lastRaw.distanceTo(raw);
+        filteredDistance += lastFiltered.distanceTo(filtered);
+      }
+      if (lastRawRecorded == null
+          || lastRawRecorded.distanceTo(raw) >= recordingDistanceInterval) {
+        rawRecorded++;
+        lastRawRecorded = raw;
+      }
+      if (lastFilteredRecorded == null
+          || lastFilteredRecorded.distanceTo(filtered) >= recordingDistanceInterval) {
+        filteredRecorded++;
+        lastFilteredRecorded = filtered;
+      }
+      lastRaw = raw;
+      lastFiltered = filtered;
+    }
+    return new Result(rawDistance, filteredDistance, rawRecorded, filteredRecorded,
+        track.isEmpty() ? 0.0 : totalCorrection / track.size());
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationIterator;
+import com.google.android.apps.mytracks.util.LocationUtils;
+
+import android.content.Context;
+import android.location.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a dense track through a {@link LocationListenerPolicy}, to measure
+ * how many locations the policy requests against how closely the requested
+ * locations follow the track.
+ * <p>
+ * A location of the track is delivered when the polling interval and the min
+ * distance of the policy since the last delivered location are both reached.
+ * Activity recognition is emulated by reporting the user still after
+ * {@link #STILL_DELAY} below {@link TrackRecordingService#MAX_NO_MOVEMENT_SPEED}.
+ * The error of a track location is its distance to the position interpolated
+ * in time between the delivered locations around it.
+ */
+public class LocationListenerPolicySimulator {
+
+  // The time without moving before reporting still, in milliseconds
+  static final long STILL_DELAY = 60000L;
+
+  /**
+   * The result of a simulation.
+   */
+  public static class Result {
+    public final int trackLocations;
+    public final int deliveredLocations;
+    public final double meanError; // in meters
+    public final double maxError; // in meters
+
+    private Result(
+        int trackLocations, int deliveredLocations, double meanError, double maxError) {
+      this.trackLocations = trackLocations;
+      this.deliveredLocations = deliveredLocations;
+      this.meanError = meanError;
+      this.maxError = maxError;
+    }
+
+    @Override
+    public String toString() {
+      return deliveredLocations + "/" + trackLocations + " locations, mean error "
+          + String.format("%.1f", meanError) + " m, max error "
+          + String.format("%.1f", maxError) + " m";
+    }
+  }
+
+  private LocationListenerPolicySimulator() {}
+
+  /**
+   * Simulates a policy on a track.
+   *
+   * @param track the valid track locations, in time order
+   * @param policy the policy
+   */
+  public static Result simulate(List<Location> track, LocationListenerPolicy policy) {
+    List<Location> delivered = new ArrayList<Location>();
+    Location lastDelivered = null;
+    long lastMovingTime = -1L;
+    long stillStartTime = -1L;
+    boolean still = false;
+    for (Location location : track) {
+      long time = location.getTime();
+
+      // Emulate activity recognition
+      boolean moving = !location.hasSpeed()
+          || location.getSpeed() >= TrackRecordingService.MAX_NO_MOVEMENT_SPEED;
+      if (moving) {
+        stillStartTime = -1L;
+        if (still) {
+          still = false;
+          policy.updateStill(false);
+        }
+      } else {
+        if (stillStartTime < 0) {
+          stillStartTime = time;
+        }
+        if (!still && time - stillStartTime >= STILL_DELAY) {
+          still = true;
+          policy.updateStill(true);
+        }
+      }
+
+      if (lastDelivered != null
+          && (time - lastDelivered.getTime() < policy.getDesiredPollingInterval()
+          || lastDelivered.distanceTo(location) < policy.getMinDistance())) {
+        continue;
+      }
+
+      // Like the recording service, the idle time is since the last moving location
+      if (moving || lastMovingTime < 0) {
+        lastMovingTime = time;
+      }
+      policy.updateIdleTime(time - lastMovingTime);
+      policy.updateLocation(location);
+      delivered.add(location);
+      lastDelivered = location;
+    }
+    return getResult(track, delivered);
+  }
+
+  /**
+   * Gets the valid locations of a recorded track.
+   *
+   * @param context the context
+   * @param trackId the track id
+   */
+  public static List<Location> getTrack(Context context, long trackId) {
+    List<Location> track = new ArrayList<Location>();
+    LocationIterator locationIterator = null;
+    try {
+      locationIterator = MyTracksProviderUtils.Factory.get(context).getTrackPointLocationIterator(
+          trackId, -1L, false, MyTracksProviderUtils.DEFAULT_LOCATION_FACTORY);
+      while (locationIterator.hasNext()) {
+        Location location = locationIterator.next();
+        if (LocationUtils.isValidLocation(location)) {
+          track.add(new Location(location));
+        }
+      }
+    } finally {
+      if (locationIterator != null) {
+        locationIterator.close();
+      }
+    }
+    return track;
+  }
+
+  /**
+   * Gets the result, comparing each track location to the delivered locations.
+   *
+   * @param track the track locations
+   * @param delivered the delivered locations
+   */
+  private static Result getResult(List<Location> track, List<Location> delivered) {
+    double totalError = 0.0;
+    double maxError = 0.0;
+    int next = 0;
+    for (Location location : track) {
+      while (next < delivered.size() && delivered.get(next).getTime() < location.getTime()) {
+        next++;
+      }
+      double error;
+      if (next == delivered.size()) {
+        error = delivered.isEmpty() ? 0.0 : delivered.get(next - 1).distanceTo(location);
+      } else if (next == 0 || delivered.get(next).getTime() == location.getTime()) {
+        error = delivered.get(next).distanceTo(location);
+      } else {
+        error = getDistance(location, delivered.get(next - 1), delivered.get(next));
+      }
+      totalError += error;
+      maxError = Math.max(maxError, error);
+    }
+    return new Result(track.size(), delivered.size(),
+        track.isEmpty() ? 0.0 : totalError / track.size(), maxError);
+  }
+
+  /**
+   * Gets the distance from a location to the position interpolated in time
+   * between two locations.
+   *
+   * @param location the location
+   * @param start the location before
+   * @param end the location after
+   */
+  private static double getDistance(Location location, Location start, Location end) {
+    double fraction = (double) (location.getTime() - start.getTime())
+        / (end.getTime() - start.getTime());
+    double latitude = start.getLatitude()
+        + fraction * (end.getLatitude() - start.getLatitude());
+    double longitude = start.getLongitude()
+        + fraction * (end.getLongitude() - start.getLongitude());
+    float[] results = new float[1];
+    Location.distanceBetween(
+        location.getLatitude(), location.getLongitude(), latitude, longitude, results);
+    return results[0];
+  }
+}
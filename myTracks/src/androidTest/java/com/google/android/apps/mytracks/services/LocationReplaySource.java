@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
+import com.google.android.apps.mytracks.io.file.importer.GpxFileTrackImporter;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.SystemClock;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays a track to the {@link TrackRecordingService} at 1x to 100x speed,
+ * without a GPS or a binder call per location. The locations are sent in
+ * batches, every {@link #BATCH_INTERVAL} of wall time, like a location
+ * provider batching fixes.
+ * <p>
+ * The location times are shifted to start now, keeping the spacing of the
+ * track, so the recorded track has the duration of the replayed track.
+ */
+public class LocationReplaySource {
+
+  static final double MIN_SPEED = 1.0;
+  static final double MAX_SPEED = 100.0;
+
+  // The wall time between two batches, in milliseconds
+  static final long BATCH_INTERVAL = 100L;
+
+  private final List<Location> track;
+  private final double speed;
+
+  /**
+   * Constructor.
+   * 
+   * @param track the valid track locations, in time order
+   * @param speed the speed factor, from {@link #MIN_SPEED} to
+   *          {@link #MAX_SPEED}
+   */
+  public LocationReplaySource(List<Location> track, double speed) {
+    if (speed < MIN_SPEED || speed > MAX_SPEED) {
+      throw new IllegalArgumentException("Invalid speed: " + speed);
+    }
+    this.track = track;
+    this.speed = speed;
+  }
+
+  /**
+   * Gets the valid locations of a GPX file. Imports the file as a track, then
+   * deletes the track.
+   * 
+   * @param context the context
+   * @param inputStream the GPX input stream
+   */
+  public static List<Location> getGpxTrack(Context context, InputStream inputStream) {
+    long trackId = new GpxFileTrackImporter(context).importFile(inputStream);
+    if (trackId == -1L) {
+      throw new IllegalArgumentException("Unable to import the GPX file");
+    }
+    try {
+      return LocationListenerPolicySimulator.getTrack(context, trackId);
+    } finally {
+      MyTracksProviderUtils.Factory.get(context).deleteTrack(context, trackId);
+    }
+  }
+
+  /**
+   * Gets the duration of the track, in milliseconds.
+   */
+  public long getDuration() {
+    if (track.isEmpty()) {
+      return 0L;
+    }
+    return track.get(track.size() - 1).getTime() - track.get(0).getTime();
+  }
+
+  /**
+   * Replays the track, blocking until the last location is sent. Returns the
+   * number of batches.
+   * 
+   * @param trackRecordingService the track recording service, recording
+   */
+  public int replay(TrackRecordingService trackRecordingService) throws InterruptedException {
+    if (track.isEmpty()) {
+      return 0;
+    }
+    long trackStartTime = track.get(0).getTime();
+    long timeOffset = System.currentTimeMillis() - trackStartTime;
+    long wallStartTime = SystemClock.elapsedRealtime();
+    int batches = 0;
+    int next = 0;
+    while (next < track.size()) {
+      long trackTime = trackStartTime
+          + (long) ((SystemClock.elapsedRealtime() - wallStartTime) * speed);
+      List<Location> batch = new ArrayList<Location>();
+      while (next < track.size() && track.get(next).getTime() <= trackTime) {
+        Location location = new Location(track.get(next));
+        location.setTime(location.getTime() + timeOffset);
+        batch.add(location);
+        next++;
+      }
+      if (!batch.isEmpty()) {
+        trackRecordingService.insertLocations(batch);
+        batches++;
+      }
+      if (next < track.size()) {
+        Thread.sleep(BATCH_INTERVAL);
+      }
+    }
+    return batches;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link MotionLocationListenerPolicy}.
+ */
+public class MotionLocationListenerPolicyTest extends TestCase {
+
+  private static final long MIN = 1000;
+  private static final long MAX = 300000;
+  private static final int MIN_DISTANCE = 0;
+  private static final int TARGET_DISTANCE = 25;
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private MotionLocationListenerPolicy motionLocationListenerPolicy;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    motionLocationListenerPolicy = new MotionLocationListenerPolicy(
+        MIN, MAX, MIN_DISTANCE, TARGET_DISTANCE);
+  }
+
+  /**
+   * Tests that the max interval and a larger min distance are used when still.
+   */
+  public void testStill() {
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 0f));
+    motionLocationListenerPolicy.updateStill(true);
+    assertEquals(MAX, motionLocationListenerPolicy.getDesiredPollingInterval());
+    assertEquals(MotionLocationListenerPolicy.STILL_MIN_DISTANCE,
+        motionLocationListenerPolicy.getMinDistance());
+
+    motionLocationListenerPolicy.updateStill(false);
+    assertEquals(TARGET_DISTANCE / 5 * 1000,
+        motionLocationListenerPolicy.getDesiredPollingInterval());
+    assertEquals(MIN_DISTANCE, motionLocationListenerPolicy.getMinDistance());
+  }
+
+  /**
+   * Tests that the interval spaces the locations the target distance apart.
+   */
+  public void testSpeed() {
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 0f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 50f, 0f));
+    assertEquals(MIN, motionLocationListenerPolicy.getDesiredPollingInterval());
+
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 0.01f, 0f));
+    assertEquals(MAX, motionLocationListenerPolicy.getDesiredPollingInterval());
+  }
+
+  /**
+   * Tests that the interval only follows small speed changes when they add up.
+   */
+  public void testSpeed_hysteresis() {
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 0f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+
+    // 4.8 and 5.2 seconds would round to 4 and 5 seconds
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5.2f, 0f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 4.8f, 0f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 3f, 0f));
+    assertEquals(8000, motionLocationListenerPolicy.getDesiredPollingInterval());
+  }
+
+  /**
+   * Tests that the min interval is used on turns, for
+   * {@link MotionLocationListenerPolicy#TURN_LOCATIONS} locations.
+   */
+  public void testTurn() {
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 0f));
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 10f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 90f));
+    assertEquals(MIN, motionLocationListenerPolicy.getDesiredPollingInterval());
+    assertEquals(0, motionLocationListenerPolicy.getMinDistance());
+
+    for (int i = 1; i < MotionLocationListenerPolicy.TURN_LOCATIONS; i++) {
+      motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 90f + i));
+      assertEquals(MIN, motionLocationListenerPolicy.getDesiredPollingInterval());
+    }
+
+    motionLocationListenerPolicy.updateLocation(createLocation(0, 0, 5f, 95f));
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+    assertEquals(MIN_DISTANCE, motionLocationListenerPolicy.getMinDistance());
+  }
+
+  /**
+   * Tests that the idle time is used without a speed.
+   */
+  public void testNoSpeed() {
+    Location location = createLocation(0, 0, 0f, 0f);
+    location.removeSpeed();
+    motionLocationListenerPolicy.updateLocation(location);
+    motionLocationListenerPolicy.updateIdleTime(10000);
+    assertEquals(5000, motionLocationListenerPolicy.getDesiredPollingInterval());
+  }
+
+  /**
+   * Tests {@link MotionLocationListenerPolicy#getAngle(float, float)}.
+   */
+  public void testGetAngle() {
+    assertEquals(20f, MotionLocationListenerPolicy.getAngle(350f, 10f));
+    assertEquals(20f, MotionLocationListenerPolicy.getAngle(10f, 350f));
+    assertEquals(180f, MotionLocationListenerPolicy.getAngle(0f, 180f));
+  }
+
+  /**
+   * Replays a track with a straight part, turns and a stop. The motion policy
+   * should get far fewer locations than polling every second while following
+   * the track closely.
+   */
+  public void testSimulate() {
+    List<Location> track = createTrack();
+    LocationListenerPolicySimulator.Result absolute = LocationListenerPolicySimulator.simulate(
+        track, new AbsoluteLocationListenerPolicy(MIN));
+    LocationListenerPolicySimulator.Result motion = LocationListenerPolicySimulator.simulate(
+        track, motionLocationListenerPolicy);
+
+    assertEquals(track.size(), absolute.deliveredLocations);
+    assertEquals(0.0, absolute.maxError, 0.01);
+    assertTrue(motion.toString(), motion.deliveredLocations * 4 < absolute.deliveredLocations);
+    assertTrue(motion.toString(), motion.meanError < 5.0);
+    assertTrue(motion.toString(), motion.maxError < 25.0);
+  }
+
+  /**
+   * Creates a track at 1 location per second: 3 minutes straight, 2 minutes
+   * turning every 20 seconds, then 5 minutes still.
+   */
+  private List<Location> createTrack() {
+    List<Location> track = new ArrayList<Location>();
+    double x = 0.0;
+    double y = 0.0;
+    float speed = 5f;
+    float bearing = 90f;
+    for (int i = 0; i < 600; i++) {
+      if (i >= 180 && i < 300 && i % 20 == 0) {
+        bearing = (i / 20) % 2 == 0 ? 0f : 90f;
+      }
+      if (i >= 300) {
+        speed = 0f;
+      }
+      Location location = createLocation(x, y, speed, bearing);
+      location.setTime(i * 1000L);
+      track.add(location);
+      x += speed * Math.sin(Math.toRadians(bearing));
+      y += speed * Math.cos(Math.toRadians(bearing));
+    }
+    return track;
+  }
+
+  /**
+   * Creates a location.
+   *
+   * @param x the east offset from the origin in meters
+   * @param y the north offset from the origin in meters
+   * @param speed the speed
+   * @param bearing the bearing
+   */
+  private Location createLocation(double x, double y, float speed, float bearing) {
+    Location location = new Location(LocationManager.GPS_PROVIDER);
+    location.setLatitude(y / METERS_PER_DEGREE);
+    location.setLongitude(x / METERS_PER_DEGREE);
+    location.setSpeed(speed);
+    location.setBearing(bearing);
+    return location;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.content.DescriptionGeneratorImpl;
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
+import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.Waypoint;
+import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.stats.TripStatistics;
+import com.google.android.apps.mytracks.util.PreferencesUtils;
+import com.google.android.maps.mytracks.R;
+
+import android.content.BroadcastReceiver;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.Location;
+import android.net.Uri;
+import android.os.BatteryManager;
+import android.test.ServiceTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link RecalculateService}.
+ */
+public class RecalculateServiceTest extends ServiceTestCase<RecalculateService> {
+
+  private static final String OLD_DESCRIPTION = "old description";
+
+  private MyTracksProviderUtils myTracksProviderUtils;
+  private List<Long> trackIds = new ArrayList<Long>();
+
+  public RecalculateServiceTest() {
+    super(RecalculateService.class);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myTracksProviderUtils = MyTracksProviderUtils.Factory.get(getContext());
+    resetCheckpoint();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    for (long trackId : trackIds) {
+      myTracksProviderUtils.deleteTrack(getContext(), trackId);
+    }
+    resetCheckpoint();
+    super.tearDown();
+  }
+
+  /**
+   * Tests that the statistics marker descriptions are regenerated.
+   */
+  public void testRecalculateTrack_markerDescription() {
+    long waypointId = insertTrackWithMarker();
+
+    startService(new Intent(getContext(), RecalculateService.class));
+    getService().recalculateTrack(trackIds.get(0), RecalculateService.JOB_MARKER_DESCRIPTION);
+
+    assertEquals(getExpectedDescription(), getDescription(waypointId));
+  }
+
+  /**
+   * Tests that a restarted pass continues after the checkpoint and clears the
+   * checkpoint when done.
+   */
+  public void testRecalculateAll_resumeFromCheckpoint() {
+    long firstWaypointId = insertTrackWithMarker();
+    long secondWaypointId = insertTrackWithMarker();
+    setCheckpoint(RecalculateService.JOB_MARKER_DESCRIPTION, trackIds.get(0));
+
+    bindService(new Intent(getContext(), RecalculateService.class));
+    getService().onHandleIntent(new Intent(getContext(), RecalculateService.class));
+
+    assertEquals(OLD_DESCRIPTION, getDescription(firstWaypointId));
+    assertEquals(getExpectedDescription(), getDescription(secondWaypointId));
+    assertEquals(0, PreferencesUtils.getInt(getContext(), R.string.recalculate_jobs_key, 0));
+    assertEquals(-1L, PreferencesUtils.getLong(getContext(), R.string.recalculate_track_id_key));
+  }
+
+  /**
+   * Tests that requesting a new pass adds the jobs, moves the checkpoint back
+   * to the first track and stops the running pass from saving checkpoints.
+   */
+  public void testRequestPass_resetsGeneration() {
+    setCheckpoint(RecalculateService.JOB_CALORIE, 42L);
+    bindService(new Intent(getContext(), RecalculateService.class));
+    RecalculateService service = getService();
+    int passGeneration = RecalculateService.getGeneration();
+    assertTrue(service.saveCheckpoint(passGeneration, 43L));
+
+    RecalculateService.requestPass(getContext(), RecalculateService.JOB_MARKER_DESCRIPTION);
+
+    assertEquals(passGeneration + 1, RecalculateService.getGeneration());
+    assertEquals(RecalculateService.JOB_CALORIE | RecalculateService.JOB_MARKER_DESCRIPTION,
+        PreferencesUtils.getInt(getContext(), R.string.recalculate_jobs_key, 0));
+    assertEquals(-1L, PreferencesUtils.getLong(getContext(), R.string.recalculate_track_id_key));
+    assertFalse(service.saveCheckpoint(passGeneration, 44L));
+    assertEquals(-1L, PreferencesUtils.getLong(getContext(), R.string.recalculate_track_id_key));
+  }
+
+  /**
+   * Tests that a pass stops on low battery and keeps its checkpoint.
+   */
+  public void testRecalculateAll_lowBattery() {
+    long waypointId = insertTrackWithMarker();
+    setCheckpoint(RecalculateService.JOB_MARKER_DESCRIPTION, trackIds.get(0) - 1L);
+    setContext(new ContextWrapper(getContext()) {
+        @Override
+      public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        return new Intent(Intent.ACTION_BATTERY_CHANGED)
+            .putExtra(BatteryManager.EXTRA_LEVEL, RecalculateService.LOW_BATTERY_LEVEL - 1)
+            .putExtra(BatteryManager.EXTRA_SCALE, 100)
+            .putExtra(BatteryManager.EXTRA_PLUGGED, 0);
+      }
+    });
+
+    bindService(new Intent(getContext(), RecalculateService.class));
+    getService().onHandleIntent(new Intent(getContext(), RecalculateService.class));
+
+    assertEquals(OLD_DESCRIPTION, getDescription(waypointId));
+    assertEquals(RecalculateService.JOB_MARKER_DESCRIPTION,
+        PreferencesUtils.getInt(getContext(), R.string.recalculate_jobs_key, 0));
+    assertEquals(trackIds.get(0) - 1L,
+        PreferencesUtils.getLong(getContext(), R.string.recalculate_track_id_key));
+  }
+
+  /**
+   * Tests that a pass runs the pending one track intents and that they are
+   * not run again afterwards.
+   */
+  public void testRecalculateAll_pendingTrackIntents() {
+    long firstWaypointId = insertTrackWithMarker();
+    long secondWaypointId = insertTrackWithMarker();
+    setCheckpoint(RecalculateService.JOB_MARKER_DESCRIPTION, trackIds.get(0));
+
+    bindService(new Intent(getContext(), RecalculateService.class));
+    RecalculateService service = getService();
+    Intent trackIntent = new Intent(getContext(), RecalculateService.class)
+        .putExtra(RecalculateService.TRACK_ID_EXTRA, trackIds.get(0))
+        .putExtra(RecalculateService.JOBS_EXTRA, RecalculateService.JOB_MARKER_DESCRIPTION);
+    service.pendingTrackIntents.add(trackIntent);
+    service.onHandleIntent(new Intent(getContext(), RecalculateService.class));
+
+    // The first track is before the checkpoint, only the pending intent updates it
+    assertTrue(service.pendingTrackIntents.isEmpty());
+    assertEquals(getExpectedDescription(), getDescription(firstWaypointId));
+    assertEquals(getExpectedDescription(), getDescription(secondWaypointId));
+
+    Waypoint waypoint = myTracksProviderUtils.getWaypoint(firstWaypointId);
+    waypoint.setDescription(OLD_DESCRIPTION);
+    myTracksProviderUtils.updateWaypointsDescription(Collections.singletonList(waypoint));
+    service.onHandleIntent(trackIntent);
+    assertEquals(OLD_DESCRIPTION, getDescription(firstWaypointId));
+  }
+
+  /**
+   * Inserts a track with a statistics marker. Returns the marker id.
+   */
+  private long insertTrackWithMarker() {
+    Uri uri = myTracksProviderUtils.insertTrack(new Track());
+    long trackId = Long.parseLong(uri.getLastPathSegment());
+    trackIds.add(trackId);
+
+    Location location = new Location("test");
+    location.setLatitude(10.0);
+    location.setLongitude(20.0);
+    Waypoint waypoint = new Waypoint("marker", OLD_DESCRIPTION, "", "", trackId,
+        WaypointType.STATISTICS, 0.0, 0L, -1L, -1L, location, getTripStatistics(), "");
+    uri = myTracksProviderUtils.insertWaypoint(waypoint);
+    return Long.parseLong(uri.getLastPathSegment());
+  }
+
+  private TripStatistics getTripStatistics() {
+    TripStatistics tripStatistics = new TripStatistics();
+    tripStatistics.setStartTime(1000L);
+    tripStatistics.setTotalDistance(1200.0);
+    tripStatistics.setTotalTime(600000L);
+    return tripStatistics;
+  }
+
+  private String getExpectedDescription() {
+    return new DescriptionGeneratorImpl(getContext()).generateWaypointDescription(
+        getTripStatistics());
+  }
+
+  private String getDescription(long waypointId) {
+    return myTracksProviderUtils.getWaypoint(waypointId).getDescription();
+  }
+
+  private void setCheckpoint(int jobs, long trackId) {
+    PreferencesUtils.setInt(getContext(), R.string.recalculate_jobs_key, jobs);
+    PreferencesUtils.setLong(getContext(), R.string.recalculate_track_id_key, trackId);
+  }
+
+  private void resetCheckpoint() {
+    setCheckpoint(0, -1L);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link RecordingPipeline}.
+ */
+public class RecordingPipelineTest extends TestCase {
+
+  private final List<Integer> persisted = Collections.synchronizedList(
+      new ArrayList<Integer>());
+  private final List<Integer> batchSizes = Collections.synchronizedList(
+      new ArrayList<Integer>());
+  private RecordingPipeline<Integer> recordingPipeline;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    recordingPipeline = new RecordingPipeline<Integer>(new RecordingPipeline.Persister<Integer>() {
+        @Override
+      public boolean persist(List<Integer> items) {
+        batchSizes.add(items.size());
+        persisted.addAll(items);
+        return true;
+      }
+    });
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    recordingPipeline.shutdown();
+    super.tearDown();
+  }
+
+  /**
+   * Tests that the items are persisted in order, in batches.
+   */
+  public void testOrder() {
+    int count = 500;
+    for (int i = 0; i < count; i++) {
+      insert(i);
+    }
+    recordingPipeline.flush();
+    assertEquals(count, persisted.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, persisted.get(i).intValue());
+    }
+    for (int batchSize : batchSizes) {
+      assertTrue(batchSize <= RecordingPipeline.MAX_BATCH_SIZE);
+    }
+    assertEquals(count, recordingPipeline.getPersistenceMetrics().getLatency().getCount());
+  }
+
+  /**
+   * Tests that a full filter queue drops offered tasks and counts them.
+   */
+  public void testOffer_full() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(1);
+    Runnable blocking = new Runnable() {
+        @Override
+      public void run() {
+        started.countDown();
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    // One running task and a full queue
+    assertTrue(recordingPipeline.offer(blocking));
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    for (int i = 0; i < RecordingPipeline.FILTER_QUEUE_SIZE; i++) {
+      assertTrue(recordingPipeline.offer(blocking));
+    }
+    assertFalse(recordingPipeline.offer(blocking));
+    assertEquals(1L, recordingPipeline.getFilterMetrics().getDrops());
+    latch.countDown();
+  }
+
+  /**
+   * Tests that flush waits for the items queued before.
+   */
+  public void testFlush() {
+    insert(1);
+    insert(2);
+    recordingPipeline.flush();
+    assertEquals(2, persisted.size());
+  }
+
+  /**
+   * Tests that a group of items is persisted in one batch.
+   */
+  public void testGroup() {
+    final int count = RecordingPipeline.MAX_BATCH_SIZE * 2;
+    recordingPipeline.runOnFilterStage(new Runnable() {
+        @Override
+      public void run() {
+        recordingPipeline.startGroup();
+        for (int i = 0; i < count; i++) {
+          final int value = i;
+          recordingPipeline.statistics(new Runnable() {
+              @Override
+            public void run() {
+              recordingPipeline.persist(value);
+            }
+          });
+        }
+        recordingPipeline.endGroup();
+      }
+    });
+    recordingPipeline.flush();
+    assertEquals(count, persisted.size());
+    assertEquals(1, batchSizes.size());
+    assertEquals(count, batchSizes.get(0).intValue());
+  }
+
+  /**
+   * Tests that held items are retried after a delay without new items.
+   */
+  public void testPersist_retry() throws InterruptedException {
+    recordingPipeline.shutdown();
+    final List<Integer> held = Collections.synchronizedList(new ArrayList<Integer>());
+    final CountDownLatch retried = new CountDownLatch(1);
+    recordingPipeline = new RecordingPipeline<Integer>(new RecordingPipeline.Persister<Integer>() {
+        @Override
+      public boolean persist(List<Integer> items) {
+        if (held.isEmpty()) {
+          held.addAll(items);
+          return false;
+        }
+        assertTrue(items.isEmpty());
+        persisted.addAll(held);
+        retried.countDown();
+        return true;
+      }
+    });
+    insert(1);
+    recordingPipeline.flush();
+    assertEquals(1, held.size());
+    assertTrue(persisted.isEmpty());
+    assertTrue(retried.await(RecordingPipeline.MIN_RETRY_DELAY * 5, TimeUnit.MILLISECONDS));
+    assertEquals(held, persisted);
+  }
+
+  /**
+   * Inserts an item through the filter and the statistics stages.
+   *
+   * @param value the value
+   */
+  private void insert(final int value) {
+    recordingPipeline.runOnFilterStage(new Runnable() {
+        @Override
+      public void run() {
+        recordingPipeline.statistics(new Runnable() {
+            @Override
+          public void run() {
+            recordingPipeline.persist(value);
+          }
+        });
+      }
+    });
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a track through a {@link TrackCompressor} like the recording service,
+ * to measure the compression ratio and the max distance of the track locations
+ * to the recorded track.
+ */
+public class TrackCompressionEvaluator {
+
+  /**
+   * The result of an evaluation.
+   */
+  public static class Result {
+    public final int trackLocations;
+    public final int recordedLocations;
+    public final double maxError; // in meters
+
+    private Result(int trackLocations, int recordedLocations, double maxError) {
+      this.trackLocations = trackLocations;
+      this.recordedLocations = recordedLocations;
+      this.maxError = maxError;
+    }
+
+    /**
+     * Gets the compression ratio.
+     */
+    public double getRatio() {
+      return recordedLocations == 0 ? 0.0 : (double) trackLocations / recordedLocations;
+    }
+
+    @Override
+    public String toString() {
+      return recordedLocations + "/" + trackLocations + " locations, ratio "
+          + String.format("%.1f", getRatio()) + ", max error "
+          + String.format("%.1f", maxError) + " m";
+    }
+  }
+
+  private TrackCompressionEvaluator() {}
+
+  /**
+   * Evaluates a track compressor on a track. The first and the last locations
+   * are always recorded.
+   *
+   * @param track the valid track locations, in time order. See
+   *          {@link LocationListenerPolicySimulator#getTrack}.
+   * @param trackCompressor the track compressor
+   */
+  public static Result evaluate(List<Location> track, TrackCompressor trackCompressor) {
+    List<Location> recorded = new ArrayList<Location>();
+    for (Location location : track) {
+      if (recorded.isEmpty()) {
+        recorded.add(location);
+        continue;
+      }
+      Location compressed = trackCompressor.add(recorded.get(recorded.size() - 1), location);
+      if (compressed != null) {
+        recorded.add(compressed);
+      }
+    }
+    if (trackCompressor.hasPending()) {
+      recorded.add(trackCompressor.flush());
+    }
+    return new Result(track.size(), recorded.size(), getMaxError(track, recorded));
+  }
+
+  /**
+   * Gets the max distance of the track locations to the recorded segment
+   * spanning their time.
+   *
+   * @param track the track locations
+   * @param recorded the recorded locations
+   */
+  private static double getMaxError(List<Location> track, List<Location> recorded) {
+    double maxError = 0.0;
+    int next = 0;
+    for (Location location : track) {
+      while (recorded.get(next).getTime() < location.getTime()) {
+        next++;
+      }
+      double error = next == 0 ? 0.0
+          : TrackCompressor.getDistance(location, recorded.get(next - 1), recorded.get(next));
+      maxError = Math.max(maxError, error);
+    }
+    return maxError;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link TrackCompressor}.
+ */
+public class TrackCompressorTest extends TestCase {
+
+  private static final double MAX_ERROR = 5.0;
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private TrackCompressor trackCompressor;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    trackCompressor = new TrackCompressor(MAX_ERROR);
+  }
+
+  /**
+   * Tests that a straight track is compressed by the window limits only.
+   */
+  public void testStraight() {
+    List<Location> track = new ArrayList<Location>();
+    for (int i = 0; i < 600; i++) {
+      track.add(createLocation(i * 5.0, 0.0, i * 1000L));
+    }
+    TrackCompressionEvaluator.Result result = TrackCompressionEvaluator.evaluate(
+        track, trackCompressor);
+    assertTrue(result.toString(), result.getRatio() >= 10.0);
+    assertEquals(result.toString(), 0.0, result.maxError, 0.01);
+  }
+
+  /**
+   * Tests a city track, with turns every 100 meters and GPS noise.
+   */
+  public void testGrid() {
+    List<Location> track = new ArrayList<Location>();
+    double x = 0.0;
+    double y = 0.0;
+    for (int i = 0; i < 1200; i++) {
+      double noiseX = 1.5 * Math.sin(i * 0.7);
+      double noiseY = 1.5 * Math.cos(i * 1.3);
+      track.add(createLocation(x + noiseX, y + noiseY, i * 1000L));
+      if ((i / 20) % 2 == 0) {
+        x += 5.0;
+      } else {
+        y += 5.0;
+      }
+    }
+    TrackCompressionEvaluator.Result result = TrackCompressionEvaluator.evaluate(
+        track, trackCompressor);
+    assertTrue(result.toString(), result.getRatio() >= 3.0);
+    assertTrue(result.toString(), result.maxError <= MAX_ERROR);
+  }
+
+  /**
+   * Tests that a curve stays within the error bound.
+   */
+  public void testCurve() {
+    List<Location> track = new ArrayList<Location>();
+    double radius = 200.0;
+    for (int i = 0; i < 600; i++) {
+      double angle = i * 5.0 / radius;
+      track.add(createLocation(radius * Math.sin(angle), radius * (1 - Math.cos(angle)),
+          i * 1000L));
+    }
+    TrackCompressionEvaluator.Result result = TrackCompressionEvaluator.evaluate(
+        track, trackCompressor);
+    assertTrue(result.toString(), result.getRatio() >= 3.0);
+    assertTrue(result.toString(), result.maxError <= MAX_ERROR);
+  }
+
+  /**
+   * Tests that the window is closed on a turn and the buffered location before
+   * the turn is recorded.
+   */
+  public void testAdd_turn() {
+    Location start = createLocation(0.0, 0.0, 0);
+    assertNull(trackCompressor.add(start, createLocation(10.0, 0.0, 1)));
+    assertNull(trackCompressor.add(start, createLocation(20.0, 0.0, 2)));
+    assertTrue(trackCompressor.hasPending());
+
+    Location recorded = trackCompressor.add(start, createLocation(20.0, 10.0, 3));
+    assertNotNull(recorded);
+    assertEquals(2L, recorded.getTime());
+    assertTrue(trackCompressor.hasPending());
+
+    recorded = trackCompressor.flush();
+    assertEquals(3L, recorded.getTime());
+    assertFalse(trackCompressor.hasPending());
+    assertNull(trackCompressor.flush());
+  }
+
+  /**
+   * Tests that the window restarts when the last recorded location is not the
+   * anchor, e.g., after a location recorded without the compressor.
+   */
+  public void testAdd_newAnchor() {
+    Location start = createLocation(0.0, 0.0, 0);
+    assertNull(trackCompressor.add(start, createLocation(10.0, 0.0, 1)));
+
+    Location newStart = createLocation(10.0, 50.0, 2);
+    assertNull(trackCompressor.add(newStart, createLocation(20.0, 50.0, 3)));
+    assertEquals(3L, trackCompressor.flush().getTime());
+  }
+
+  /**
+   * Tests {@link TrackCompressor#getDistance(Location, Location, Location)}.
+   */
+  public void testGetDistance() {
+    Location start = createLocation(0.0, 0.0, 0);
+    Location end = createLocation(100.0, 0.0, 0);
+    assertEquals(10.0, TrackCompressor.getDistance(createLocation(50.0, 10.0, 0), start, end),
+        0.01);
+    assertEquals(10.0, TrackCompressor.getDistance(createLocation(-10.0, 0.0, 0), start, end),
+        0.01);
+    assertEquals(5.0, TrackCompressor.getDistance(createLocation(3.0, 4.0, 0), start, start),
+        0.01);
+  }
+
+  /**
+   * Creates a location.
+   *
+   * @param x the east offset from the origin in meters
+   * @param y the north offset from the origin in meters
+   * @param time the time
+   */
+  private Location createLocation(double x, double y, long time) {
+    Location location = new Location(LocationManager.GPS_PROVIDER);
+    location.setLatitude(y / METERS_PER_DEGREE);
+    location.setLongitude(x / METERS_PER_DEGREE);
+    location.setTime(time);
+    return location;
+  }
+}
@@ -22,6 +22,9 @@ import com.google.android.apps.mytracks.content.Track;
 import com.google.android.apps.mytracks.content.Waypoint;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
 import com.google.android.apps.mytracks.content.WaypointCreationRequest;
+import com.google.android.apps.mytracks.services.sensors.PolarSensorManager;
+import com.google.android.apps.mytracks.services.sensors.SensorFrameReplayStream;
+import com.google.android.apps.mytracks.services.sensors.SensorManagerFactory;
 import com.google.android.apps.mytracks.stats.TripStatistics;
 import com.google.android.apps.mytracks.util.ApiAdapterFactory;
 import com.google.android.apps.mytracks.util.GoogleLocationUtils;
@@ -39,7 +42,9 @@ import android.database.Cursor;
 import android.location.Location;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Debug;
 import android.os.IBinder;
+import android.os.Process;
 import android.os.RemoteException;
 import android.provider.Settings;
 import android.test.RenamingDelegatingContext;
@@ -47,12 +52,14 @@ import android.test.ServiceTestCase;
 import android.test.mock.MockContentProvider;
 import android.test.mock.MockContentResolver;
 import android.test.mock.MockCursor;
+import android.test.suitebuilder.annotation.LargeTest;
 import android.test.suitebuilder.annotation.MediumTest;
 import android.test.suitebuilder.annotation.SmallTest;
 import android.util.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Tests for the MyTracks track recording service.
@@ -66,6 +73,8 @@ import java.util.List;
  */
 public class TrackRecordingServiceTest extends ServiceTestCase<TestRecordingService> {
 
+  private static final String TAG = TrackRecordingServiceTest.class.getSimpleName();
+
   private Context context;
   private MyTracksProviderUtils providerUtils;
 
@@ -695,6 +704,57 @@ public class TrackRecordingServiceTest extends ServiceTestCase<TestRecordingServ
     fullRecordingSession();
   }
 
+  /**
+   * Replays 10 minutes of GPS and Polar heart rate at 100x, and logs the CPU
+   * time, the allocations and the database insert time per recorded hour.
+   */
+  @SuppressWarnings("deprecation")
+  @LargeTest
+  public void testReplay_polar() throws Exception {
+    int seconds = 600;
+    double speed = LocationReplaySource.MAX_SPEED;
+    LocationReplaySource locationReplaySource = new LocationReplaySource(
+        createReplayTrack(seconds), speed);
+    int[] heartRates = new int[seconds];
+    int[] cadences = new int[seconds];
+    for (int i = 0; i < seconds; i++) {
+      heartRates[i] = 120 + i % 40;
+      cadences[i] = 80;
+    }
+    PolarSensorManager polarSensorManager = new PolarSensorManager(context);
+    SensorManagerFactory.setReplaySensorManager(polarSensorManager);
+    try {
+      ITrackRecordingService service = bindAndGetService(createStartIntent());
+      long id = service.startNewTrack();
+      assertTrue(id >= 0);
+
+      long startCpuTime = Process.getElapsedCpuTime();
+      Debug.startAllocCounting();
+      polarSensorManager.replay(new SensorFrameReplayStream(
+          SensorFrameReplayStream.POLAR, heartRates, cadences, speed));
+      locationReplaySource.replay(getService());
+      service.endCurrentTrack();
+      Debug.stopAllocCounting();
+      long cpuTime = Process.getElapsedCpuTime() - startCpuTime;
+      long allocSize = Debug.getGlobalAllocSize();
+      Debug.resetAllAllocCount();
+
+      Track track = providerUtils.getTrack(id);
+      assertTrue(track.getNumberOfPoints() > 0);
+      assertTrue(track.getTripStatistics().getTotalDistance() > 0.0);
+
+      double hours = locationReplaySource.getDuration() / (double) (60 * 60 * 1000);
+      long[] dbInsert = service.getRecordingMetrics().getLongArray("db_insert");
+      Log.i(TAG, String.format(Locale.US,
+          "Per recorded hour: %.0f ms CPU, %.0f KB allocated, %.0f DB inserts (p50 %d us, "
+          + "p99 %d us)", cpuTime / hours, allocSize / 1024 / hours,
+          dbInsert[RecordingMetrics.INDEX_COUNT] / hours, dbInsert[RecordingMetrics.INDEX_P50],
+          dbInsert[RecordingMetrics.INDEX_P99]));
+    } finally {
+      SensorManagerFactory.setReplaySensorManager(null);
+    }
+  }
+
   private ITrackRecordingService bindAndGetService(Intent intent) {
     ITrackRecordingService service = ITrackRecordingService.Stub.asInterface(bindService(intent));
     assertNotNull(service);
@@ -778,6 +838,28 @@ public class TrackRecordingServiceTest extends ServiceTestCase<TestRecordingServ
     assertTrue(tripStatistics.getStopTime() >= tripStatistics.getStartTime());
   }
 
+  /**
+   * Creates a track at 1 location per second, going north east at 5 meters
+   * per second.
+   * 
+   * @param seconds the number of seconds
+   */
+  private List<Location> createReplayTrack(int seconds) {
+    List<Location> track = new ArrayList<Location>();
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < seconds; i++) {
+      Location location = new Location("gps");
+      location.setLatitude(45.0 + i * 0.00003);
+      location.setLongitude(35.0 + i * 0.00003);
+      location.setAccuracy(5);
+      location.setSpeed(5);
+      location.setBearing(45.0f);
+      location.setTime(startTime + i * 1000L);
+      track.add(location);
+    }
+    return track;
+  }
+
   /**
    * Inserts a location and waits for 100ms.
    * 
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.stats.TripStatisticsUpdater;
+import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
+
+import android.location.Location;
+import android.test.AndroidTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Tests for {@link TripStatisticsCheckpoint}.
+ */
+public class TripStatisticsCheckpointTest extends AndroidTestCase {
+
+  private static final long TRACK_ID = 1L;
+  private static final long START_TIME = 1000L;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TripStatisticsCheckpoint.delete(getContext());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    TripStatisticsCheckpoint.delete(getContext());
+    super.tearDown();
+  }
+
+  /**
+   * Tests saving and loading a checkpoint.
+   */
+  public void testSaveAndLoad() {
+    TripStatisticsUpdater trackUpdater = new TripStatisticsUpdater(START_TIME);
+    TripStatisticsUpdater markerUpdater = new TripStatisticsUpdater(START_TIME + 5000L);
+    for (int i = 0; i < 10; i++) {
+      Location location = new Location("test");
+      location.setLatitude(i * .001);
+      location.setLongitude(45.0);
+      location.setAltitude(i);
+      location.setTime(START_TIME + i * 1000L);
+      trackUpdater.addLocation(location, 5, true, ActivityType.WALKING, 65.0);
+      markerUpdater.addLocation(location, 5, true, ActivityType.WALKING, 65.0);
+    }
+    assertTrue(new TripStatisticsCheckpoint(TRACK_ID, 9L, trackUpdater, markerUpdater).save(
+        getContext()));
+
+    TripStatisticsCheckpoint checkpoint = TripStatisticsCheckpoint.load(getContext(), TRACK_ID);
+    assertNotNull(checkpoint);
+    assertEquals(TRACK_ID, checkpoint.getTrackId());
+    assertEquals(9L, checkpoint.getTrackPointId());
+    assertEquals(trackUpdater.getTripStatistics().toString(),
+        checkpoint.getTrackTripStatisticsUpdater().getTripStatistics().toString());
+    assertEquals(markerUpdater.getTripStatistics().toString(),
+        checkpoint.getMarkerTripStatisticsUpdater().getTripStatistics().toString());
+  }
+
+  /**
+   * Tests that the loaded updaters continue like the saved ones.
+   */
+  public void testSaveAndLoad_continue() {
+    TripStatisticsUpdater trackUpdater = new TripStatisticsUpdater(START_TIME);
+    for (int i = 0; i < 10; i++) {
+      trackUpdater.addLocation(createLocation(i), 5, true, ActivityType.WALKING, 65.0);
+    }
+    assertTrue(new TripStatisticsCheckpoint(TRACK_ID, 9L, trackUpdater, trackUpdater).save(
+        getContext()));
+    TripStatisticsUpdater loadedUpdater = TripStatisticsCheckpoint.load(getContext(), TRACK_ID)
+        .getTrackTripStatisticsUpdater();
+
+    for (int i = 10; i < 20; i++) {
+      trackUpdater.addLocation(createLocation(i), 5, true, ActivityType.WALKING, 65.0);
+      loadedUpdater.addLocation(createLocation(i), 5, true, ActivityType.WALKING, 65.0);
+    }
+    assertEquals(trackUpdater.getTripStatistics().toString(),
+        loadedUpdater.getTripStatistics().toString());
+    assertEquals(trackUpdater.getSmoothedElevation(), loadedUpdater.getSmoothedElevation());
+    assertEquals(trackUpdater.getSmoothedSpeed(), loadedUpdater.getSmoothedSpeed());
+  }
+
+  /**
+   * Tests that a truncated checkpoint is ignored.
+   */
+  public void testLoad_truncated() throws IOException {
+    TripStatisticsUpdater updater = new TripStatisticsUpdater(START_TIME);
+    assertTrue(new TripStatisticsCheckpoint(TRACK_ID, 0L, updater, updater).save(getContext()));
+    RandomAccessFile file = new RandomAccessFile(
+        new File(getContext().getFilesDir(), TripStatisticsCheckpoint.FILE_NAME), "rw");
+    try {
+      file.setLength(file.length() / 2);
+    } finally {
+      file.close();
+    }
+    assertNull(TripStatisticsCheckpoint.load(getContext(), TRACK_ID));
+  }
+
+  /**
+   * Tests that a checkpoint of another track is ignored.
+   */
+  public void testLoad_otherTrack() {
+    TripStatisticsUpdater updater = new TripStatisticsUpdater(START_TIME);
+    assertTrue(new TripStatisticsCheckpoint(TRACK_ID, 0L, updater, updater).save(getContext()));
+    assertNull(TripStatisticsCheckpoint.load(getContext(), TRACK_ID + 1));
+  }
+
+  /**
+   * Tests deleting a checkpoint.
+   */
+  public void testDelete() {
+    TripStatisticsUpdater updater = new TripStatisticsUpdater(START_TIME);
+    assertTrue(new TripStatisticsCheckpoint(TRACK_ID, 0L, updater, updater).save(getContext()));
+    TripStatisticsCheckpoint.delete(getContext());
+    assertNull(TripStatisticsCheckpoint.load(getContext(), TRACK_ID));
+  }
+
+  private Location createLocation(int i) {
+    Location location = new Location("test");
+    location.setLatitude(i * .001);
+    location.setLongitude(45.0);
+    location.setAltitude(i);
+    location.setSpeed(1.5f);
+    location.setTime(START_TIME + i * 1000L);
+    return location;
+  }
+}
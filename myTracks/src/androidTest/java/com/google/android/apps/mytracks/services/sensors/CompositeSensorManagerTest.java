@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import com.google.android.apps.mytracks.content.Sensor.SensorState;
+import com.google.android.apps.mytracks.services.sensors.CompositeSensorManager.SensorSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link CompositeSensorManager}.
+ */
+public class CompositeSensorManagerTest extends TestCase {
+
+  private static final int NA = SensorSnapshot.NOT_AVAILABLE;
+  private static final long HEART_RATE_MAX_AGE = 5000;
+  private static final long BIKE_MAX_AGE = 2000;
+
+  private FakeSensorManager heartRateSensorManager;
+  private FakeSensorManager bikeSensorManager;
+  private CompositeSensorManager compositeSensorManager;
+  private SensorSource heartRateSource;
+  private SensorSource bikeSource;
+
+  /**
+   * A sensor manager publishing the values set by the test.
+   */
+  private static class FakeSensorManager extends SensorManager {
+    private final long maxAge;
+
+    FakeSensorManager(long maxAge) {
+      this.maxAge = maxAge;
+    }
+
+    void publish(long creationTime, int heartRate, int cadence, int power) {
+      publishSensorData(creationTime, heartRate, cadence, power, NA);
+    }
+
+    @Override
+    public boolean isEnabled() {
+      return true;
+    }
+
+    @Override
+    protected void setUpChannel() {}
+
+    @Override
+    protected void tearDownChannel() {}
+
+    @Override
+    protected long getMaxSensorDataAge() {
+      return maxAge;
+    }
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    heartRateSensorManager = new FakeSensorManager(HEART_RATE_MAX_AGE);
+    bikeSensorManager = new FakeSensorManager(BIKE_MAX_AGE);
+    List<SensorManager> sensorManagers = new ArrayList<SensorManager>();
+    sensorManagers.add(heartRateSensorManager);
+    sensorManagers.add(bikeSensorManager);
+    compositeSensorManager = new CompositeSensorManager(sensorManagers);
+    heartRateSource = compositeSensorManager.getSensorSources().get(0);
+    bikeSource = compositeSensorManager.getSensorSources().get(1);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    compositeSensorManager.stopSensor();
+    super.tearDown();
+  }
+
+  /**
+   * Tests that the values of the sources are merged.
+   */
+  public void testMerge() {
+    heartRateSensorManager.publish(1000, 120, NA, NA);
+    compositeSensorManager.merge(heartRateSource, 1100);
+    bikeSensorManager.publish(1500, NA, 90, 200);
+    compositeSensorManager.merge(bikeSource, 1600);
+
+    SensorSnapshot sensorSnapshot = compositeSensorManager.getSensorSnapshot();
+    assertEquals(1500, sensorSnapshot.getCreationTime());
+    assertEquals(120, sensorSnapshot.getHeartRate());
+    assertEquals(90, sensorSnapshot.getCadence());
+    assertEquals(200, sensorSnapshot.getPower());
+  }
+
+  /**
+   * Tests that the newest value is used when several sources have it.
+   */
+  public void testMerge_newest() {
+    heartRateSensorManager.publish(1000, 120, 80, NA);
+    compositeSensorManager.merge(heartRateSource, 1100);
+    bikeSensorManager.publish(1500, NA, 90, NA);
+    compositeSensorManager.merge(bikeSource, 1600);
+    assertEquals(90, compositeSensorManager.getSensorSnapshot().getCadence());
+
+    heartRateSensorManager.publish(2000, 125, 85, NA);
+    compositeSensorManager.merge(heartRateSource, 2100);
+    assertEquals(85, compositeSensorManager.getSensorSnapshot().getCadence());
+    assertEquals(125, compositeSensorManager.getSensorSnapshot().getHeartRate());
+  }
+
+  /**
+   * Tests that a stale source is not merged, using its own max age.
+   */
+  public void testMerge_stale() {
+    bikeSensorManager.publish(1000, NA, 90, 200);
+    compositeSensorManager.merge(bikeSource, 1100);
+    heartRateSensorManager.publish(3500, 120, NA, NA);
+    compositeSensorManager.merge(heartRateSource, 3600);
+
+    SensorSnapshot sensorSnapshot = compositeSensorManager.getSensorSnapshot();
+    assertEquals(120, sensorSnapshot.getHeartRate());
+    assertEquals(NA, sensorSnapshot.getCadence());
+    assertEquals(NA, sensorSnapshot.getPower());
+    assertFalse(bikeSource.isFresh(3600));
+    assertTrue(heartRateSource.isFresh(3600));
+  }
+
+  /**
+   * Tests the readings, drops and rate of a source.
+   */
+  public void testStatistics() {
+    for (int i = 1; i <= 5; i++) {
+      heartRateSensorManager.publish(i * 1000, 120, NA, NA);
+      compositeSensorManager.merge(heartRateSource, i * 1000);
+    }
+    // Superseded reading
+    compositeSensorManager.merge(heartRateSource, 5000);
+    // Stale when received
+    heartRateSensorManager.publish(6000, 120, NA, NA);
+    compositeSensorManager.merge(heartRateSource, 6000 + HEART_RATE_MAX_AGE);
+
+    assertEquals(5, heartRateSource.getReadings());
+    assertEquals(2, heartRateSource.getDrops());
+    assertEquals(1.0, heartRateSource.getRate(), 0.001);
+    assertEquals(0.0, bikeSource.getRate());
+  }
+
+  /**
+   * Tests that the state is the most advanced state of the sources.
+   */
+  public void testGetSensorState() {
+    assertEquals(SensorState.NONE, compositeSensorManager.getSensorState());
+    heartRateSensorManager.setSensorState(SensorState.CONNECTING);
+    bikeSensorManager.setSensorState(SensorState.DISCONNECTED);
+    assertEquals(SensorState.CONNECTING, compositeSensorManager.getSensorState());
+    bikeSensorManager.setSensorState(SensorState.SENDING);
+    assertEquals(SensorState.SENDING, compositeSensorManager.getSensorState());
+  }
+}
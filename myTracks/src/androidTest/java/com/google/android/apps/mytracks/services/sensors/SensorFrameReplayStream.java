@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * An input stream of Polar or Zephyr frames, to replay heart rate and cadence
+ * through {@link BluetoothSensorManager#replay(InputStream)} without a
+ * Bluetooth device. Sends one frame per {@link #FRAME_INTERVAL} divided by a
+ * speed factor, and ends after the last frame.
+ */
+public class SensorFrameReplayStream extends InputStream {
+
+  // The interval between two frames of the sensors at 1x, in milliseconds
+  static final long FRAME_INTERVAL = 1000L;
+
+  /**
+   * Encodes sensor values into a frame.
+   */
+  public interface FrameEncoder {
+
+    /**
+     * Gets the frame size, the frame size of the message parser.
+     */
+    public int getFrameSize();
+
+    /**
+     * Encodes a frame.
+     * 
+     * @param sequence the frame sequence number
+     * @param heartRate the heart rate
+     * @param cadence the cadence
+     * @param frame the frame to write
+     */
+    public void encode(int sequence, int heartRate, int cadence, byte[] frame);
+  }
+
+  /**
+   * Encodes 16 byte Polar packets, with the heart rate only. See
+   * {@link PolarMessageParser}.
+   */
+  public static final FrameEncoder POLAR = new FrameEncoder() {
+      @Override
+    public int getFrameSize() {
+      return 16;
+    }
+
+      @Override
+    public void encode(int sequence, int heartRate, int cadence, byte[] frame) {
+      frame[0] = (byte) 0xFE;
+      frame[1] = (byte) frame.length;
+      frame[2] = (byte) (0xFF - frame.length);
+      frame[3] = (byte) (sequence % 16);
+      frame[4] = (byte) 0xF1;
+      frame[5] = (byte) heartRate;
+
+      // RR intervals, in 1/1024 seconds
+      int interval = heartRate > 0 ? 60 * 1024 / heartRate : 0;
+      for (int i = 6; i < frame.length; i += 2) {
+        frame[i] = (byte) (interval >> 8);
+        frame[i + 1] = (byte) interval;
+      }
+    }
+  };
+
+  /**
+   * Encodes Zephyr HxM frames, with the heart rate, the cadence and the
+   * battery level. See {@link ZephyrMessageParser}.
+   */
+  public static final FrameEncoder ZEPHYR = new FrameEncoder() {
+      @Override
+    public int getFrameSize() {
+      return 60;
+    }
+
+      @Override
+    public void encode(int sequence, int heartRate, int cadence, byte[] frame) {
+      frame[ZephyrMessageParser.ZEPHYR_HXM_BYTE_STX] = 0x02;
+      frame[1] = 0x26;
+      frame[2] = 55;
+      frame[11] = 90;
+      frame[12] = (byte) heartRate;
+      frame[54] = (byte) sequence;
+      frame[56] = (byte) (cadence * 16);
+      frame[57] = (byte) ((cadence * 16) >> 8);
+      frame[ZephyrMessageParser.ZEPHYR_HXM_BYTE_CRC] = SensorUtils.getCrc8(frame, 3, 55);
+      frame[ZephyrMessageParser.ZEPHYR_HXM_BYTE_ETX] = 0x03;
+    }
+  };
+
+  private final FrameEncoder frameEncoder;
+  private final int[] heartRates;
+  private final int[] cadences;
+  private final long frameDelay;
+  private final byte[] frame;
+
+  private int sequence = 0;
+  private int position;
+  private volatile boolean closed = false;
+
+  /**
+   * Constructor.
+   * 
+   * @param frameEncoder the frame encoder
+   * @param heartRates the heart rate of each frame
+   * @param cadences the cadence of each frame
+   * @param speed the speed factor
+   */
+  public SensorFrameReplayStream(
+      FrameEncoder frameEncoder, int[] heartRates, int[] cadences, double speed) {
+    if (heartRates.length != cadences.length) {
+      throw new IllegalArgumentException("Different numbers of heart rates and cadences");
+    }
+    this.frameEncoder = frameEncoder;
+    this.heartRates = heartRates;
+    this.cadences = cadences;
+    this.frameDelay = (long) (FRAME_INTERVAL / speed);
+    this.frame = new byte[frameEncoder.getFrameSize()];
+    this.position = frame.length;
+  }
+
+  @Override
+  public int read() throws InterruptedIOException {
+    if (!nextFrame()) {
+      return -1;
+    }
+    return frame[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws InterruptedIOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!nextFrame()) {
+      return -1;
+    }
+    int count = Math.min(length, frame.length - position);
+    System.arraycopy(frame, position, buffer, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Encodes the next frame, after the frame delay, if the current frame is
+   * read. Returns false at the end of the stream.
+   */
+  private boolean nextFrame() throws InterruptedIOException {
+    if (closed) {
+      return false;
+    }
+    if (position < frame.length) {
+      return true;
+    }
+    if (sequence == heartRates.length) {
+      return false;
+    }
+    if (frameDelay > 0) {
+      try {
+        Thread.sleep(frameDelay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+    frameEncoder.encode(sequence, heartRates[sequence], cadences[sequence], frame);
+    sequence++;
+    position = 0;
+    return true;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import com.google.android.apps.mytracks.content.Sensor;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link SensorFrameReplayStream}.
+ */
+public class SensorFrameReplayStreamTest extends TestCase {
+
+  private static final int[] HEART_RATES = { 120, 130 };
+  private static final int[] CADENCES = { 80, 90 };
+
+  /**
+   * Tests that the Polar frames are parsed to the replayed heart rates.
+   */
+  public void testPolar() throws IOException {
+    PolarMessageParser parser = new PolarMessageParser();
+    SensorFrameReplayStream stream = new SensorFrameReplayStream(
+        SensorFrameReplayStream.POLAR, HEART_RATES, CADENCES, 100.0);
+    for (int heartRate : HEART_RATES) {
+      byte[] frame = readFrame(stream, parser.getFrameSize());
+      assertTrue(parser.isValid(frame));
+      assertEquals(heartRate, parser.parseBuffer(frame).getHeartRate().getValue());
+    }
+    assertEquals(-1, stream.read());
+  }
+
+  /**
+   * Tests that the Zephyr frames are parsed to the replayed heart rates and
+   * cadences.
+   */
+  public void testZephyr() throws IOException {
+    ZephyrMessageParser parser = new ZephyrMessageParser();
+    SensorFrameReplayStream stream = new SensorFrameReplayStream(
+        SensorFrameReplayStream.ZEPHYR, HEART_RATES, CADENCES, 100.0);
+    for (int i = 0; i < HEART_RATES.length; i++) {
+      byte[] frame = readFrame(stream, parser.getFrameSize());
+      assertTrue(parser.isValid(frame));
+      Sensor.SensorDataSet sensorDataSet = parser.parseBuffer(frame);
+      assertEquals(HEART_RATES[i], sensorDataSet.getHeartRate().getValue());
+      assertEquals(CADENCES[i], sensorDataSet.getCadence().getValue());
+    }
+    assertEquals(-1, stream.read());
+  }
+
+  /**
+   * Tests that the stream ends when closed.
+   */
+  public void testClose() throws IOException {
+    SensorFrameReplayStream stream = new SensorFrameReplayStream(
+        SensorFrameReplayStream.POLAR, HEART_RATES, CADENCES, 100.0);
+    stream.close();
+    assertEquals(-1, stream.read(new byte[16], 0, 16));
+  }
+
+  /**
+   * Reads a frame, in small reads like a socket.
+   * 
+   * @param stream the stream
+   * @param frameSize the frame size
+   */
+  private byte[] readFrame(SensorFrameReplayStream stream, int frameSize) throws IOException {
+    byte[] frame = new byte[frameSize];
+    int offset = 0;
+    while (offset < frameSize) {
+      int bytes = stream.read(frame, offset, Math.min(7, frameSize - offset));
+      assertTrue(bytes > 0);
+      offset += bytes;
+    }
+    return frame;
+  }
+}
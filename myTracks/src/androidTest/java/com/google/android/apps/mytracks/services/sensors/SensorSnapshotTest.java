@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link SensorSnapshot}.
+ */
+public class SensorSnapshotTest extends TestCase {
+
+  private SensorSnapshot sensorSnapshot;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    sensorSnapshot = new SensorSnapshot();
+  }
+
+  /**
+   * Tests that no sensor data set is built before the first write.
+   */
+  public void testToSensorDataSet_empty() {
+    assertNull(sensorSnapshot.toSensorDataSet());
+  }
+
+  /**
+   * Tests that only the available values are set in the sensor data set.
+   */
+  public void testToSensorDataSet() {
+    sensorSnapshot.write(1000L, 70, SensorSnapshot.NOT_AVAILABLE, 200, 50);
+    SensorSnapshot copy = new SensorSnapshot();
+    sensorSnapshot.readInto(copy);
+    SensorDataSet sensorDataSet = copy.toSensorDataSet();
+    assertEquals(1000L, sensorDataSet.getCreationTime());
+    assertEquals(70, sensorDataSet.getHeartRate().getValue());
+    assertFalse(sensorDataSet.hasCadence());
+    assertEquals(200, sensorDataSet.getPower().getValue());
+    assertEquals(50, sensorDataSet.getBatteryLevel().getValue());
+  }
+
+  /**
+   * Tests that a reader never sees values from different writes.
+   */
+  public void testReadInto_concurrent() throws InterruptedException {
+    final int count = 100000;
+    Thread writer = new Thread() {
+        @Override
+      public void run() {
+        for (int i = 1; i <= count; i++) {
+          sensorSnapshot.write(i, i, i, i, i);
+        }
+      }
+    };
+    writer.start();
+    SensorSnapshot copy = new SensorSnapshot();
+    long last = 0L;
+    while (last < count) {
+      sensorSnapshot.readInto(copy);
+      long creationTime = copy.getCreationTime();
+      assertTrue(creationTime >= last);
+      if (creationTime != 0L) {
+        assertEquals(creationTime, copy.getHeartRate());
+        assertEquals(creationTime, copy.getCadence());
+        assertEquals(creationTime, copy.getPower());
+        assertEquals(creationTime, copy.getBatteryLevel());
+      }
+      last = creationTime;
+    }
+    writer.join();
+  }
+}
@@ -15,6 +15,10 @@
  */
 package com.google.android.apps.mytracks.services.sensors;
 
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
 import junit.framework.TestCase;
 
 /**
@@ -60,4 +64,51 @@ public class StrideReadingsTest extends TestCase {
       }
     }
   }
+
+  /**
+   * Tests that the ring buffer returns the same cadence as the previous list
+   * based implementation for random readings.
+   */
+  public void testMatchesListImplementation() {
+    Random random = new Random(42);
+    for (int run = 0; run < 100; run++) {
+      StrideReadings strideReadings = new StrideReadings();
+      ListStrideReadings listStrideReadings = new ListStrideReadings();
+      int strides = random.nextInt(128);
+      for (int i = 0; i < 50; i++) {
+        strides = (strides + random.nextInt(5)) % 128;
+        strideReadings.updateStrideReading(strides);
+        listStrideReadings.updateStrideReading(strides);
+        assertEquals(listStrideReadings.getCadence(), strideReadings.getCadence());
+      }
+    }
+  }
+
+  /**
+   * The previous list based implementation of {@link StrideReadings}.
+   */
+  private static class ListStrideReadings {
+    private final List<Integer> history = new LinkedList<Integer>();
+
+    public void updateStrideReading(int numStrides) {
+      history.add(0, numStrides);
+      while (history.size() > StrideReadings.NUM_READINGS_FOR_AVERAGE) {
+        history.remove(history.size() - 1);
+      }
+    }
+
+    public int getCadence() {
+      if (history.size() < StrideReadings.MIN_READINGS_FOR_AVERAGE) {
+        return StrideReadings.CADENCE_NOT_AVAILABLE;
+      }
+      int timeSinceOldestReadingSecs = history.size() - 1;
+      int stridesThen = history.get(history.size() - 1);
+      int stridesNow = history.get(0);
+      int change = (stridesNow - stridesThen) % 128;
+      if (change < 0) {
+        change += 128;
+      }
+      return Math.round((float) change / timeSinceOldestReadingSecs * 60);
+    }
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors.ant;
+
+import com.dsi.ant.AntMesg;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays heart rate and bike cadence as ANT+ broadcast data messages through
+ * {@link AntSensorManager#replayMessage(byte[])}, without an ANT radio. Sends
+ * a heart rate and a bike cadence message every {@link #MESSAGE_PERIOD}
+ * divided by a speed factor, on the main thread like the ANT data receiver.
+ */
+public class AntMessageReplaySource {
+
+  // The channels, in the order of the AntSensorManager channels
+  static final byte HEART_RATE_CHANNEL = 0;
+  static final byte BIKE_CADENCE_CHANNEL = 2;
+
+  // The period of the messages of a channel at 1x, in milliseconds
+  static final long MESSAGE_PERIOD = 250L;
+
+  private final AntSensorManager antSensorManager;
+  private final int[] heartRates;
+  private final int[] cadences;
+  private final long messageDelay;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final CountDownLatch done = new CountDownLatch(1);
+
+  // Reused, since the messages are decoded right away
+  private final byte[] heartRateMessage = createMessage(HEART_RATE_CHANNEL);
+  private final byte[] bikeCadenceMessage = createMessage(BIKE_CADENCE_CHANNEL);
+
+  private int index = 0;
+  private double revolutions = 0.0;
+  private int eventTime = 0; // in 1/1024 seconds
+
+  private final Runnable sendRunnable = new Runnable() {
+      @Override
+    public void run() {
+      if (index == heartRates.length) {
+        done.countDown();
+        return;
+      }
+      sendMessages(heartRates[index], cadences[index]);
+      index++;
+      handler.postDelayed(this, messageDelay);
+    }
+  };
+
+  /**
+   * Constructor.
+   * 
+   * @param antSensorManager the ANT sensor manager
+   * @param heartRates the heart rate of each message period
+   * @param cadences the cadence of each message period
+   * @param speed the speed factor
+   */
+  public AntMessageReplaySource(
+      AntSensorManager antSensorManager, int[] heartRates, int[] cadences, double speed) {
+    if (heartRates.length != cadences.length) {
+      throw new IllegalArgumentException("Different numbers of heart rates and cadences");
+    }
+    this.antSensorManager = antSensorManager;
+    this.heartRates = heartRates;
+    this.cadences = cadences;
+    this.messageDelay = (long) (MESSAGE_PERIOD / speed);
+  }
+
+  /**
+   * Starts sending the messages.
+   */
+  public void start() {
+    handler.post(sendRunnable);
+  }
+
+  /**
+   * Stops sending the messages.
+   */
+  public void stop() {
+    handler.removeCallbacks(sendRunnable);
+    done.countDown();
+  }
+
+  /**
+   * Waits until all the messages are sent or the source is stopped. Returns
+   * false on timeout.
+   * 
+   * @param timeout the timeout in milliseconds
+   */
+  public boolean await(long timeout) throws InterruptedException {
+    return done.await(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sends the messages of a message period.
+   * 
+   * @param heartRate the heart rate
+   * @param cadence the cadence
+   */
+  private void sendMessages(int heartRate, int cadence) {
+    heartRateMessage[AntMesg.MESG_DATA_OFFSET + 8] = (byte) heartRate;
+    antSensorManager.replayMessage(heartRateMessage);
+
+    // The time of the last revolution and the cumulative revolution count
+    double newRevolutions = revolutions + cadence * MESSAGE_PERIOD / 60000.0;
+    if ((int) newRevolutions != (int) revolutions) {
+      eventTime = (int) ((index + 1) * MESSAGE_PERIOD * 1024 / 1000);
+    }
+    revolutions = newRevolutions;
+    int revolutionCount = (int) revolutions;
+    bikeCadenceMessage[AntMesg.MESG_DATA_OFFSET + 5] = (byte) eventTime;
+    bikeCadenceMessage[AntMesg.MESG_DATA_OFFSET + 6] = (byte) (eventTime >> 8);
+    bikeCadenceMessage[AntMesg.MESG_DATA_OFFSET + 7] = (byte) revolutionCount;
+    bikeCadenceMessage[AntMesg.MESG_DATA_OFFSET + 8] = (byte) (revolutionCount >> 8);
+    antSensorManager.replayMessage(bikeCadenceMessage);
+  }
+
+  /**
+   * Creates a broadcast data message with 8 data bytes.
+   * 
+   * @param channel the channel
+   */
+  private static byte[] createMessage(byte channel) {
+    byte[] message = new byte[AntMesg.MESG_DATA_OFFSET + 9];
+    message[AntMesg.MESG_SIZE_OFFSET] = 9;
+    message[AntMesg.MESG_ID_OFFSET] = AntMesg.MESG_BROADCAST_DATA_ID;
+    message[AntMesg.MESG_DATA_OFFSET] = channel;
+    return message;
+  }
+}
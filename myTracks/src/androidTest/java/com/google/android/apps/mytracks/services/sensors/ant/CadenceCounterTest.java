@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors.ant;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link CadenceCounter}.
+ */
+public class CadenceCounterTest extends TestCase {
+
+  /**
+   * Tests a steady cadence of 1 event per second.
+   */
+  public void testGetEventsPerMinute_steady() {
+    CadenceCounter cadenceCounter = new CadenceCounter();
+    // The first events only fill the history
+    assertEquals(0, cadenceCounter.getEventsPerMinute(0, 0, 0L));
+    assertEquals(0, cadenceCounter.getEventsPerMinute(1, 1024, 1000L));
+    for (int i = 2; i < 10; i++) {
+      assertEquals(60, cadenceCounter.getEventsPerMinute(i, i * 1024, i * 1000L));
+    }
+  }
+
+  /**
+   * Tests that the ring buffer returns the same cadence as the previous list
+   * based implementation for random events, including resent events, gaps
+   * and counter wrap arounds.
+   */
+  public void testMatchesListImplementation() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      CadenceCounter cadenceCounter = new CadenceCounter();
+      ListCadenceCounter listCadenceCounter = new ListCadenceCounter();
+      long now = random.nextInt(100000);
+      int count = random.nextInt(0x10000);
+      int eventTime = random.nextInt(0x10000);
+      for (int i = 0; i < 1000; i++) {
+        now += random.nextInt(10) == 0 ? random.nextInt(8000) : random.nextInt(300);
+        if (random.nextInt(3) != 0) {
+          count = (count + 1 + random.nextInt(3)) & 0xFFFF;
+          eventTime = (eventTime + 200 + random.nextInt(1000)) & 0xFFFF;
+        }
+        assertEquals(listCadenceCounter.getEventsPerMinute(count, eventTime, now),
+            cadenceCounter.getEventsPerMinute(count, eventTime, now));
+      }
+    }
+  }
+
+  /**
+   * Tests that the history is bounded when events arrive faster than they
+   * expire.
+   */
+  public void testMatchesListImplementation_fullHistory() {
+    CadenceCounter cadenceCounter = new CadenceCounter();
+    ListCadenceCounter listCadenceCounter = new ListCadenceCounter();
+    for (int i = 0; i < CadenceCounter.MAX_HISTORY_SIZE * 3; i++) {
+      int count = i & 0xFFFF;
+      int eventTime = (i * 10) & 0xFFFF;
+      long now = i * 10L;
+      assertEquals(listCadenceCounter.getEventsPerMinute(count, eventTime, now),
+          cadenceCounter.getEventsPerMinute(count, eventTime, now));
+    }
+  }
+
+  /**
+   * The previous list based implementation of {@link CadenceCounter}.
+   */
+  private static class ListCadenceCounter {
+    private static final int MILLIS_PER_MINUTE = 60000;
+    private static final int MAX_HISTORY_TIME_IN_MILLIS = 5000;
+    private static final int EVENT_TIME_PER_MINUTE = 60 * 1024;
+
+    private static class CadenceData {
+      final long systemTime;
+      final int count;
+      final int eventTime;
+
+      private CadenceData(long systemTime, int count, int eventTime) {
+        this.systemTime = systemTime;
+        this.count = count;
+        this.eventTime = eventTime;
+      }
+    }
+
+    private int lastCount = -1;
+    private int eventsPerMinute = 0;
+    private final LinkedList<CadenceData> history = new LinkedList<CadenceData>();
+
+    public int getEventsPerMinute(int count, int eventTime, long now) {
+      int countChange = (count - lastCount) & 0xFFFF;
+      if (lastCount < 0) {
+        lastCount = count;
+        eventsPerMinute = 0;
+        return 0;
+      }
+      lastCount = count;
+      if (countChange != 0) {
+        if (removeOldHistory(now)) {
+          CadenceData lastCadenceData = history.getLast();
+          int eventTimeChange = (eventTime - lastCadenceData.eventTime) & 0xFFFF;
+          if (eventTimeChange != 0) {
+            countChange = (count - lastCadenceData.count) & 0xFFFF;
+            eventsPerMinute = countChange * EVENT_TIME_PER_MINUTE / eventTimeChange;
+          }
+        }
+        history.addLast(new CadenceData(now, count, eventTime));
+        return eventsPerMinute;
+      }
+      if (history.isEmpty()) {
+        eventsPerMinute = 0;
+        return 0;
+      }
+      CadenceData lastCadenceData = history.getLast();
+      if ((now - lastCadenceData.systemTime) * eventsPerMinute < MILLIS_PER_MINUTE) {
+        return eventsPerMinute;
+      }
+      if (!removeOldHistory(now)) {
+        eventsPerMinute = 0;
+        return 0;
+      }
+      return getValueFromHistory(now);
+    }
+
+    private int getValueFromHistory(long now) {
+      CadenceData firstCadenceData = history.getFirst();
+      CadenceData lastCadenceData = history.getLast();
+      int eventTimeChange = (lastCadenceData.eventTime - firstCadenceData.eventTime) & 0xFFFF;
+      int countChange = (lastCount - firstCadenceData.count) & 0xFFFF;
+      int systemTimeChange = (int) (now - lastCadenceData.systemTime
+          + (eventTimeChange * MILLIS_PER_MINUTE) / EVENT_TIME_PER_MINUTE);
+      if (systemTimeChange == 0) {
+        return eventsPerMinute;
+      }
+      int value = (countChange * MILLIS_PER_MINUTE) / systemTimeChange;
+      return value < eventsPerMinute ? value : eventsPerMinute;
+    }
+
+    private boolean removeOldHistory(long now) {
+      CadenceData historyElement = history.peek();
+      while (historyElement != null) {
+        if (now - historyElement.systemTime <= MAX_HISTORY_TIME_IN_MILLIS
+            && history.size() < CadenceCounter.MAX_HISTORY_SIZE) {
+          return true;
+        }
+        history.removeFirst();
+        historyElement = history.peek();
+      }
+      return false;
+    }
+  }
+}
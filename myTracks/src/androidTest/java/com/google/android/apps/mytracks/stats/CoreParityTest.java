@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.stats;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+import com.google.android.apps.mytracks.services.TrackRecordingService;
+import com.google.android.apps.mytracks.util.CalorieUtils;
+import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the myTracksCore TripStatisticsUpdater and CalorieUtils, which
+ * the JVM tests and benchmarks measure, compute the same results as the app
+ * {@link TripStatisticsUpdater} and {@link CalorieUtils} for the same track.
+ */
+public class CoreParityTest extends TestCase {
+
+  // Android computes distances in floats, the core in doubles
+  private static final double RELATIVE_TOLERANCE = 1e-4;
+
+  private static final int NUM_POINTS = 5000;
+  private static final int PAUSE_INTERVAL = 1200;
+  private static final int STILL_INTERVAL = 500;
+  private static final int MIN_RECORDING_DISTANCE = 5;
+  private static final double WEIGHT = 65.0;
+
+  private final List<Location> locations = new ArrayList<Location>();
+  private final List<TrackPoint> trackPoints = new ArrayList<TrackPoint>();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Random random = new Random(42L);
+    long time = 1000000000000L;
+    double latitude = 37.4;
+    double longitude = -122.1;
+    double altitude = 100.0;
+    double bearing = 0.0;
+    for (int i = 0; i < NUM_POINTS; i++) {
+      if (i > 0 && i % PAUSE_INTERVAL == 0) {
+        add(time, TrackRecordingService.PAUSE_LATITUDE, 0.0, Double.NaN, Float.NaN);
+        time += 60000L;
+        add(time, TrackRecordingService.RESUME_LATITUDE, 0.0, Double.NaN, Float.NaN);
+        continue;
+      }
+      // Stand still for a while, to exercise the moving time
+      boolean still = (i / STILL_INTERVAL) % 4 == 3 && i % STILL_INTERVAL < 30;
+      float speed = still ? 0.0f : (float) Math.max(0.0, 6.0 + random.nextGaussian());
+      bearing += random.nextGaussian() * 5.0;
+      altitude += random.nextGaussian();
+      double distance = speed / 111320.0;
+      latitude += distance * Math.cos(Math.toRadians(bearing));
+      longitude += distance * Math.sin(Math.toRadians(bearing))
+          / Math.cos(Math.toRadians(latitude));
+      add(time, latitude, longitude, altitude, speed);
+      time += 1000L;
+    }
+  }
+
+  /**
+   * Adds the same point as an app location and a core track point.
+   */
+  private void add(long time, double latitude, double longitude, double altitude, float speed) {
+    Location location = new Location(LocationManager.GPS_PROVIDER);
+    location.setTime(time);
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    if (!Double.isNaN(altitude)) {
+      location.setAltitude(altitude);
+    }
+    if (!Float.isNaN(speed)) {
+      location.setSpeed(speed);
+    }
+    locations.add(location);
+    trackPoints.add(new TrackPoint(time, latitude, longitude, altitude, speed));
+  }
+
+  /**
+   * Tests the trip statistics for each activity type.
+   */
+  public void testTripStatistics() {
+    for (ActivityType activityType : ActivityType.values()) {
+      TripStatisticsUpdater appUpdater = new TripStatisticsUpdater(locations.get(0).getTime());
+      for (Location location : locations) {
+        appUpdater.addLocation(location, MIN_RECORDING_DISTANCE, true, activityType, WEIGHT);
+      }
+      com.google.android.apps.mytracks.core.stats.TripStatisticsUpdater coreUpdater =
+          new com.google.android.apps.mytracks.core.stats.TripStatisticsUpdater(
+              trackPoints.get(0).getTime());
+      for (TrackPoint trackPoint : trackPoints) {
+        coreUpdater.addTrackPoint(trackPoint, MIN_RECORDING_DISTANCE, true,
+            com.google.android.apps.mytracks.core.util.CalorieUtils.ActivityType.valueOf(
+                activityType.name()), WEIGHT);
+      }
+
+      String name = activityType.name();
+      TripStatistics app = appUpdater.getTripStatistics();
+      com.google.android.apps.mytracks.core.stats.TripStatistics core =
+          coreUpdater.getTripStatistics();
+      assertEquals(name, app.getStartTime(), core.getStartTime());
+      assertEquals(name, app.getStopTime(), core.getStopTime());
+      assertEquals(name, app.getTotalTime(), core.getTotalTime());
+      assertEquals(name, app.getMovingTime(), core.getMovingTime());
+      assertTrue(name, app.getMovingTime() < app.getTotalTime());
+      assertClose(name, app.getTotalDistance(), core.getTotalDistance());
+      assertClose(name, app.getMaxSpeed(), core.getMaxSpeed());
+      assertClose(name, app.getMinElevation(), core.getMinElevation());
+      assertClose(name, app.getMaxElevation(), core.getMaxElevation());
+      assertClose(name, app.getTotalElevationGain(), core.getTotalElevationGain());
+      assertClose(name, app.getMinGrade(), core.getMinGrade());
+      assertClose(name, app.getMaxGrade(), core.getMaxGrade());
+      assertClose(name, app.getTopDegrees(), core.getTopDegrees());
+      assertClose(name, app.getBottomDegrees(), core.getBottomDegrees());
+      assertClose(name, app.getLeftDegrees(), core.getLeftDegrees());
+      assertClose(name, app.getRightDegrees(), core.getRightDegrees());
+      assertClose(name, app.getCalorie(), core.getCalorie());
+      assertClose(name, appUpdater.getSmoothedElevation(), coreUpdater.getSmoothedElevation());
+      assertClose(name, appUpdater.getSmoothedSpeed(), coreUpdater.getSmoothedSpeed());
+    }
+  }
+
+  /**
+   * Tests the calorie between consecutive points for each activity type.
+   */
+  public void testCalorie() {
+    for (ActivityType activityType : ActivityType.values()) {
+      com.google.android.apps.mytracks.core.util.CalorieUtils.ActivityType coreActivityType =
+          com.google.android.apps.mytracks.core.util.CalorieUtils.ActivityType.valueOf(
+              activityType.name());
+      for (int i = 1; i < locations.size(); i++) {
+        double grade = (i % 20 - 5) / 100.0;
+        assertClose(activityType.name(),
+            CalorieUtils.getCalorie(
+                locations.get(i - 1), locations.get(i), grade, WEIGHT, activityType),
+            com.google.android.apps.mytracks.core.util.CalorieUtils.getCalorie(
+                trackPoints.get(i - 1), trackPoints.get(i), grade, WEIGHT, coreActivityType));
+      }
+    }
+  }
+
+  private static void assertClose(String message, double expected, double actual) {
+    if (Double.isInfinite(expected) || expected == 0.0) {
+      assertEquals(message, expected, actual);
+    } else {
+      assertEquals(message, expected, actual, Math.abs(expected) * RELATIVE_TOLERANCE);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 
 import android.location.Location;
+import android.os.Parcel;
 
 import junit.framework.TestCase;
 
@@ -62,6 +63,36 @@ public class TripStatisticsUpdaterTest extends TestCase {
     addMoveLocations(100, startTime, tripStatistics, 600, 300);
   }
 
+  /**
+   * Tests that an updater restored from a parcel continues with the same state.
+   */
+  public void testWriteToParcel() {
+    long startTime = 1000;
+    tripStatisticsUpdater = new TripStatisticsUpdater(startTime);
+    TripStatistics tripStatistics = tripStatisticsUpdater.getTripStatistics();
+
+    // Time:0 ~ 99; Location:0 ~ 99
+    addMoveLocations(100, startTime, tripStatistics, 0, 0);
+
+    Parcel parcel = Parcel.obtain();
+    tripStatisticsUpdater.writeToParcel(parcel);
+    parcel.setDataPosition(0);
+    TripStatisticsUpdater restored = new TripStatisticsUpdater(parcel);
+    parcel.recycle();
+
+    assertEquals(tripStatisticsUpdater.getTripStatistics().toString(),
+        restored.getTripStatistics().toString());
+    assertEquals(tripStatisticsUpdater.getSmoothedElevation(), restored.getSmoothedElevation());
+    assertEquals(tripStatisticsUpdater.getSmoothedSpeed(), restored.getSmoothedSpeed());
+
+    // The restored updater passes the same checks
+    tripStatisticsUpdater = restored;
+    // Time:100 ~ 199; Location:99
+    addWaitLocations(100, startTime, tripStatistics, 100, 99);
+    // Time:200 ~ 299; Location:100 ~ 199
+    addMoveLocations(100, startTime, tripStatistics, 200, 100);
+  }
+
   /**
    * Sends some disordered locations and checks the statistics. In some
    * situation, especially when signal is not good, MyTracks may receive such
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.util;
+
+import com.google.android.apps.mytracks.stats.CalorieInputs;
+import com.google.android.apps.mytracks.stats.TripStatistics;
+import com.google.android.apps.mytracks.stats.TripStatisticsUpdater;
+import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
+
+import android.location.Location;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link CalorieUtils}.
+ */
+public class CalorieUtilsTest extends TestCase {
+
+  private static final long START_TIME = 1000L;
+  private static final double WEIGHT = 65.0;
+
+  /**
+   * Tests that the calorie from the calorie inputs is the same as the calorie
+   * added location by location, for each activity type.
+   */
+  public void testGetCalorie_calorieInputs() {
+    for (ActivityType activityType : ActivityType.values()) {
+      TripStatistics tripStatistics = getTripStatistics(activityType, WEIGHT);
+      double calorie = CalorieUtils.getCalorie(
+          tripStatistics.getCalorieInputs(), WEIGHT, activityType);
+      assertEquals(activityType.name(), tripStatistics.getCalorie(), calorie, 1e-6);
+    }
+  }
+
+  /**
+   * Tests that the calorie inputs don't depend on the weight, so the calorie
+   * can be recomputed for a new weight.
+   */
+  public void testGetCalorie_newWeight() {
+    CalorieInputs calorieInputs = getTripStatistics(ActivityType.CYCLING, WEIGHT)
+        .getCalorieInputs();
+    double newWeight = 80.0;
+    TripStatistics tripStatistics = getTripStatistics(ActivityType.CYCLING, newWeight);
+    assertEquals(tripStatistics.getCalorie(),
+        CalorieUtils.getCalorie(calorieInputs, newWeight, ActivityType.CYCLING), 1e-6);
+  }
+
+  /**
+   * Tests that there is no calorie for an invalid activity type.
+   */
+  public void testGetCalorie_invalid() {
+    CalorieInputs calorieInputs = getTripStatistics(ActivityType.WALKING, WEIGHT)
+        .getCalorieInputs();
+    assertTrue(calorieInputs.getDuration() > 0);
+    assertEquals(0.0, CalorieUtils.getCalorie(calorieInputs, WEIGHT, ActivityType.INVALID));
+  }
+
+  /**
+   * Gets the trip statistics of an uphill track with varying speeds.
+   *
+   * @param activityType the activity type
+   * @param weight the weight
+   */
+  private TripStatistics getTripStatistics(ActivityType activityType, double weight) {
+    TripStatisticsUpdater tripStatisticsUpdater = new TripStatisticsUpdater(START_TIME);
+    for (int i = 0; i < 200; i++) {
+      Location location = new Location("test");
+      location.setAccuracy(1.0f);
+      location.setLatitude(i * .0001);
+      location.setLongitude(45.0);
+      location.setAltitude(i % 50 < 30 ? i : 30 - i);
+      location.setSpeed(2.0f + i % 7);
+      location.setTime(START_TIME + i * 2000L);
+      tripStatisticsUpdater.addLocation(
+          location, PreferencesUtils.RECORDING_DISTANCE_INTERVAL_DEFAULT, true, activityType,
+          weight);
+    }
+    return tripStatisticsUpdater.getTripStatistics();
+  }
+}
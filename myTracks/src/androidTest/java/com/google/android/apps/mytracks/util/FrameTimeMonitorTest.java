@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link FrameTimeMonitor}.
+ */
+public class FrameTimeMonitorTest extends TestCase {
+
+  /**
+   * Tests that samples over the frame budget are counted.
+   */
+  public void testAdd() {
+    FrameTimeMonitor monitor = new FrameTimeMonitor("test", "test", 10);
+    monitor.add(1000000L);
+    monitor.add(FrameTimeMonitor.FRAME_BUDGET_NANOS + 1);
+    monitor.add(3000000L);
+    assertEquals(3, monitor.getCount());
+    assertEquals(1, monitor.getOverBudgetCount());
+    assertEquals(FrameTimeMonitor.FRAME_BUDGET_NANOS + 1, monitor.getMaxNanos());
+  }
+
+  /**
+   * Tests that the samples are reset after each report.
+   */
+  public void testAdd_report() {
+    FrameTimeMonitor monitor = new FrameTimeMonitor("test", "test", 2);
+    monitor.add(1000000L);
+    monitor.add(3000000L);
+    assertEquals(0, monitor.getCount());
+    monitor.add(2000000L);
+    assertEquals(1, monitor.getCount());
+    assertEquals(2000000L, monitor.getAverageNanos());
+  }
+
+  /**
+   * Tests that the report interval must be positive.
+   */
+  public void testConstructor_invalid() {
+    try {
+      new FrameTimeMonitor("test", "test", 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+}
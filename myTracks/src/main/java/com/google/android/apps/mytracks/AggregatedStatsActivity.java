@@ -16,50 +16,182 @@
 
 package com.google.android.apps.mytracks;
 
+import com.google.android.apps.mytracks.content.AggregatedStats;
+import com.google.android.apps.mytracks.content.AggregatedStatsColumns;
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
-import com.google.android.apps.mytracks.content.Track;
-import com.google.android.apps.mytracks.stats.TripStatistics;
+import com.google.android.apps.mytracks.util.CalorieUtils;
 import com.google.android.apps.mytracks.util.CalorieUtils.ActivityType;
 import com.google.android.apps.mytracks.util.StatsUtils;
 import com.google.android.maps.mytracks.R;
 
+import android.content.Context;
 import android.os.Bundle;
+import android.text.format.DateUtils;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.AdapterView.OnItemSelectedListener;
+import android.widget.ArrayAdapter;
+import android.widget.Spinner;
 
+import androidx.loader.app.LoaderManager;
+import androidx.loader.content.AsyncTaskLoader;
+import androidx.loader.content.Loader;
+
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * An activity to view aggregated stats from all recorded tracks.
+ * An activity to view aggregated stats from all recorded tracks, per activity
+ * type, per month, and per week. The stats are read from the aggregated stats
+ * table maintained by the provider, off the UI thread.
  *
  * @author Fergus Nelson
  */
 public class AggregatedStatsActivity extends AbstractMyTracksActivity {
 
+  /**
+   * Loads the aggregated stats in the background.
+   */
+  private static class AggregatedStatsLoader extends AsyncTaskLoader<List<AggregatedStats>> {
+
+    private List<AggregatedStats> aggregatedStats;
+
+    public AggregatedStatsLoader(Context context) {
+      super(context);
+    }
+
+    @Override
+    public List<AggregatedStats> loadInBackground() {
+      return MyTracksProviderUtils.Factory.get(getContext()).getAggregatedStats();
+    }
+
+    @Override
+    public void deliverResult(List<AggregatedStats> data) {
+      aggregatedStats = data;
+      super.deliverResult(data);
+    }
+
+    @Override
+    protected void onStartLoading() {
+      if (aggregatedStats != null) {
+        deliverResult(aggregatedStats);
+      } else {
+        forceLoad();
+      }
+    }
+
+    @Override
+    protected void onReset() {
+      super.onReset();
+      aggregatedStats = null;
+    }
+  }
+
+  private List<AggregatedStats> aggregatedStats = new ArrayList<AggregatedStats>();
+  private ArrayAdapter<String> adapter;
+  private Spinner spinner;
+
   @Override
   protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
-    StatsUtils.setTripStatisticsValues(
-        this, this, null, getTripStatistics(), ActivityType.WALKING, null);
+
+    adapter = new ArrayAdapter<String>(this, android.R.layout.simple_spinner_item);
+    adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+    spinner = (Spinner) findViewById(R.id.aggregated_stats_group);
+    spinner.setAdapter(adapter);
+    spinner.setVisibility(View.GONE);
+    spinner.setOnItemSelectedListener(new OnItemSelectedListener() {
+      @Override
+      public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+        setStats(aggregatedStats.get(position));
+      }
+
+      @Override
+      public void onNothingSelected(AdapterView<?> parent) {
+        setStats(null);
+      }
+    });
+    setStats(null);
     StatsUtils.setLocationValues(this, this, null, null, false);
+
+    getSupportLoaderManager().initLoader(
+        0, null, new LoaderManager.LoaderCallbacks<List<AggregatedStats>>() {
+            @Override
+          public Loader<List<AggregatedStats>> onCreateLoader(int id, Bundle args) {
+            return new AggregatedStatsLoader(AggregatedStatsActivity.this);
+          }
+
+            @Override
+          public void onLoadFinished(
+              Loader<List<AggregatedStats>> loader, List<AggregatedStats> data) {
+            showAggregatedStats(data);
+          }
+
+            @Override
+          public void onLoaderReset(Loader<List<AggregatedStats>> loader) {
+            showAggregatedStats(new ArrayList<AggregatedStats>());
+          }
+        });
   }
 
   @Override
   protected int getLayoutResId() {
-    return R.layout.stats;
+    return R.layout.aggregated_stats;
   }
 
   /**
-   * Gets the aggregated trip statistics for all the recorded tracks or null if
-   * there is no track.
+   * Shows the loaded aggregated stats.
+   * 
+   * @param data the aggregated stats
    */
-  private TripStatistics getTripStatistics() {
-    List<Track> tracks = MyTracksProviderUtils.Factory.get(this).getAllTracks();
-    TripStatistics tripStatistics = null;
-    if (!tracks.isEmpty()) {
-      tripStatistics = new TripStatistics(tracks.iterator().next().getTripStatistics());
-      for (int i = 1; i < tracks.size(); i++) {
-        tripStatistics.merge(tracks.get(i).getTripStatistics());
-      }
+  private void showAggregatedStats(List<AggregatedStats> data) {
+    aggregatedStats = data;
+    adapter.clear();
+    for (AggregatedStats stats : aggregatedStats) {
+      adapter.add(getString(
+          R.string.aggregated_stats_entry, getGroupName(stats), stats.getNumTracks()));
+    }
+    spinner.setVisibility(aggregatedStats.isEmpty() ? View.GONE : View.VISIBLE);
+    int position = spinner.getSelectedItemPosition();
+    if (position < 0 || position >= aggregatedStats.size()) {
+      position = 0;
+    }
+    setStats(aggregatedStats.isEmpty() ? null : aggregatedStats.get(position));
+  }
+
+  /**
+   * Sets the stats of a group.
+   * 
+   * @param stats the stats or null if there is no track
+   */
+  private void setStats(AggregatedStats stats) {
+    ActivityType activityType = ActivityType.WALKING;
+    if (stats != null && stats.getType() == AggregatedStatsColumns.TYPE_CATEGORY) {
+      activityType = CalorieUtils.getActivityType(this, stats.getCategory());
+    }
+    StatsUtils.setTripStatisticsValues(
+        this, this, null, stats != null ? stats.getTripStatistics() : null, activityType, null);
+  }
+
+  /**
+   * Gets the display name of a group.
+   * 
+   * @param stats the stats of the group
+   */
+  private String getGroupName(AggregatedStats stats) {
+    switch (stats.getType()) {
+      case AggregatedStatsColumns.TYPE_CATEGORY:
+        return stats.getCategory().length() == 0 ? getString(
+            R.string.aggregated_stats_no_category) : stats.getCategory();
+      case AggregatedStatsColumns.TYPE_MONTH:
+        return DateUtils.formatDateTime(this, stats.getPeriodStart(), DateUtils.FORMAT_SHOW_DATE
+            | DateUtils.FORMAT_NO_MONTH_DAY | DateUtils.FORMAT_SHOW_YEAR);
+      case AggregatedStatsColumns.TYPE_WEEK:
+        return getString(R.string.aggregated_stats_week, DateUtils.formatDateTime(this,
+            stats.getPeriodStart(), DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_YEAR
+                | DateUtils.FORMAT_ABBREV_MONTH));
+      default:
+        return getString(R.string.aggregated_stats_all);
     }
-    return tripStatistics;
   }
 }
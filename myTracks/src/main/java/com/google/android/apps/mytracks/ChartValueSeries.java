@@ -48,7 +48,10 @@ public class ChartValueSeries {
   private final Paint markerPaint;
   private final ExtremityMonitor extremityMonitor;
   private final NumberFormat numberFormat;
-  private final Path path;
+
+  // The front path is drawn. The back path is built by the path renderer.
+  private Path path;
+  private Path backPath;
   
   private int interval = 1;
   private int minMarkerValue = 0;
@@ -102,6 +105,7 @@ public class ChartValueSeries {
     extremityMonitor = new ExtremityMonitor();
     numberFormat = NumberFormat.getIntegerInstance();
     path = new Path();
+    backPath = new Path();
   }
 
   /**
@@ -143,6 +147,23 @@ public class ChartValueSeries {
     return path;
   }
 
+  /**
+   * Gets the back path. Only the thread building the paths may modify it.
+   */
+  public Path getBackPath() {
+    return backPath;
+  }
+
+  /**
+   * Swaps the front path and the back path. Callers must make sure the path is
+   * not being drawn.
+   */
+  public void swapPaths() {
+    Path temp = path;
+    path = backPath;
+    backPath = temp;
+  }
+
   /**
    * Draws the path on canvas.
    * 
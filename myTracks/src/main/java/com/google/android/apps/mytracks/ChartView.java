@@ -19,6 +19,7 @@ package com.google.android.apps.mytracks;
 import com.google.android.apps.mytracks.content.Waypoint;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
 import com.google.android.apps.mytracks.stats.ExtremityMonitor;
+import com.google.android.apps.mytracks.util.FrameTimeMonitor;
 import com.google.android.apps.mytracks.util.IntentUtils;
 import com.google.android.apps.mytracks.util.StringUtils;
 import com.google.android.apps.mytracks.util.UnitConversions;
@@ -36,6 +37,9 @@ import android.graphics.Paint.Style;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
@@ -44,6 +48,8 @@ import android.widget.Scroller;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Visualization of the chart.
@@ -66,8 +72,13 @@ public class ChartView extends View {
   public static final int CADENCE_SERIES = 4;
   public static final int POWER_SERIES = 5;
 
+  private static final String TAG = ChartView.class.getSimpleName();
+
   private static final int TARGET_X_AXIS_INTERVALS = 4;
 
+  // Number of frames between frame time log reports
+  private static final int FRAME_REPORT_INTERVAL = 120;
+
   private static final int MIN_ZOOM_LEVEL = 1;
   private static final int MAX_ZOOM_LEVEL = 10;
 
@@ -88,6 +99,43 @@ public class ChartView extends View {
   private final ExtremityMonitor xExtremityMonitor = new ExtremityMonitor();
   private double maxX = 1.0;
 
+  /*
+   * The last data point, for drawing the pointer without accessing chartData
+   * from the UI thread.
+   */
+  private volatile double[] lastDataPoint = null;
+
+  /*
+   * Guards swapping the front and back paths of the series. Held by the UI
+   * thread while drawing the paths and by the path thread while swapping.
+   */
+  private final Object pathLock = new Object();
+
+  /*
+   * The dimensions the front paths were built with. Guarded by pathLock and
+   * used to draw everything else, so that the axes always match the paths.
+   */
+  private Dimensions drawnDimensions;
+
+  /*
+   * Builds the paths off the UI thread. Only exists while attached to a
+   * window, otherwise paths are built on the calling thread.
+   */
+  private HandlerThread pathThread;
+  private volatile Handler pathHandler;
+  private final Runnable updatePathsRunnable = new Runnable() {
+    @Override
+    public void run() {
+      buildPaths();
+      postInvalidate();
+    }
+  };
+
+  private final FrameTimeMonitor drawMonitor = new FrameTimeMonitor(
+      TAG, "onDraw", FRAME_REPORT_INTERVAL);
+  private final FrameTimeMonitor pathMonitor = new FrameTimeMonitor(
+      TAG, "buildPaths", FRAME_REPORT_INTERVAL);
+
   private final Paint axisPaint;
   private final Paint xAxisMarkerPaint;
   private final Paint gridPaint;
@@ -215,6 +263,30 @@ public class ChartView extends View {
     setFocusable(true);
     setClickable(true);
     updateDimensions();
+    drawnDimensions = new Dimensions();
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    pathThread = new HandlerThread("ChartViewPathThread", Process.THREAD_PRIORITY_DISPLAY);
+    pathThread.start();
+    pathHandler = new Handler(pathThread.getLooper());
+    updatePaths();
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    Handler handler = pathHandler;
+    pathHandler = null;
+    if (handler != null) {
+      handler.removeCallbacks(updatePathsRunnable);
+    }
+    if (pathThread != null) {
+      pathThread.quit();
+      pathThread = null;
+    }
+    super.onDetachedFromWindow();
   }
 
   @Override
@@ -276,6 +348,9 @@ public class ChartView extends View {
   public void addDataPoints(ArrayList<double[]> dataPoints) {
     synchronized (chartData) {
       chartData.addAll(dataPoints);
+      if (!chartData.isEmpty()) {
+        lastDataPoint = chartData.get(chartData.size() - 1);
+      }
       for (int i = 0; i < dataPoints.size(); i++) {
         double[] dataPoint = dataPoints.get(i);
         xExtremityMonitor.update(dataPoint[0]);
@@ -296,6 +371,7 @@ public class ChartView extends View {
   public void reset() {
     synchronized (chartData) {
       chartData.clear();
+      lastDataPoint = null;
       xExtremityMonitor.reset();
       zoomLevel = 1;
       updateDimensions();
@@ -320,6 +396,40 @@ public class ChartView extends View {
     }
   }
 
+  /**
+   * Updates a waypoint. Replaces the waypoint with the same id, or adds the
+   * waypoint.
+   * 
+   * @param waypoint the waypoint
+   */
+  public void updateWaypoint(Waypoint waypoint) {
+    synchronized (waypoints) {
+      for (int i = 0; i < waypoints.size(); i++) {
+        if (waypoints.get(i).getId() == waypoint.getId()) {
+          waypoints.set(i, waypoint);
+          return;
+        }
+      }
+      waypoints.add(waypoint);
+    }
+  }
+
+  /**
+   * Removes a waypoint.
+   * 
+   * @param waypointId the waypoint id
+   */
+  public void removeWaypoint(long waypointId) {
+    synchronized (waypoints) {
+      for (int i = 0; i < waypoints.size(); i++) {
+        if (waypoints.get(i).getId() == waypointId) {
+          waypoints.remove(i);
+          return;
+        }
+      }
+    }
+  }
+
   /**
    * Clears the waypoints.
    */
@@ -333,14 +443,18 @@ public class ChartView extends View {
    * Returns true if can zoom in.
    */
   public boolean canZoomIn() {
-    return zoomLevel < MAX_ZOOM_LEVEL;
+    synchronized (chartData) {
+      return zoomLevel < MAX_ZOOM_LEVEL;
+    }
   }
 
   /**
    * Returns true if can zoom out.
    */
   public boolean canZoomOut() {
-    return zoomLevel > MIN_ZOOM_LEVEL;
+    synchronized (chartData) {
+      return zoomLevel > MIN_ZOOM_LEVEL;
+    }
   }
 
   /**
@@ -348,7 +462,9 @@ public class ChartView extends View {
    */
   public void zoomIn() {
     if (canZoomIn()) {
-      zoomLevel++;
+      synchronized (chartData) {
+        zoomLevel++;
+      }
       updatePaths();
       invalidate();
     }
@@ -359,10 +475,12 @@ public class ChartView extends View {
    */
   public void zoomOut() {
     if (canZoomOut()) {
-      zoomLevel--;
+      synchronized (chartData) {
+        zoomLevel--;
+      }
       scroller.abortAnimation();
       int scrollX = getScrollX();
-      int maxWidth = effectiveWidth * (zoomLevel - 1);
+      int maxWidth = getMaxScrollX();
       if (scrollX > maxWidth) {
         scrollX = maxWidth;
         scrollTo(scrollX, 0);
@@ -378,7 +496,7 @@ public class ChartView extends View {
    * @param velocityX velocity of fling in pixels per second
    */
   public void fling(int velocityX) {
-    int maxWidth = effectiveWidth * (zoomLevel - 1);
+    int maxWidth = getMaxScrollX();
     scroller.fling(getScrollX(), 0, velocityX, 0, 0, maxWidth, 0, 0);
     invalidate();
   }
@@ -393,13 +511,22 @@ public class ChartView extends View {
     if (scrollX < 0) {
       scrollX = 0;
     }
-    int maxWidth = effectiveWidth * (zoomLevel - 1);
+    int maxWidth = getMaxScrollX();
     if (scrollX > maxWidth) {
       scrollX = maxWidth;
     }
     scrollTo(scrollX, 0);
   }
 
+  /**
+   * Gets the max scroll x for the current zoom level.
+   */
+  private int getMaxScrollX() {
+    synchronized (chartData) {
+      return effectiveWidth * (zoomLevel - 1);
+    }
+  }
+
   /**
    * Called by the parent to indicate that the mScrollX/Y values need to be
    * updated. Triggers a redraw during flinging.
@@ -444,7 +571,7 @@ public class ChartView extends View {
             scrollBy(deltaX);
           }
         } else if (deltaX > 0) {
-          int availableToScroll = effectiveWidth * (zoomLevel - 1) - getScrollX();
+          int availableToScroll = getMaxScrollX() - getScrollX();
           if (availableToScroll > 0) {
             scrollBy(Math.min(availableToScroll, deltaX));
           }
@@ -452,14 +579,17 @@ public class ChartView extends View {
         break;
       case MotionEvent.ACTION_UP:
         // Check if the y event is within markerHeight of the marker center
-        if (Math.abs(event.getY() - topBorder - spacer - markerHeight / 2) < markerHeight) {
+        Dimensions dimensions = getDrawnDimensions();
+        if (Math.abs(event.getY() - dimensions.topBorder - spacer - markerHeight / 2)
+            < markerHeight) {
           int minDistance = Integer.MAX_VALUE;
           Waypoint nearestWaypoint = null;
           synchronized (waypoints) {
             for (int i = 0; i < waypoints.size(); i++) {
               Waypoint waypoint = waypoints.get(i);
               int distance = Math.abs(
-                  getX(getWaypointXValue(waypoint)) - (int) event.getX() - getScrollX());
+                  dimensions.getX(getWaypointXValue(waypoint)) - (int) event.getX()
+                  - getScrollX());
               if (distance < minDistance) {
                 minDistance = distance;
                 nearestWaypoint = waypoint;
@@ -498,46 +628,60 @@ public class ChartView extends View {
 
   @Override
   protected void onDraw(Canvas canvas) {
-    synchronized (chartData) {
+    long start = drawMonitor.start();
 
-      canvas.save();
-      
-      canvas.drawColor(Color.WHITE);
+    canvas.save();
+
+    canvas.drawColor(Color.WHITE);
+
+    synchronized (pathLock) {
+      Dimensions dimensions = drawnDimensions;
 
       canvas.save();
-      
-      clipToGraphArea(canvas);
+
+      clipToGraphArea(canvas, dimensions);
       drawDataSeries(canvas);
-      drawWaypoints(canvas);
-      drawGrid(canvas);
-      
+      drawWaypoints(canvas, dimensions);
+      drawGrid(canvas, dimensions);
+
       canvas.restore();
 
-      drawSeriesTitles(canvas);
-      drawXAxis(canvas);
-      drawYAxis(canvas);
-      
+      drawSeriesTitles(canvas, dimensions);
+      drawXAxis(canvas, dimensions);
+      drawYAxis(canvas, dimensions);
+
       canvas.restore();
 
       if (showPointer) {
-        drawPointer(canvas);
+        drawPointer(canvas, dimensions);
       }
     }
+    drawMonitor.end(start);
+  }
+
+  /**
+   * Gets the dimensions the front paths were built with.
+   */
+  private Dimensions getDrawnDimensions() {
+    synchronized (pathLock) {
+      return drawnDimensions;
+    }
   }
 
   /**
    * Clips a canvas to the graph area.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void clipToGraphArea(Canvas canvas) {
-    int x = getScrollX() + leftBorder;
-    int y = topBorder;
-    canvas.clipRect(x, y, x + effectiveWidth, y + effectiveHeight);
+  private void clipToGraphArea(Canvas canvas, Dimensions dimensions) {
+    int x = getScrollX() + dimensions.leftBorder;
+    int y = dimensions.topBorder;
+    canvas.clipRect(x, y, x + dimensions.effectiveWidth, y + dimensions.effectiveHeight);
   }
 
   /**
-   * Draws the data series.
+   * Draws the data series. The caller must hold pathLock.
    * 
    * @param canvas the canvas
    */
@@ -553,8 +697,9 @@ public class ChartView extends View {
    * Draws the waypoints.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawWaypoints(Canvas canvas) {
+  private void drawWaypoints(Canvas canvas, Dimensions dimensions) {
     synchronized (waypoints) {
       for (int i = 0; i < waypoints.size(); i++) {
         final Waypoint waypoint = waypoints.get(i);
@@ -562,13 +707,14 @@ public class ChartView extends View {
           continue;
         }
         double xValue = getWaypointXValue(waypoint);
-        if (xValue > maxX) {
+        if (xValue > dimensions.maxX) {
           continue;
         }
         canvas.save();
-        float x = getX(getWaypointXValue(waypoint));
-        canvas.drawLine(
-            x, topBorder + spacer + markerHeight / 2, x, topBorder + effectiveHeight, markerPaint);
+        float x = dimensions.getX(xValue);
+        int topBorder = dimensions.topBorder;
+        canvas.drawLine(x, topBorder + spacer + markerHeight / 2, x,
+            topBorder + dimensions.effectiveHeight, markerPaint);
         canvas.translate(
             x - (float) (markerWidth * MapOverlay.WAYPOINT_X_ANCHOR), topBorder + spacer);
         if (waypoints.get(i).getType() == WaypointType.STATISTICS) {
@@ -585,21 +731,25 @@ public class ChartView extends View {
    * Draws the grid.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawGrid(Canvas canvas) {
+  private void drawGrid(Canvas canvas, Dimensions dimensions) {
+    int topBorder = dimensions.topBorder;
+    int effectiveHeight = dimensions.effectiveHeight;
     // X axis grid
-    ArrayList<Double> xAxisMarkerPositions = getXAxisMarkerPositions(getXAxisInterval());
+    ArrayList<Double> xAxisMarkerPositions = getXAxisMarkerPositions(
+        dimensions, getXAxisInterval(dimensions));
     for (int i = 0; i < xAxisMarkerPositions.size(); i++) {
-      int x = getX(xAxisMarkerPositions.get(i));
+      int x = dimensions.getX(xAxisMarkerPositions.get(i));
       canvas.drawLine(x, topBorder, x, topBorder + effectiveHeight, gridPaint);
     }
     // Y axis grid
-    float rightEdge = getX(maxX);
+    float rightEdge = dimensions.getX(dimensions.maxX);
     for (int i = 0; i <= Y_AXIS_INTERVALS; i++) {
       double percentage = (double) i / Y_AXIS_INTERVALS;
-      int range = effectiveHeight - 2 * yAxisOffset;
-      int y = topBorder + yAxisOffset + (int) (percentage * range);
-      canvas.drawLine(leftBorder, y, rightEdge, y, gridPaint);
+      int range = effectiveHeight - 2 * dimensions.yAxisOffset;
+      int y = topBorder + dimensions.yAxisOffset + (int) (percentage * range);
+      canvas.drawLine(dimensions.leftBorder, y, rightEdge, y, gridPaint);
     }
   }
 
@@ -607,8 +757,9 @@ public class ChartView extends View {
    * Draws series titles.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawSeriesTitles(Canvas canvas) {
+  private void drawSeriesTitles(Canvas canvas, Dimensions dimensions) {
     int[] titleDimensions = getTitleDimenions();
     int lines = titleDimensions[0];
     int lineHeight = titleDimensions[1];
@@ -620,7 +771,7 @@ public class ChartView extends View {
         String title = getContext().getString(chartValueSeries.getTitleId(metricUnits));
         Paint paint = chartValueSeries.getTitlePaint();
         int x = (int) (0.5 * width) + getScrollX();
-        int y = topBorder - spacer - (lines - count) * (lineHeight + spacer);
+        int y = dimensions.topBorder - spacer - (lines - count) * (lineHeight + spacer);
         canvas.drawText(title, x, y, paint);
       }
     }
@@ -651,21 +802,24 @@ public class ChartView extends View {
    * Draws the x axis.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawXAxis(Canvas canvas) {
-    int x = getScrollX() + leftBorder;
-    int y = topBorder + effectiveHeight;
+  private void drawXAxis(Canvas canvas, Dimensions dimensions) {
+    int effectiveWidth = dimensions.effectiveWidth;
+    int x = getScrollX() + dimensions.leftBorder;
+    int y = dimensions.topBorder + dimensions.effectiveHeight;
     canvas.drawLine(x, y, x + effectiveWidth, y, axisPaint);
     String label = getXAxisLabel();
     Rect rect = getRect(axisPaint, label);
     int yOffset = (int) rect.height() / 2;
     canvas.drawText(label, x + effectiveWidth + spacer, y + yOffset, axisPaint);
 
-    double interval = getXAxisInterval();
-    ArrayList<Double> markerPositions = getXAxisMarkerPositions(interval);
+    double interval = getXAxisInterval(dimensions);
+    ArrayList<Double> markerPositions = getXAxisMarkerPositions(dimensions, interval);
     NumberFormat numberFormat = interval < 1 ? X_FRACTION_FORMAT : X_NUMBER_FORMAT;
     for (int i = 0; i < markerPositions.size(); i++) {
-      drawXAxisMarker(canvas, markerPositions.get(i), numberFormat, spacer + yOffset);
+      drawXAxisMarker(
+          canvas, dimensions, markerPositions.get(i), numberFormat, spacer + yOffset);
     }
   }
 
@@ -686,24 +840,28 @@ public class ChartView extends View {
    * Draws a x axis marker.
    * 
    * @param canvas
+   * @param dimensions the dimensions
    * @param value value
    * @param numberFormat the number format
    * @param spacing the spacing between x axis and marker
    */
-  private void drawXAxisMarker(
-      Canvas canvas, double value, NumberFormat numberFormat, int spacing) {
+  private void drawXAxisMarker(Canvas canvas, Dimensions dimensions, double value,
+      NumberFormat numberFormat, int spacing) {
     String marker = chartByDistance ? numberFormat.format(value)
         : StringUtils.formatElapsedTime((long) value);
     Rect rect = getRect(xAxisMarkerPaint, marker);
-    canvas.drawText(marker, getX(value), topBorder + effectiveHeight + spacing + rect.height(),
+    canvas.drawText(marker, dimensions.getX(value),
+        dimensions.topBorder + dimensions.effectiveHeight + spacing + rect.height(),
         xAxisMarkerPaint);
   }
 
   /**
    * Gets the x axis interval.
+   * 
+   * @param dimensions the dimensions
    */
-  private double getXAxisInterval() {
-    double interval = maxX / zoomLevel / TARGET_X_AXIS_INTERVALS;
+  private double getXAxisInterval(Dimensions dimensions) {
+    double interval = dimensions.maxX / dimensions.zoomLevel / TARGET_X_AXIS_INTERVALS;
     if (interval < 1) {
       interval = .5;
     } else if (interval < 5) {
@@ -718,8 +876,12 @@ public class ChartView extends View {
 
   /**
    * Gets the x axis marker positions.
+   * 
+   * @param dimensions the dimensions
+   * @param interval the interval
    */
-  private ArrayList<Double> getXAxisMarkerPositions(double interval) {
+  private ArrayList<Double> getXAxisMarkerPositions(Dimensions dimensions, double interval) {
+    double maxX = dimensions.maxX;
     ArrayList<Double> markers = new ArrayList<Double>();
     markers.add(0d);
     for (int i = 1; i * interval < maxX; i++) {
@@ -736,18 +898,19 @@ public class ChartView extends View {
    * Draws the y axis.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawYAxis(Canvas canvas) {
-    int x = getScrollX() + leftBorder;
-    int y = topBorder;
-    canvas.drawLine(x, y, x, y + effectiveHeight, axisPaint);
+  private void drawYAxis(Canvas canvas, Dimensions dimensions) {
+    int x = getScrollX() + dimensions.leftBorder;
+    int y = dimensions.topBorder;
+    canvas.drawLine(x, y, x, y + dimensions.effectiveHeight, axisPaint);
     
     int markerXPosition = x - spacer;
     for (int i = 0; i < series.length; i++) {
       int index = series.length - 1 - i;
       ChartValueSeries chartValueSeries = series[index];
       if (chartValueSeries.isEnabled() && chartValueSeries.hasData() || allowIfEmpty(index)) {
-        markerXPosition -= drawYAxisMarkers(chartValueSeries, canvas, markerXPosition) + spacer;
+        markerXPosition -= drawYAxisMarkers(dimensions, index, canvas, markerXPosition) + spacer;
       }
     }
   }
@@ -755,17 +918,19 @@ public class ChartView extends View {
   /**
    * Draws the y axis markers for a chart value series.
    * 
-   * @param chartValueSeries the chart value series
+   * @param dimensions the dimensions
+   * @param index the chart value series index
    * @param canvas the canvas
    * @param xPosition the right most x position
    * @return the maximum marker width.
    */
-  private float drawYAxisMarkers(ChartValueSeries chartValueSeries, Canvas canvas, int xPosition) {
-    int interval = chartValueSeries.getInterval();
+  private float drawYAxisMarkers(
+      Dimensions dimensions, int index, Canvas canvas, int xPosition) {
+    int interval = dimensions.intervals[index];
     float maxMarkerWidth = 0;
     for (int i = 0; i <= Y_AXIS_INTERVALS; i++) {
-      maxMarkerWidth = Math.max(maxMarkerWidth, drawYAxisMarker(chartValueSeries, canvas, xPosition,
-          i * interval + chartValueSeries.getMinMarkerValue()));
+      maxMarkerWidth = Math.max(maxMarkerWidth, drawYAxisMarker(dimensions, index, canvas,
+          xPosition, i * interval + dimensions.minMarkerValues[index]));
     }
     return maxMarkerWidth;
   }
@@ -773,18 +938,20 @@ public class ChartView extends View {
   /**
    * Draws a y axis marker.
    * 
-   * @param chartValueSeries the chart value series
+   * @param dimensions the dimensions
+   * @param index the chart value series index
    * @param canvas the canvas
    * @param xPosition the right most x position
    * @param yValue the y value
    * @return the marker width.
    */
   private float drawYAxisMarker(
-      ChartValueSeries chartValueSeries, Canvas canvas, int xPosition, int yValue) {
+      Dimensions dimensions, int index, Canvas canvas, int xPosition, int yValue) {
+    ChartValueSeries chartValueSeries = series[index];
     String marker = chartValueSeries.formatMarker(yValue);
     Paint paint = chartValueSeries.getMarkerPaint();
     Rect rect = getRect(paint, marker);
-    int yPosition = getY(chartValueSeries, yValue) + (int) (rect.height() / 2);
+    int yPosition = dimensions.getY(index, yValue) + (int) (rect.height() / 2);
     canvas.drawText(marker, xPosition, yPosition, paint);
     return paint.measureText(marker);
   }
@@ -793,8 +960,9 @@ public class ChartView extends View {
    * Draws the current pointer.
    * 
    * @param canvas the canvas
+   * @param dimensions the dimensions
    */
-  private void drawPointer(Canvas canvas) {
+  private void drawPointer(Canvas canvas, Dimensions dimensions) {
     int index = -1;
     for (int i = 0; i < series.length; i++) {
       ChartValueSeries chartValueSeries = series[i];
@@ -803,10 +971,10 @@ public class ChartView extends View {
         break;
       }
     }
-    if (index != -1 && chartData.size() > 0) {
-      int dx = getX(maxX) - pointer.getIntrinsicWidth() / 2;
-      int dy = getY(series[index], chartData.get(chartData.size() - 1)[index + 1])
-          - pointer.getIntrinsicHeight();
+    double[] dataPoint = lastDataPoint;
+    if (index != -1 && dataPoint != null) {
+      int dx = dimensions.getX(dimensions.maxX) - pointer.getIntrinsicWidth() / 2;
+      int dy = dimensions.getY(index, dataPoint[index + 1]) - pointer.getIntrinsicHeight();
       canvas.translate(dx, dy);
       pointer.draw(canvas);
     }
@@ -814,35 +982,66 @@ public class ChartView extends View {
 
   /**
    * Updates paths. The path needs to be updated any time after the data or the
-   * dimensions change.
+   * dimensions change. When attached to a window, the paths are built on the
+   * path thread and pending requests are coalesced, so the caller never waits
+   * for the paths to be built.
    */
   private void updatePaths() {
+    Handler handler = pathHandler;
+    if (handler == null) {
+      buildPaths();
+      return;
+    }
+    handler.removeCallbacks(updatePathsRunnable);
+    handler.post(updatePathsRunnable);
+  }
+
+  /**
+   * Builds the paths into the back paths and swaps them with the front paths.
+   * Only holds the chartData lock while taking a snapshot of the data points
+   * and the dimensions, which are published with the paths for drawing.
+   */
+  private void buildPaths() {
+    long start = pathMonitor.start();
+    double[][] dataPoints;
+    Dimensions dimensions;
     synchronized (chartData) {
+      dataPoints = chartData.toArray(new double[chartData.size()][]);
+      dimensions = new Dimensions();
+    }
+    for (ChartValueSeries chartValueSeries : series) {
+      chartValueSeries.getBackPath().reset();
+    }
+    drawPaths(dataPoints, dimensions);
+    closePaths(dataPoints, dimensions);
+    synchronized (pathLock) {
       for (ChartValueSeries chartValueSeries : series) {
-        chartValueSeries.getPath().reset();
+        chartValueSeries.swapPaths();
       }
-      drawPaths();
-      closePaths();
+      drawnDimensions = dimensions;
     }
+    pathMonitor.end(start);
   }
 
   /**
    * Draws all paths.
+   * 
+   * @param dataPoints the data points
+   * @param dimensions the dimensions
    */
-  private void drawPaths() {
+  private void drawPaths(double[][] dataPoints, Dimensions dimensions) {
     boolean[] hasMoved = new boolean[series.length];
     
-    for (int i = 0; i < chartData.size(); i++) {
-      double[] dataPoint = chartData.get(i);
+    for (int i = 0; i < dataPoints.length; i++) {
+      double[] dataPoint = dataPoints[i];
       for (int j = 0; j < series.length; j++) {
         double value = dataPoint[j + 1];
         if (Double.isNaN(value)) {
           continue;
         }
-        ChartValueSeries chartValueSeries = series[j];
-        Path path = chartValueSeries.getPath();
-        int x = getX(dataPoint[0]);
-        int y = getY(chartValueSeries, value);
+        Path path = series[j].getBackPath();
+        int x = dimensions.getX(dataPoint[0]);
+        int y = dimensions.getY(j, value);
         if (!hasMoved[j]) {
           hasMoved[j] = true;
           path.moveTo(x, y);
@@ -855,22 +1054,24 @@ public class ChartView extends View {
 
   /**
    * Closes all paths.
+   * 
+   * @param dataPoints the data points
+   * @param dimensions the dimensions
    */
-  private void closePaths() {
+  private void closePaths(double[][] dataPoints, Dimensions dimensions) {
     for (int i = 0; i < series.length; i++) {
-      int first = getFirstPopulatedChartDataIndex(i);
+      int first = getFirstPopulatedChartDataIndex(dataPoints, i);
 
       if (first != -1) {
-        int xCorner = getX(chartData.get(first)[0]);
-        int yCorner = topBorder + effectiveHeight;
-        ChartValueSeries chartValueSeries = series[i];
-        Path path = chartValueSeries.getPath();
+        int xCorner = dimensions.getX(dataPoints[first][0]);
+        int yCorner = dimensions.topBorder + dimensions.effectiveHeight;
+        Path path = series[i].getBackPath();
         // Bottom right corner
-        path.lineTo(getX(chartData.get(chartData.size() - 1)[0]), yCorner);
+        path.lineTo(dimensions.getX(dataPoints[dataPoints.length - 1][0]), yCorner);
         // Bottom left corner
         path.lineTo(xCorner, yCorner);
         // Top right corner
-        path.lineTo(xCorner, getY(chartValueSeries, chartData.get(first)[i + 1]));
+        path.lineTo(xCorner, dimensions.getY(i, dataPoints[first][i + 1]));
       }
     }
   }
@@ -879,11 +1080,12 @@ public class ChartView extends View {
    * Finds the index of the first data point containing data for a series.
    * Returns -1 if no data point contains data for the series.
    * 
+   * @param dataPoints the data points
    * @param seriesIndex the series's index
    */
-  private int getFirstPopulatedChartDataIndex(int seriesIndex) {
-    for (int i = 0; i < chartData.size(); i++) {
-      if (!Double.isNaN(chartData.get(i)[seriesIndex + 1])) {
+  private int getFirstPopulatedChartDataIndex(double[][] dataPoints, int seriesIndex) {
+    for (int i = 0; i < dataPoints.length; i++) {
+      if (!Double.isNaN(dataPoints[i][seriesIndex + 1])) {
         return i;
       }
     }
@@ -937,38 +1139,14 @@ public class ChartView extends View {
    * @param newHeight the new height
    */
   private void updateEffectiveDimensionsIfChanged(int newWidth, int newHeight) {
-    if (width != newWidth || height != newHeight) {
-      width = newWidth;
-      height = newHeight;
-      updateEffectiveDimensions();
-      updatePaths();
-    }
-  }
-
-  /**
-   * Gets the x position for a value.
-   * 
-   * @param value the value
-   */
-  private int getX(double value) {
-    if (value > maxX) {
-      value = maxX;
+    synchronized (chartData) {
+      if (width != newWidth || height != newHeight) {
+        width = newWidth;
+        height = newHeight;
+        updateEffectiveDimensions();
+        updatePaths();
+      }
     }
-    double percentage = value / maxX;
-    return leftBorder + (int) (percentage * effectiveWidth * zoomLevel);
-  }
-
-  /**
-   * Gets the y position for a value in a chart value series
-   * 
-   * @param chartValueSeries the chart value series
-   * @param value the value
-   */
-  private int getY(ChartValueSeries chartValueSeries, double value) {
-    int effectiveSpread = chartValueSeries.getInterval() * Y_AXIS_INTERVALS;
-    double percentage = (value - chartValueSeries.getMinMarkerValue()) / effectiveSpread;
-    int rangeHeight = effectiveHeight - 2 * yAxisOffset;
-    return topBorder + yAxisOffset + (int) ((1 - percentage) * rangeHeight);
   }
 
   /**
@@ -1018,6 +1196,44 @@ public class ChartView extends View {
     }
   }
   
+  /**
+   * Gets the draw monitor.
+   */
+  @VisibleForTesting
+  FrameTimeMonitor getDrawMonitor() {
+    return drawMonitor;
+  }
+
+  /**
+   * Gets the path monitor.
+   */
+  @VisibleForTesting
+  FrameTimeMonitor getPathMonitor() {
+    return pathMonitor;
+  }
+
+  /**
+   * Waits for the pending path updates to be built and swapped.
+   * 
+   * @param timeoutMillis the maximum time to wait
+   * @return true if the paths are up to date
+   */
+  @VisibleForTesting
+  boolean waitForPaths(long timeoutMillis) throws InterruptedException {
+    Handler handler = pathHandler;
+    if (handler == null) {
+      return true;
+    }
+    final CountDownLatch latch = new CountDownLatch(1);
+    handler.post(new Runnable() {
+        @Override
+      public void run() {
+        latch.countDown();
+      }
+    });
+    return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
   /**
    * Returns the status of metricUnits.
    * 
@@ -1027,4 +1243,63 @@ public class ChartView extends View {
   public boolean isMetricUnits() {
     return metricUnits;
   }
+
+  /**
+   * A snapshot of the chart dimensions, taken under the chartData lock. The
+   * paths are built and the axes are drawn from the same snapshot.
+   */
+  private class Dimensions {
+    final double maxX;
+    final int zoomLevel;
+    final int leftBorder;
+    final int topBorder;
+    final int effectiveWidth;
+    final int effectiveHeight;
+    final int yAxisOffset;
+    final int[] intervals = new int[NUM_SERIES];
+    final int[] minMarkerValues = new int[NUM_SERIES];
+
+    /**
+     * Constructor. The caller must hold the chartData lock.
+     */
+    Dimensions() {
+      maxX = ChartView.this.maxX;
+      zoomLevel = ChartView.this.zoomLevel;
+      leftBorder = ChartView.this.leftBorder;
+      topBorder = ChartView.this.topBorder;
+      effectiveWidth = ChartView.this.effectiveWidth;
+      effectiveHeight = ChartView.this.effectiveHeight;
+      yAxisOffset = ChartView.this.yAxisOffset;
+      for (int i = 0; i < NUM_SERIES; i++) {
+        intervals[i] = series[i].getInterval();
+        minMarkerValues[i] = series[i].getMinMarkerValue();
+      }
+    }
+
+    /**
+     * Gets the x position for a value.
+     * 
+     * @param value the value
+     */
+    int getX(double value) {
+      if (value > maxX) {
+        value = maxX;
+      }
+      double percentage = value / maxX;
+      return leftBorder + (int) (percentage * effectiveWidth * zoomLevel);
+    }
+
+    /**
+     * Gets the y position for a value in a chart value series.
+     * 
+     * @param index the chart value series index
+     * @param value the value
+     */
+    int getY(int index, double value) {
+      int effectiveSpread = intervals[index] * Y_AXIS_INTERVALS;
+      double percentage = (value - minMarkerValues[index]) / effectiveSpread;
+      int rangeHeight = effectiveHeight - 2 * yAxisOffset;
+      return topBorder + yAxisOffset + (int) ((1 - percentage) * rangeHeight);
+    }
+  }
 }
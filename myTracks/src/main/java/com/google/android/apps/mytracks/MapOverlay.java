@@ -78,6 +78,12 @@ public class MapOverlay {
   private final BlockingQueue<CachedLocation> pendingLocations;
   private final List<Waypoint> waypoints;
 
+  // Waypoints added since the waypoints were last drawn
+  private final List<Waypoint> newWaypoints = new ArrayList<Waypoint>();
+
+  // True if the waypoints were cleared, updated, or removed since last drawn
+  private boolean reloadWaypoints;
+
   private String trackColorMode = PreferencesUtils.TRACK_COLOR_MODE_DEFAULT;
 
   private boolean showEndMarker = true;
@@ -188,6 +194,44 @@ public class MapOverlay {
   public void addWaypoint(Waypoint waypoint) {
     synchronized (waypoints) {
       waypoints.add(waypoint);
+      newWaypoints.add(waypoint);
+    }
+  }
+
+  /**
+   * Updates a waypoint. Replaces the waypoint with the same id, or adds the
+   * waypoint.
+   * 
+   * @param waypoint the waypoint
+   */
+  public void updateWaypoint(Waypoint waypoint) {
+    synchronized (waypoints) {
+      for (int i = 0; i < waypoints.size(); i++) {
+        if (waypoints.get(i).getId() == waypoint.getId()) {
+          waypoints.set(i, waypoint);
+          reloadWaypoints = true;
+          return;
+        }
+      }
+      waypoints.add(waypoint);
+      newWaypoints.add(waypoint);
+    }
+  }
+
+  /**
+   * Removes a waypoint.
+   * 
+   * @param waypointId the waypoint id
+   */
+  public void removeWaypoint(long waypointId) {
+    synchronized (waypoints) {
+      for (int i = 0; i < waypoints.size(); i++) {
+        if (waypoints.get(i).getId() == waypointId) {
+          waypoints.remove(i);
+          reloadWaypoints = true;
+          return;
+        }
+      }
     }
   }
 
@@ -197,6 +241,8 @@ public class MapOverlay {
   public void clearWaypoints() {
     synchronized (waypoints) {
       waypoints.clear();
+      newWaypoints.clear();
+      reloadWaypoints = true;
     }
   }
 
@@ -210,7 +256,9 @@ public class MapOverlay {
   }
 
   /**
-   * Updates the track, start and end markers, and waypoints.
+   * Updates the track, start and end markers, and waypoints. Reloads
+   * everything if the waypoints were cleared, updated or removed, else only
+   * adds the new waypoints.
    * 
    * @param googleMap the google map
    * @param paths the paths
@@ -224,9 +272,13 @@ public class MapOverlay {
       boolean hasStartMarker = false;
       // Merge pendingLocations with locations
       int newLocations = pendingLocations.drainTo(locations);
+      boolean isReloadWaypoints;
+      synchronized (waypoints) {
+        isReloadWaypoints = reloadWaypoints;
+      }
       // Call updateState first because we want to update its state each time
       // (for dynamic coloring)
-      if (trackPath.updateState(tripStatistics) || reload) {
+      if (trackPath.updateState(tripStatistics) || reload || isReloadWaypoints) {
         googleMap.clear();
         paths.clear();
         trackPath.updatePath(googleMap, paths, 0, locations);
@@ -237,6 +289,7 @@ public class MapOverlay {
           int numLocations = locations.size();
           trackPath.updatePath(googleMap, paths, numLocations - newLocations, locations);
         }
+        addNewWaypoints(googleMap);
       }
       return hasStartMarker;
     }
@@ -287,16 +340,43 @@ public class MapOverlay {
   private void updateWaypoints(GoogleMap googleMap) {
     synchronized (waypoints) {
       for (Waypoint waypoint : waypoints) {
-        Location location = waypoint.getLocation();
-        LatLng latLng = new LatLng(location.getLatitude(), location.getLongitude());
-        int drawableId = waypoint.getType() == WaypointType.STATISTICS 
-            ? R.drawable.ic_marker_yellow_pushpin : R.drawable.ic_marker_blue_pushpin;
-        MarkerOptions markerOptions = new MarkerOptions().position(latLng)
-            .anchor(WAYPOINT_X_ANCHOR, WAYPOINT_Y_ANCHOR).draggable(false).visible(true)
-            .icon(BitmapDescriptorFactory.fromResource(drawableId))
-            .title(String.valueOf(waypoint.getId()));
-        googleMap.addMarker(markerOptions);
+        addWaypointMarker(googleMap, waypoint);
+      }
+      newWaypoints.clear();
+      reloadWaypoints = false;
+    }
+  }
+
+  /**
+   * Adds the markers of the waypoints added since the waypoints were last
+   * drawn.
+   * 
+   * @param googleMap the google map.
+   */
+  private void addNewWaypoints(GoogleMap googleMap) {
+    synchronized (waypoints) {
+      for (Waypoint waypoint : newWaypoints) {
+        addWaypointMarker(googleMap, waypoint);
       }
+      newWaypoints.clear();
     }
   }
+
+  /**
+   * Adds a waypoint marker.
+   * 
+   * @param googleMap the google map.
+   * @param waypoint the waypoint
+   */
+  private void addWaypointMarker(GoogleMap googleMap, Waypoint waypoint) {
+    Location location = waypoint.getLocation();
+    LatLng latLng = new LatLng(location.getLatitude(), location.getLongitude());
+    int drawableId = waypoint.getType() == WaypointType.STATISTICS 
+        ? R.drawable.ic_marker_yellow_pushpin : R.drawable.ic_marker_blue_pushpin;
+    MarkerOptions markerOptions = new MarkerOptions().position(latLng)
+        .anchor(WAYPOINT_X_ANCHOR, WAYPOINT_Y_ANCHOR).draggable(false).visible(true)
+        .icon(BitmapDescriptorFactory.fromResource(drawableId))
+        .title(String.valueOf(waypoint.getId()));
+    googleMap.addMarker(markerOptions);
+  }
 }
@@ -21,14 +21,14 @@ import com.google.android.apps.mytracks.content.SearchEngine;
 import com.google.android.apps.mytracks.content.SearchEngine.ScoredResult;
 import com.google.android.apps.mytracks.content.SearchEngine.SearchQuery;
 import com.google.android.apps.mytracks.content.SearchEngineProvider;
-import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.TrackSummary;
+import com.google.android.apps.mytracks.content.TracksColumns;
 import com.google.android.apps.mytracks.content.Waypoint;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
 import com.google.android.apps.mytracks.fragments.DeleteMarkerDialogFragment;
 import com.google.android.apps.mytracks.fragments.DeleteMarkerDialogFragment.DeleteMarkerCaller;
 import com.google.android.apps.mytracks.services.MyTracksLocationManager;
 import com.google.android.apps.mytracks.services.TrackRecordingServiceConnection;
-import com.google.android.apps.mytracks.stats.TripStatistics;
 import com.google.android.apps.mytracks.util.ApiAdapterFactory;
 import com.google.android.apps.mytracks.util.IntentUtils;
 import com.google.android.apps.mytracks.util.ListItemUtils;
@@ -94,6 +94,11 @@ public class SearchListActivity extends AbstractSendToGoogleActivity implements
   private static final String TRACK_ID_FIELD = "trackId";
   private static final String MARKER_ID_FIELD = "markerId";
 
+  private static final String[] TRACK_NAME_PROJECTION = { TracksColumns._ID, TracksColumns.NAME };
+
+  private static final String[] TRACK_SHARED_PROJECTION = { TracksColumns._ID,
+      TracksColumns.SHAREDWITHME };
+
   private final OnSharedPreferenceChangeListener
       sharedPreferenceChangeListener = new OnSharedPreferenceChangeListener() {
           @Override
@@ -140,7 +145,8 @@ public class SearchListActivity extends AbstractSendToGoogleActivity implements
           if (isSingleSelection) {
             Map<String, Object> item = arrayAdapter.getItem(positions[0]);
             Long trackId = (Long) item.get(TRACK_ID_FIELD);
-            Track track = myTracksProviderUtils.getTrack(trackId);
+            TrackSummary track = myTracksProviderUtils.getTrackSummary(
+                TRACK_SHARED_PROJECTION, trackId);
 
             isSingleSelectionShareWithMe = track.isSharedWithMe();
             isSingleSelectionTrack = item.get(MARKER_ID_FIELD) == null;
@@ -475,7 +481,7 @@ public class SearchListActivity extends AbstractSendToGoogleActivity implements
     String trackName = null;
     long trackId = waypoint.getTrackId();
     if (trackId != -1L) {
-      Track track = myTracksProviderUtils.getTrack(trackId);
+      TrackSummary track = myTracksProviderUtils.getTrackSummary(TRACK_NAME_PROJECTION, trackId);
       if (track != null) {
         trackName = track.getName();
       }
@@ -509,8 +515,7 @@ public class SearchListActivity extends AbstractSendToGoogleActivity implements
    * @param track the track
    * @param resultMap the result map
    */
-  private void prepareTrackForDisplay(Track track, Map<String, Object> resultMap) {
-    TripStatistics tripStatitics = track.getTripStatistics();
+  private void prepareTrackForDisplay(TrackSummary track, Map<String, Object> resultMap) {
     String icon = track.getIcon();
     String category = icon != null && !icon.equals("") ? null : track.getCategory();
 
@@ -520,11 +525,11 @@ public class SearchListActivity extends AbstractSendToGoogleActivity implements
     resultMap.put(ICON_CONTENT_DESCRIPTION_ID_FIELD, R.string.image_track);
     resultMap.put(NAME_FIELD, track.getName());
     resultMap.put(SHARED_OWNER_FIELD, track.getSharedOwner());
-    resultMap.put(TOTAL_TIME_FIELD, StringUtils.formatElapsedTime(tripStatitics.getTotalTime()));
+    resultMap.put(TOTAL_TIME_FIELD, StringUtils.formatElapsedTime(track.getTotalTime()));
     resultMap.put(TOTAL_DISTANCE_FIELD,
-        StringUtils.formatDistance(this, tripStatitics.getTotalDistance(), metricUnits));
+        StringUtils.formatDistance(this, track.getTotalDistance(), metricUnits));
     resultMap.put(MARKER_COUNT_FIELD, myTracksProviderUtils.getWaypointCount(track.getId()));
-    resultMap.put(START_TIME_FIELD, tripStatitics.getStartTime());
+    resultMap.put(START_TIME_FIELD, track.getStartTime());
     resultMap.put(CATEGORY_FIELD, category);
     resultMap.put(DESCRIPTION_FIELD, track.getDescription());
     resultMap.put(PHOTO_URL_FIELD, null);
@@ -18,6 +18,7 @@ package com.google.android.apps.mytracks;
 
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
 import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.TrackDataPrefetcher;
 import com.google.android.apps.mytracks.content.TracksColumns;
 import com.google.android.apps.mytracks.fragments.ChooseAccountDialogFragment;
 import com.google.android.apps.mytracks.fragments.ChooseAccountDialogFragment.ChooseAccountCaller;
@@ -35,6 +36,7 @@ import com.google.android.apps.mytracks.io.file.importer.ImportActivity;
 import com.google.android.apps.mytracks.io.sync.SyncUtils;
 import com.google.android.apps.mytracks.services.ITrackRecordingService;
 import com.google.android.apps.mytracks.services.MyTracksLocationManager;
+import com.google.android.apps.mytracks.services.RecalculateService;
 import com.google.android.apps.mytracks.services.TrackRecordingServiceConnection;
 import com.google.android.apps.mytracks.settings.SettingsActivity;
 import com.google.android.apps.mytracks.util.AnalyticsUtils;
@@ -86,12 +88,16 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.widget.AbsListView;
+import android.widget.AbsListView.OnScrollListener;
 import android.widget.AdapterView;
 import android.widget.AdapterView.AdapterContextMenuInfo;
 import android.widget.AdapterView.OnItemClickListener;
 import android.widget.ListView;
 import android.widget.Toast;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -203,6 +209,7 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
                 boolean isRecording = recordingTrackId
                     != PreferencesUtils.RECORDING_TRACK_ID_DEFAULT;
                 trackController.update(isRecording, recordingTrackPaused);
+                trackDataPrefetcher.setEnabled(!isRecording);
               }
             });
           }
@@ -290,6 +297,12 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
       @Override
     public void onLoadFinished(Loader<Cursor> loader, Cursor cursor) {
       sectionResourceCursorAdapter.swapCursor(cursor);
+      listView.post(new Runnable() {
+          @Override
+        public void run() {
+          prefetchVisibleTracks();
+        }
+      });
     }
 
       @Override
@@ -303,6 +316,7 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
   private SharedPreferences sharedPreferences;
   private TrackRecordingServiceConnection trackRecordingServiceConnection;
   private TrackController trackController;
+  private TrackDataPrefetcher trackDataPrefetcher;
   private ListView listView;
   private SectionResourceCursorAdapter sectionResourceCursorAdapter;
 
@@ -340,6 +354,7 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
         this, bindChangedCallback);
     trackController = new TrackController(
         this, trackRecordingServiceConnection, true, recordListener, stopListener);
+    trackDataPrefetcher = TrackDataPrefetcher.newInstance(this);
 
     setDefaultKeyMode(DEFAULT_KEYS_SEARCH_LOCAL);
     // Show trackController when search dialog is dismissed
@@ -356,6 +371,7 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
     listView.setOnItemClickListener(new OnItemClickListener() {
         @Override
       public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+        trackDataPrefetcher.onTrackSelected(id);
         Intent newIntent = IntentUtils.newIntent(TrackListActivity.this, TrackDetailActivity.class)
             .putExtra(TrackDetailActivity.EXTRA_TRACK_ID, id);
         startActivity(newIntent);
@@ -395,6 +411,18 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
       }
     };
     listView.setAdapter(sectionResourceCursorAdapter);
+    listView.setOnScrollListener(new OnScrollListener() {
+        @Override
+      public void onScrollStateChanged(AbsListView view, int scrollState) {
+        if (scrollState == OnScrollListener.SCROLL_STATE_IDLE) {
+          prefetchVisibleTracks();
+        }
+      }
+
+        @Override
+      public void onScroll(
+          AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {}
+    });
     ApiAdapterFactory.getApiAdapter()
         .configureListViewContextualMenu(this, listView, contextualActionModeCallback);
 
@@ -414,9 +442,16 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
     // Update shared preferences
     sharedPreferenceChangeListener.onSharedPreferenceChanged(null, null);
 
+    // Prefetch the likely next tracks when not recording
+    trackDataPrefetcher.start();
+    trackDataPrefetcher.setEnabled(recordingTrackId == PreferencesUtils.RECORDING_TRACK_ID_DEFAULT);
+
     // Update track recording service connection
     TrackRecordingServiceConnectionUtils.startConnection(this, trackRecordingServiceConnection);
 
+    // Resume an unfinished recalculation
+    RecalculateService.resume(this);
+
     AnalyticsUtils.sendPageViews(this, AnalyticsUtils.PAGE_TRACK_LIST);
   }
 
@@ -448,9 +483,17 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
 
     trackRecordingServiceConnection.unbind();
 
+    trackDataPrefetcher.stop();
+
     AnalyticsUtils.dispatch();
   }
 
+  @Override
+  public void onTrimMemory(int level) {
+    super.onTrimMemory(level);
+    trackDataPrefetcher.onTrimMemory(level);
+  }
+
   @Override
   protected void onActivityResult(int requestCode, int resultCode, Intent data) {
     if (requestCode == GOOGLE_PLAY_SERVICES_REQUEST_CODE) {
@@ -743,10 +786,26 @@ public class TrackListActivity extends AbstractSendToGoogleActivity
     }
   }
   
+  /**
+   * Prefetches the visible tracks.
+   */
+  private void prefetchVisibleTracks() {
+    List<Long> trackIds = new ArrayList<Long>();
+    int last = listView.getLastVisiblePosition();
+    for (int position = listView.getFirstVisiblePosition(); position <= last; position++) {
+      long trackId = listView.getItemIdAtPosition(position);
+      if (trackId >= 0L) {
+        trackIds.add(trackId);
+      }
+    }
+    trackDataPrefetcher.onVisibleTracksChanged(trackIds);
+  }
+
   /**
    * Starts a new recording.
    */
   private void startRecording() {
+    trackDataPrefetcher.setEnabled(false);
     startNewRecording = true;
     trackRecordingServiceConnection.startAndBind();
 
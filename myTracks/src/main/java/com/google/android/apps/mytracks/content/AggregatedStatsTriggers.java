@@ -0,0 +1,348 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.CALORIE;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.CATEGORY;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.DIRTY;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.ELEVATIONGAIN;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MAXELEVATION;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MAXGRADE;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MAXSPEED;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MINELEVATION;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MINGRADE;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.MOVINGTIME;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.NUMTRACKS;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.PERIOD;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.PERIODSTART;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.STARTTIME;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.STOPTIME;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.TABLE_NAME;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.TOTALDISTANCE;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.TOTALTIME;
+import static com.google.android.apps.mytracks.content.AggregatedStatsColumns.TYPE;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the SQL statements maintaining the
+ * {@link AggregatedStatsColumns#TABLE_NAME} table. Month and week rows are
+ * keyed by the local date of the month or week start, which unlike the start
+ * time doesn't change with the time zone offset, so a time zone change doesn't
+ * split a period into two rows.
+ */
+class AggregatedStatsTriggers {
+
+  // Dirty value when the row needs to be recomputed
+  static final int DIRTY_ROW = 1;
+
+  // Dirty value when the whole table needs to be recomputed
+  static final int DIRTY_TABLE = 2;
+
+  /**
+   * Marks the whole table dirty, so it is populated on the next read.
+   */
+  static final String MARK_TABLE_DIRTY = "INSERT INTO " + TABLE_NAME + " (" + TYPE + ", " + DIRTY
+      + ") VALUES (" + AggregatedStatsColumns.TYPE_ALL + ", " + DIRTY_TABLE + ")";
+
+  @VisibleForTesting
+  static final int[] TYPES = { AggregatedStatsColumns.TYPE_ALL,
+      AggregatedStatsColumns.TYPE_CATEGORY, AggregatedStatsColumns.TYPE_MONTH,
+      AggregatedStatsColumns.TYPE_WEEK };
+
+  // Columns summed over the tracks
+  private static final String[] SUM_COLUMNS = { TOTALDISTANCE, TOTALTIME, MOVINGTIME,
+      ELEVATIONGAIN, CALORIE };
+
+  // Columns where the group keeps the minimum of the tracks
+  private static final String[] MIN_COLUMNS = { STARTTIME, MINELEVATION, MINGRADE };
+
+  // Columns where the group keeps the maximum of the tracks
+  private static final String[] MAX_COLUMNS = { STOPTIME, MAXSPEED, MAXELEVATION, MAXGRADE };
+
+  private AggregatedStatsTriggers() {}
+
+  /**
+   * Gets the statements dropping the triggers on the tracks table.
+   */
+  static String[] getDropTriggers() {
+    return new String[] { "DROP TRIGGER IF EXISTS " + TABLE_NAME + "_insert",
+        "DROP TRIGGER IF EXISTS " + TABLE_NAME + "_update",
+        "DROP TRIGGER IF EXISTS " + TABLE_NAME + "_delete" };
+  }
+
+  /**
+   * Gets the statements creating the triggers on the tracks table. The update
+   * trigger only runs when a statistics column actually changes, not when a
+   * track update writes the same values, e.g. on a rename.
+   */
+  static String[] getCreateTriggers() {
+    StringBuilder insert = new StringBuilder();
+    StringBuilder update = new StringBuilder();
+    StringBuilder delete = new StringBuilder();
+    for (int type : TYPES) {
+      insert.append(getEnsureRow(type, "new.")).append(getAddTrack(type, "new."));
+      update.append(getEnsureRow(type, "new."))
+          .append(getRemoveTrack(type, "old.", getUpdateDirty(type)))
+          .append(getAddTrack(type, "new."));
+      delete.append(getRemoveTrack(type, "old.", getMarkDirty()));
+    }
+
+    List<String> columns = new ArrayList<String>();
+    columns.add(TracksColumns.CATEGORY);
+    columns.addAll(Arrays.asList(SUM_COLUMNS));
+    columns.addAll(Arrays.asList(MIN_COLUMNS));
+    columns.addAll(Arrays.asList(MAX_COLUMNS));
+    StringBuilder updateColumns = new StringBuilder();
+    StringBuilder changed = new StringBuilder();
+    for (String column : columns) {
+      if (updateColumns.length() != 0) {
+        updateColumns.append(", ");
+        changed.append(" OR ");
+      }
+      updateColumns.append(column);
+      changed.append("old.").append(column).append(" IS NOT new.").append(column);
+    }
+
+    return new String[] {
+        "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_insert AFTER INSERT ON "
+            + TracksColumns.TABLE_NAME + " BEGIN " + insert + "END",
+        "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_update AFTER UPDATE OF "
+            + updateColumns + " ON " + TracksColumns.TABLE_NAME + " WHEN " + changed + " BEGIN "
+            + update + "END",
+        "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_delete AFTER DELETE ON "
+            + TracksColumns.TABLE_NAME + " BEGIN " + delete + "END" };
+  }
+
+  /**
+   * Gets the statements inserting the missing rows from the tracks table. Used
+   * to rebuild the rows deleted because they were dirty.
+   */
+  static String[] getInsertMissingRows() {
+    String[] statements = new String[TYPES.length];
+    for (int i = 0; i < TYPES.length; i++) {
+      int type = TYPES[i];
+      String category = getCategory(type, "");
+      String period = getPeriod(type, "");
+
+      StringBuilder columns = new StringBuilder();
+      columns.append(TYPE).append(", ").append(CATEGORY).append(", ").append(PERIOD)
+          .append(", ").append(PERIODSTART).append(", ").append(NUMTRACKS);
+      StringBuilder values = new StringBuilder();
+      values.append(type).append(" AS ").append(TYPE).append(", ").append(category).append(" AS ")
+          .append(CATEGORY).append(", ").append(period).append(" AS ").append(PERIOD)
+          .append(", ").append(getPeriodStart(type, period)).append(" AS ").append(PERIODSTART)
+          .append(", COUNT(*) AS ").append(NUMTRACKS);
+      for (String column : SUM_COLUMNS) {
+        columns.append(", ").append(column);
+        values.append(", IFNULL(SUM(").append(column).append("), 0)");
+      }
+      for (String column : MIN_COLUMNS) {
+        columns.append(", ").append(column);
+        values.append(", MIN(").append(column).append(")");
+      }
+      for (String column : MAX_COLUMNS) {
+        columns.append(", ").append(column);
+        values.append(", MAX(").append(column).append(")");
+      }
+
+      String groupBy;
+      switch (type) {
+        case AggregatedStatsColumns.TYPE_CATEGORY:
+          groupBy = " GROUP BY " + category;
+          break;
+        case AggregatedStatsColumns.TYPE_MONTH:
+        case AggregatedStatsColumns.TYPE_WEEK:
+          groupBy = " GROUP BY " + period;
+          break;
+        default:
+          groupBy = "";
+          break;
+      }
+
+      statements[i] = "INSERT INTO " + TABLE_NAME + " (" + columns + ") SELECT * FROM (SELECT "
+          + values + " FROM " + TracksColumns.TABLE_NAME + groupBy + ") g WHERE g." + NUMTRACKS
+          + ">0 AND g." + PERIOD + " IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + TABLE_NAME
+          + " s WHERE s." + TYPE + "=g." + TYPE + " AND s." + CATEGORY + "=g." + CATEGORY
+          + " AND s." + PERIOD + "=g." + PERIOD + ")";
+    }
+    return statements;
+  }
+
+  /**
+   * Gets the category key of a track row.
+   * 
+   * @param type the aggregation type
+   * @param row the row prefix, "new.", "old.", or ""
+   */
+  @VisibleForTesting
+  static String getCategory(int type, String row) {
+    if (type == AggregatedStatsColumns.TYPE_CATEGORY) {
+      return "IFNULL(" + row + TracksColumns.CATEGORY + ", '')";
+    }
+    return "''";
+  }
+
+  /**
+   * Gets the period key of a track row. It is NULL for month and week rows when
+   * the track has no start time.
+   * 
+   * @param type the aggregation type
+   * @param row the row prefix, "new.", "old.", or ""
+   */
+  @VisibleForTesting
+  static String getPeriod(int type, String row) {
+    switch (type) {
+      case AggregatedStatsColumns.TYPE_MONTH:
+        return getLocalDate(row, "'start of month'");
+      case AggregatedStatsColumns.TYPE_WEEK:
+        // The Monday on or before the day
+        return getLocalDate(row, "'-6 days', 'weekday 1'");
+      default:
+        return "''";
+    }
+  }
+
+  /**
+   * Gets the start time of a period, in the current time zone.
+   * 
+   * @param type the aggregation type
+   * @param period the period key
+   */
+  private static String getPeriodStart(int type, String period) {
+    switch (type) {
+      case AggregatedStatsColumns.TYPE_MONTH:
+      case AggregatedStatsColumns.TYPE_WEEK:
+        return "CAST(strftime('%s', " + period + ", 'utc') AS INTEGER)*1000";
+      default:
+        return "0";
+    }
+  }
+
+  /**
+   * Gets the local date of the period containing the track start time.
+   * 
+   * @param row the row prefix
+   * @param modifiers the SQLite date modifiers moving a local date to the
+   *          period start
+   */
+  private static String getLocalDate(String row, String modifiers) {
+    String startTime = row + TracksColumns.STARTTIME;
+    return "(CASE WHEN " + startTime + ">=0 THEN date(" + startTime
+        + "/1000, 'unixepoch', 'localtime', " + modifiers + ") END)";
+  }
+
+  /**
+   * Gets the where clause matching the group row of a track row.
+   */
+  private static String getWhere(int type, String row) {
+    return " WHERE " + TYPE + "=" + type + " AND " + CATEGORY + "=" + getCategory(type, row)
+        + " AND " + PERIOD + "=" + getPeriod(type, row) + "; ";
+  }
+
+  /**
+   * Gets the statement inserting the group row of a track row if missing.
+   */
+  private static String getEnsureRow(int type, String row) {
+    String period = getPeriod(type, row);
+    return "INSERT OR IGNORE INTO " + TABLE_NAME + " (" + TYPE + ", " + CATEGORY + ", " + PERIOD
+        + ", " + PERIODSTART + ") SELECT " + type + ", " + getCategory(type, row) + ", " + period
+        + ", " + getPeriodStart(type, period) + " WHERE " + period + " IS NOT NULL; ";
+  }
+
+  /**
+   * Gets the statement adding a track row to its group row.
+   */
+  private static String getAddTrack(int type, String row) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("UPDATE ").append(TABLE_NAME).append(" SET ").append(NUMTRACKS).append("=")
+        .append(NUMTRACKS).append("+1");
+    for (String column : SUM_COLUMNS) {
+      builder.append(", ").append(column).append("=").append(column).append("+IFNULL(")
+          .append(row).append(column).append(", 0)");
+    }
+    for (String column : MIN_COLUMNS) {
+      builder.append(", ").append(column).append("=MIN(")
+          .append(getMergeArgs(column, row + column)).append(")");
+    }
+    for (String column : MAX_COLUMNS) {
+      builder.append(", ").append(column).append("=MAX(")
+          .append(getMergeArgs(column, row + column)).append(")");
+    }
+    return builder.append(getWhere(type, row)).toString();
+  }
+
+  /**
+   * Gets the statement removing a track row from its group row. The extremes
+   * cannot be undone in place, so the row is marked dirty when needed.
+   * 
+   * @param type the aggregation type
+   * @param row the row prefix
+   * @param dirty the expression for the new dirty value
+   */
+  private static String getRemoveTrack(int type, String row, String dirty) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("UPDATE ").append(TABLE_NAME).append(" SET ").append(NUMTRACKS).append("=")
+        .append(NUMTRACKS).append("-1");
+    for (String column : SUM_COLUMNS) {
+      builder.append(", ").append(column).append("=").append(column).append("-IFNULL(")
+          .append(row).append(column).append(", 0)");
+    }
+    builder.append(", ").append(DIRTY).append("=").append(dirty);
+    return builder.append(getWhere(type, row)).toString();
+  }
+
+  /**
+   * Gets the dirty expression when updating a track. The old group row is
+   * dirty if the track moves to another group or if one of its extremes
+   * shrinks. Extremes only widen while recording, so recording a track does not
+   * dirty its rows.
+   */
+  private static String getUpdateDirty(int type) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("(CASE WHEN ").append(getCategory(type, "old.")).append("<>")
+        .append(getCategory(type, "new.")).append(" OR ").append(getPeriod(type, "old."))
+        .append(" IS NOT ").append(getPeriod(type, "new."));
+    for (String column : MIN_COLUMNS) {
+      builder.append(" OR new.").append(column).append(">old.").append(column);
+    }
+    for (String column : MAX_COLUMNS) {
+      builder.append(" OR new.").append(column).append("<old.").append(column);
+    }
+    return builder.append(" THEN ").append(getMarkDirty()).append(" ELSE ").append(DIRTY)
+        .append(" END)").toString();
+  }
+
+  /**
+   * Gets the expression marking a row dirty, keeping {@link #DIRTY_TABLE}.
+   */
+  private static String getMarkDirty() {
+    return "MAX(" + DIRTY + ", " + DIRTY_ROW + ")";
+  }
+
+  /**
+   * Gets the arguments of the MIN or MAX merging a group column with a track
+   * value, ignoring NULL on either side.
+   */
+  private static String getMergeArgs(String column, String value) {
+    return "IFNULL(" + column + ", " + value + "), IFNULL(" + value + ", " + column + ")";
+  }
+}
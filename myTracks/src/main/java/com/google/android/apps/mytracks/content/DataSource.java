@@ -41,13 +41,14 @@ public class DataSource {
   }
 
   /**
-   * Registers a content observer.
+   * Registers a content observer. The observer is also notified of changes to
+   * the descendants of the uri, e.g., a single waypoint.
    * 
    * @param uri the uri
    * @param observer the observer
    */
   public void registerContentObserver(Uri uri, ContentObserver observer) {
-    contentResolver.registerContentObserver(uri, false, observer);
+    contentResolver.registerContentObserver(uri, true, observer);
   }
 
   /**
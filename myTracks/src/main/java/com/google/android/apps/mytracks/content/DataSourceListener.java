@@ -16,6 +16,7 @@
 
 package com.google.android.apps.mytracks.content;
 
+import android.net.Uri;
 
 /**
  * Listener to be invoked when {@link DataSource} changes.
@@ -31,8 +32,11 @@ public interface DataSourceListener {
 
   /**
    * Notifies when the waypoints table is updated.
+   * 
+   * @param uri the uri of the changed waypoint. The waypoints table uri or null
+   *          if unknown
    */
-  public void notifyWaypointsTableUpdated();
+  public void notifyWaypointsTableUpdated(Uri uri);
 
   /**
    * Notifies when the track points table is updated.
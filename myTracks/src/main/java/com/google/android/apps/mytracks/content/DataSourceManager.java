@@ -19,6 +19,7 @@ package com.google.android.apps.mytracks.content;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
 import android.database.ContentObserver;
+import android.net.Uri;
 import android.os.Handler;
 import android.util.Log;
 
@@ -66,7 +67,12 @@ public class DataSourceManager {
 
     @Override
     public void onChange(boolean selfChange) {
-      dataSourceListener.notifyWaypointsTableUpdated();
+      dataSourceListener.notifyWaypointsTableUpdated(null);
+    }
+
+    @Override
+    public void onChange(boolean selfChange, Uri uri) {
+      dataSourceListener.notifyWaypointsTableUpdated(uri);
     }
   }
 
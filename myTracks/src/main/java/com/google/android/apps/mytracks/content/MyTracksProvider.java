@@ -22,12 +22,16 @@ import com.google.android.maps.mytracks.R;
 import com.google.common.annotations.VisibleForTesting;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
@@ -42,6 +46,7 @@ import android.util.Log;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 
 /**
  * A {@link ContentProvider} that handles access to track points, tracks, and
@@ -53,7 +58,7 @@ public class MyTracksProvider extends ContentProvider {
 
   private static final String TAG = MyTracksProvider.class.getSimpleName();
   @VisibleForTesting
-  static final int DATABASE_VERSION = 22;
+  static final int DATABASE_VERSION = 28;
 
   @VisibleForTesting
   static final String DATABASE_NAME = "mytracks.db";
@@ -78,6 +83,99 @@ public class MyTracksProvider extends ContentProvider {
       db.execSQL(TrackPointsColumns.CREATE_TABLE);
       db.execSQL(TracksColumns.CREATE_TABLE);
       db.execSQL(WaypointsColumns.CREATE_TABLE);
+      createSearchTables(db);
+      createSpatialTables(db);
+      createAggregatedStatsTable(db);
+      createSensorPointsTable(db);
+    }
+
+    /**
+     * Creates the full-text search tables and the triggers keeping them in sync
+     * with the tracks and waypoints tables.
+     * 
+     * @param db the database
+     */
+    private void createSearchTables(SQLiteDatabase db) {
+      db.execSQL(TracksSearchColumns.CREATE_TABLE);
+      for (String trigger : TracksSearchColumns.CREATE_TRIGGERS) {
+        db.execSQL(trigger);
+      }
+      db.execSQL(WaypointsSearchColumns.CREATE_TABLE);
+      for (String trigger : WaypointsSearchColumns.CREATE_TRIGGERS) {
+        db.execSQL(trigger);
+      }
+    }
+
+    /**
+     * Creates the spatial index tables and the triggers keeping them in sync
+     * with the tracks and waypoints tables. Uses R*Tree tables if the SQLite
+     * R*Tree module is available, otherwise regular indexed tables with the
+     * same columns.
+     * 
+     * @param db the database
+     */
+    private void createSpatialTables(SQLiteDatabase db) {
+      try {
+        db.execSQL(TracksSpatialColumns.CREATE_TABLE);
+        db.execSQL(WaypointsSpatialColumns.CREATE_TABLE);
+      } catch (SQLiteException e) {
+        Log.w(TAG, "R*Tree not available, using indexed spatial tables.", e);
+        db.execSQL(TracksSpatialColumns.CREATE_FALLBACK_TABLE);
+        db.execSQL(TracksSpatialColumns.CREATE_FALLBACK_INDEX);
+        db.execSQL(WaypointsSpatialColumns.CREATE_FALLBACK_TABLE);
+        db.execSQL(WaypointsSpatialColumns.CREATE_FALLBACK_INDEX);
+      }
+      for (String trigger : TracksSpatialColumns.CREATE_TRIGGERS) {
+        db.execSQL(trigger);
+      }
+      for (String trigger : WaypointsSpatialColumns.CREATE_TRIGGERS) {
+        db.execSQL(trigger);
+      }
+    }
+
+    /**
+     * Creates the aggregated stats table and the triggers keeping it in sync
+     * with the tracks table.
+     * 
+     * @param db the database
+     */
+    private void createAggregatedStatsTable(SQLiteDatabase db) {
+      db.execSQL(AggregatedStatsColumns.CREATE_TABLE);
+      for (String trigger : AggregatedStatsTriggers.getCreateTriggers()) {
+        db.execSQL(trigger);
+      }
+    }
+
+    /**
+     * Creates the sensor points table and its index.
+     * 
+     * @param db the database
+     */
+    private void createSensorPointsTable(SQLiteDatabase db) {
+      db.execSQL(SensorPointsColumns.CREATE_TABLE);
+      db.execSQL(SensorPointsColumns.CREATE_INDEX);
+    }
+
+    /**
+     * Adds a float column to a table if the table doesn't have it.
+     * 
+     * @param db the database
+     * @param table the table name
+     * @param column the column name
+     */
+    private void addFloatColumn(SQLiteDatabase db, String table, String column) {
+      Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+      try {
+        int nameIndex = cursor.getColumnIndexOrThrow("name");
+        while (cursor.moveToNext()) {
+          if (column.equals(cursor.getString(nameIndex))) {
+            return;
+          }
+        }
+      } finally {
+        cursor.close();
+      }
+      db.execSQL("ALTER TABLE " + table + " ADD " + column + " FLOAT");
     }
 
     @Override
@@ -88,6 +186,12 @@ public class MyTracksProvider extends ContentProvider {
         db.execSQL("DROP TABLE IF EXISTS " + TrackPointsColumns.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + TracksColumns.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + WaypointsColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + TracksSearchColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + WaypointsSearchColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + TracksSpatialColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + WaypointsSpatialColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + AggregatedStatsColumns.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + SensorPointsColumns.TABLE_NAME);
         onCreate(db);
       } else {
         // Incremental upgrades. One if statement per DB version.
@@ -145,6 +249,69 @@ public class MyTracksProvider extends ContentProvider {
           db.execSQL("ALTER TABLE " + TracksColumns.TABLE_NAME + " ADD " + TracksColumns.CALORIE
               + " FLOAT");
         }
+
+        // Add track and waypoint full-text search tables
+        if (oldVersion <= 22) {
+          Log.w(TAG, "Upgrade DB: Adding track and waypoint search tables.");
+          createSearchTables(db);
+          db.execSQL("DELETE FROM " + TracksSearchColumns.TABLE_NAME);
+          db.execSQL(TracksSearchColumns.POPULATE_TABLE);
+          db.execSQL("DELETE FROM " + WaypointsSearchColumns.TABLE_NAME);
+          db.execSQL(WaypointsSearchColumns.POPULATE_TABLE);
+        }
+
+        // Add track and waypoint spatial index tables
+        if (oldVersion <= 23) {
+          Log.w(TAG, "Upgrade DB: Adding track and waypoint spatial tables.");
+          createSpatialTables(db);
+          db.execSQL("DELETE FROM " + TracksSpatialColumns.TABLE_NAME);
+          db.execSQL(TracksSpatialColumns.POPULATE_TABLE);
+          db.execSQL("DELETE FROM " + WaypointsSpatialColumns.TABLE_NAME);
+          db.execSQL(WaypointsSpatialColumns.POPULATE_TABLE);
+        }
+
+        // Add aggregated stats table
+        if (oldVersion <= 24) {
+          Log.w(TAG, "Upgrade DB: Adding aggregated stats table.");
+          createAggregatedStatsTable(db);
+          db.execSQL("DELETE FROM " + AggregatedStatsColumns.TABLE_NAME);
+          // Populated on the first read
+          db.execSQL(AggregatedStatsTriggers.MARK_TABLE_DIRTY);
+        }
+
+        // Add track and waypoint calorie input columns
+        if (oldVersion <= 25) {
+          Log.w(TAG, "Upgrade DB: Adding calorie input columns.");
+          String[] trackColumns = { TracksColumns.CALORIEDURATION, TracksColumns.CALORIEDISTANCE,
+              TracksColumns.CALORIECLIMB, TracksColumns.CALORIEDRAG };
+          for (String column : trackColumns) {
+            addFloatColumn(db, TracksColumns.TABLE_NAME, column);
+          }
+          String[] waypointColumns = { WaypointsColumns.CALORIEDURATION,
+              WaypointsColumns.CALORIEDISTANCE, WaypointsColumns.CALORIECLIMB,
+              WaypointsColumns.CALORIEDRAG };
+          for (String column : waypointColumns) {
+            addFloatColumn(db, WaypointsColumns.TABLE_NAME, column);
+          }
+        }
+
+        // Add sensor points table. Old track points keep their sensor column.
+        if (oldVersion <= 26) {
+          Log.w(TAG, "Upgrade DB: Adding sensor points table.");
+          createSensorPointsTable(db);
+        }
+
+        // Key the aggregated stats month and week rows on the local date
+        if (oldVersion <= 27) {
+          Log.w(TAG, "Upgrade DB: Recreating aggregated stats table.");
+          for (String trigger : AggregatedStatsTriggers.getDropTriggers()) {
+            db.execSQL(trigger);
+          }
+          db.execSQL("DROP TABLE IF EXISTS " + AggregatedStatsColumns.TABLE_NAME);
+          createAggregatedStatsTable(db);
+          // Populated on the first read
+          db.execSQL(AggregatedStatsTriggers.MARK_TABLE_DIRTY);
+        }
       }
     }
   }
@@ -156,7 +323,18 @@ public class MyTracksProvider extends ContentProvider {
    */
   @VisibleForTesting
   enum UrlType {
-    TRACKPOINTS, TRACKPOINTS_ID, TRACKS, TRACKS_ID, WAYPOINTS, WAYPOINTS_ID
+    AGGREGATED_STATS,
+    SENSORPOINTS,
+    TRACKPOINTS,
+    TRACKPOINTS_ID,
+    TRACKS,
+    TRACKS_ID,
+    TRACKS_SEARCH,
+    TRACKS_SPATIAL,
+    WAYPOINTS,
+    WAYPOINTS_ID,
+    WAYPOINTS_SEARCH,
+    WAYPOINTS_SPATIAL
   }
 
   private final UriMatcher uriMatcher;
@@ -164,6 +342,10 @@ public class MyTracksProvider extends ContentProvider {
 
   public MyTracksProvider() {
     uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, AggregatedStatsColumns.TABLE_NAME,
+        UrlType.AGGREGATED_STATS.ordinal());
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, SensorPointsColumns.TABLE_NAME,
+        UrlType.SENSORPOINTS.ordinal());
     uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, TrackPointsColumns.TABLE_NAME,
         UrlType.TRACKPOINTS.ordinal());
     uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, TrackPointsColumns.TABLE_NAME + "/#",
@@ -176,6 +358,14 @@ public class MyTracksProvider extends ContentProvider {
         MyTracksProviderUtils.AUTHORITY, WaypointsColumns.TABLE_NAME, UrlType.WAYPOINTS.ordinal());
     uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, WaypointsColumns.TABLE_NAME + "/#",
         UrlType.WAYPOINTS_ID.ordinal());
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, TracksSearchColumns.TABLE_NAME,
+        UrlType.TRACKS_SEARCH.ordinal());
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, WaypointsSearchColumns.TABLE_NAME,
+        UrlType.WAYPOINTS_SEARCH.ordinal());
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, TracksSpatialColumns.TABLE_NAME,
+        UrlType.TRACKS_SPATIAL.ordinal());
+    uriMatcher.addURI(MyTracksProviderUtils.AUTHORITY, WaypointsSpatialColumns.TABLE_NAME,
+        UrlType.WAYPOINTS_SPATIAL.ordinal());
   }
 
   @Override
@@ -209,8 +399,12 @@ public class MyTracksProvider extends ContentProvider {
       return 0;
     }
     String table;
+    String whereClause = where;
     boolean shouldVacuum = false;
     switch (getUrlType(url)) {
+      case SENSORPOINTS:
+        table = SensorPointsColumns.TABLE_NAME;
+        break;
       case TRACKPOINTS:
         table = TrackPointsColumns.TABLE_NAME;
         break;
@@ -221,6 +415,13 @@ public class MyTracksProvider extends ContentProvider {
       case WAYPOINTS:
         table = WaypointsColumns.TABLE_NAME;
         break;
+      case WAYPOINTS_ID:
+        table = WaypointsColumns.TABLE_NAME;
+        whereClause = WaypointsColumns._ID + "=" + url.getPathSegments().get(1);
+        if (!TextUtils.isEmpty(where)) {
+          whereClause += " AND (" + where + ")";
+        }
+        break;
       default:
         throw new IllegalArgumentException("Unknown URL " + url);
     }
@@ -229,7 +430,7 @@ public class MyTracksProvider extends ContentProvider {
     int count;
     try {
       db.beginTransaction();
-      count = db.delete(table, where, selectionArgs);
+      count = db.delete(table, whereClause, selectionArgs);
       db.setTransactionSuccessful();
     } finally {
       db.endTransaction();
@@ -250,6 +451,10 @@ public class MyTracksProvider extends ContentProvider {
       return null;
     }
     switch (getUrlType(url)) {
+      case AGGREGATED_STATS:
+        return AggregatedStatsColumns.CONTENT_TYPE;
+      case SENSORPOINTS:
+        return SensorPointsColumns.CONTENT_TYPE;
       case TRACKPOINTS:
         return TrackPointsColumns.CONTENT_TYPE;
       case TRACKPOINTS_ID:
@@ -258,10 +463,16 @@ public class MyTracksProvider extends ContentProvider {
         return TracksColumns.CONTENT_TYPE;
       case TRACKS_ID:
         return TracksColumns.CONTENT_ITEMTYPE;
+      case TRACKS_SEARCH:
+      case TRACKS_SPATIAL:
+        return TracksColumns.CONTENT_TYPE;
       case WAYPOINTS:
         return WaypointsColumns.CONTENT_TYPE;
       case WAYPOINTS_ID:
         return WaypointsColumns.CONTENT_ITEMTYPE;
+      case WAYPOINTS_SEARCH:
+      case WAYPOINTS_SPATIAL:
+        return WaypointsColumns.CONTENT_TYPE;
       default:
         throw new IllegalArgumentException("Unknown URL " + url);
     }
@@ -276,14 +487,17 @@ public class MyTracksProvider extends ContentProvider {
       initialValues = new ContentValues();
     }
     Uri result = null;
+    UrlType urlType = getUrlType(url);
     try {
       db.beginTransaction();
-      result = insertContentValues(url, getUrlType(url), initialValues);
+      result = insertContentValues(url, urlType, initialValues);
       db.setTransactionSuccessful();
     } finally {
       db.endTransaction();
     }
-    getContext().getContentResolver().notifyChange(url, null, false);
+    // Notify the waypoint url so that observers can load only the new waypoint
+    Uri notifyUrl = urlType == UrlType.WAYPOINTS && result != null ? result : url;
+    getContext().getContentResolver().notifyChange(notifyUrl, null, false);
     return result;
   }
 
@@ -322,6 +536,15 @@ public class MyTracksProvider extends ContentProvider {
     SQLiteQueryBuilder queryBuilder = new SQLiteQueryBuilder();
     String sortOrder = null;
     switch (getUrlType(url)) {
+      case AGGREGATED_STATS:
+        updateDirtyAggregatedStats();
+        queryBuilder.setTables(AggregatedStatsColumns.TABLE_NAME);
+        sortOrder = sort != null ? sort : AggregatedStatsColumns.DEFAULT_SORT_ORDER;
+        break;
+      case SENSORPOINTS:
+        queryBuilder.setTables(SensorPointsColumns.TABLE_NAME);
+        sortOrder = sort != null ? sort : SensorPointsColumns.DEFAULT_SORT_ORDER;
+        break;
       case TRACKPOINTS:
         queryBuilder.setTables(TrackPointsColumns.TABLE_NAME);
         sortOrder = sort != null ? sort : TrackPointsColumns.DEFAULT_SORT_ORDER;
@@ -338,6 +561,14 @@ public class MyTracksProvider extends ContentProvider {
         queryBuilder.setTables(TracksColumns.TABLE_NAME);
         queryBuilder.appendWhere("_id=" + url.getPathSegments().get(1));
         break;
+      case TRACKS_SEARCH:
+        queryBuilder.setTables(TracksSearchColumns.TABLE_NAME);
+        sortOrder = sort;
+        break;
+      case TRACKS_SPATIAL:
+        queryBuilder.setTables(TracksSpatialColumns.TABLES);
+        sortOrder = sort;
+        break;
       case WAYPOINTS:
         queryBuilder.setTables(WaypointsColumns.TABLE_NAME);
         sortOrder = sort != null ? sort : WaypointsColumns.DEFAULT_SORT_ORDER;
@@ -346,6 +577,14 @@ public class MyTracksProvider extends ContentProvider {
         queryBuilder.setTables(WaypointsColumns.TABLE_NAME);
         queryBuilder.appendWhere("_id=" + url.getPathSegments().get(1));
         break;
+      case WAYPOINTS_SEARCH:
+        queryBuilder.setTables(WaypointsSearchColumns.TABLE_NAME);
+        sortOrder = sort;
+        break;
+      case WAYPOINTS_SPATIAL:
+        queryBuilder.setTables(WaypointsSpatialColumns.TABLES);
+        sortOrder = sort;
+        break;
       default:
         throw new IllegalArgumentException("Unknown url " + url);
     }
@@ -411,6 +650,24 @@ public class MyTracksProvider extends ContentProvider {
     return count;
   }
 
+  @Override
+  public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+      throws OperationApplicationException {
+    if (!canAccess()) {
+      return new ContentProviderResult[0];
+    }
+    ContentProviderResult[] results;
+    try {
+      // Use a transaction in order to apply the operations as a single batch
+      db.beginTransaction();
+      results = super.applyBatch(operations);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+    return results;
+  }
+
   @Override
   public ParcelFileDescriptor openFile(Uri uri, String mode) throws FileNotFoundException {
     try {
@@ -428,6 +685,31 @@ public class MyTracksProvider extends ContentProvider {
     }
   }
   
+  /**
+   * Recomputes the dirty aggregated stats rows from the tracks table. The dirty
+   * rows, or all the rows if the table is dirty, are deleted and the missing
+   * rows inserted again.
+   */
+  private void updateDirtyAggregatedStats() {
+    long dirty = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX("
+        + AggregatedStatsColumns.DIRTY + "), 0) FROM " + AggregatedStatsColumns.TABLE_NAME, null);
+    if (dirty == 0) {
+      return;
+    }
+    try {
+      db.beginTransaction();
+      String where = dirty == AggregatedStatsTriggers.DIRTY_TABLE ? null
+          : AggregatedStatsColumns.DIRTY + "!=0";
+      db.delete(AggregatedStatsColumns.TABLE_NAME, where, null);
+      for (String statement : AggregatedStatsTriggers.getInsertMissingRows()) {
+        db.execSQL(statement);
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
   /**
    * Returns true if the caller can access the content provider.
    */
@@ -458,6 +740,8 @@ public class MyTracksProvider extends ContentProvider {
    */
   private Uri insertContentValues(Uri url, UrlType urlType, ContentValues contentValues) {
     switch (urlType) {
+      case SENSORPOINTS:
+        return insertSensorPoint(url, contentValues);
       case TRACKPOINTS:
         return insertTrackPoint(url, contentValues);
       case TRACKS:
@@ -469,6 +753,24 @@ public class MyTracksProvider extends ContentProvider {
     }
   }
 
+  /**
+   * Inserts a sensor point.
+   * 
+   * @param url the content url
+   * @param values the content values
+   */
+  private Uri insertSensorPoint(Uri url, ContentValues values) {
+    if (!values.containsKey(SensorPointsColumns.TRACKID)
+        || !values.containsKey(SensorPointsColumns.TIME)) {
+      throw new IllegalArgumentException("Track id and time values are required.");
+    }
+    long rowId = db.insert(SensorPointsColumns.TABLE_NAME, SensorPointsColumns._ID, values);
+    if (rowId >= 0) {
+      return ContentUris.appendId(SensorPointsColumns.CONTENT_URI.buildUpon(), rowId).build();
+    }
+    throw new SQLiteException("Failed to insert a sensor point " + url);
+  }
+
   /**
    * Inserts a track point.
    * 
@@ -15,22 +15,30 @@
  */
 package com.google.android.apps.mytracks.content;
 
-import com.google.android.apps.mytracks.stats.TripStatistics;
 import com.google.android.apps.mytracks.util.LocationUtils;
 import com.google.android.apps.mytracks.util.UnitConversions;
+import com.google.common.annotations.VisibleForTesting;
 
 import android.database.Cursor;
 import android.location.Location;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 /**
- * Engine for searching for tracks and waypoints by text.
+ * Engine for searching for tracks and waypoints by text. Searches the
+ * full-text search tables with prefix matching and ranks the results with
+ * BM25, falling back to a LIKE query when the text has no searchable terms.
  *
  * @author Rodrigo Damazio
  */
@@ -48,8 +56,12 @@ public class SearchEngine {
       WaypointsColumns.DESCRIPTION + " LIKE ? OR " +
       WaypointsColumns.CATEGORY + " LIKE ?";
 
+  /** Maximum number of tracks which will be retrieved and scored. */
+  private static final int MAX_SCORED_TRACKS = 1000;
+
   /** Order of track results. */
-  private static final String TRACK_SELECTION_ORDER = TracksColumns._ID + " DESC LIMIT 1000";
+  private static final String TRACK_SELECTION_ORDER =
+      TracksColumns._ID + " DESC LIMIT " + MAX_SCORED_TRACKS;
 
   /** Order of waypoint results. */
   private static final String WAYPOINT_SELECTION_ORDER = WaypointsColumns._ID + " DESC";
@@ -75,6 +87,19 @@ public class SearchEngine {
   /** Oldest timestamp for which we rank based on time (2000-01-01 00:00:00.000) */
   private static final long OLDEST_ALLOWED_TIMESTAMP = 946692000000L;
 
+  /**
+   * BM25 weights of the search table columns (name, description, category).
+   * Title > description > category.
+   */
+  private static final double[] BM25_COLUMN_WEIGHTS = {
+      TRACK_NAME_PROMOTION, TRACK_DESCRIPTION_PROMOTION, TRACK_CATEGORY_PROMOTION };
+
+  /** BM25 term frequency saturation. */
+  private static final double BM25_K1 = 1.2;
+
+  /** BM25 document length normalization. */
+  private static final double BM25_B = 0.75;
+
   /**
    * Description of a search query, along with all contextual data needed to execute it.
    */
@@ -97,7 +122,7 @@ public class SearchEngine {
    * Description of a search result which has been retrieved and scored.
    */
   public static class ScoredResult {
-    ScoredResult(Track track, double score) {
+    ScoredResult(TrackSummary track, double score) {
       this.track = track;
       this.waypoint = null;
       this.score = score;
@@ -109,7 +134,7 @@ public class SearchEngine {
       this.score = score;
     }
 
-    public final Track track;
+    public final TrackSummary track;
     public final Waypoint waypoint;
     public final double score;
 
@@ -122,6 +147,32 @@ public class SearchEngine {
     }
   }
 
+  /**
+   * The BM25 score of a full-text match, before its row is loaded.
+   */
+  private static class TextMatch {
+    TextMatch(long id, double score) {
+      this.id = id;
+      this.score = score;
+    }
+
+    final long id;
+    final double score;
+  }
+
+  /** Comparator for text matches, lowest score first, then oldest first. */
+  private static final Comparator<TextMatch> TEXT_MATCH_COMPARATOR =
+      new Comparator<TextMatch>() {
+        @Override
+        public int compare(TextMatch m1, TextMatch m2) {
+          int scoreDiff = Double.compare(m1.score, m2.score);
+          if (scoreDiff != 0) {
+            return scoreDiff;
+          }
+          return Long.signum(m1.id - m2.id);
+        }
+      };
+
   /** Comparador for scored results. */
   private static final Comparator<ScoredResult> SCORED_RESULT_COMPARATOR =
       new Comparator<ScoredResult>() {
@@ -161,40 +212,81 @@ public class SearchEngine {
    * @return a set of results, sorted according to their score
    */
   public SortedSet<ScoredResult> search(SearchQuery query) {
-    ArrayList<Track> tracks = new ArrayList<Track>();
-    ArrayList<Waypoint> waypoints = new ArrayList<Waypoint>();
     TreeSet<ScoredResult> scoredResults = new TreeSet<ScoredResult>(SCORED_RESULT_COMPARATOR);
+    String matchQuery = getMatchQuery(query.textQuery);
 
-    retrieveTracks(query, tracks);
-    retrieveWaypoints(query, waypoints);
-
-    scoreTrackResults(tracks, query, scoredResults);
-    scoreWaypointResults(waypoints, query, scoredResults);
+    retrieveTracks(query, matchQuery, scoredResults);
+    retrieveWaypoints(query, matchQuery, scoredResults);
 
     return scoredResults;
   }
 
   /**
-   * Retrieves tracks matching the given query from the database.
+   * Gets the full-text MATCH expression for a text query, a prefix query for
+   * each term. Returns null if the text query doesn't contain any terms.
    *
-   * @param query the query to retrieve for
-   * @param tracks list to fill with the resulting tracks
+   * @param textQuery the text query
    */
-  private void retrieveTracks(SearchQuery query, ArrayList<Track> tracks) {
-    String queryLikeSelection = "%" + query.textQuery + "%";
-    String[] trackSelectionArgs = new String[] {
-        queryLikeSelection,
-        queryLikeSelection,
-        queryLikeSelection };
+  @VisibleForTesting
+  static String getMatchQuery(String textQuery) {
+    StringBuilder builder = new StringBuilder();
+    int length = textQuery.length();
+    int i = 0;
+    while (i < length) {
+      while (i < length && !Character.isLetterOrDigit(textQuery.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < length && Character.isLetterOrDigit(textQuery.charAt(i))) {
+        i++;
+      }
+      if (i > start) {
+        if (builder.length() > 0) {
+          builder.append(' ');
+        }
+        builder.append(textQuery, start, i).append('*');
+      }
+    }
+    return builder.length() > 0 ? builder.toString() : null;
+  }
 
+  /**
+   * Retrieves and scores tracks matching the given query from the database.
+   *
+   * @param query the query to retrieve for
+   * @param matchQuery the full-text MATCH expression. Null to use a LIKE query
+   * @param output the collection to fill with scored results
+   */
+  private void retrieveTracks(
+      SearchQuery query, String matchQuery, Collection<ScoredResult> output) {
+    Map<Long, Double> textScores = null;
     Cursor cursor = null;
     try {
-      cursor = providerUtils.getTrackCursor(
-          TRACK_SELECTION_QUERY, trackSelectionArgs, TRACK_SELECTION_ORDER);
+      if (matchQuery != null) {
+        textScores = getTopTextScores(
+            providerUtils.getTrackSearchCursor(matchQuery), MAX_SCORED_TRACKS);
+        if (textScores.isEmpty()) {
+          return;
+        }
+        cursor = providerUtils.getTrackCursor(TrackSummary.SEARCH_PROJECTION,
+            getIdSelection(TracksColumns._ID, textScores.keySet()), null, null);
+      } else {
+        String queryLikeSelection = "%" + query.textQuery + "%";
+        String[] trackSelectionArgs = new String[] {
+            queryLikeSelection,
+            queryLikeSelection,
+            queryLikeSelection };
+        cursor = providerUtils.getTrackCursor(TrackSummary.SEARCH_PROJECTION,
+            TRACK_SELECTION_QUERY, trackSelectionArgs, TRACK_SELECTION_ORDER);
+      }
       if (cursor != null) {
-        tracks.ensureCapacity(cursor.getCount());
+        TrackSummary.RowMapper rowMapper = new TrackSummary.RowMapper(cursor);
         while (cursor.moveToNext()) {
-          tracks.add(providerUtils.createTrack(cursor));
+          TrackSummary track = rowMapper.map(cursor);
+          double textScore = textScores != null
+              ? textScores.get(track.getId())
+              : getTitleBoost(query, track.getName(), track.getDescription(), track.getCategory());
+          output.add(new ScoredResult(track, scoreTrackResult(query, track, textScore)));
         }
       }
     } finally {
@@ -205,28 +297,45 @@ public class SearchEngine {
   }
 
   /**
-   * Retrieves waypoints matching the given query from the database.
+   * Retrieves and scores waypoints matching the given query from the database.
    *
    * @param query the query to retrieve for
-   * @param waypoints list to fill with the resulting waypoints
+   * @param matchQuery the full-text MATCH expression. Null to use a LIKE query
+   * @param output the collection to fill with scored results
    */
-  private void retrieveWaypoints(SearchQuery query, ArrayList<Waypoint> waypoints) {
-    String queryLikeSelection2 = "%" + query.textQuery + "%";
-    String[] waypointSelectionArgs = new String[] {
-        queryLikeSelection2,
-        queryLikeSelection2,
-        queryLikeSelection2 };
+  private void retrieveWaypoints(
+      SearchQuery query, String matchQuery, Collection<ScoredResult> output) {
+    Map<Long, Double> textScores = null;
     Cursor cursor = null;
     try {
-      cursor = providerUtils.getWaypointCursor(WAYPOINT_SELECTION_QUERY, waypointSelectionArgs,
-          WAYPOINT_SELECTION_ORDER, MAX_SCORED_WAYPOINTS);
+      if (matchQuery != null) {
+        textScores = getTopTextScores(
+            providerUtils.getWaypointSearchCursor(matchQuery), MAX_SCORED_WAYPOINTS);
+        if (textScores.isEmpty()) {
+          return;
+        }
+        cursor = providerUtils.getWaypointCursor(
+            getIdSelection(WaypointsColumns._ID, textScores.keySet()), null, null, -1);
+      } else {
+        String queryLikeSelection2 = "%" + query.textQuery + "%";
+        String[] waypointSelectionArgs = new String[] {
+            queryLikeSelection2,
+            queryLikeSelection2,
+            queryLikeSelection2 };
+        cursor = providerUtils.getWaypointCursor(WAYPOINT_SELECTION_QUERY, waypointSelectionArgs,
+            WAYPOINT_SELECTION_ORDER, MAX_SCORED_WAYPOINTS);
+      }
       if (cursor != null) {
-        waypoints.ensureCapacity(cursor.getCount());
         while (cursor.moveToNext()) {
           Waypoint waypoint = providerUtils.createWaypoint(cursor);
-          if (LocationUtils.isValidLocation(waypoint.getLocation())) {
-            waypoints.add(waypoint);
+          if (!LocationUtils.isValidLocation(waypoint.getLocation())) {
+            continue;
           }
+          double textScore = textScores != null
+              ? textScores.get(waypoint.getId())
+              : getTitleBoost(
+                  query, waypoint.getName(), waypoint.getDescription(), waypoint.getCategory());
+          output.add(new ScoredResult(waypoint, scoreWaypointResult(query, waypoint, textScore)));
         }
       }
     } finally {
@@ -237,20 +346,59 @@ public class SearchEngine {
   }
 
   /**
-   * Scores a collection of track results.
+   * Ranks the matches of a full-text search cursor by their BM25 score and
+   * returns the scores of the top matches by id. Only reads the ids and the
+   * matchinfo blobs, so that just the rows of the top matches need to be
+   * loaded. Closes the cursor. The track and waypoint search tables have the
+   * same column names.
    *
-   * @param tracks the results to score
-   * @param query the query to score for
-   * @param output the collection to fill with scored results
+   * @param cursor the cursor from a search query, can be null
+   * @param maxMatches the maximum number of matches to return
    */
-  private void scoreTrackResults(Collection<Track> tracks, SearchQuery query, Collection<ScoredResult> output) {
-    for (Track track : tracks) {
-      // Calculate the score.
-      double score = scoreTrackResult(query, track);
+  private static Map<Long, Double> getTopTextScores(Cursor cursor, int maxMatches) {
+    PriorityQueue<TextMatch> topMatches = new PriorityQueue<TextMatch>(
+        maxMatches + 1, TEXT_MATCH_COMPARATOR);
+    try {
+      if (cursor != null) {
+        int idIndex = cursor.getColumnIndexOrThrow(TracksSearchColumns.DOCID);
+        int matchInfoIndex = cursor.getColumnIndexOrThrow(TracksSearchColumns.MATCH_INFO);
+        while (cursor.moveToNext()) {
+          topMatches.add(new TextMatch(
+              cursor.getLong(idIndex), getBm25Score(cursor.getBlob(matchInfoIndex))));
+          if (topMatches.size() > maxMatches) {
+            topMatches.poll();
+          }
+        }
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    Map<Long, Double> scores = new HashMap<Long, Double>();
+    for (TextMatch textMatch : topMatches) {
+      scores.put(textMatch.id, textMatch.score);
+    }
+    return scores;
+  }
 
-      // Add to the output.
-      output.add(new ScoredResult(track, score));
+  /**
+   * Gets a selection for the rows with the given ids.
+   *
+   * @param column the id column
+   * @param ids the ids
+   */
+  private static String getIdSelection(String column, Set<Long> ids) {
+    StringBuilder builder = new StringBuilder(column).append(" IN (");
+    boolean first = true;
+    for (Long id : ids) {
+      if (!first) {
+        builder.append(',');
+      }
+      builder.append(id.longValue());
+      first = false;
     }
+    return builder.append(')').toString();
   }
 
   /**
@@ -258,18 +406,16 @@ public class SearchEngine {
    *
    * @param query the query to score for
    * @param track the results to score
+   * @param textScore the score of the text match
    * @return the score for the track
    */
-  private double scoreTrackResult(SearchQuery query, Track track) {
-    double score = 1.0;
-
-    score *= getTitleBoost(query, track.getName(), track.getDescription(), track.getCategory());
+  private double scoreTrackResult(SearchQuery query, TrackSummary track, double textScore) {
+    double score = textScore;
 
-    TripStatistics statistics = track.getTripStatistics();
     // TODO: Also boost for proximity to the currently-centered position on the map.
-    score *= getDistanceBoost(query, statistics.getMeanLatitude(), statistics.getMeanLongitude());
+    score *= getDistanceBoost(query, track.getMeanLatitude(), track.getMeanLongitude());
 
-    long meanTimestamp = (statistics.getStartTime() + statistics.getStopTime()) / 2L;
+    long meanTimestamp = (track.getStartTime() + track.getStopTime()) / 2L;
     score *= getTimeBoost(query, meanTimestamp);
 
     // Score the currently-selected track lower (user is already there, wouldn't be searching for it).
@@ -280,35 +426,18 @@ public class SearchEngine {
     return score;
   }
 
-  /**
-   * Scores a collection of waypoint results.
-   *
-   * @param waypoints the results to score
-   * @param query the query to score for
-   * @param output the collection to fill with scored results
-   */
-  private void scoreWaypointResults(Collection<Waypoint> waypoints, SearchQuery query, Collection<ScoredResult> output) {
-    for (Waypoint waypoint : waypoints) {
-      // Calculate the score.
-      double score = scoreWaypointResult(query, waypoint);
-
-      // Add to the output.
-      output.add(new ScoredResult(waypoint, score));
-    }
-  }
-
   /**
    * Scores a single waypoint result.
    *
    * @param query the query to score for
    * @param waypoint the results to score
+   * @param textScore the score of the text match
    * @return the score for the waypoint
    */
-  private double scoreWaypointResult(SearchQuery query, Waypoint waypoint) {
-    double score = 1.0;
+  private double scoreWaypointResult(SearchQuery query, Waypoint waypoint, double textScore) {
+    double score = textScore;
 
     Location location = waypoint.getLocation();
-    score *= getTitleBoost(query, waypoint.getName(), waypoint.getDescription(), waypoint.getCategory());
     // TODO: Also boost for proximity to the currently-centered position on the map.
     score *= getDistanceBoost(query, location.getLatitude(), location.getLongitude());
     score *= getTimeBoost(query, location.getTime());
@@ -321,6 +450,67 @@ public class SearchEngine {
     return score;
   }
 
+  /**
+   * Calculates the BM25 score of a full-text match, weighting each column by
+   * {@link #BM25_COLUMN_WEIGHTS}. The inverse document frequencies are
+   * normalized over the query terms, so that the scores of tracks and
+   * waypoints, which come from different tables, remain comparable.
+   *
+   * @param matchInfo the matchinfo blob in the
+   *          {@link TracksSearchColumns#MATCH_INFO_FORMAT} format
+   * @return the score, 1.0 if the blob can't be parsed
+   */
+  @VisibleForTesting
+  static double getBm25Score(byte[] matchInfo) {
+    if (matchInfo == null || matchInfo.length < 12) {
+      return 1.0;
+    }
+    // matchinfo is an array of 32-bit unsigned integers in native byte order
+    IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+    int phraseCount = info.get(0);
+    int columnCount = info.get(1);
+    int rowCount = info.get(2);
+    int averageLengthOffset = 3;
+    int lengthOffset = averageLengthOffset + columnCount;
+    int hitsOffset = lengthOffset + columnCount;
+    if (phraseCount == 0 || info.limit() < hitsOffset + 3 * phraseCount * columnCount) {
+      return 1.0;
+    }
+
+    int weightedColumnCount = Math.min(columnCount, BM25_COLUMN_WEIGHTS.length);
+    double[] idf = new double[phraseCount];
+    double idfSum = 0.0;
+    for (int phrase = 0; phrase < phraseCount; phrase++) {
+      // Approximate the number of rows containing the phrase
+      int rowsWithHits = 0;
+      for (int column = 0; column < weightedColumnCount; column++) {
+        int hitsIndex = hitsOffset + 3 * (phrase * columnCount + column);
+        rowsWithHits = Math.max(rowsWithHits, info.get(hitsIndex + 2));
+      }
+      // Always positive, even for phrases matching most rows
+      idf[phrase] = Math.log1p((rowCount - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+      idfSum += idf[phrase];
+    }
+
+    double score = 0.0;
+    for (int phrase = 0; phrase < phraseCount; phrase++) {
+      double phraseWeight = idf[phrase] * phraseCount / idfSum;
+      for (int column = 0; column < weightedColumnCount; column++) {
+        int hits = info.get(hitsOffset + 3 * (phrase * columnCount + column));
+        if (hits == 0) {
+          continue;
+        }
+        int averageLength = info.get(averageLengthOffset + column);
+        double lengthRatio = averageLength > 0
+            ? (double) info.get(lengthOffset + column) / averageLength : 1.0;
+        double tf = hits * (BM25_K1 + 1.0)
+            / (hits + BM25_K1 * (1.0 - BM25_B + BM25_B * lengthRatio));
+        score += phraseWeight * BM25_COLUMN_WEIGHTS[column] * tf;
+      }
+    }
+    return score > 0.0 ? score : 1.0;
+  }
+
   /**
    * Calculates the boosting of the score due to the field(s) in which the match occured.
    *
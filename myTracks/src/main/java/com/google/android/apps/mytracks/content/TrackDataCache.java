@@ -0,0 +1,282 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.android.apps.mytracks.content.TrackDataHub.TrackPointEvent;
+import com.google.common.annotations.VisibleForTesting;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.database.ContentObserver;
+import android.util.Log;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process wide cache of the track data loaded by {@link TrackDataHub}, keyed
+ * by track id. Revisiting a recently viewed track restores its sampled track
+ * points, waypoints and track instead of reading them again. Bounded by a
+ * number of cached track points and waypoints, evicting the least recently
+ * used tracks first, and trimmed under memory pressure.
+ * <p>
+ * Content observers count the changes to the tracks, track points and
+ * waypoints tables. An entry is fresh for a table if the table hasn't changed
+ * since the entry was created.
+ */
+public class TrackDataCache implements ComponentCallbacks2 {
+
+  private static final String TAG = TrackDataCache.class.getSimpleName();
+
+  /**
+   * Maximum number of cached track points and waypoints.
+   */
+  @VisibleForTesting
+  static final int MAX_CACHED_POINTS = 2 * TrackDataHub.MAX_REPLAY_FACTOR
+      * TrackDataHub.TARGET_DISPLAYED_TRACK_POINTS;
+
+  private static TrackDataCache trackDataCache;
+
+  /**
+   * The loaded data of a track.
+   */
+  static class Entry {
+    private final long tracksVersion;
+    private final long trackPointsVersion;
+    private final long waypointsVersion;
+
+    long trackId;
+    Track track; // null if not loaded
+    List<TrackPointEvent> replayBuffer;
+    int numLoadedPoints;
+    long firstSeenLocationId;
+    long lastSeenLocationId;
+    Map<Long, Waypoint> waypoints; // null if not loaded
+    long lastWaypointId;
+
+    private Entry(long tracksVersion, long trackPointsVersion, long waypointsVersion) {
+      this.tracksVersion = tracksVersion;
+      this.trackPointsVersion = trackPointsVersion;
+      this.waypointsVersion = waypointsVersion;
+    }
+
+    /**
+     * Gets the number of cached track points and waypoints.
+     */
+    private int getSize() {
+      return replayBuffer.size() + (waypoints != null ? waypoints.size() : 0);
+    }
+  }
+
+  private final int maxPoints;
+
+  // Least recently used first
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<Long, Entry>(
+      16, 0.75f, true);
+  private int size;
+
+  // Number of changes to the tables
+  private long tracksVersion;
+  private long trackPointsVersion;
+  private long waypointsVersion;
+
+  /**
+   * Gets the process wide instance.
+   * 
+   * @param context the context
+   */
+  public static synchronized TrackDataCache getInstance(Context context) {
+    if (trackDataCache == null) {
+      Context applicationContext = context.getApplicationContext();
+      trackDataCache = new TrackDataCache(MAX_CACHED_POINTS);
+      trackDataCache.registerContentObservers(applicationContext.getContentResolver());
+      applicationContext.registerComponentCallbacks(trackDataCache);
+    }
+    return trackDataCache;
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param maxPoints the maximum number of cached track points and waypoints
+   */
+  @VisibleForTesting
+  TrackDataCache(int maxPoints) {
+    this.maxPoints = maxPoints;
+  }
+
+  /**
+   * Creates a new entry, fresh for the current content of the tables. The
+   * caller fills in the track data.
+   */
+  public synchronized Entry newEntry() {
+    return new Entry(tracksVersion, trackPointsVersion, waypointsVersion);
+  }
+
+  /**
+   * Puts an entry, evicting the least recently used entries if over the
+   * maximum number of points.
+   * 
+   * @param entry the entry
+   */
+  public synchronized void put(Entry entry) {
+    if (entry.getSize() > maxPoints) {
+      return;
+    }
+    Entry previous = entries.put(entry.trackId, entry);
+    if (previous != null) {
+      size -= previous.getSize();
+    }
+    size += entry.getSize();
+    trimToSize(maxPoints);
+  }
+
+  /**
+   * Removes and returns the entry of a track. Returns null if not cached.
+   * 
+   * @param trackId the track id
+   */
+  public synchronized Entry take(long trackId) {
+    Entry entry = entries.remove(trackId);
+    if (entry != null) {
+      size -= entry.getSize();
+    }
+    return entry;
+  }
+
+  /**
+   * Returns true if a track is cached. Doesn't count as a use of the entry.
+   * 
+   * @param trackId the track id
+   */
+  public synchronized boolean contains(long trackId) {
+    return entries.containsKey(trackId);
+  }
+
+  /**
+   * Returns true if the tracks table hasn't changed since the entry was
+   * created.
+   * 
+   * @param entry the entry
+   */
+  public synchronized boolean isTrackFresh(Entry entry) {
+    return entry.tracksVersion == tracksVersion;
+  }
+
+  /**
+   * Returns true if the track points table hasn't changed since the entry was
+   * created.
+   * 
+   * @param entry the entry
+   */
+  public synchronized boolean isTrackPointsFresh(Entry entry) {
+    return entry.trackPointsVersion == trackPointsVersion;
+  }
+
+  /**
+   * Returns true if the waypoints table hasn't changed since the entry was
+   * created.
+   * 
+   * @param entry the entry
+   */
+  public synchronized boolean isWaypointsFresh(Entry entry) {
+    return entry.waypointsVersion == waypointsVersion;
+  }
+
+  /**
+   * Gets the number of cached track points and waypoints.
+   */
+  @VisibleForTesting
+  synchronized int getSize() {
+    return size;
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+      trimToSize(0);
+    } else if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW) {
+      trimToSize(maxPoints / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    trimToSize(0);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+    // Nothing to do
+  }
+
+  /**
+   * Evicts the least recently used entries until the number of cached points
+   * is at most a size.
+   * 
+   * @param maxSize the maximum number of cached points
+   */
+  @VisibleForTesting
+  synchronized void trimToSize(int maxSize) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      iterator.remove();
+      size -= entry.getSize();
+      Log.d(TAG, "Evicted track " + entry.trackId);
+    }
+  }
+
+  /**
+   * Registers the content observers counting the changes to the tables.
+   * 
+   * @param contentResolver the content resolver
+   */
+  private void registerContentObservers(ContentResolver contentResolver) {
+    contentResolver.registerContentObserver(TracksColumns.CONTENT_URI, true,
+        new ContentObserver(null) {
+            @Override
+          public void onChange(boolean selfChange) {
+            synchronized (TrackDataCache.this) {
+              tracksVersion++;
+            }
+          }
+        });
+    contentResolver.registerContentObserver(TrackPointsColumns.CONTENT_URI, true,
+        new ContentObserver(null) {
+            @Override
+          public void onChange(boolean selfChange) {
+            synchronized (TrackDataCache.this) {
+              trackPointsVersion++;
+            }
+          }
+        });
+    contentResolver.registerContentObserver(WaypointsColumns.CONTENT_URI, true,
+        new ContentObserver(null) {
+            @Override
+          public void onChange(boolean selfChange) {
+            synchronized (TrackDataCache.this) {
+              waypointsVersion++;
+            }
+          }
+        });
+  }
+}
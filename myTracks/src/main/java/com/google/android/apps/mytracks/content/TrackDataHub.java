@@ -22,15 +22,24 @@ import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.maps.mytracks.R;
 import com.google.common.annotations.VisibleForTesting;
 
+import android.content.ContentUris;
 import android.content.Context;
 import android.database.Cursor;
 import android.location.Location;
+import android.net.Uri;
+import android.os.CancellationSignal;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.Looper;
 import android.util.Log;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -54,10 +63,18 @@ public class TrackDataHub implements DataSourceListener {
    * more than this number of points.
    */
   public static final int TARGET_DISPLAYED_TRACK_POINTS = 5000;
+
+  /**
+   * Maximum number of track points in the replay buffer, as a multiple of the
+   * target number of points. Larger tracks are read again for late listeners.
+   */
+  @VisibleForTesting
+  static final int MAX_REPLAY_FACTOR = 4;
   
   private final Context context;
   private final TrackDataManager trackDataManager;
   private final MyTracksProviderUtils myTracksProviderUtils;
+  private final TrackDataCache trackDataCache;
   private final int targetNumPoints;
 
   private boolean started;
@@ -76,17 +93,45 @@ public class TrackDataHub implements DataSourceListener {
   private int recordingDistanceInterval;
   private int mapType;
 
+  // The selected track, null if not loaded
+  private Track selectedTrack;
+
   // Track points sampling state
+  private boolean trackPointsLoaded;
   private int numLoadedPoints;
   private long firstSeenLocationId;
   private long lastSeenLocationId;
 
+  /*
+   * Replay buffer of the track points read since the last reset of the
+   * sampling state, with their sampling decision. Late listeners are served
+   * from it instead of reading the track again. Null if too large.
+   */
+  private List<TrackPointEvent> replayBuffer;
+
+  /*
+   * Waypoints loading state. The waypoints read by id and the largest waypoint
+   * id seen, -1L if not loaded. Changes to a single waypoint are delivered as
+   * deltas against this state.
+   */
+  private final Map<Long, Waypoint> waypoints = new LinkedHashMap<Long, Waypoint>();
+  private long lastWaypointId = -1L;
+
+  // The cache entry of the selected track, fresh as of when the track was loaded
+  private TrackDataCache.Entry cacheEntry;
+
+  // The cancellation signal of the current prefetchTrack, null if not prefetching
+  private CancellationSignal prefetchSignal;
+
+  // Listeners registered since the last load, loaded together
+  private final Set<TrackDataListener> pendingListeners = new LinkedHashSet<TrackDataListener>();
+
   /**
    * Creates a new instance.
    */
   public synchronized static TrackDataHub newInstance(Context context) {
     return new TrackDataHub(context, new TrackDataManager(), MyTracksProviderUtils.Factory.get(
-        context), TARGET_DISPLAYED_TRACK_POINTS);
+        context), TrackDataCache.getInstance(context), TARGET_DISPLAYED_TRACK_POINTS);
   }
 
   /**
@@ -95,14 +140,16 @@ public class TrackDataHub implements DataSourceListener {
    * @param context the context
    * @param trackDataManager the track data manager
    * @param myTracksProviderUtils the my tracks provider utils
+   * @param trackDataCache the track data cache
    * @param targetNumPoints the target number of points
    */
-  @VisibleForTesting
   TrackDataHub(Context context, TrackDataManager trackDataManager,
-      MyTracksProviderUtils myTracksProviderUtils, int targetNumPoints) {
+      MyTracksProviderUtils myTracksProviderUtils, TrackDataCache trackDataCache,
+      int targetNumPoints) {
     this.context = context;
     this.trackDataManager = trackDataManager;
     this.myTracksProviderUtils = myTracksProviderUtils;
+    this.trackDataCache = trackDataCache;
     this.targetNumPoints = targetNumPoints;
     resetSamplingState();
   }
@@ -135,7 +182,8 @@ public class TrackDataHub implements DataSourceListener {
   }
 
   /**
-   * Stops.
+   * Stops. Saves the selected track data to the {@link TrackDataCache} before
+   * quitting the handler thread.
    */
   public void stop() {
     if (!started) {
@@ -146,7 +194,14 @@ public class TrackDataHub implements DataSourceListener {
 
     dataSourceManager.unregisterAllListeners();
     if (handlerThread != null) {
-      handlerThread.getLooper().quit();
+      final Looper looper = handlerThread.getLooper();
+      runInHanderThread(new Runnable() {
+          @Override
+        public void run() {
+          saveToCache();
+          looper.quit();
+        }
+      });
       handlerThread = null;
     }
     handler = null;
@@ -167,6 +222,7 @@ public class TrackDataHub implements DataSourceListener {
           Log.i(TAG, "Not reloading track " + trackId);
           return;
         }
+        saveToCache();
         selectedTrackId = trackId;
         loadDataForAll();
       }
@@ -187,7 +243,16 @@ public class TrackDataHub implements DataSourceListener {
         trackDataManager.registerListener(trackDataListener, trackDataTypes);
         if (dataSourceManager != null) {
           dataSourceManager.updateListeners(trackDataManager.getRegisteredTrackDataTypes());
-          loadDataForListener(trackDataListener);
+          boolean post = pendingListeners.isEmpty();
+          pendingListeners.add(trackDataListener);
+          if (post) {
+            runInHanderThread(new Runnable() {
+                @Override
+              public void run() {
+                loadDataForPendingListeners();
+              }
+            });
+          }
         }
       }
     });
@@ -203,6 +268,7 @@ public class TrackDataHub implements DataSourceListener {
         @Override
       public void run() {
         trackDataManager.unregisterListener(trackDataListener);
+        pendingListeners.remove(trackDataListener);
         if (dataSourceManager != null) {
           dataSourceManager.updateListeners(trackDataManager.getRegisteredTrackDataTypes());
         }
@@ -222,6 +288,43 @@ public class TrackDataHub implements DataSourceListener {
     });
   }
 
+  /**
+   * Loads a track into the {@link TrackDataCache} without listeners, for
+   * {@link TrackDataPrefetcher}. Runs in the calling thread on a hub that is
+   * not started. Skips tracks already cached. Returns false if canceled.
+   * 
+   * @param trackId the track id
+   * @param cancellationSignal the cancellation signal
+   */
+  boolean prefetchTrack(long trackId, CancellationSignal cancellationSignal) {
+    if (trackDataCache.contains(trackId)) {
+      return true;
+    }
+    selectedTrackId = trackId;
+    resetSamplingState();
+    startLoading();
+    selectedTrack = myTracksProviderUtils.getTrack(trackId);
+    if (selectedTrack == null) {
+      cacheEntry = null;
+      return true;
+    }
+    Set<TrackDataListener> trackDataListeners = Collections.emptySet();
+    prefetchSignal = cancellationSignal;
+    try {
+      notifyTrackPointsTableUpdate(true, trackDataListeners, trackDataListeners);
+    } finally {
+      prefetchSignal = null;
+    }
+    if (cancellationSignal.isCanceled()) {
+      cacheEntry = null;
+      return false;
+    }
+    lastWaypointId = 0L;
+    loadWaypoints(trackDataListeners, -1L, MAX_DISPLAYED_WAYPOINTS);
+    saveToCache();
+    return true;
+  }
+
   /**
    * Returns true if the selected track is recording.
    */
@@ -248,11 +351,15 @@ public class TrackDataHub implements DataSourceListener {
   }
 
   @Override
-  public void notifyWaypointsTableUpdated() {
+  public void notifyWaypointsTableUpdated(final Uri uri) {
     runInHanderThread(new Runnable() {
         @Override
       public void run() {
-        notifyWaypointsTableUpdate(trackDataManager.getListeners(TrackDataType.WAYPOINTS_TABLE));
+        Set<TrackDataListener> trackDataListeners = trackDataManager.getListeners(
+            TrackDataType.WAYPOINTS_TABLE);
+        if (!notifyWaypointUpdate(trackDataListeners, getWaypointId(uri))) {
+          notifyWaypointsTableUpdate(trackDataListeners);
+        }
       }
     });
   }
@@ -359,6 +466,15 @@ public class TrackDataHub implements DataSourceListener {
     if (trackDataManager.getNumberOfListeners() == 0) {
       return;
     }
+    startLoading();
+    Set<TrackDataListener> sampledInListeners = trackDataManager.getListeners(
+        TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE);
+    Set<TrackDataListener> sampledOutListeners = trackDataManager.getListeners(
+        TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE);
+    TrackDataCache.Entry entry = null;
+    if (!sampledInListeners.isEmpty() || !sampledOutListeners.isEmpty()) {
+      entry = restoreFromCache();
+    }
 
     for (TrackDataListener trackDataListener :
         trackDataManager.getListeners(TrackDataType.PREFERENCE)) {
@@ -369,16 +485,39 @@ public class TrackDataHub implements DataSourceListener {
       trackDataListener.onMapTypeChanged(mapType);
     }
 
-    notifyTracksTableUpdate(trackDataManager.getListeners(TrackDataType.TRACKS_TABLE));
+    notifyTracksTableUpdate(trackDataManager.getListeners(TrackDataType.TRACKS_TABLE), entry);
 
-    for (TrackDataListener listener :
-        trackDataManager.getListeners(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE)) {
+    for (TrackDataListener listener : sampledInListeners) {
       listener.clearTrackPoints();
     }
-    notifyTrackPointsTableUpdate(true,
-        trackDataManager.getListeners(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE),
-        trackDataManager.getListeners(TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE));
-    notifyWaypointsTableUpdate(trackDataManager.getListeners(TrackDataType.WAYPOINTS_TABLE));
+    if (entry != null) {
+      notifyCachedTrackPoints(entry, sampledInListeners, sampledOutListeners);
+    } else {
+      notifyTrackPointsTableUpdate(true, sampledInListeners, sampledOutListeners);
+    }
+    notifyWaypointsTableUpdate(
+        trackDataManager.getListeners(TrackDataType.WAYPOINTS_TABLE), entry);
+  }
+
+  /**
+   * Loads data for the listeners registered since the last load. If they are
+   * all the registered listeners, e.g., the fragments of a track opened
+   * together, reads the track points once for all of them. To be run in the
+   * {@link #handler} thread.
+   */
+  private void loadDataForPendingListeners() {
+    if (pendingListeners.isEmpty() || dataSourceManager == null) {
+      return;
+    }
+    List<TrackDataListener> listeners = new ArrayList<TrackDataListener>(pendingListeners);
+    pendingListeners.clear();
+    if (listeners.size() > 1 && listeners.size() == trackDataManager.getNumberOfListeners()) {
+      loadDataForAll();
+      return;
+    }
+    for (TrackDataListener trackDataListener : listeners) {
+      loadDataForListener(trackDataListener);
+    }
   }
 
   /**
@@ -398,27 +537,106 @@ public class TrackDataHub implements DataSourceListener {
       trackDataListener.onMapTypeChanged(mapType);
     }
 
+    boolean hasSampledIn = trackDataTypes.contains(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE);
+    boolean hasSampledOut = trackDataTypes.contains(TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE);
+    boolean hasTrackPoints = hasSampledIn || hasSampledOut;
+    boolean isOnlyListener = trackDataManager.getNumberOfListeners() == 1;
+    TrackDataCache.Entry entry = null;
+    if (hasTrackPoints && isOnlyListener) {
+      resetSamplingState();
+      startLoading();
+      entry = restoreFromCache();
+    }
+
     if (trackDataTypes.contains(TrackDataType.TRACKS_TABLE)) {
-      notifyTracksTableUpdate(trackDataListeners);
+      notifyTracksTableUpdate(trackDataListeners, entry);
     }
 
-    boolean hasSampledIn = trackDataTypes.contains(TrackDataType.SAMPLED_IN_TRACK_POINTS_TABLE);
-    boolean hasSampledOut = trackDataTypes.contains(TrackDataType.SAMPLED_OUT_TRACK_POINTS_TABLE);
-    if (hasSampledIn || hasSampledOut) {
+    if (hasTrackPoints) {
       trackDataListener.clearTrackPoints();
-      boolean isOnlyListener = trackDataManager.getNumberOfListeners() == 1;
-      if (isOnlyListener) {
-        resetSamplingState();
-      }
       Set<TrackDataListener> sampledInListeners = trackDataListeners;
       Set<TrackDataListener> sampledOutListeners = hasSampledOut ? trackDataListeners
           : Collections.<TrackDataListener> emptySet();
-      notifyTrackPointsTableUpdate(isOnlyListener, sampledInListeners, sampledOutListeners);
+      if (entry != null) {
+        notifyCachedTrackPoints(entry, sampledInListeners, sampledOutListeners);
+      } else if (!isOnlyListener && trackPointsLoaded && replayBuffer != null) {
+        replayTrackPoints(sampledInListeners, sampledOutListeners);
+        trackDataListener.onNewTrackPointsDone();
+      } else {
+        notifyTrackPointsTableUpdate(isOnlyListener, sampledInListeners, sampledOutListeners);
+      }
     }
 
     if (trackDataTypes.contains(TrackDataType.WAYPOINTS_TABLE)) {
-      notifyWaypointsTableUpdate(trackDataListeners);
+      notifyWaypointsTableUpdate(trackDataListeners, entry);
+    }
+  }
+
+  /**
+   * Starts loading the selected track. Creates the cache entry of the track
+   * and drops the track and waypoints loaded before, possibly no longer
+   * observed since. To be run in the {@link #handler} thread.
+   */
+  private void startLoading() {
+    cacheEntry = trackDataCache.newEntry();
+    selectedTrack = null;
+    waypoints.clear();
+    lastWaypointId = -1L;
+  }
+
+  /**
+   * Restores the track points sampling state of the selected track from the
+   * {@link TrackDataCache}. If the track points table changed since the entry
+   * was cached, checks that the cached track points are still the start of
+   * the track. Returns the entry, null if not cached or no longer valid. To be
+   * run in the {@link #handler} thread.
+   */
+  private TrackDataCache.Entry restoreFromCache() {
+    TrackDataCache.Entry entry = trackDataCache.take(selectedTrackId);
+    if (entry == null) {
+      return null;
+    }
+    if (!trackDataCache.isTrackPointsFresh(entry)) {
+      long firstTrackPointId = myTracksProviderUtils.getFirstTrackPointId(selectedTrackId);
+      long lastTrackPointId = myTracksProviderUtils.getLastTrackPointId(selectedTrackId);
+      if (firstTrackPointId != entry.firstSeenLocationId
+          || lastTrackPointId < entry.lastSeenLocationId) {
+        Log.i(TAG, "Cached track points no longer valid for track " + selectedTrackId);
+        return null;
+      }
+    }
+    trackPointsLoaded = true;
+    replayBuffer = entry.replayBuffer;
+    numLoadedPoints = entry.numLoadedPoints;
+    firstSeenLocationId = entry.firstSeenLocationId;
+    lastSeenLocationId = entry.lastSeenLocationId;
+    return entry;
+  }
+
+  /**
+   * Saves the data of the selected track to the {@link TrackDataCache}. Only
+   * saves the track points loaded in the replay buffer. To be run in the
+   * {@link #handler} thread.
+   */
+  private void saveToCache() {
+    if (cacheEntry == null || !trackPointsLoaded || replayBuffer == null) {
+      return;
     }
+    cacheEntry.trackId = selectedTrackId;
+    cacheEntry.track = selectedTrack;
+    cacheEntry.replayBuffer = replayBuffer;
+    cacheEntry.numLoadedPoints = numLoadedPoints;
+    cacheEntry.firstSeenLocationId = firstSeenLocationId;
+    cacheEntry.lastSeenLocationId = lastSeenLocationId;
+    cacheEntry.waypoints = lastWaypointId < 0L ? null
+        : new LinkedHashMap<Long, Waypoint>(waypoints);
+    cacheEntry.lastWaypointId = lastWaypointId;
+    trackDataCache.put(cacheEntry);
+    cacheEntry = null;
+
+    // The replay buffer now belongs to the cache
+    trackPointsLoaded = false;
+    replayBuffer = null;
   }
 
   /**
@@ -430,14 +648,33 @@ public class TrackDataHub implements DataSourceListener {
     if (trackDataListeners.isEmpty()) {
       return;
     }
-    Track track = myTracksProviderUtils.getTrack(selectedTrackId);
+    selectedTrack = myTracksProviderUtils.getTrack(selectedTrackId);
     for (TrackDataListener trackDataListener : trackDataListeners) {
-      trackDataListener.onTrackUpdated(track);
+      trackDataListener.onTrackUpdated(selectedTrack);
     }
   }
 
   /**
-   * Notifies waypoint table update. Currently, reloads all the waypoints up to
+   * Notifies track table update, using the cached track if still fresh. To be
+   * run in the {@link #handler} thread.
+   * 
+   * @param trackDataListeners the track data listeners to notify
+   * @param entry the cache entry, can be null
+   */
+  private void notifyTracksTableUpdate(
+      Set<TrackDataListener> trackDataListeners, TrackDataCache.Entry entry) {
+    if (entry == null || entry.track == null || !trackDataCache.isTrackFresh(entry)) {
+      notifyTracksTableUpdate(trackDataListeners);
+      return;
+    }
+    selectedTrack = entry.track;
+    for (TrackDataListener trackDataListener : trackDataListeners) {
+      trackDataListener.onTrackUpdated(selectedTrack);
+    }
+  }
+
+  /**
+   * Notifies waypoint table update. Reloads all the waypoints up to
    * {@link #MAX_DISPLAYED_WAYPOINTS}. To be run in the {@link #handler}
    * thread.
    * 
@@ -452,13 +689,122 @@ public class TrackDataHub implements DataSourceListener {
       trackDataListener.clearWaypoints();
     }
 
+    waypoints.clear();
+    lastWaypointId = 0L;
+    loadWaypoints(trackDataListeners, -1L, MAX_DISPLAYED_WAYPOINTS);
+
+    for (TrackDataListener trackDataListener : trackDataListeners) {
+      trackDataListener.onNewWaypointsDone();
+    }
+  }
+
+  /**
+   * Notifies waypoint table update, using the cached waypoints if still fresh.
+   * To be run in the {@link #handler} thread.
+   * 
+   * @param trackDataListeners the track data listeners to notify
+   * @param entry the cache entry, can be null
+   */
+  private void notifyWaypointsTableUpdate(
+      Set<TrackDataListener> trackDataListeners, TrackDataCache.Entry entry) {
+    if (entry == null || entry.waypoints == null || !trackDataCache.isWaypointsFresh(entry)) {
+      notifyWaypointsTableUpdate(trackDataListeners);
+      return;
+    }
+    waypoints.clear();
+    waypoints.putAll(entry.waypoints);
+    lastWaypointId = entry.lastWaypointId;
+    for (TrackDataListener trackDataListener : trackDataListeners) {
+      trackDataListener.clearWaypoints();
+      for (Waypoint waypoint : waypoints.values()) {
+        if (LocationUtils.isValidLocation(waypoint.getLocation())) {
+          trackDataListener.onNewWaypoint(waypoint);
+        }
+      }
+      trackDataListener.onNewWaypointsDone();
+    }
+  }
+
+  /**
+   * Notifies the update of a single waypoint without reloading all the
+   * waypoints. A waypoint id above {@link #lastWaypointId} is an insert, and
+   * loads the new waypoints. Otherwise, reads the waypoint again to deliver an
+   * update or a delete. To be run in the {@link #handler} thread.
+   * 
+   * @param trackDataListeners the track data listeners to notify
+   * @param waypointId the waypoint id, -1L if unknown
+   * @return false if a delta can't be computed and all the waypoints need to
+   *         be reloaded.
+   */
+  private boolean notifyWaypointUpdate(Set<TrackDataListener> trackDataListeners, long waypointId) {
+    if (trackDataListeners.isEmpty()) {
+      return true;
+    }
+    if (waypointId < 0L || lastWaypointId < 0L) {
+      return false;
+    }
+    boolean isFull = waypoints.size() >= MAX_DISPLAYED_WAYPOINTS;
+    if (waypointId > lastWaypointId) {
+      int numWaypoints = isFull ? 0 : loadWaypoints(trackDataListeners, lastWaypointId + 1,
+          MAX_DISPLAYED_WAYPOINTS - waypoints.size());
+      lastWaypointId = Math.max(lastWaypointId, waypointId);
+      if (numWaypoints == 0) {
+        // Not a waypoint of the selected track
+        return true;
+      }
+    } else if (waypoints.containsKey(waypointId)) {
+      Waypoint waypoint = myTracksProviderUtils.getWaypoint(waypointId);
+      if (waypoint == null) {
+        if (isFull) {
+          // The next waypoint of the track needs to be loaded
+          return false;
+        }
+        waypoints.remove(waypointId);
+      } else {
+        waypoints.put(waypointId, waypoint);
+      }
+      boolean isValid = waypoint != null && LocationUtils.isValidLocation(waypoint.getLocation());
+      for (TrackDataListener trackDataListener : trackDataListeners) {
+        if (isValid) {
+          trackDataListener.onWaypointUpdated(waypoint);
+        } else {
+          trackDataListener.onWaypointDeleted(waypointId);
+        }
+      }
+    } else {
+      // Not a loaded waypoint of the selected track
+      return true;
+    }
+
+    for (TrackDataListener trackDataListener : trackDataListeners) {
+      trackDataListener.onNewWaypointsDone();
+    }
+    return true;
+  }
+
+  /**
+   * Loads the waypoints of the selected track and delivers the ones with a
+   * valid location. Updates {@link #waypoints} and {@link #lastWaypointId}.
+   * To be run in the {@link #handler} thread.
+   * 
+   * @param trackDataListeners the track data listeners to notify
+   * @param minWaypointId the minimum waypoint id. -1L to ignore
+   * @param maxWaypoints the maximum number of waypoints to load
+   * @return the number of waypoints loaded.
+   */
+  private int loadWaypoints(
+      Set<TrackDataListener> trackDataListeners, long minWaypointId, int maxWaypoints) {
+    int numWaypoints = 0;
     Cursor cursor = null;
     try {
       cursor = myTracksProviderUtils.getWaypointCursor(
-          selectedTrackId, -1L, MAX_DISPLAYED_WAYPOINTS);
+          selectedTrackId, minWaypointId, maxWaypoints);
       if (cursor != null && cursor.moveToFirst()) {
         do {
           Waypoint waypoint = myTracksProviderUtils.createWaypoint(cursor);
+          numWaypoints++;
+          waypoints.put(waypoint.getId(), waypoint);
+          lastWaypointId = Math.max(lastWaypointId, waypoint.getId());
           if (!LocationUtils.isValidLocation(waypoint.getLocation())) {
             continue;
           }
@@ -472,9 +818,23 @@ public class TrackDataHub implements DataSourceListener {
         cursor.close();
       }
     }
+    return numWaypoints;
+  }
 
-    for (TrackDataListener trackDataListener : trackDataListeners) {
-      trackDataListener.onNewWaypointsDone();
+  /**
+   * Gets the waypoint id of a waypoints table uri. Returns -1L if the uri is
+   * not for a single waypoint.
+   * 
+   * @param uri the uri, can be null
+   */
+  private static long getWaypointId(Uri uri) {
+    if (uri == null || uri.equals(WaypointsColumns.CONTENT_URI)) {
+      return -1L;
+    }
+    try {
+      return ContentUris.parseId(uri);
+    } catch (NumberFormatException e) {
+      return -1L;
     }
   }
 
@@ -488,7 +848,7 @@ public class TrackDataHub implements DataSourceListener {
    */
   private void notifyTrackPointsTableUpdate(boolean updateSamplingState,
       Set<TrackDataListener> sampledInListeners, Set<TrackDataListener> sampledOutListeners) {
-    if (sampledInListeners.isEmpty() && sampledOutListeners.isEmpty()) {
+    if (prefetchSignal == null && sampledInListeners.isEmpty() && sampledOutListeners.isEmpty()) {
       return;
     }
     if (updateSamplingState && numLoadedPoints >= targetNumPoints) {
@@ -523,6 +883,10 @@ public class TrackDataHub implements DataSourceListener {
           break;
         }
 
+        if (prefetchSignal != null && prefetchSignal.isCanceled()) {
+          break;
+        }
+
         if (localFirstSeenLocationId == -1) {
           localFirstSeenLocationId = locationId;
         }
@@ -532,26 +896,34 @@ public class TrackDataHub implements DataSourceListener {
           samplingFrequency = 1 + (int) (numTotalPoints / targetNumPoints);
         }
 
+        TrackPointEvent.Type type;
         if (!LocationUtils.isValidLocation(location)) {
           // TODO: also include the last valid point before a split
+          type = TrackPointEvent.Type.SEGMENT_SPLIT;
+          // Set even without listeners, the replay buffer must match
+          includeNextPoint = true;
           for (TrackDataListener trackDataListener : sampledInListeners) {
             trackDataListener.onSegmentSplit(location);
-            includeNextPoint = true;
           }
         } else {
           // Also include the last point if the selected track is not recording.
           if (includeNextPoint || (localNumLoadedPoints % samplingFrequency == 0)
               || (locationId == lastTrackPointId && !isSelectedTrackRecording())) {
             includeNextPoint = false;
+            type = TrackPointEvent.Type.SAMPLED_IN;
             for (TrackDataListener trackDataListener : sampledInListeners) {
               trackDataListener.onSampledInTrackPoint(location);
             }
           } else {
+            type = TrackPointEvent.Type.SAMPLED_OUT;
             for (TrackDataListener trackDataListener : sampledOutListeners) {
               trackDataListener.onSampledOutTrackPoint(location);
             }
           }
         }
+        if (updateSamplingState) {
+          addToReplayBuffer(new TrackPointEvent(type, location));
+        }
 
         localNumLoadedPoints++;
         localLastSeenLocationId = locationId;
@@ -563,6 +935,7 @@ public class TrackDataHub implements DataSourceListener {
     }
 
     if (updateSamplingState) {
+      trackPointsLoaded = true;
       numLoadedPoints = localNumLoadedPoints;
       firstSeenLocationId = localFirstSeenLocationId;
       lastSeenLocationId = localLastSeenLocationId;
@@ -574,12 +947,83 @@ public class TrackDataHub implements DataSourceListener {
   }
 
   /**
-   * Resets the track points sampling states.
+   * Notifies the track points restored from the cache, then reads the track
+   * points added since. To be run in the {@link #handler} thread.
+   * 
+   * @param entry the cache entry
+   * @param sampledInListeners the sampled in listeners
+   * @param sampledOutListeners the sampled out listeners
+   */
+  private void notifyCachedTrackPoints(TrackDataCache.Entry entry,
+      Set<TrackDataListener> sampledInListeners, Set<TrackDataListener> sampledOutListeners) {
+    replayTrackPoints(sampledInListeners, sampledOutListeners);
+    if (!trackDataCache.isTrackPointsFresh(entry)
+        && myTracksProviderUtils.getLastTrackPointId(selectedTrackId) > lastSeenLocationId) {
+      notifyTrackPointsTableUpdate(true, sampledInListeners, sampledOutListeners);
+      return;
+    }
+    for (TrackDataListener trackDataListener : sampledInListeners) {
+      trackDataListener.onNewTrackPointsDone();
+    }
+  }
+
+  /**
+   * Replays the track points read so far. To be run in the {@link #handler}
+   * thread.
+   * 
+   * @param sampledInListeners the sampled in listeners
+   * @param sampledOutListeners the sampled out listeners
+   */
+  private void replayTrackPoints(
+      Set<TrackDataListener> sampledInListeners, Set<TrackDataListener> sampledOutListeners) {
+    for (TrackPointEvent event : replayBuffer) {
+      switch (event.type) {
+        case SAMPLED_IN:
+          for (TrackDataListener trackDataListener : sampledInListeners) {
+            trackDataListener.onSampledInTrackPoint(event.location);
+          }
+          break;
+        case SAMPLED_OUT:
+          for (TrackDataListener trackDataListener : sampledOutListeners) {
+            trackDataListener.onSampledOutTrackPoint(event.location);
+          }
+          break;
+        default:
+          for (TrackDataListener trackDataListener : sampledInListeners) {
+            trackDataListener.onSegmentSplit(event.location);
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Adds a track point to the replay buffer. Drops the replay buffer if too
+   * large.
+   * 
+   * @param event the track point event
+   */
+  private void addToReplayBuffer(TrackPointEvent event) {
+    if (replayBuffer == null) {
+      return;
+    }
+    if (replayBuffer.size() >= MAX_REPLAY_FACTOR * targetNumPoints) {
+      Log.i(TAG, "Replay buffer full, dropping it.");
+      replayBuffer = null;
+      return;
+    }
+    replayBuffer.add(event);
+  }
+
+  /**
+   * Resets the track points sampling states and the replay buffer.
    */
   private void resetSamplingState() {
+    trackPointsLoaded = false;
     numLoadedPoints = 0;
     firstSeenLocationId = -1L;
     lastSeenLocationId = -1L;
+    replayBuffer = new ArrayList<TrackPointEvent>();
   }
 
   /**
@@ -641,4 +1085,25 @@ public class TrackDataHub implements DataSourceListener {
   boolean isReportSpeed() {
     return reportSpeed;
   }
-}
\ No newline at end of file
+
+  /**
+   * A track point read by the hub, with its sampling decision.
+   */
+  static class TrackPointEvent {
+
+    /**
+     * Types of track point event.
+     */
+    private enum Type {
+      SAMPLED_IN, SAMPLED_OUT, SEGMENT_SPLIT
+    }
+
+    private final Type type;
+    private final Location location;
+
+    private TrackPointEvent(Type type, Location location) {
+      this.type = type;
+      this.location = location;
+    }
+  }
+}
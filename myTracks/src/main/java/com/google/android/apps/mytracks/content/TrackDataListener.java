@@ -79,16 +79,33 @@ public interface TrackDataListener {
   public void clearWaypoints();
 
   /**
-   * Called when a new waypoint is read.
+   * Called when a new waypoint is read. Also called without
+   * {@link #clearWaypoints()} when a waypoint is inserted.
    * 
    * @param waypoint the waypoint
    */
   public void onNewWaypoint(Waypoint waypoint);
 
+  /**
+   * Called when a waypoint is updated. Replaces the previously sent waypoint
+   * with the same id, or adds the waypoint if not sent before.
+   * 
+   * @param waypoint the waypoint
+   */
+  public void onWaypointUpdated(Waypoint waypoint);
+
+  /**
+   * Called when a waypoint is deleted, or no longer has a valid location.
+   * 
+   * @param waypointId the waypoint id
+   */
+  public void onWaypointDeleted(long waypointId);
+
   /**
    * Called when finish sending new waypoints. This gets called after every
-   * batch of calls to {@link #clearWaypoints()} and
-   * {@link #onNewWaypoint(Waypoint)}.
+   * batch of calls to {@link #clearWaypoints()},
+   * {@link #onNewWaypoint(Waypoint)}, {@link #onWaypointUpdated(Waypoint)}
+   * and {@link #onWaypointDeleted(long)}.
    */
   public void onNewWaypointsDone();
 
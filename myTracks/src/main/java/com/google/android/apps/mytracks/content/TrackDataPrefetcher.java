@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prefetches the tracks likely to be opened next from the track list into the
+ * {@link TrackDataCache}, so that {@link TrackDataHub} starts warm. The likely
+ * tracks are the most recently selected tracks and the visible tracks once the
+ * list stops scrolling. Loads the track, the sampled track points drawn as the
+ * map polyline and the waypoints, one track at a time in a background priority
+ * thread.
+ * <p>
+ * Disabled while recording. Pending and running prefetches are canceled when
+ * disabled, when stopped and under memory pressure.
+ */
+public class TrackDataPrefetcher {
+
+  private static final String TAG = TrackDataPrefetcher.class.getSimpleName();
+
+  // The delay after the list stops scrolling, in milliseconds
+  @VisibleForTesting
+  static final long PREFETCH_DELAY = 500L;
+
+  // The maximum number of tracks prefetched at once
+  @VisibleForTesting
+  static final int MAX_PREFETCHED_TRACKS = 4;
+
+  // The number of recently selected tracks remembered
+  @VisibleForTesting
+  static final int MAX_RECENT_TRACKS = 2;
+
+  private final TrackDataHub trackDataHub;
+
+  // Most recently selected first
+  private final LinkedList<Long> recentTrackIds = new LinkedList<Long>();
+  private final List<Long> visibleTrackIds = new ArrayList<Long>();
+
+  private HandlerThread handlerThread;
+  private Handler handler;
+  private CancellationSignal cancellationSignal;
+  private boolean enabled = true;
+
+  /**
+   * Creates a new instance.
+   * 
+   * @param context the context
+   */
+  public static TrackDataPrefetcher newInstance(Context context) {
+    return new TrackDataPrefetcher(new TrackDataHub(context, new TrackDataManager(),
+        MyTracksProviderUtils.Factory.get(context), TrackDataCache.getInstance(context),
+        TrackDataHub.TARGET_DISPLAYED_TRACK_POINTS));
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param trackDataHub the track data hub loading the tracks, not started
+   */
+  @VisibleForTesting
+  TrackDataPrefetcher(TrackDataHub trackDataHub) {
+    this.trackDataHub = trackDataHub;
+  }
+
+  /**
+   * Starts. To be called from the UI thread.
+   */
+  public void start() {
+    if (handlerThread != null) {
+      Log.i(TAG, "TrackDataPrefetcher already started, ignoring start.");
+      return;
+    }
+    handlerThread = new HandlerThread(
+        "TrackDataPrefetcherHandlerThread", Process.THREAD_PRIORITY_BACKGROUND);
+    handlerThread.start();
+    handler = new Handler(handlerThread.getLooper());
+  }
+
+  /**
+   * Stops, canceling the prefetches. To be called from the UI thread.
+   */
+  public void stop() {
+    if (handlerThread == null) {
+      Log.i(TAG, "TrackDataPrefetcher not started, ignoring stop.");
+      return;
+    }
+    cancel();
+    handlerThread.quit();
+    handlerThread = null;
+    handler = null;
+  }
+
+  /**
+   * Enables or disables prefetching, e.g., to leave the I/O to the recording.
+   * To be called from the UI thread.
+   * 
+   * @param value true to enable
+   */
+  public void setEnabled(boolean value) {
+    if (enabled == value) {
+      return;
+    }
+    enabled = value;
+    if (enabled) {
+      schedule();
+    } else {
+      cancel();
+    }
+  }
+
+  /**
+   * Updates the visible tracks once the list stops scrolling. To be called
+   * from the UI thread.
+   * 
+   * @param trackIds the visible track ids, in list order
+   */
+  public void onVisibleTracksChanged(List<Long> trackIds) {
+    visibleTrackIds.clear();
+    visibleTrackIds.addAll(trackIds);
+    schedule();
+  }
+
+  /**
+   * Records the selection of a track. To be called from the UI thread.
+   * 
+   * @param trackId the track id
+   */
+  public void onTrackSelected(long trackId) {
+    recentTrackIds.remove(trackId);
+    recentTrackIds.addFirst(trackId);
+    while (recentTrackIds.size() > MAX_RECENT_TRACKS) {
+      recentTrackIds.removeLast();
+    }
+  }
+
+  /**
+   * Cancels the prefetches on memory pressure. See
+   * {@link ComponentCallbacks2#onTrimMemory(int)}.
+   * 
+   * @param level the memory trim level
+   */
+  public void onTrimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      cancel();
+    }
+  }
+
+  /**
+   * Gets the tracks to prefetch, the recently selected tracks first.
+   */
+  @VisibleForTesting
+  List<Long> getTrackIdsToPrefetch() {
+    Set<Long> trackIds = new LinkedHashSet<Long>(recentTrackIds);
+    for (Long trackId : visibleTrackIds) {
+      if (trackIds.size() >= MAX_PREFETCHED_TRACKS) {
+        break;
+      }
+      trackIds.add(trackId);
+    }
+    return new ArrayList<Long>(trackIds);
+  }
+
+  /**
+   * Cancels the current prefetches and schedules the prefetch of the likely
+   * tracks.
+   */
+  private void schedule() {
+    cancel();
+    if (!enabled || handler == null) {
+      return;
+    }
+    final List<Long> trackIds = getTrackIdsToPrefetch();
+    if (trackIds.isEmpty()) {
+      return;
+    }
+    final CancellationSignal signal = new CancellationSignal();
+    cancellationSignal = signal;
+    handler.postDelayed(new Runnable() {
+        @Override
+      public void run() {
+        for (long trackId : trackIds) {
+          if (signal.isCanceled() || !trackDataHub.prefetchTrack(trackId, signal)) {
+            Log.d(TAG, "Prefetch canceled");
+            return;
+          }
+        }
+      }
+    }, PREFETCH_DELAY);
+  }
+
+  /**
+   * Cancels the pending and running prefetches.
+   */
+  private void cancel() {
+    if (handler != null) {
+      handler.removeCallbacksAndMessages(null);
+    }
+    if (cancellationSignal != null) {
+      cancellationSignal.cancel();
+      cancellationSignal = null;
+    }
+  }
+}
@@ -231,6 +231,20 @@ public class ChartFragment extends Fragment implements TrackDataListener {
     }
   }
 
+  @Override
+  public void onWaypointUpdated(Waypoint waypoint) {
+    if (isResumed()) {
+      chartView.updateWaypoint(waypoint);
+    }
+  }
+
+  @Override
+  public void onWaypointDeleted(long waypointId) {
+    if (isResumed()) {
+      chartView.removeWaypoint(waypointId);
+    }
+  }
+
   @Override
   public void onNewWaypointsDone() {
     if (isResumed()) {
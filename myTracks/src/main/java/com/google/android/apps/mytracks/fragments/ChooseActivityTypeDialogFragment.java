@@ -16,6 +16,7 @@
 
 package com.google.android.apps.mytracks.fragments;
 
+import com.google.android.apps.mytracks.services.RecalculateService;
 import com.google.android.apps.mytracks.util.DialogUtils;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.apps.mytracks.util.StringUtils;
@@ -135,6 +136,7 @@ public class ChooseActivityTypeDialogFragment extends DialogFragment {
               if (!newValue.equals(weightValue)) {
                 newWeight = true;
                 PreferencesUtils.storeWeightValue(activity, newValue);
+                RecalculateService.recalculateAll(activity, RecalculateService.JOB_CALORIE);
               }
             }
             int selected = imageAdapter.getSelected();
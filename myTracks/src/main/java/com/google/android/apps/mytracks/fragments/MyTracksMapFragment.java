@@ -455,13 +455,27 @@ public class MyTracksMapFragment extends SupportMapFragment implements TrackData
     }
   }
 
+  @Override
+  public void onWaypointUpdated(Waypoint waypoint) {
+    if (isResumed()) {
+      mapOverlay.updateWaypoint(waypoint);
+    }
+  }
+
+  @Override
+  public void onWaypointDeleted(long waypointId) {
+    if (isResumed()) {
+      mapOverlay.removeWaypoint(waypointId);
+    }
+  }
+
   @Override
   public void onNewWaypointsDone() {
     if (isResumed()) {
       getActivity().runOnUiThread(new Runnable() {
         public void run() {
           if (isResumed() && googleMap != null && currentTrack != null) {
-            mapOverlay.update(googleMap, paths, currentTrack.getTripStatistics(), true);
+            mapOverlay.update(googleMap, paths, currentTrack.getTripStatistics(), false);
           }
         }
       });
@@ -204,6 +204,16 @@ public class StatsFragment extends Fragment implements TrackDataListener {
     // We don't care.
   }
 
+  @Override
+  public void onWaypointUpdated(Waypoint waypoint) {
+    // We don't care.
+  }
+
+  @Override
+  public void onWaypointDeleted(long waypointId) {
+    // We don't care.
+  }
+
   @Override
   public void onNewWaypointsDone() {
     // We don't care.
@@ -46,6 +46,7 @@ public class PreferenceBackupHelper {
   public PreferenceBackupHelper(Context context) {
     doNotBackup = new HashSet<String>();
     doNotBackup.add(context.getString(R.string.activity_recognition_type_key));
+    doNotBackup.add(context.getString(R.string.activity_still_key));
     doNotBackup.add(context.getString(R.string.ant_bike_cadence_sensor_id_key));
     doNotBackup.add(context.getString(R.string.ant_combined_bike_sensor_id_key));
     doNotBackup.add(context.getString(R.string.ant_heart_rate_monitor_id_key));
@@ -57,6 +58,8 @@ public class PreferenceBackupHelper {
     doNotBackup.add(context.getString(R.string.drive_largest_change_id_key));
     doNotBackup.add(context.getString(R.string.drive_sync_key));
     doNotBackup.add(context.getString(R.string.google_account_key));
+    doNotBackup.add(context.getString(R.string.recalculate_jobs_key));
+    doNotBackup.add(context.getString(R.string.recalculate_track_id_key));
     doNotBackup.add(context.getString(R.string.recording_track_id_key));
     doNotBackup.add(context.getString(R.string.recording_track_paused_key));
     doNotBackup.add(context.getString(R.string.share_track_account_key));
@@ -18,6 +18,7 @@ package com.google.android.apps.mytracks.io.sync;
 
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
 import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.TrackSummary;
 import com.google.android.apps.mytracks.io.file.exporter.KmzTrackExporter;
 import com.google.android.apps.mytracks.io.file.importer.KmlFileTrackImporter;
 import com.google.android.apps.mytracks.io.file.importer.KmzTrackImporter;
@@ -46,7 +47,6 @@ import android.content.AbstractThreadedSyncAdapter;
 import android.content.ContentProviderClient;
 import android.content.Context;
 import android.content.SyncResult;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -189,20 +189,10 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
     } catch (IOException e) {
 
       // Remove all imported tracks
-      Cursor cursor = null;
-      try {
-        cursor = myTracksProviderUtils.getTrackCursor(SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null);
-        if (cursor != null && cursor.moveToFirst()) {
-          do {
-            Track track = myTracksProviderUtils.createTrack(cursor);
-            if (!syncedDriveIds.contains(track.getDriveId())) {
-              myTracksProviderUtils.deleteTrack(context, track.getId());
-            }
-          } while (cursor.moveToNext());
-        }
-      } finally {
-        if (cursor != null) {
-          cursor.close();
+      for (TrackSummary track : myTracksProviderUtils.getTrackSummaries(
+          TrackSummary.SYNC_PROJECTION, SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null)) {
+        if (!syncedDriveIds.contains(track.getDriveId())) {
+          myTracksProviderUtils.deleteTrack(context, track.getId());
         }
       }
       throw e;
@@ -216,34 +206,23 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
    */
   private Set<String> updateSyncedTracks() throws IOException {
     Set<String> result = new HashSet<String>();
-    Cursor cursor = null;
-    try {
-      cursor = myTracksProviderUtils.getTrackCursor(SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null);
-      if (cursor != null && cursor.moveToFirst()) {
-        do {
-          Track track = myTracksProviderUtils.createTrack(cursor);
-          String driveId = track.getDriveId();
-          if (driveId != null && !driveId.equals("")) {
-            if (!track.isSharedWithMe()) {
-              File driveFile = drive.files().get(driveId).execute();
-              if (SyncUtils.isInMyTracksAndValid(driveFile, folderId)) {
-                merge(track, driveFile);
-                result.add(driveId);
-              } else {
-                /*
-                 * Track has a drive id, but the drive id is no longer valid.
-                 * E.g., the file is moved to another folder. Clear the drive
-                 * id.
-                 */
-                SyncUtils.updateTrack(myTracksProviderUtils, track, null);
-              }
-            }
+    for (TrackSummary track : myTracksProviderUtils.getTrackSummaries(
+        TrackSummary.SYNC_PROJECTION, SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null)) {
+      String driveId = track.getDriveId();
+      if (driveId != null && !driveId.equals("")) {
+        if (!track.isSharedWithMe()) {
+          File driveFile = drive.files().get(driveId).execute();
+          if (SyncUtils.isInMyTracksAndValid(driveFile, folderId)) {
+            merge(track, driveFile);
+            result.add(driveId);
+          } else {
+            /*
+             * Track has a drive id, but the drive id is no longer valid. E.g.,
+             * the file is moved to another folder. Clear the drive id.
+             */
+            SyncUtils.updateTrack(myTracksProviderUtils, track.getId(), null);
           }
-        } while (cursor.moveToNext());
-      }
-    } finally {
-      if (cursor != null) {
-        cursor.close();
+        }
       }
     }
     return result;
@@ -274,7 +253,8 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
     if (!PreferencesUtils.DRIVE_EDITED_LIST_DEFAULT.equals(driveEditedList)) {
       String editedIds[] = TextUtils.split(driveEditedList, ";");
       for (String id : editedIds) {
-        Track track = myTracksProviderUtils.getTrack(Long.valueOf(id));
+        TrackSummary track = myTracksProviderUtils.getTrackSummary(
+            TrackSummary.SYNC_PROJECTION, Long.valueOf(id));
         if (track == null) {
           continue;
         }
@@ -298,54 +278,44 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
     Map<String, File> changes = new HashMap<String, File>();
     long newLargestChangeId = getDriveChangesInfo(largestChangeId, changes);
     if (newLargestChangeId != largestChangeId) {
-      Cursor cursor = null;
-      try {
-        // Get all the local tracks with drive file id
-        cursor = myTracksProviderUtils.getTrackCursor(SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null);
-        if (cursor != null && cursor.moveToFirst()) {
-          do {
-            Track track = myTracksProviderUtils.createTrack(cursor);
-            String driveId = track.getDriveId();
-
-            if (changes.containsKey(driveId)) {
-
-              // Track has changed
-              File driveFile = changes.get(driveId);
-              if (driveFile == null) {
-                Log.d(TAG, "Delete local track " + track.getName());
-                myTracksProviderUtils.deleteTrack(context, track.getId());
-              } else {
-                if (SyncUtils.isInMyTracksAndValid(driveFile, folderId)
-                    || SyncUtils.isInSharedWithMe(driveFile)) {
-                  merge(track, driveFile);
-                } else {
-                  SyncUtils.updateTrack(myTracksProviderUtils, track, null);
-                }
-              }
-              changes.remove(driveId);
-            }
-          } while (cursor.moveToNext());
-        }
+      // Get all the local tracks with drive file id
+      for (TrackSummary track : myTracksProviderUtils.getTrackSummaries(
+          TrackSummary.SYNC_PROJECTION, SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null)) {
+        String driveId = track.getDriveId();
 
-        // Insert valid new drive file changes as new tracks
-        Iterator<String> iterator = changes.keySet().iterator();
+        if (changes.containsKey(driveId)) {
 
-        while (iterator.hasNext()) {
-          String driveId = iterator.next();
-          File file = changes.get(driveId);
-          if (!SyncUtils.isInMyTracksAndValid(file, folderId)
-              && !SyncUtils.isInSharedWithMeAndValid(file)) {
-            iterator.remove();
+          // Track has changed
+          File driveFile = changes.get(driveId);
+          if (driveFile == null) {
+            Log.d(TAG, "Delete local track " + track.getName());
+            myTracksProviderUtils.deleteTrack(context, track.getId());
+          } else {
+            if (SyncUtils.isInMyTracksAndValid(driveFile, folderId)
+                || SyncUtils.isInSharedWithMe(driveFile)) {
+              merge(track, driveFile);
+            } else {
+              SyncUtils.updateTrack(myTracksProviderUtils, track.getId(), null);
+            }
           }
+          changes.remove(driveId);
         }
+      }
+
+      // Insert valid new drive file changes as new tracks
+      Iterator<String> iterator = changes.keySet().iterator();
 
-        insertNewTracks(changes.values());
-        PreferencesUtils.setLong(context, R.string.drive_largest_change_id_key, newLargestChangeId);
-      } finally {
-        if (cursor != null) {
-          cursor.close();
+      while (iterator.hasNext()) {
+        String driveId = iterator.next();
+        File file = changes.get(driveId);
+        if (!SyncUtils.isInMyTracksAndValid(file, folderId)
+            && !SyncUtils.isInSharedWithMeAndValid(file)) {
+          iterator.remove();
         }
       }
+
+      insertNewTracks(changes.values());
+      PreferencesUtils.setLong(context, R.string.drive_largest_change_id_key, newLargestChangeId);
     }
   }
 
@@ -353,26 +323,19 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
    * Inserts new drive files from tracks without a drive id.
    */
   private void insertNewDriveFiles() throws IOException {
-    Cursor cursor = null;
-    try {
-      cursor = myTracksProviderUtils.getTrackCursor(SyncUtils.NO_DRIVE_ID_TRACKS_QUERY, null, null);
-      long recordingTrackId = PreferencesUtils.getLong(context, R.string.recording_track_id_key);
-
-      if (cursor != null && cursor.moveToFirst()) {
-        do {
-          Track track = myTracksProviderUtils.createTrack(cursor);
-          if (track.getId() == recordingTrackId) {
-            continue;
-          }
-          // If not successful, the next sync will retry again
-          SyncUtils.insertDriveFile(
-              drive, folderId, context, myTracksProviderUtils, track, true, true);
-        } while (cursor.moveToNext());
+    long recordingTrackId = PreferencesUtils.getLong(context, R.string.recording_track_id_key);
+    for (TrackSummary summary : myTracksProviderUtils.getTrackSummaries(
+        TrackSummary.SYNC_PROJECTION, SyncUtils.NO_DRIVE_ID_TRACKS_QUERY, null, null)) {
+      if (summary.getId() == recordingTrackId) {
+        continue;
       }
-    } finally {
-      if (cursor != null) {
-        cursor.close();
+      // The full track is only needed to export it
+      Track track = myTracksProviderUtils.getTrack(summary.getId());
+      if (track == null) {
+        continue;
       }
+      // If not successful, the next sync will retry again
+      SyncUtils.insertDriveFile(drive, folderId, context, myTracksProviderUtils, track, true, true);
     }
   }
 
@@ -455,33 +418,42 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
    * @param track the track
    * @param driveFile the drive file
    */
-  private void merge(Track track, File driveFile) throws IOException {
-    long modifiedTime = track.getModifiedTime();
+  private void merge(TrackSummary summary, File driveFile) throws IOException {
+    long modifiedTime = summary.getModifiedTime();
     long driveModifiedTime = driveFile.getModifiedDate().getValue();
     if (modifiedTime > driveModifiedTime) {
-      Log.d(TAG, "Updating track change for track " + track.getName() + " and drive file "
+      Log.d(TAG, "Updating track change for track " + summary.getName() + " and drive file "
           + driveFile.getTitle());
-      if (!SyncUtils.updateDriveFile(
+      // The full track is only needed to export it
+      Track track = myTracksProviderUtils.getTrack(summary.getId());
+      if (track == null || !SyncUtils.updateDriveFile(
           drive, driveFile, context, myTracksProviderUtils, track, true)) {
         Log.e(TAG, "Unable to update drive file");
-        track.setModifiedTime(driveModifiedTime);
-        myTracksProviderUtils.updateTrack(track);
+        updateModifiedTime(summary, driveModifiedTime);
       }
     } else if (modifiedTime < driveModifiedTime) {
-      Log.d(TAG, "Updating drive change for track " + track.getName() + " and drive file "
+      Log.d(TAG, "Updating drive change for track " + summary.getName() + " and drive file "
           + driveFile.getTitle());
-      if (!updateTrack(track.getId(), driveFile)) {
+      if (!updateTrack(summary.getId(), driveFile)) {
         Log.e(TAG, "Unable to update drive change");
-        // The track could have been deleted in the unsuccessful update
-        track = myTracksProviderUtils.getTrack(track.getId());
-        if (track != null) {
-          track.setModifiedTime(driveModifiedTime);
-          myTracksProviderUtils.updateTrack(track);
-        }
+        // The track could have been deleted in the unsuccessful update, then
+        // nothing is updated
+        updateModifiedTime(summary, driveModifiedTime);
       }
     }
   }
 
+  /**
+   * Updates the modified time of a track, keeping its other drive info.
+   * 
+   * @param summary the track summary
+   * @param modifiedTime the modified time
+   */
+  private void updateModifiedTime(TrackSummary summary, long modifiedTime) {
+    myTracksProviderUtils.updateTrackDriveInfo(summary.getId(), summary.getDriveId(),
+        modifiedTime, summary.isSharedWithMe(), summary.getSharedOwner());
+  }
+
   /**
    * Updates a track based on a drive file. Returns true if successful.
    * 
@@ -19,6 +19,7 @@ package com.google.android.apps.mytracks.io.sync;
 import com.google.android.apps.mytracks.Constants;
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
 import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.TrackSummary;
 import com.google.android.apps.mytracks.content.TracksColumns;
 import com.google.android.apps.mytracks.io.file.TrackFileFormat;
 import com.google.android.apps.mytracks.io.file.exporter.FileTrackExporter;
@@ -43,7 +44,6 @@ import android.accounts.Account;
 import android.accounts.AccountManager;
 import android.content.ContentResolver;
 import android.content.Context;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.util.Log;
 
@@ -203,22 +203,12 @@ public class SyncUtils {
    */
   private static void clearSyncState(Context context) {
     MyTracksProviderUtils myTracksProviderUtils = MyTracksProviderUtils.Factory.get(context);
-    Cursor cursor = null;
-    try {
-      cursor = myTracksProviderUtils.getTrackCursor(SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null);
-      if (cursor != null && cursor.moveToFirst()) {
-        do {
-          Track track = myTracksProviderUtils.createTrack(cursor);
-          if (track.isSharedWithMe()) {
-            myTracksProviderUtils.deleteTrack(context, track.getId());
-          } else {
-            SyncUtils.updateTrack(myTracksProviderUtils, track, null);
-          }
-        } while (cursor.moveToNext());
-      }
-    } finally {
-      if (cursor != null) {
-        cursor.close();
+    for (TrackSummary track : myTracksProviderUtils.getTrackSummaries(
+        TrackSummary.SYNC_PROJECTION, SyncUtils.DRIVE_ID_TRACKS_QUERY, null, null)) {
+      if (track.isSharedWithMe()) {
+        myTracksProviderUtils.deleteTrack(context, track.getId());
+      } else {
+        SyncUtils.updateTrack(myTracksProviderUtils, track.getId(), null);
       }
     }
     PreferencesUtils.setLong(context, R.string.drive_largest_change_id_key,
@@ -554,4 +544,23 @@ public class SyncUtils {
         : "");
     myTracksProviderUtils.updateTrack(track);
   }
+
+  /**
+   * Updates the drive columns of a track with info from a drive file, without
+   * reading or rewriting the other track columns.
+   * 
+   * @param myTracksProviderUtils the myTracksProviderUtils
+   * @param trackId the track id
+   * @param driveFile the drive file. Null to clear the drive info
+   */
+  public static void updateTrack(
+      MyTracksProviderUtils myTracksProviderUtils, long trackId, File driveFile) {
+    boolean sharedWithMe = driveFile != null && driveFile.getSharedWithMeDate() != null;
+    myTracksProviderUtils.updateTrackDriveInfo(trackId,
+        driveFile != null ? driveFile.getId() : "",
+        driveFile != null ? driveFile.getModifiedDate().getValue() : -1L,
+        sharedWithMe,
+        sharedWithMe && driveFile.getOwnerNames().size() > 0 ? driveFile.getOwnerNames().get(0)
+            : "");
+  }
 }
@@ -16,6 +16,8 @@
 
 package com.google.android.apps.mytracks.services;
 
+import android.location.Location;
+
 /**
  * This is a simple location listener policy that will always dictate the same
  * polling interval.
@@ -49,4 +51,14 @@ public class AbsoluteLocationListenerPolicy implements LocationListenerPolicy {
   public void updateIdleTime(long idleTime) {
     // Ignore
   }
+
+  @Override
+  public void updateLocation(Location location) {
+    // Ignore
+  }
+
+  @Override
+  public void updateStill(boolean still) {
+    // Ignore
+  }
 }
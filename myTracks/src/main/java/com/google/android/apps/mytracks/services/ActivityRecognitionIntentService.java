@@ -18,14 +18,19 @@ package com.google.android.apps.mytracks.services;
 
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.gms.location.ActivityRecognitionResult;
+import com.google.android.gms.location.ActivityTransition;
+import com.google.android.gms.location.ActivityTransitionEvent;
+import com.google.android.gms.location.ActivityTransitionResult;
 import com.google.android.gms.location.DetectedActivity;
 import com.google.android.maps.mytracks.R;
 
 import android.app.IntentService;
 import android.content.Intent;
 
+import java.util.List;
+
 /**
- * Service that receives ActivityRecognition updates.
+ * Service that receives ActivityRecognition updates and activity transitions.
  * 
  * @author Jimmy Shih
  */
@@ -39,6 +44,10 @@ public class ActivityRecognitionIntentService extends IntentService {
 
   @Override
   protected void onHandleIntent(Intent intent) {
+    if (ActivityTransitionResult.hasResult(intent)) {
+      onActivityTransition(ActivityTransitionResult.extractResult(intent));
+      return;
+    }
     if (!ActivityRecognitionResult.hasResult(intent)) {
       return;
     }
@@ -89,4 +98,24 @@ public class ActivityRecognitionIntentService extends IntentService {
         break;
     }
   }
+
+  /**
+   * Saves whether the user is still, from the last transition, for the
+   * location listener policy.
+   * 
+   * @param result the activity transition result
+   */
+  private void onActivityTransition(ActivityTransitionResult result) {
+    List<ActivityTransitionEvent> events = result.getTransitionEvents();
+    if (events.isEmpty()) {
+      return;
+    }
+    ActivityTransitionEvent event = events.get(events.size() - 1);
+    boolean still = event.getActivityType() == DetectedActivity.STILL
+        && event.getTransitionType() == ActivityTransition.ACTIVITY_TRANSITION_ENTER;
+    if (still != PreferencesUtils.getBoolean(
+        this, R.string.activity_still_key, PreferencesUtils.ACTIVITY_STILL_DEFAULT)) {
+      PreferencesUtils.setBoolean(this, R.string.activity_still_key, still);
+    }
+  }
 }
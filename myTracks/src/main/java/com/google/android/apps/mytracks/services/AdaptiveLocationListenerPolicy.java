@@ -16,6 +16,8 @@
 
 package com.google.android.apps.mytracks.services;
 
+import android.location.Location;
+
 /**
  * A {@link LocationListenerPolicy} that will change based on how long the user
  * has been stationary. This policy will dictate a policy based on a min, max
@@ -70,4 +72,14 @@ public class AdaptiveLocationListenerPolicy implements LocationListenerPolicy {
   public void updateIdleTime(long newIdleTime) {
     idleTime = newIdleTime;
   }
+
+  @Override
+  public void updateLocation(Location location) {
+    // Ignore
+  }
+
+  @Override
+  public void updateStill(boolean still) {
+    // Ignore
+  }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.util.UnitConversions;
+
+import android.location.Location;
+
+/**
+ * A {@link LocationFilter} smoothing the latitude, longitude and altitude with
+ * a constant velocity Kalman filter. Each of the north, east and up axes has a
+ * position and a velocity state. The measurement noise is the reported
+ * accuracy and the process noise is a random acceleration. The filter restarts
+ * after a gap of more than {@link #MAX_GAP}.
+ */
+public class KalmanLocationFilter implements LocationFilter {
+
+  // The time gap after which the filter restarts, in milliseconds
+  static final long MAX_GAP = 5 * 60 * 1000L;
+
+  // The default variance of the acceleration, in (m/s^2)^2
+  static final double ACCELERATION_VARIANCE_DEFAULT = 1.0;
+
+  // The vertical accuracy relative to the horizontal accuracy
+  private static final double VERTICAL_ACCURACY_FACTOR = 1.5;
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private final double accelerationVariance;
+  private final Axis north = new Axis();
+  private final Axis east = new Axis();
+  private final Axis up = new Axis();
+
+  private long lastTime = -1L;
+  private double originLatitude;
+  private double originLongitude;
+  private double metersPerDegreeLongitude;
+
+  public KalmanLocationFilter() {
+    this(ACCELERATION_VARIANCE_DEFAULT);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param accelerationVariance the variance of the acceleration, in
+   *          (m/s^2)^2. Larger values follow the locations more closely.
+   */
+  public KalmanLocationFilter(double accelerationVariance) {
+    this.accelerationVariance = accelerationVariance;
+  }
+
+  @Override
+  public Location filter(Location location) {
+    long time = location.getTime();
+    double variance = location.hasAccuracy()
+        ? location.getAccuracy() * location.getAccuracy() : Double.NaN;
+    if (Double.isNaN(variance) || variance <= 0.0) {
+      return location;
+    }
+    double verticalVariance = variance * VERTICAL_ACCURACY_FACTOR * VERTICAL_ACCURACY_FACTOR;
+
+    if (lastTime < 0 || time - lastTime > MAX_GAP || time < lastTime) {
+      originLatitude = location.getLatitude();
+      originLongitude = location.getLongitude();
+      metersPerDegreeLongitude = METERS_PER_DEGREE
+          * Math.cos(originLatitude * UnitConversions.DEG_TO_RAD);
+      north.start(0.0, variance);
+      east.start(0.0, variance);
+      up.start(location.hasAltitude() ? location.getAltitude() : Double.NaN, verticalVariance);
+      lastTime = time;
+      return location;
+    }
+
+    double dt = (time - lastTime) * UnitConversions.MS_TO_S;
+    lastTime = time;
+    north.update(dt, accelerationVariance,
+        (location.getLatitude() - originLatitude) * METERS_PER_DEGREE, variance);
+    east.update(dt, accelerationVariance,
+        (location.getLongitude() - originLongitude) * metersPerDegreeLongitude, variance);
+
+    Location filtered = new Location(location);
+    filtered.setLatitude(originLatitude + north.position / METERS_PER_DEGREE);
+    filtered.setLongitude(originLongitude + east.position / metersPerDegreeLongitude);
+    if (location.hasAltitude()) {
+      if (Double.isNaN(up.position)) {
+        up.start(location.getAltitude(), verticalVariance);
+      } else {
+        up.update(dt, accelerationVariance, location.getAltitude(), verticalVariance);
+      }
+      filtered.setAltitude(up.position);
+    }
+    return filtered;
+  }
+
+  @Override
+  public void reset() {
+    lastTime = -1L;
+  }
+
+  /**
+   * The position and velocity state of an axis with its covariance.
+   */
+  private static class Axis {
+    private double position;
+    private double velocity;
+
+    // The covariance matrix [[p00, p01], [p01, p11]]
+    private double p00;
+    private double p01;
+    private double p11;
+
+    /**
+     * Starts at a position with an unknown velocity.
+     * 
+     * @param measurement the position
+     * @param variance the variance of the position
+     */
+    private void start(double measurement, double variance) {
+      position = measurement;
+      velocity = 0.0;
+      p00 = variance;
+      p01 = 0.0;
+      p11 = variance;
+    }
+
+    /**
+     * Predicts the state after a time and corrects it with a measurement.
+     * 
+     * @param dt the time since the last update, in seconds
+     * @param accelerationVariance the variance of the acceleration
+     * @param measurement the measured position
+     * @param variance the variance of the measured position
+     */
+    private void update(
+        double dt, double accelerationVariance, double measurement, double variance) {
+      // Predict
+      position += velocity * dt;
+      double dt2 = dt * dt;
+      p00 += 2 * dt * p01 + dt2 * p11 + accelerationVariance * dt2 * dt2 / 4;
+      p01 += dt * p11 + accelerationVariance * dt2 * dt / 2;
+      p11 += accelerationVariance * dt2;
+
+      // Correct
+      double innovation = measurement - position;
+      double s = p00 + variance;
+      double k0 = p00 / s;
+      double k1 = p01 / s;
+      position += k0 * innovation;
+      velocity += k1 * innovation;
+      p11 -= k1 * p01;
+      p01 -= k0 * p01;
+      p00 -= k0 * p00;
+    }
+  }
+}
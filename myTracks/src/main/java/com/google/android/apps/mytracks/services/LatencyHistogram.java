@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+/**
+ * A fixed size latency histogram in the style of HdrHistogram. Each power of
+ * two range is split into {@link #SUB_BUCKETS} linear buckets, so a recorded
+ * value is reported with a relative error of at most 1 / {@link #SUB_BUCKETS}
+ * while recording is a few shifts and an increment. Thread safe.
+ */
+class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  // The number of linear buckets per power of two
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  // Covers all the non negative long values
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long total;
+  private long min = Long.MAX_VALUE;
+  private long max;
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value the value
+   */
+  synchronized void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts[getIndex(value)]++;
+    count++;
+    total += value;
+    if (value < min) {
+      min = value;
+    }
+    if (value > max) {
+      max = value;
+    }
+  }
+
+  synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the min value. Returns 0 if empty.
+   */
+  synchronized long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  synchronized long getMax() {
+    return max;
+  }
+
+  /**
+   * Gets the mean value. Returns 0 if empty.
+   */
+  synchronized double getMean() {
+    return count == 0 ? 0.0 : (double) total / count;
+  }
+
+  /**
+   * Gets the value at a percentile, the highest value of the bucket it falls
+   * in, capped by the max value. Returns 0 if empty.
+   *
+   * @param percentile the percentile, between 0 and 100
+   */
+  synchronized long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+    long cumulative = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulative += counts[i];
+      if (cumulative >= target) {
+        return Math.min(getHighestValue(i), max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Resets the histogram.
+   */
+  synchronized void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = 0;
+    }
+    count = 0;
+    total = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+  }
+
+  /**
+   * Gets the bucket index of a value. Values below {@link #SUB_BUCKETS} have
+   * their own bucket. Larger values are bucketed by their highest bit and the
+   * {@link #SUB_BUCKET_BITS} bits after it.
+   *
+   * @param value the value, not negative
+   */
+  static int getIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Gets the highest value of a bucket.
+   *
+   * @param index the bucket index
+   */
+  static long getHighestValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    long next = (SUB_BUCKETS + subBucket + 1) << shift;
+
+    // The last bucket ends at Long.MAX_VALUE
+    return next < 0 ? Long.MAX_VALUE : next - 1;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "count " + count + ", p50 " + getValueAtPercentile(50) + ", p90 "
+        + getValueAtPercentile(90) + ", p99 " + getValueAtPercentile(99) + ", max " + max;
+  }
+}
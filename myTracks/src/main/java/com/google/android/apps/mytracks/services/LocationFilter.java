@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+
+/**
+ * A filter of the recorded locations, applied before deciding which locations
+ * to record. See {@link KalmanLocationFilter}.
+ */
+public interface LocationFilter {
+
+  /**
+   * Filters a location. Returns the filtered location, a new location or the
+   * given one. Called with valid locations in time order.
+   * 
+   * @param location the location
+   */
+  public Location filter(Location location);
+
+  /**
+   * Resets the filter, for example at the start of a segment.
+   */
+  public void reset();
+}
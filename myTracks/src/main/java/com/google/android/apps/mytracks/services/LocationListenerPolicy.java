@@ -16,10 +16,12 @@
 
 package com.google.android.apps.mytracks.services;
 
+import android.location.Location;
+
 /**
  * This is an interface for classes that will manage the location listener
- * policy. Different policy options are: {@link AbsoluteLocationListenerPolicy}
- * and {@link AdaptiveLocationListenerPolicy}.
+ * policy. Different policy options are: {@link AbsoluteLocationListenerPolicy},
+ * {@link AdaptiveLocationListenerPolicy} and {@link MotionLocationListenerPolicy}.
  * 
  * @author Sandor Dornbush
  */
@@ -44,4 +46,18 @@ public interface LocationListenerPolicy {
    *          location
    */
   public void updateIdleTime(long idleTime);
+
+  /**
+   * Notifies a new location.
+   * 
+   * @param location the location
+   */
+  public void updateLocation(Location location);
+
+  /**
+   * Notifies whether activity recognition reports the user as still.
+   * 
+   * @param still true if still
+   */
+  public void updateStill(boolean still);
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.location.Location;
+
+/**
+ * A {@link LocationListenerPolicy} that adapts to the user motion. Uses the
+ * max interval and a large min distance when activity recognition reports the
+ * user is still, the min interval when the heading changes, and otherwise an
+ * interval that spaces the locations about a target distance apart at the
+ * current speed. Without a speed, falls back to half of the idle time, like
+ * {@link AdaptiveLocationListenerPolicy}. Each interval change registers the
+ * location listener again, so the interval only follows the speed when it
+ * changes by {@link #MIN_INTERVAL_CHANGE}, and a turn lasts
+ * {@link #TURN_LOCATIONS} locations. Thread safe.
+ */
+public class MotionLocationListenerPolicy implements LocationListenerPolicy {
+
+  // The heading change between two locations considered a turn, in degrees
+  static final float TURN_ANGLE = 30f;
+
+  // The min speed for a reliable heading, in meters per second
+  static final float MIN_HEADING_SPEED = 1f;
+
+  // The min distance when still, in meters
+  static final int STILL_MIN_DISTANCE = 20;
+
+  // The min relative change of the interval when moving straight
+  static final double MIN_INTERVAL_CHANGE = 0.25;
+
+  // The number of locations, including the turning one, using the turn interval
+  static final int TURN_LOCATIONS = 3;
+
+  private final long minInterval;
+  private final long maxInterval;
+  private final int minDistance;
+  private final int targetDistance;
+
+  private boolean still;
+  private int turnLocations; // the remaining locations of a turn
+  private long interval = -1L; // the interval when moving straight, negative if unset
+  private float speed = -1f; // negative if unknown
+  private float heading = Float.NaN; // NaN if unknown
+  private Location lastLocation;
+  private long idleTime;
+
+  /**
+   * Creates a policy bounded by the given minInterval and maxInterval.
+   *
+   * @param minInterval the smallest interval this policy will dictate, in
+   *          milliseconds
+   * @param maxInterval the largest interval this policy will dictate, in
+   *          milliseconds
+   * @param minDistance the minimum distance when moving, in meters
+   * @param targetDistance the target distance between locations when moving
+   *          straight, in meters
+   */
+  public MotionLocationListenerPolicy(
+      long minInterval, long maxInterval, int minDistance, int targetDistance) {
+    this.minInterval = minInterval;
+    this.maxInterval = maxInterval;
+    this.minDistance = minDistance;
+    this.targetDistance = targetDistance;
+  }
+
+  @Override
+  public synchronized long getDesiredPollingInterval() {
+    if (still) {
+      return maxInterval;
+    }
+    if (turnLocations > 0) {
+      return minInterval;
+    }
+    if (interval < 0L) {
+      updateInterval();
+    }
+    return interval;
+  }
+
+  @Override
+  public synchronized int getMinDistance() {
+    if (still) {
+      return Math.max(minDistance, STILL_MIN_DISTANCE);
+    }
+    return turnLocations > 0 ? 0 : minDistance;
+  }
+
+  @Override
+  public synchronized void updateIdleTime(long newIdleTime) {
+    idleTime = newIdleTime;
+    updateInterval();
+  }
+
+  @Override
+  public synchronized void updateLocation(Location location) {
+    speed = location.hasSpeed() ? location.getSpeed() : -1f;
+    float newHeading = speed >= MIN_HEADING_SPEED ? getHeading(location, lastLocation) : Float.NaN;
+    if (!Float.isNaN(heading) && !Float.isNaN(newHeading)
+        && getAngle(heading, newHeading) >= TURN_ANGLE) {
+      turnLocations = TURN_LOCATIONS;
+    } else if (turnLocations > 0) {
+      turnLocations--;
+    }
+    heading = newHeading;
+    lastLocation = location;
+    updateInterval();
+  }
+
+  @Override
+  public synchronized void updateStill(boolean isStill) {
+    still = isStill;
+  }
+
+  /**
+   * Updates the interval when moving straight if the interval for the current
+   * speed or idle time differs enough.
+   */
+  private void updateInterval() {
+    long desiredInterval;
+    if (speed > 0f) {
+      desiredInterval = (long) (targetDistance / speed * 1000);
+    } else {
+      desiredInterval = idleTime / 2;
+    }
+    desiredInterval = Math.max(Math.min(maxInterval, desiredInterval), minInterval);
+    if (interval < 0L || Math.abs(desiredInterval - interval) > interval * MIN_INTERVAL_CHANGE) {
+      // Round to second to avoid setting the interval too often
+      interval = Math.max((desiredInterval / 1000) * 1000, minInterval);
+    }
+  }
+
+  /**
+   * Gets the heading of a location, in degrees. Uses the bearing of the
+   * location, else the bearing from the previous location. Returns NaN if
+   * unknown.
+   *
+   * @param location the location
+   * @param previous the previous location, can be null
+   */
+  private static float getHeading(Location location, Location previous) {
+    if (location.hasBearing()) {
+      return location.getBearing();
+    }
+    if (previous != null && previous.distanceTo(location) > 0f) {
+      return previous.bearingTo(location);
+    }
+    return Float.NaN;
+  }
+
+  /**
+   * Gets the angle between two headings, between 0 and 180 degrees.
+   *
+   * @param heading1 the first heading
+   * @param heading2 the second heading
+   */
+  static float getAngle(float heading1, float heading2) {
+    float angle = Math.abs(heading1 - heading2) % 360f;
+    return angle > 180f ? 360f - angle : angle;
+  }
+}
@@ -88,6 +88,10 @@ public class MyTracksLocationManager {
                 LocationRequest.PRIORITY_HIGH_ACCURACY).setInterval(requestLocationUpdatesTime)
                 .setFastestInterval(requestLocationUpdatesTime)
                 .setSmallestDisplacement(requestLocationUpdatesDistance);
+            if (requestLocationUpdatesMaxWaitTime > requestLocationUpdatesTime) {
+              // Let the provider batch the locations
+              locationRequest.setMaxWaitTime(requestLocationUpdatesMaxWaitTime);
+            }
             fusedLocationClient.requestLocationUpdates(locationRequest, requestLocationUpdates, null);
           }
         }
@@ -118,6 +122,7 @@ public class MyTracksLocationManager {
   private LocationCallback requestLocationUpdates;
   private float requestLocationUpdatesDistance;
   private long requestLocationUpdatesTime;
+  private long requestLocationUpdatesMaxWaitTime;
 
   public MyTracksLocationManager(Context context, Looper looper, boolean enableLocaitonClient) {
     this.context = context;
@@ -202,12 +207,31 @@ public class MyTracksLocationManager {
    * @param locationListener the location listener
    */
   public void requestLocationUpdates(
-      final long minTime, final float minDistance, final LocationCallback locationListener) {
+      long minTime, float minDistance, LocationCallback locationListener) {
+    requestLocationUpdates(minTime, minDistance, 0L, locationListener);
+  }
+
+  /**
+   * Requests location updates, delivered in batches. The locations can be
+   * delayed up to maxWaitTime and delivered together in a
+   * {@link com.google.android.gms.location.LocationResult}, letting the device
+   * sleep in between. This is an ongoing request, thus the caller needs to
+   * check the status of {@link #isAllowed}.
+   * 
+   * @param minTime the minimal time
+   * @param minDistance the minimal distance
+   * @param maxWaitTime the max wait time. No batching if not greater than
+   *          minTime
+   * @param locationListener the location listener
+   */
+  public void requestLocationUpdates(final long minTime, final float minDistance,
+      final long maxWaitTime, final LocationCallback locationListener) {
     handler.post(new Runnable() {
         @Override
       public void run() {
         requestLocationUpdatesTime = minTime;
         requestLocationUpdatesDistance = minDistance;
+        requestLocationUpdatesMaxWaitTime = maxWaitTime;
         requestLocationUpdates = locationListener;
         connectionCallbacks.onConnected(null);
       }
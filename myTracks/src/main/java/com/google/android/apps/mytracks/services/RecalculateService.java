@@ -0,0 +1,419 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.content.DescriptionGeneratorImpl;
+import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
+import com.google.android.apps.mytracks.content.Track;
+import com.google.android.apps.mytracks.content.TracksColumns;
+import com.google.android.apps.mytracks.content.Waypoint;
+import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.content.WaypointsColumns;
+import com.google.android.apps.mytracks.util.CalorieUtils;
+import com.google.android.apps.mytracks.util.PreferencesUtils;
+import com.google.android.maps.mytracks.R;
+import com.google.common.annotations.VisibleForTesting;
+
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.Cursor;
+import android.os.BatteryManager;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A service to recalculate the data derived from the tracks, such as the
+ * calories and the statistics marker descriptions, for one track or for all
+ * the tracks.
+ * <p>
+ * A pass over all the tracks walks the tracks in id order on a small thread
+ * pool and saves a checkpoint in the shared preferences after each track, so
+ * an interrupted pass continues from the checkpoint on {@link #resume}. The
+ * pass stops when the battery is low and slows down while recording. Jobs for
+ * one track don't wait for a pass, the pass runs them between its tracks.
+ */
+public class RecalculateService extends IntentService {
+
+  /**
+   * Job to update the calories.
+   */
+  public static final int JOB_CALORIE = 1;
+
+  /**
+   * Job to update the statistics marker descriptions.
+   */
+  public static final int JOB_MARKER_DESCRIPTION = 2;
+
+  private static final String TAG = RecalculateService.class.getSimpleName();
+
+  @VisibleForTesting
+  static final String JOBS_EXTRA = "jobs";
+  @VisibleForTesting
+  static final String TRACK_ID_EXTRA = "trackId";
+
+  private static final int MAX_THREADS = 2;
+
+  // Delay between tracks while recording, in milliseconds
+  @VisibleForTesting
+  static final long RECORDING_DELAY = 500L;
+
+  // Battery level in percent below which the pass stops unless charging
+  @VisibleForTesting
+  static final int LOW_BATTERY_LEVEL = 15;
+
+  private static final Object lock = new Object();
+
+  // Increases when a new pass is requested, to stop the running pass
+  private static int generation = 0;
+
+  /*
+   * The one track intents not handled yet. A running pass handles them
+   * between its tracks, otherwise they are handled in order.
+   */
+  @VisibleForTesting
+  final ConcurrentLinkedQueue<Intent> pendingTrackIntents =
+      new ConcurrentLinkedQueue<Intent>();
+
+  private MyTracksProviderUtils myTracksProviderUtils;
+
+  public RecalculateService() {
+    super(RecalculateService.class.getSimpleName());
+  }
+
+  /**
+   * Recalculates jobs for all the tracks. Restarts the pass from the first
+   * track, adding the jobs of an unfinished pass.
+   *
+   * @param context the context
+   * @param jobs the jobs, e.g., {@link #JOB_CALORIE}
+   */
+  public static void recalculateAll(Context context, int jobs) {
+    requestPass(context, jobs);
+    context.startService(new Intent(context, RecalculateService.class));
+  }
+
+  /**
+   * Requests a new pass. Stops the running pass and moves the checkpoint back
+   * to the first track.
+   *
+   * @param context the context
+   * @param jobs the jobs to add
+   */
+  @VisibleForTesting
+  static void requestPass(Context context, int jobs) {
+    synchronized (lock) {
+      generation++;
+      PreferencesUtils.setInt(context, R.string.recalculate_jobs_key,
+          PreferencesUtils.getInt(context, R.string.recalculate_jobs_key, 0) | jobs);
+      PreferencesUtils.setLong(context, R.string.recalculate_track_id_key, -1L);
+    }
+  }
+
+  /**
+   * Gets the generation of the current pass.
+   */
+  @VisibleForTesting
+  static int getGeneration() {
+    synchronized (lock) {
+      return generation;
+    }
+  }
+
+  /**
+   * Recalculates jobs for one track.
+   *
+   * @param context the context
+   * @param trackId the track id
+   * @param jobs the jobs, e.g., {@link #JOB_CALORIE}
+   */
+  public static void recalculateTrack(Context context, long trackId, int jobs) {
+    context.startService(new Intent(context, RecalculateService.class)
+        .putExtra(TRACK_ID_EXTRA, trackId).putExtra(JOBS_EXTRA, jobs));
+  }
+
+  /**
+   * Resumes an unfinished pass over all the tracks, if any.
+   *
+   * @param context the context
+   */
+  public static void resume(Context context) {
+    if (PreferencesUtils.getInt(context, R.string.recalculate_jobs_key, 0) != 0) {
+      context.startService(new Intent(context, RecalculateService.class));
+    }
+  }
+
+  @Override
+  public void onCreate() {
+    super.onCreate();
+    myTracksProviderUtils = MyTracksProviderUtils.Factory.get(this);
+  }
+
+  @Override
+  public int onStartCommand(Intent intent, int flags, int startId) {
+    if (intent != null && intent.hasExtra(TRACK_ID_EXTRA)) {
+      pendingTrackIntents.add(intent);
+    }
+    return super.onStartCommand(intent, flags, startId);
+  }
+
+  @Override
+  protected void onHandleIntent(Intent intent) {
+    if (intent.hasExtra(TRACK_ID_EXTRA)) {
+      // Skip if already handled by a pass
+      if (pendingTrackIntents.remove(intent)) {
+        recalculateTrack(intent);
+      }
+    } else {
+      recalculateAll();
+    }
+  }
+
+  /**
+   * Handles the pending one track intents. Called between the tracks of a
+   * pass.
+   */
+  private void recalculatePendingTracks() {
+    Intent intent;
+    while ((intent = pendingTrackIntents.poll()) != null) {
+      recalculateTrack(intent);
+    }
+  }
+
+  /**
+   * Recalculates the jobs of a one track intent.
+   *
+   * @param intent the intent
+   */
+  private void recalculateTrack(Intent intent) {
+    recalculateTrack(intent.getLongExtra(TRACK_ID_EXTRA, -1L), intent.getIntExtra(JOBS_EXTRA, 0));
+  }
+
+  /**
+   * Continues the pass over all the tracks from the checkpoint.
+   */
+  private void recalculateAll() {
+    final int jobs;
+    long checkpoint;
+    int passGeneration;
+    synchronized (lock) {
+      jobs = PreferencesUtils.getInt(this, R.string.recalculate_jobs_key, 0);
+      checkpoint = PreferencesUtils.getLong(this, R.string.recalculate_track_id_key);
+      passGeneration = generation;
+    }
+    if (jobs == 0) {
+      return;
+    }
+
+    List<Long> trackIds = getTrackIds(checkpoint);
+    int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CompletionService<Long> completionService = new ExecutorCompletionService<Long>(
+        executorService);
+
+    // The ids of the submitted tracks not done yet
+    TreeSet<Long> running = new TreeSet<Long>();
+    int next = 0;
+    boolean stopped = false;
+    try {
+      while (true) {
+        recalculatePendingTracks();
+        while (!stopped && running.size() < threads && next < trackIds.size()) {
+          if (!canContinue()) {
+            stopped = true;
+            break;
+          }
+          final long trackId = trackIds.get(next++);
+          running.add(trackId);
+          completionService.submit(new Callable<Long>() {
+              @Override
+            public Long call() {
+              recalculateTrack(trackId, jobs);
+              return trackId;
+            }
+          });
+        }
+        if (running.isEmpty()) {
+          break;
+        }
+        running.remove(completionService.take().get());
+
+        // All the submitted tracks before the first running one are done
+        long done = running.isEmpty() ? trackIds.get(next - 1) : running.first() - 1L;
+        if (!saveCheckpoint(passGeneration, done)) {
+          stopped = true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Log.e(TAG, "Interrupted", e);
+      return;
+    } catch (ExecutionException e) {
+      Log.e(TAG, "Unable to recalculate", e);
+      return;
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    if (!stopped) {
+      synchronized (lock) {
+        if (generation == passGeneration) {
+          PreferencesUtils.setInt(this, R.string.recalculate_jobs_key, 0);
+          PreferencesUtils.setLong(this, R.string.recalculate_track_id_key, -1L);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the ids of the tracks after a track id, in ascending order.
+   *
+   * @param trackId the track id
+   */
+  private List<Long> getTrackIds(long trackId) {
+    List<Long> trackIds = new ArrayList<Long>();
+    Cursor cursor = null;
+    try {
+      cursor = myTracksProviderUtils.getTrackCursor(new String[] { TracksColumns._ID },
+          TracksColumns._ID + ">?", new String[] { Long.toString(trackId) },
+          TracksColumns._ID + " ASC");
+      if (cursor != null && cursor.moveToFirst()) {
+        do {
+          trackIds.add(cursor.getLong(0));
+        } while (cursor.moveToNext());
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    return trackIds;
+  }
+
+  /**
+   * Saves the checkpoint. Returns false if a new pass has been requested.
+   *
+   * @param passGeneration the generation of the pass
+   * @param trackId the id of the last track done
+   */
+  @VisibleForTesting
+  boolean saveCheckpoint(int passGeneration, long trackId) {
+    synchronized (lock) {
+      if (generation != passGeneration) {
+        return false;
+      }
+      PreferencesUtils.setLong(this, R.string.recalculate_track_id_key, trackId);
+      return true;
+    }
+  }
+
+  /**
+   * Returns true if the pass can continue with the next track. Returns false
+   * if the battery is low and not charging. Waits {@link #RECORDING_DELAY}
+   * while recording.
+   */
+  private boolean canContinue() throws InterruptedException {
+    Intent battery = registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+    if (battery != null) {
+      int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+      int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+      boolean charging = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+      if (!charging && level >= 0 && scale > 0 && level * 100 < LOW_BATTERY_LEVEL * scale) {
+        Log.d(TAG, "Stop recalculating. Low battery.");
+        return false;
+      }
+    }
+    if (PreferencesUtils.getLong(this, R.string.recording_track_id_key)
+        != PreferencesUtils.RECORDING_TRACK_ID_DEFAULT) {
+      Thread.sleep(RECORDING_DELAY);
+    }
+    return true;
+  }
+
+  /**
+   * Recalculates jobs for a track. Skips the recording track, which is
+   * updated by the {@link TrackRecordingService}.
+   *
+   * @param trackId the track id
+   * @param jobs the jobs
+   */
+  @VisibleForTesting
+  void recalculateTrack(long trackId, int jobs) {
+    if (trackId == PreferencesUtils.getLong(this, R.string.recording_track_id_key)) {
+      return;
+    }
+    Track track = myTracksProviderUtils.getTrack(trackId);
+    if (track == null) {
+      return;
+    }
+    if ((jobs & JOB_CALORIE) != 0) {
+      CalorieUtils.updateTrackCalorie(this, track);
+    }
+    if ((jobs & JOB_MARKER_DESCRIPTION) != 0) {
+      updateMarkerDescriptions(trackId);
+    }
+  }
+
+  /**
+   * Updates the descriptions of the statistics markers of a track.
+   *
+   * @param trackId the track id
+   */
+  private void updateMarkerDescriptions(long trackId) {
+    DescriptionGeneratorImpl descriptionGenerator = new DescriptionGeneratorImpl(this);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
+    Cursor cursor = null;
+    try {
+      cursor = myTracksProviderUtils.getWaypointCursor(
+          WaypointsColumns.TRACKID + "=? AND " + WaypointsColumns.TYPE + "=?",
+          new String[] { Long.toString(trackId),
+              Integer.toString(WaypointType.STATISTICS.ordinal()) },
+          WaypointsColumns._ID, -1);
+      if (cursor != null && cursor.moveToFirst()) {
+        do {
+          Waypoint waypoint = myTracksProviderUtils.createWaypoint(cursor);
+          if (waypoint.getTripStatistics() == null) {
+            continue;
+          }
+          String description = descriptionGenerator.generateWaypointDescription(
+              waypoint.getTripStatistics());
+          if (!description.equals(waypoint.getDescription())) {
+            waypoint.setDescription(description);
+            waypoints.add(waypoint);
+          }
+        } while (cursor.moveToNext());
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    if (!waypoints.isEmpty()) {
+      myTracksProviderUtils.updateWaypointsDescription(waypoints);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import android.os.Bundle;
+
+import java.util.Locale;
+
+/**
+ * In-process metrics of the {@link TrackRecordingService} recording: latency
+ * histograms in microseconds and counters of the fixes not recorded, by
+ * reason. Thread safe.
+ * <p>
+ * In the {@link Bundle} from {@link #toBundle}, each histogram is a long array
+ * indexed by {@link #INDEX_COUNT}, {@link #INDEX_P50}, {@link #INDEX_P90},
+ * {@link #INDEX_P99} and {@link #INDEX_MAX}, and each counter is a long.
+ */
+public class RecordingMetrics {
+
+  /**
+   * The timed steps of a fix.
+   */
+  public enum Timer {
+    STATISTICS_UPDATE, // adding a fix to the trip statistics
+    DB_INSERT, // inserting a batch of track points and updating the track
+    NOTIFY, // the track update broadcast and the periodic tasks
+    END_TO_END // from the location callback to the broadcast after the insert
+  }
+
+  /**
+   * The reasons a fix is not recorded.
+   */
+  public enum Drop {
+    NOT_RECORDING, // not recording or paused
+    NO_TRACK, // the recording track is missing
+    INVALID_LOCATION, // invalid latitude or longitude
+    POOR_ACCURACY, // accuracy worse than the recording accuracy
+    IDLE, // too close to the last track point
+    DUPLICATE // same time as the last track point
+  }
+
+  public static final int INDEX_COUNT = 0;
+  public static final int INDEX_P50 = 1;
+  public static final int INDEX_P90 = 2;
+  public static final int INDEX_P99 = 3;
+  public static final int INDEX_MAX = 4;
+
+  private final LatencyHistogram[] histograms = new LatencyHistogram[Timer.values().length];
+  private final long[] drops = new long[Drop.values().length];
+
+  public RecordingMetrics() {
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Records the time of a step.
+   *
+   * @param timer the step
+   * @param time the time in microseconds
+   */
+  void record(Timer timer, long time) {
+    histograms[timer.ordinal()].record(time);
+  }
+
+  /**
+   * Counts a fix not recorded.
+   *
+   * @param drop the reason
+   */
+  synchronized void drop(Drop drop) {
+    drops[drop.ordinal()]++;
+  }
+
+  LatencyHistogram getHistogram(Timer timer) {
+    return histograms[timer.ordinal()];
+  }
+
+  synchronized long getDrops(Drop drop) {
+    return drops[drop.ordinal()];
+  }
+
+  /**
+   * Resets the metrics.
+   */
+  void reset() {
+    for (LatencyHistogram histogram : histograms) {
+      histogram.reset();
+    }
+    synchronized (this) {
+      for (int i = 0; i < drops.length; i++) {
+        drops[i] = 0;
+      }
+    }
+  }
+
+  /**
+   * Gets the metrics as a bundle, together with the metrics of the recording
+   * pipeline stages.
+   *
+   * @param stageMetrics the stage metrics
+   */
+  Bundle toBundle(StageMetrics... stageMetrics) {
+    Bundle bundle = new Bundle();
+    for (Timer timer : Timer.values()) {
+      bundle.putLongArray(getKey(timer.name()), toArray(histograms[timer.ordinal()]));
+    }
+    for (StageMetrics stage : stageMetrics) {
+      String prefix = "stage_" + stage.getName();
+      bundle.putLongArray(prefix + "_wait", toArray(stage.getQueueWait()));
+      bundle.putLongArray(prefix + "_latency", toArray(stage.getLatency()));
+      bundle.putLong(prefix + "_drops", stage.getDrops());
+    }
+    for (Drop drop : Drop.values()) {
+      bundle.putLong("drop_" + getKey(drop.name()), getDrops(drop));
+    }
+    return bundle;
+  }
+
+  private static String getKey(String name) {
+    return name.toLowerCase(Locale.US);
+  }
+
+  private static long[] toArray(LatencyHistogram histogram) {
+    long[] values = new long[INDEX_MAX + 1];
+    values[INDEX_COUNT] = histogram.getCount();
+    values[INDEX_P50] = histogram.getValueAtPercentile(50);
+    values[INDEX_P90] = histogram.getValueAtPercentile(90);
+    values[INDEX_P99] = histogram.getValueAtPercentile(99);
+    values[INDEX_MAX] = histogram.getMax();
+    return values;
+  }
+}
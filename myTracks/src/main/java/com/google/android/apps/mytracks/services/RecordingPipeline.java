@@ -0,0 +1,454 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The recording pipeline of the {@link TrackRecordingService}. Has three
+ * stages, each with one thread and a bounded queue:
+ * <ul>
+ * <li>the filter stage, which decides which locations to record,</li>
+ * <li>the statistics stage, which updates the trip statistics,</li>
+ * <li>the persistence stage, which writes the items in batches.</li>
+ * </ul>
+ * Each stage processes its items in order and hands them to the next stage in
+ * order, so the items are persisted in the order they are filtered. A full
+ * queue blocks the previous stage, except for {@link #offer}, which drops the
+ * task. The items persisted between {@link #startGroup} and {@link #endGroup}
+ * are persisted in the same batch. When the persister holds items to retry,
+ * the persistence stage calls it again after a growing delay even if no new
+ * items arrive.
+ *
+ * @param <T> the type of the persisted items
+ */
+class RecordingPipeline<T> {
+
+  /**
+   * Persists items.
+   *
+   * @param <T> the type of the items
+   */
+  interface Persister<T> {
+
+    /**
+     * Persists a batch of items, in order. Called on the persistence stage.
+     * Returns false if some items are held to retry, in which case it is
+     * called again later, with an empty batch if no new items arrived.
+     *
+     * @param items the items
+     */
+    boolean persist(List<T> items);
+  }
+
+  private static final String TAG = RecordingPipeline.class.getSimpleName();
+
+  @VisibleForTesting
+  static final int FILTER_QUEUE_SIZE = 16;
+
+  @VisibleForTesting
+  static final int STATISTICS_QUEUE_SIZE = 64;
+
+  @VisibleForTesting
+  static final int PERSISTENCE_QUEUE_SIZE = 256;
+
+  // The max number of queued items per batch, a group counting as one item
+  @VisibleForTesting
+  static final int MAX_BATCH_SIZE = 32;
+
+  // The delay before the first retry of held items, doubled up to the max
+  @VisibleForTesting
+  static final long MIN_RETRY_DELAY = 1000L;
+
+  private static final long MAX_RETRY_DELAY = 60000L;
+
+  // Blocks the caller until there is room in the queue
+  private static final RejectedExecutionHandler BLOCK_WHEN_FULL = new RejectedExecutionHandler() {
+      @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Stage is shut down");
+      }
+      try {
+        executor.getQueue().put(runnable);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException(e);
+      }
+    }
+  };
+
+  private final Persister<T> persister;
+  private final ThreadPoolExecutor filterExecutor;
+  private final ThreadPoolExecutor statisticsExecutor;
+  private final BlockingQueue<Item<T>> persistenceQueue;
+  private final StageMetrics filterMetrics = new StageMetrics("filter");
+  private final StageMetrics statisticsMetrics = new StageMetrics("statistics");
+  private final StageMetrics persistenceMetrics = new StageMetrics("persistence");
+
+  private volatile Thread statisticsThread;
+  private List<T> group; // accessed on the statistics stage
+  private volatile boolean shutdown = false;
+
+  /**
+   * Constructor. Starts the stages.
+   *
+   * @param persister the persister
+   */
+  RecordingPipeline(Persister<T> persister) {
+    this.persister = persister;
+    filterExecutor = newStageExecutor(FILTER_QUEUE_SIZE, null);
+    // offer queues directly, which doesn't start the worker
+    filterExecutor.prestartAllCoreThreads();
+    statisticsExecutor = newStageExecutor(STATISTICS_QUEUE_SIZE, new ThreadFactory() {
+        @Override
+      public Thread newThread(Runnable runnable) {
+        statisticsThread = new Thread(runnable, "statistics");
+        return statisticsThread;
+      }
+    });
+    persistenceQueue = new ArrayBlockingQueue<Item<T>>(PERSISTENCE_QUEUE_SIZE);
+    Thread persistenceThread = new Thread(new Runnable() {
+        @Override
+      public void run() {
+        runPersistence();
+      }
+    }, "persistence");
+    persistenceThread.start();
+  }
+
+  /**
+   * Queues a task on the filter stage. Drops the task if the queue is full.
+   * Returns true if queued. Never blocks, unlike execute, whose rejection
+   * handler waits for room in the queue.
+   *
+   * @param task the task
+   */
+  boolean offer(Runnable task) {
+    if (shutdown || !filterExecutor.getQueue().offer(timed(task, filterMetrics))) {
+      filterMetrics.drop();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Runs a task on the filter stage, after the queued tasks, and waits for it.
+   * Must not be called from the pipeline stages.
+   *
+   * @param task the task
+   */
+  void runOnFilterStage(Runnable task) {
+    if (shutdown) {
+      return;
+    }
+    Future<?> future = filterExecutor.submit(timed(task, filterMetrics));
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Log.e(TAG, "Interrupted", e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      Log.e(TAG, "Unable to run on the filter stage", e);
+    }
+  }
+
+  /**
+   * Queues a task on the statistics stage. Runs the task right away if called
+   * from the statistics stage.
+   *
+   * @param task the task
+   */
+  void statistics(Runnable task) {
+    if (Thread.currentThread() == statisticsThread) {
+      task.run();
+      return;
+    }
+    if (shutdown) {
+      Log.w(TAG, "Ignore statistics task. Shut down.");
+      return;
+    }
+    statisticsExecutor.execute(timed(task, statisticsMetrics));
+  }
+
+  /**
+   * Queues an item on the persistence stage. Called from the statistics stage.
+   *
+   * @param item the item
+   */
+  void persist(T item) {
+    if (group != null) {
+      group.add(item);
+    } else {
+      put(new Item<T>(Collections.singletonList(item), null));
+    }
+  }
+
+  /**
+   * Starts a group of items persisted in the same batch, in the statistics
+   * tasks queued until {@link #endGroup}. Called from the filter stage.
+   */
+  void startGroup() {
+    statistics(new Runnable() {
+        @Override
+      public void run() {
+        putGroup();
+        group = new ArrayList<T>();
+      }
+    });
+  }
+
+  /**
+   * Ends a group of items. Called from the filter stage.
+   */
+  void endGroup() {
+    statistics(new Runnable() {
+        @Override
+      public void run() {
+        putGroup();
+      }
+    });
+  }
+
+  /**
+   * Waits until all the queued tasks and items went through the pipeline. Must
+   * not be called from the pipeline stages.
+   */
+  void flush() {
+    if (shutdown) {
+      return;
+    }
+    final CountDownLatch latch = new CountDownLatch(1);
+    runOnFilterStage(new Runnable() {
+        @Override
+      public void run() {
+        statistics(new Runnable() {
+            @Override
+          public void run() {
+            put(new Item<T>(null, latch));
+          }
+        });
+      }
+    });
+    await(latch);
+  }
+
+  /**
+   * Waits until the queued items are persisted. Can be called from the filter
+   * and the statistics stages.
+   */
+  void flushPersistence() {
+    if (Thread.currentThread() == statisticsThread && group != null) {
+      putGroup();
+      group = new ArrayList<T>();
+    }
+    CountDownLatch latch = new CountDownLatch(1);
+    put(new Item<T>(null, latch));
+    await(latch);
+  }
+
+  /**
+   * Flushes and stops the stages.
+   */
+  void shutdown() {
+    if (shutdown) {
+      return;
+    }
+    flush();
+    shutdown = true;
+    filterExecutor.shutdown();
+    statisticsExecutor.shutdown();
+    put(new Item<T>(null, null));
+    Log.d(TAG, "Pipeline metrics. " + filterMetrics + "; " + statisticsMetrics + "; "
+        + persistenceMetrics);
+  }
+
+  boolean isShutdown() {
+    return shutdown;
+  }
+
+  StageMetrics getFilterMetrics() {
+    return filterMetrics;
+  }
+
+  StageMetrics getStatisticsMetrics() {
+    return statisticsMetrics;
+  }
+
+  StageMetrics getPersistenceMetrics() {
+    return persistenceMetrics;
+  }
+
+  /**
+   * Persists the queued items in batches until stopped.
+   */
+  private void runPersistence() {
+    List<Item<T>> batch = new ArrayList<Item<T>>();
+    List<T> items = new ArrayList<T>();
+    boolean stop = false;
+    long retryDelay = 0L; // in milliseconds, 0 if no held items
+    while (!stop) {
+      try {
+        Item<T> first = retryDelay == 0L ? persistenceQueue.take()
+            : persistenceQueue.poll(retryDelay, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+        }
+      } catch (InterruptedException e) {
+        Log.e(TAG, "Interrupted", e);
+        return;
+      }
+      persistenceQueue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+      long startTime = getTime();
+      for (Item<T> item : batch) {
+        item.startTime = startTime;
+        if (item.values != null) {
+          items.addAll(item.values);
+        }
+      }
+      if (!items.isEmpty() || retryDelay != 0L) {
+        boolean persisted = true;
+        try {
+          persisted = persister.persist(items);
+        } catch (RuntimeException e) {
+          Log.e(TAG, "Unable to persist", e);
+        }
+        if (persisted) {
+          retryDelay = 0L;
+        } else {
+          retryDelay = retryDelay == 0L ? MIN_RETRY_DELAY
+              : Math.min(retryDelay * 2L, MAX_RETRY_DELAY);
+        }
+      }
+      long now = getTime();
+      for (Item<T> item : batch) {
+        if (item.values != null) {
+          for (int i = 0; i < item.values.size(); i++) {
+            persistenceMetrics.record(item.startTime - item.queueTime, now - item.queueTime);
+          }
+        } else if (item.latch != null) {
+          item.latch.countDown();
+        } else {
+          stop = true;
+        }
+      }
+      batch.clear();
+      items.clear();
+    }
+  }
+
+  /**
+   * Queues the items of the current group, if any, and ends the group.
+   */
+  private void putGroup() {
+    if (group != null && !group.isEmpty()) {
+      put(new Item<T>(group, null));
+    }
+    group = null;
+  }
+
+  private void put(Item<T> item) {
+    try {
+      persistenceQueue.put(item);
+    } catch (InterruptedException e) {
+      Log.e(TAG, "Interrupted", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Log.e(TAG, "Interrupted", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Wraps a task to record its latency.
+   *
+   * @param task the task
+   * @param metrics the stage metrics
+   */
+  private static Runnable timed(final Runnable task, final StageMetrics metrics) {
+    final long queueTime = getTime();
+    return new Runnable() {
+        @Override
+      public void run() {
+        long startTime = getTime();
+        try {
+          task.run();
+        } finally {
+          metrics.record(startTime - queueTime, getTime() - queueTime);
+        }
+      }
+    };
+  }
+
+  /**
+   * Gets the time in microseconds, for measuring intervals.
+   */
+  static long getTime() {
+    return System.nanoTime() / 1000L;
+  }
+
+  private static ThreadPoolExecutor newStageExecutor(
+      int queueSize, ThreadFactory threadFactory) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(queueSize), BLOCK_WHEN_FULL);
+    if (threadFactory != null) {
+      executor.setThreadFactory(threadFactory);
+    }
+    return executor;
+  }
+
+  /**
+   * An item of the persistence queue, holding one or a group of values. Null
+   * values is a flush marker with a latch or, without a latch, the stop marker.
+   *
+   * @param <T> the type of the values
+   */
+  private static class Item<T> {
+    private final List<T> values;
+    private final CountDownLatch latch;
+    private final long queueTime;
+    private long startTime;
+
+    private Item(List<T> values, CountDownLatch latch) {
+      this.values = values;
+      this.latch = latch;
+      this.queueTime = getTime();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+/**
+ * The metrics of a {@link RecordingPipeline} stage: the time an item waits in
+ * the queue, the time from queued to done, both in microseconds, and the
+ * number of dropped items. Thread safe.
+ */
+class StageMetrics {
+
+  private final String name;
+  private final LatencyHistogram queueWait = new LatencyHistogram();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private long drops;
+
+  /**
+   * Constructor.
+   *
+   * @param name the stage name
+   */
+  StageMetrics(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Records an item.
+   *
+   * @param queueWait the time in the queue in microseconds
+   * @param latency the time from queued to done in microseconds
+   */
+  void record(long queueWait, long latency) {
+    this.queueWait.record(queueWait);
+    this.latency.record(latency);
+  }
+
+  /**
+   * Records a dropped item.
+   */
+  synchronized void drop() {
+    drops++;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  LatencyHistogram getQueueWait() {
+    return queueWait;
+  }
+
+  LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  synchronized long getDrops() {
+    return drops;
+  }
+
+  /**
+   * Resets the metrics.
+   */
+  void reset() {
+    queueWait.reset();
+    latency.reset();
+    synchronized (this) {
+      drops = 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name + ": wait (" + queueWait + "), latency (" + latency + "), drops " + getDrops();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.util.UnitConversions;
+
+import android.location.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An opening window track compressor. Buffers the locations after the last
+ * recorded location, the anchor, as long as they are all within the error
+ * bound of the segment from the anchor to the newest location. When a new
+ * location breaks the bound, the newest buffered location is recorded and
+ * becomes the anchor, and the others are discarded. Every discarded location
+ * is within the error bound of the recorded track.
+ * <p>
+ * The window is also closed after {@link #MAX_WINDOW_SIZE} locations or
+ * {@link #MAX_WINDOW_TIME}, to bound the work per location and the delay of
+ * the recorded track. Not thread safe.
+ */
+class TrackCompressor {
+
+  // The max number of buffered locations
+  static final int MAX_WINDOW_SIZE = 100;
+
+  // The max time from the anchor to the newest buffered location, in milliseconds
+  static final long MAX_WINDOW_TIME = 60 * 1000L;
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  private final double maxError;
+  private final List<Location> window = new ArrayList<Location>();
+  private Location anchor;
+
+  /**
+   * Constructor.
+   * 
+   * @param maxError the max distance of a discarded location to the recorded
+   *          track, in meters
+   */
+  TrackCompressor(double maxError) {
+    this.maxError = maxError;
+  }
+
+  /**
+   * Adds a location. Returns the location to record, or null.
+   * 
+   * @param lastRecorded the last recorded location. Restarts the window if it
+   *          is not the anchor.
+   * @param location the location
+   */
+  Location add(Location lastRecorded, Location location) {
+    if (anchor == null || anchor.getTime() != lastRecorded.getTime()) {
+      anchor = lastRecorded;
+      window.clear();
+    }
+    if (window.isEmpty()) {
+      window.add(location);
+      return null;
+    }
+    if (window.size() < MAX_WINDOW_SIZE
+        && location.getTime() - anchor.getTime() <= MAX_WINDOW_TIME && isWithinBound(location)) {
+      window.add(location);
+      return null;
+    }
+    Location recorded = flush();
+    window.add(location);
+    return recorded;
+  }
+
+  /**
+   * Returns true if there are buffered locations.
+   */
+  boolean hasPending() {
+    return !window.isEmpty();
+  }
+
+  /**
+   * Closes the window. Returns the newest buffered location to record, which
+   * becomes the anchor, or null if none.
+   */
+  Location flush() {
+    if (window.isEmpty()) {
+      return null;
+    }
+    anchor = window.get(window.size() - 1);
+    window.clear();
+    return anchor;
+  }
+
+  /**
+   * Returns true if the buffered locations are within the error bound of the
+   * segment from the anchor to a location.
+   * 
+   * @param end the location
+   */
+  private boolean isWithinBound(Location end) {
+    for (Location location : window) {
+      if (getDistance(location, anchor, end) > maxError) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the distance from a location to a segment, in meters, in a local
+   * planar approximation.
+   * 
+   * @param location the location
+   * @param start the segment start
+   * @param end the segment end
+   */
+  static double getDistance(Location location, Location start, Location end) {
+    double metersPerDegreeLongitude = METERS_PER_DEGREE
+        * Math.cos(start.getLatitude() * UnitConversions.DEG_TO_RAD);
+    double x = (location.getLongitude() - start.getLongitude()) * metersPerDegreeLongitude;
+    double y = (location.getLatitude() - start.getLatitude()) * METERS_PER_DEGREE;
+    double dx = (end.getLongitude() - start.getLongitude()) * metersPerDegreeLongitude;
+    double dy = (end.getLatitude() - start.getLatitude()) * METERS_PER_DEGREE;
+    double length2 = dx * dx + dy * dy;
+    double t = length2 == 0.0 ? 0.0 : Math.max(0.0, Math.min(1.0, (x * dx + y * dy) / length2));
+    double ex = x - t * dx;
+    double ey = y - t * dy;
+    return Math.sqrt(ex * ex + ey * ey);
+  }
+}
@@ -20,7 +20,6 @@ import com.google.android.apps.mytracks.Constants;
 import com.google.android.apps.mytracks.TrackDetailActivity;
 import com.google.android.apps.mytracks.TrackListActivity;
 import com.google.android.apps.mytracks.content.DescriptionGeneratorImpl;
-import com.google.android.apps.mytracks.content.MyTracksLocation;
 import com.google.android.apps.mytracks.content.MyTracksProvider;
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils;
 import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationIterator;
@@ -32,6 +31,7 @@ import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
 import com.google.android.apps.mytracks.content.WaypointCreationRequest;
 import com.google.android.apps.mytracks.services.sensors.SensorManager;
 import com.google.android.apps.mytracks.services.sensors.SensorManagerFactory;
+import com.google.android.apps.mytracks.services.sensors.SensorSnapshot;
 import com.google.android.apps.mytracks.services.tasks.AnnouncementPeriodicTaskFactory;
 import com.google.android.apps.mytracks.services.tasks.PeriodicTaskExecutor;
 import com.google.android.apps.mytracks.services.tasks.SplitPeriodicTaskFactory;
@@ -81,8 +81,7 @@ import android.util.Log;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A background service that registers a location listener and records track
@@ -119,8 +118,18 @@ public class TrackRecordingService extends Service {
   @VisibleForTesting
   static final int MAX_AUTO_RESUME_TRACK_RETRY_ATTEMPTS = 3;
 
+  // The min interval between trip statistics checkpoints
+  private static final long CHECKPOINT_INTERVAL = ONE_MINUTE;
+
+  // The max number of held entries, the oldest are dropped past it
+  @VisibleForTesting
+  static final int MAX_HELD_TRACK_POINT_ENTRIES = 1024;
+
+  // The target distance between locations for the motion policy, in meters
+  private static final int MOTION_TARGET_DISTANCE = 25;
+
   // The following variables are set in onCreate:
-  private ExecutorService executorService;
+  private RecordingPipeline<TrackPointEntry> recordingPipeline;
   private Context context;
   private MyTracksProviderUtils myTracksProviderUtils;
   private Handler handler;
@@ -132,12 +141,18 @@ public class TrackRecordingService extends Service {
   private SharedPreferences sharedPreferences;
   private long recordingTrackId;
   private boolean recordingTrackPaused;
-  private LocationListenerPolicy locationListenerPolicy;
+  private volatile LocationListenerPolicy locationListenerPolicy;
   private int recordingDistanceInterval;
   private int maxRecordingDistance;
   private int recordingGpsAccuracy;
   private int autoResumeTrackTimeout;
-  private long currentRecordingInterval;
+  // Registered values, used on the filter stage and the main thread
+  private volatile long currentRecordingInterval;
+  private volatile int currentMinDistance;
+  private volatile long currentBatchInterval;
+  private volatile long locationBatchInterval;
+  private volatile LocationFilter locationFilter; // null if not smoothing
+  private volatile TrackCompressor trackCompressor; // null if not compressing
   private double weight;
   
   // The following variables are set when recording:
@@ -147,8 +162,22 @@ public class TrackRecordingService extends Service {
   private SensorManager sensorManager;
   private Location lastLocation;
   private boolean currentSegmentHasLocation;
+  private volatile Location lastInsertedTrackPoint; // valid, in the current segment
   private boolean isIdle; // true if idle
+  private long lastCheckpointTime;
+  private long locationReceiveTime; // in microseconds, used on the filter stage
+  private long lastSensorPointTime; // used on the filter stage
+  private final SensorSnapshot sensorPointSnapshot = new SensorSnapshot(); // filter stage
+  private final AtomicBoolean sensorPointQueued = new AtomicBoolean();
 
+  /*
+   * The entries whose track points failed to insert, with the entries after
+   * them. Retried before the next batch, or by the recording pipeline after a
+   * delay. Used on the persistence stage.
+   */
+  private final List<TrackPointEntry> heldTrackPointEntries = new ArrayList<TrackPointEntry>();
+
+  private final RecordingMetrics recordingMetrics = new RecordingMetrics();
   private ServiceBinder binder = new ServiceBinder(this);
 
   /*
@@ -208,11 +237,47 @@ public class TrackRecordingService extends Service {
                 locationListenerPolicy = new AdaptiveLocationListenerPolicy(
                     ONE_SECOND, 30 * ONE_SECOND, 0);
                 break;
+              case PreferencesUtils.MIN_RECORDING_INTERVAL_ADAPT_MOTION:
+                // Sparse when still, dense on turns.
+                locationListenerPolicy = new MotionLocationListenerPolicy(
+                    ONE_SECOND, 5 * ONE_MINUTE, 0, MOTION_TARGET_DISTANCE);
+                break;
               default:
                 locationListenerPolicy = new AbsoluteLocationListenerPolicy(
                     minRecordingInterval * ONE_SECOND);
             }
           }
+          if (key == null
+              || key.equals(PreferencesUtils.getKey(context, R.string.min_recording_interval_key))
+              || key.equals(PreferencesUtils.getKey(context, R.string.activity_still_key))) {
+            locationListenerPolicy.updateStill(PreferencesUtils.getBoolean(
+                context, R.string.activity_still_key, PreferencesUtils.ACTIVITY_STILL_DEFAULT));
+            if (key != null && isRecording() && !isPaused()) {
+              updateLocationListener();
+            }
+          }
+          if (key == null
+              || key.equals(PreferencesUtils.getKey(context, R.string.smooth_locations_key))) {
+            boolean smoothLocations = PreferencesUtils.getBoolean(context,
+                R.string.smooth_locations_key, PreferencesUtils.SMOOTH_LOCATIONS_DEFAULT);
+            locationFilter = smoothLocations ? new KalmanLocationFilter() : null;
+          }
+          if (key == null
+              || key.equals(PreferencesUtils.getKey(context, R.string.track_compression_key))) {
+            int trackCompression = PreferencesUtils.getInt(context,
+                R.string.track_compression_key, PreferencesUtils.TRACK_COMPRESSION_DEFAULT);
+            if (trackCompression == PreferencesUtils.TRACK_COMPRESSION_DEFAULT) {
+              trackCompressor = null;
+            } else {
+              trackCompressor = new TrackCompressor(trackCompression);
+            }
+          }
+          if (key == null || key.equals(
+              PreferencesUtils.getKey(context, R.string.location_batch_interval_key))) {
+            locationBatchInterval = PreferencesUtils.getInt(context,
+                R.string.location_batch_interval_key,
+                PreferencesUtils.LOCATION_BATCH_INTERVAL_DEFAULT) * ONE_SECOND;
+          }
           if (key == null || key.equals(
               PreferencesUtils.getKey(context, R.string.recording_distance_interval_key))) {
             recordingDistanceInterval = PreferencesUtils.getInt(context,
@@ -246,21 +311,68 @@ public class TrackRecordingService extends Service {
 
   private LocationCallback locationListener = new LocationCallback() {
     public void onLocationResult(LocationResult result) {
-      final Location location = result.getLastLocation();
-      if (myTracksLocationManager == null || executorService == null
-          || !myTracksLocationManager.isAllowed() || executorService.isShutdown()
-          || executorService.isTerminated()) {
+      final List<Location> locations = result.getLocations();
+      if (locations.isEmpty() || myTracksLocationManager == null || recordingPipeline == null
+          || !myTracksLocationManager.isAllowed() || recordingPipeline.isShutdown()) {
         return;
       }
-      executorService.submit(new Runnable() {
+      final long receiveTime = RecordingPipeline.getTime();
+      boolean queued = recordingPipeline.offer(new Runnable() {
           @Override
         public void run() {
-          onLocationChangedAsync(location);
+          locationReceiveTime = receiveTime;
+          if (locations.size() == 1) {
+            onLocationChangedAsync(locations.get(0));
+            return;
+          }
+
+          // Persist a batch of locations in one transaction
+          recordingPipeline.startGroup();
+          try {
+            for (Location location : locations) {
+              onLocationChangedAsync(location);
+            }
+          } finally {
+            recordingPipeline.endGroup();
+          }
         }
       });
+      if (!queued) {
+        Log.w(TAG, "Drop location. Recording pipeline is busy.");
+      }
     }
   };
 
+  private final SensorManager.SensorDataListener
+      sensorDataListener = new SensorManager.SensorDataListener() {
+          @Override
+        public void onSensorDataChanged(final SensorSnapshot sensorSnapshot) {
+          // Only one sensor point queued at a time, reading the latest values
+          if (!sensorPointQueued.compareAndSet(false, true)) {
+            return;
+          }
+          boolean queued = recordingPipeline.offer(new Runnable() {
+              @Override
+            public void run() {
+              sensorPointQueued.set(false);
+              insertSensorPoint(sensorSnapshot);
+            }
+          });
+          if (!queued) {
+            sensorPointQueued.set(false);
+            Log.w(TAG, "Drop sensor data. Recording pipeline is busy.");
+          }
+        }
+      };
+
+  private final RecordingPipeline.Persister<TrackPointEntry>
+      trackPointPersister = new RecordingPipeline.Persister<TrackPointEntry>() {
+          @Override
+        public boolean persist(List<TrackPointEntry> entries) {
+          return persistTrackPoints(entries);
+        }
+      };
+
   private final GoogleApiClient.ConnectionCallbacks activityRecognitionCallbacks = new GoogleApiClient.ConnectionCallbacks() {
 
       @Override
@@ -286,7 +398,7 @@ public class TrackRecordingService extends Service {
       @Override
     public void run() {
       if (isRecording() && !isPaused()) {
-        registerLocationListener();
+        updateLocationListener();
       }
       handler.postDelayed(this, ONE_MINUTE);
     }
@@ -302,7 +414,7 @@ public class TrackRecordingService extends Service {
   @Override
   public void onCreate() {
     super.onCreate();
-    executorService = Executors.newSingleThreadExecutor();
+    recordingPipeline = new RecordingPipeline<TrackPointEntry>(trackPointPersister);
     context = this;
     myTracksProviderUtils = MyTracksProviderUtils.Factory.get(this);
     handler = new Handler();
@@ -391,6 +503,7 @@ public class TrackRecordingService extends Service {
   @Override
   public void onDestroy() {
     if (sensorManager != null) {
+      sensorManager.setSensorDataListener(null);
       SensorManagerFactory.releaseSystemSensorManager();
       sensorManager = null;
     }
@@ -400,6 +513,10 @@ public class TrackRecordingService extends Service {
 
     handler.removeCallbacks(registerLocationRunnable);
     unregisterLocationListener();
+
+    // Persist the queued locations before shutting down the periodic tasks
+    recordingPipeline.shutdown();
+    persistHeldTrackPoints();
     
     // unregister sharedPreferences before shutting down splitExecutor and voiceExecutor
     sharedPreferences.unregisterOnSharedPreferenceChangeListener(sharedPreferenceChangeListener);
@@ -427,14 +544,8 @@ public class TrackRecordingService extends Service {
     binder.detachFromService();
     binder = null;
 
-    // This should be the next to last operation
+    // This should be the last operation
     releaseWakeLock();
-
-    /*
-     * Shutdown the executorService last to avoid sending events to a dead
-     * executor.
-     */
-    executorService.shutdown();
     super.onDestroy();
   }
 
@@ -505,6 +616,7 @@ public class TrackRecordingService extends Service {
       markerTripStatisticsUpdater.updateTime(now);
       tripStatistics = markerTripStatisticsUpdater.getTripStatistics();
       markerTripStatisticsUpdater = new TripStatisticsUpdater(now);
+      saveCheckpoint(recordingTrackId);
       description = new DescriptionGeneratorImpl(this).generateWaypointDescription(tripStatistics);
       icon = getString(R.string.marker_statistics_icon_url);
     } else {
@@ -518,7 +630,7 @@ public class TrackRecordingService extends Service {
     // Get length and duration
     double length;
     long duration;
-    Location location = getLastValidTrackPointInCurrentSegment(recordingTrackId);
+    Location location = getLastValidTrackPointInCurrentSegment();
     if (location != null && trackTripStatisticsUpdater != null) {
       TripStatistics stats = trackTripStatisticsUpdater.getTripStatistics();
       length = stats.getTotalDistance();
@@ -635,6 +747,7 @@ public class TrackRecordingService extends Service {
     long now = System.currentTimeMillis();
     trackTripStatisticsUpdater = new TripStatisticsUpdater(now);
     markerTripStatisticsUpdater = new TripStatisticsUpdater(now);
+    TripStatisticsCheckpoint.delete(this);
 
     // Insert a track
     Track track = new Track();
@@ -672,7 +785,6 @@ public class TrackRecordingService extends Service {
     Log.d(TAG, "Restarting track: " + track.getId());
 
     TripStatistics tripStatistics = track.getTripStatistics();
-    trackTripStatisticsUpdater = new TripStatisticsUpdater(tripStatistics.getStartTime());
 
     long markerStartTime;
     Waypoint waypoint = myTracksProviderUtils.getLastWaypoint(
@@ -682,14 +794,31 @@ public class TrackRecordingService extends Service {
     } else {
       markerStartTime = tripStatistics.getStartTime();
     }
-    markerTripStatisticsUpdater = new TripStatisticsUpdater(markerStartTime);
+
+    /*
+     * Restore the updaters from the checkpoint and only add the track points
+     * after it. The checkpoint is stale if a statistics marker was inserted
+     * after it.
+     */
+    long startTrackPointId = -1L;
+    TripStatisticsCheckpoint checkpoint = TripStatisticsCheckpoint.load(this, track.getId());
+    if (checkpoint != null && checkpoint.getMarkerTripStatisticsUpdater().getTripStatistics()
+        .getStartTime() == markerStartTime) {
+      trackTripStatisticsUpdater = checkpoint.getTrackTripStatisticsUpdater();
+      markerTripStatisticsUpdater = checkpoint.getMarkerTripStatisticsUpdater();
+      startTrackPointId = checkpoint.getTrackPointId() + 1;
+      Log.d(TAG, "Restored checkpoint at track point: " + checkpoint.getTrackPointId());
+    } else {
+      trackTripStatisticsUpdater = new TripStatisticsUpdater(tripStatistics.getStartTime());
+      markerTripStatisticsUpdater = new TripStatisticsUpdater(markerStartTime);
+    }
 
     ActivityType activityType = CalorieUtils.getActivityType(context, track.getCategory());
 
     LocationIterator locationIterator = null;
     try {
       locationIterator = myTracksProviderUtils.getTrackPointLocationIterator(
-          track.getId(), -1L, false, MyTracksProviderUtils.DEFAULT_LOCATION_FACTORY);
+          track.getId(), startTrackPointId, false, MyTracksProviderUtils.DEFAULT_LOCATION_FACTORY);
       
       while (locationIterator.hasNext()) {
         Location location = locationIterator.next();
@@ -724,13 +853,18 @@ public class TrackRecordingService extends Service {
     PreferencesUtils.setBoolean(this, R.string.recording_track_paused_key, false);
 
     // Update database
-    Track track = myTracksProviderUtils.getTrack(recordingTrackId);
+    final Track track = myTracksProviderUtils.getTrack(recordingTrackId);
     if (track != null) {
-      Location resume = new Location(LocationManager.GPS_PROVIDER);
+      final Location resume = new Location(LocationManager.GPS_PROVIDER);
       resume.setLongitude(0);
       resume.setLatitude(RESUME_LATITUDE);
       resume.setTime(System.currentTimeMillis());
-      insertLocation(track, resume, null);
+      insertLocationsInOrder(new Runnable() {
+          @Override
+        public void run() {
+          insertLocation(track, resume, null);
+        }
+      });
     }
 
     startRecording(false);
@@ -746,10 +880,21 @@ public class TrackRecordingService extends Service {
 
     // Update instance variables
     sensorManager = SensorManagerFactory.getSystemSensorManager(this);
+    if (sensorManager != null) {
+      sensorManager.setSensorDataListener(sensorDataListener);
+    }
     lastLocation = null;
     currentSegmentHasLocation = false;
+    lastInsertedTrackPoint = null;
     isIdle = false;
 
+    // The still state from the last session is stale, assume moving until the next transition
+    if (PreferencesUtils.getBoolean(
+        this, R.string.activity_still_key, PreferencesUtils.ACTIVITY_STILL_DEFAULT)) {
+      PreferencesUtils.setBoolean(
+          this, R.string.activity_still_key, PreferencesUtils.ACTIVITY_STILL_DEFAULT);
+    }
+
     startGps();
     sendTrackBroadcast(trackStarted ? R.string.track_started_broadcast_action
         : R.string.track_resumed_broadcast_action, recordingTrackId);
@@ -786,15 +931,26 @@ public class TrackRecordingService extends Service {
 
     // Update database
     Track track = myTracksProviderUtils.getTrack(trackId);
-    if (track != null) {
+    if (track != null && !paused) {
 
       // If not paused, add the last location
-      if (!paused) {
-        insertLocation(track, lastLocation, getLastValidTrackPointInCurrentSegment(trackId));
-        
-        // Update the recording track time        
+      final Track recordingTrack = track;
+      insertLocationsInOrder(new Runnable() {
+          @Override
+        public void run() {
+          insertPendingLocation(recordingTrack);
+          insertLocation(
+              recordingTrack, lastLocation, getLastValidTrackPointInCurrentSegment());
+        }
+      });
+
+      // Update the recording track time. Reload the track updated by the pipeline.
+      track = myTracksProviderUtils.getTrack(trackId);
+      if (track != null) {
         updateRecordingTrack(track, myTracksProviderUtils.getLastTrackPointId(trackId), false);
       }
+    }
+    if (track != null) {
       
       String trackName = TrackNameUtils.getTrackName(this, trackId,
           track.getTripStatistics().getStartTime(),
@@ -832,6 +988,7 @@ public class TrackRecordingService extends Service {
         }
       }
     }
+    TripStatisticsCheckpoint.delete(this);
     endRecording(true, trackId);
   }
 
@@ -849,15 +1006,21 @@ public class TrackRecordingService extends Service {
     PreferencesUtils.setBoolean(this, R.string.recording_track_paused_key, true);
 
     // Update database
-    Track track = myTracksProviderUtils.getTrack(recordingTrackId);
+    final Track track = myTracksProviderUtils.getTrack(recordingTrackId);
     if (track != null) {
-      insertLocation(track, lastLocation, getLastValidTrackPointInCurrentSegment(track.getId()));
-
-      Location pause = new Location(LocationManager.GPS_PROVIDER);
-      pause.setLongitude(0);
-      pause.setLatitude(PAUSE_LATITUDE);
-      pause.setTime(System.currentTimeMillis());
-      insertLocation(track, pause, null);
+      insertLocationsInOrder(new Runnable() {
+          @Override
+        public void run() {
+          insertPendingLocation(track);
+          insertLocation(track, lastLocation, getLastValidTrackPointInCurrentSegment());
+
+          Location pause = new Location(LocationManager.GPS_PROVIDER);
+          pause.setLongitude(0);
+          pause.setLatitude(PAUSE_LATITUDE);
+          pause.setTime(System.currentTimeMillis());
+          insertLocation(track, pause, null);
+        }
+      });
     }
 
     endRecording(false, recordingTrackId);
@@ -877,6 +1040,7 @@ public class TrackRecordingService extends Service {
 
     // Update instance variables
     if (sensorManager != null) {
+      sensorManager.setSensorDataListener(null);
       SensorManagerFactory.releaseSystemSensorManager();
       sensorManager = null;
     }
@@ -903,15 +1067,29 @@ public class TrackRecordingService extends Service {
 
   /**
    * Gets the last valid track point in the current segment. Returns null if not
-   * available.
+   * available. Kept in memory since the recording pipeline may not have
+   * persisted it yet.
+   */
+  private Location getLastValidTrackPointInCurrentSegment() {
+    return currentSegmentHasLocation ? lastInsertedTrackPoint : null;
+  }
+
+  /**
+   * Runs a task inserting locations on the filter stage of the recording
+   * pipeline, after the locations already received, and waits until the
+   * locations are persisted. Keeps the pause and resume markers in order.
    * 
-   * @param trackId the track id
+   * @param task the task
    */
-  private Location getLastValidTrackPointInCurrentSegment(long trackId) {
-    if (!currentSegmentHasLocation) {
-      return null;
-    }
-    return myTracksProviderUtils.getLastValidTrackPoint(trackId);
+  private void insertLocationsInOrder(final Runnable task) {
+    recordingPipeline.runOnFilterStage(new Runnable() {
+        @Override
+      public void run() {
+        locationReceiveTime = RecordingPipeline.getTime();
+        task.run();
+      }
+    });
+    recordingPipeline.flush();
   }
 
   /**
@@ -936,22 +1114,26 @@ public class TrackRecordingService extends Service {
     try {
       if (!isRecording() || isPaused()) {
         Log.w(TAG, "Ignore onLocationChangedAsync. Not recording or paused.");
+        recordingMetrics.drop(RecordingMetrics.Drop.NOT_RECORDING);
         return;
       }
 
       Track track = myTracksProviderUtils.getTrack(recordingTrackId);
       if (track == null) {
         Log.w(TAG, "Ignore onLocationChangedAsync. No track.");
+        recordingMetrics.drop(RecordingMetrics.Drop.NO_TRACK);
         return;
       }
 
       if (!LocationUtils.isValidLocation(location)) {
         Log.w(TAG, "Ignore onLocationChangedAsync. location is invalid.");
+        recordingMetrics.drop(RecordingMetrics.Drop.INVALID_LOCATION);
         return;
       }
 
       if (!location.hasAccuracy() || location.getAccuracy() >= recordingGpsAccuracy) {
         Log.d(TAG, "Ignore onLocationChangedAsync. Poor accuracy.");
+        recordingMetrics.drop(RecordingMetrics.Drop.POOR_ACCURACY);
         return;
       }
 
@@ -960,20 +1142,24 @@ public class TrackRecordingService extends Service {
         location.setTime(System.currentTimeMillis());
       }
 
-      Location lastValidTrackPoint = getLastValidTrackPointInCurrentSegment(track.getId());
+      LocationFilter filter = locationFilter;
+      if (filter != null) {
+        // Do not smooth across segments or jumps
+        if (!currentSegmentHasLocation || (lastLocation != null
+            && location.distanceTo(lastLocation) > maxRecordingDistance)) {
+          filter.reset();
+        }
+        location = filter.filter(location);
+      }
+
+      Location lastValidTrackPoint = getLastValidTrackPointInCurrentSegment();
       long idleTime = 0L;
       if (lastValidTrackPoint != null && location.getTime() > lastValidTrackPoint.getTime()) {
         idleTime = location.getTime() - lastValidTrackPoint.getTime();
       }
       locationListenerPolicy.updateIdleTime(idleTime);
-      if (currentRecordingInterval != locationListenerPolicy.getDesiredPollingInterval()) {
-        registerLocationListener();
-      }
-
-      SensorDataSet sensorDataSet = getSensorDataSet();
-      if (sensorDataSet != null) {
-        location = new MyTracksLocation(location, sensorDataSet);
-      }
+      locationListenerPolicy.updateLocation(location);
+      updateLocationListener();
 
       // Always insert the first segment location
       if (!currentSegmentHasLocation) {
@@ -994,6 +1180,23 @@ public class TrackRecordingService extends Service {
       }
 
       double distanceToLastTrackLocation = location.distanceTo(lastValidTrackPoint);
+      TrackCompressor compressor = trackCompressor;
+      if (compressor != null && distanceToLastTrackLocation >= recordingDistanceInterval
+          && distanceToLastTrackLocation <= maxRecordingDistance) {
+        // Only insert the locations needed to stay within the error bound
+        Location compressed = compressor.add(lastValidTrackPoint, location);
+        if (compressed != null) {
+          insertLocation(track, compressed, lastValidTrackPoint);
+        }
+        isIdle = false;
+        lastLocation = location;
+        return;
+      }
+      if (insertPendingLocation(track)) {
+        lastValidTrackPoint = getLastValidTrackPointInCurrentSegment();
+        distanceToLastTrackLocation = location.distanceTo(lastValidTrackPoint);
+      }
+
       if (distanceToLastTrackLocation > maxRecordingDistance) {
         insertLocation(track, lastLocation, lastValidTrackPoint);
 
@@ -1005,8 +1208,7 @@ public class TrackRecordingService extends Service {
 
         insertLocation(track, location, null);
         isIdle = false;
-      } else if (sensorDataSet != null
-          || distanceToLastTrackLocation >= recordingDistanceInterval) {
+      } else if (distanceToLastTrackLocation >= recordingDistanceInterval) {
         insertLocation(track, lastLocation, lastValidTrackPoint);
         insertLocation(track, location, null);
         isIdle = false;
@@ -1020,6 +1222,7 @@ public class TrackRecordingService extends Service {
         isIdle = false;
       } else {
         Log.d(TAG, "Not recording location, idle");
+        recordingMetrics.drop(RecordingMetrics.Drop.IDLE);
       }
       lastLocation = location;
     } catch (Error e) {
@@ -1032,7 +1235,51 @@ public class TrackRecordingService extends Service {
   }
 
   /**
-   * Inserts a location.
+   * Inserts a sensor point, at the sensor rate and independently of the
+   * locations. Only builds the sensor data set when inserting. Called on the
+   * filter stage.
+   * 
+   * @param sensorSnapshot the sensor snapshot
+   */
+  private void insertSensorPoint(SensorSnapshot sensorSnapshot) {
+    if (!isRecording() || isPaused()) {
+      return;
+    }
+    sensorSnapshot.readInto(sensorPointSnapshot);
+    // Do not insert if inserted already
+    if (sensorPointSnapshot.getCreationTime() <= lastSensorPointTime) {
+      return;
+    }
+    lastSensorPointTime = sensorPointSnapshot.getCreationTime();
+    final SensorDataSet sensorDataSet = sensorPointSnapshot.toSensorDataSet();
+
+    final long trackId = recordingTrackId;
+    recordingPipeline.statistics(new Runnable() {
+        @Override
+      public void run() {
+        recordingPipeline.persist(new TrackPointEntry(trackId, sensorDataSet));
+      }
+    });
+  }
+
+  /**
+   * Inserts the location pending in the track compressor, if any. Returns true
+   * if inserted. Called on the filter stage.
+   * 
+   * @param track the track
+   */
+  private boolean insertPendingLocation(Track track) {
+    TrackCompressor compressor = trackCompressor;
+    if (compressor == null || !compressor.hasPending()) {
+      return false;
+    }
+    insertLocation(track, compressor.flush(), getLastValidTrackPointInCurrentSegment());
+    return true;
+  }
+
+  /**
+   * Inserts a location. Sends the location to the statistics stage of the
+   * recording pipeline. Called on the filter stage.
    * 
    * @param track the track
    * @param location the location
@@ -1046,29 +1293,232 @@ public class TrackRecordingService extends Service {
     // Do not insert if inserted already
     if (lastValidTrackPoint != null && lastValidTrackPoint.getTime() == location.getTime()) {
       Log.w(TAG, "Ignore insertLocation. location time same as last valid track point time.");
+      recordingMetrics.drop(RecordingMetrics.Drop.DUPLICATE);
+      return;
+    }
+    if (LocationUtils.isValidLocation(location)) {
+      lastInsertedTrackPoint = location;
+    }
+
+    final long trackId = track.getId();
+    final Location trackPoint = location;
+    final ActivityType activityType = CalorieUtils.getActivityType(context, track.getCategory());
+    final long receiveTime = locationReceiveTime;
+    recordingPipeline.statistics(new Runnable() {
+        @Override
+      public void run() {
+        updateStatistics(trackId, trackPoint, activityType, receiveTime);
+      }
+    });
+  }
+
+  /**
+   * Adds a location to the trip statistics and sends it to the persistence
+   * stage of the recording pipeline. Called on the statistics stage.
+   * 
+   * @param trackId the track id
+   * @param location the location
+   * @param activityType the activity type
+   * @param receiveTime the time the location was received, in microseconds
+   */
+  private void updateStatistics(
+      long trackId, Location location, ActivityType activityType, long receiveTime) {
+    long startTime = RecordingPipeline.getTime();
+    trackTripStatisticsUpdater.addLocation(
+        location, recordingDistanceInterval, true, activityType, weight);
+    markerTripStatisticsUpdater.addLocation(
+        location, recordingDistanceInterval, true, activityType, weight);
+    trackTripStatisticsUpdater.updateTime(System.currentTimeMillis());
+
+    TrackPointEntry entry = new TrackPointEntry(
+        trackId, location, new TripStatistics(trackTripStatisticsUpdater.getTripStatistics()));
+    entry.receiveTime = receiveTime;
+    recordingMetrics.record(
+        RecordingMetrics.Timer.STATISTICS_UPDATE, RecordingPipeline.getTime() - startTime);
+
+    // Always checkpoint at pause and resume
+    if (!LocationUtils.isValidLocation(location)
+        || System.currentTimeMillis() - lastCheckpointTime >= CHECKPOINT_INTERVAL) {
+      setCheckpoint(entry);
+    }
+    recordingPipeline.persist(entry);
+
+    // The statistics are up to date, no need to wait for the persistence
+    startTime = RecordingPipeline.getTime();
+    voiceExecutor.update();
+    splitExecutor.update();
+    recordingMetrics.record(RecordingMetrics.Timer.NOTIFY, RecordingPipeline.getTime() - startTime);
+  }
+
+  /**
+   * Persists a batch of track points and checkpoints, after the held entries.
+   * Called on the persistence stage of the recording pipeline. Returns false
+   * if some entries are held.
+   * 
+   * @param entries the entries
+   */
+  private boolean persistTrackPoints(List<TrackPointEntry> entries) {
+    if (!heldTrackPointEntries.isEmpty()) {
+      // Keep the order, the held entries go first
+      List<TrackPointEntry> pending = new ArrayList<TrackPointEntry>(heldTrackPointEntries);
+      pending.addAll(entries);
+      heldTrackPointEntries.clear();
+      entries = pending;
+    }
+    int start = 0;
+    while (start < entries.size()) {
+      long trackId = entries.get(start).trackId;
+      int end = start + 1;
+      while (end < entries.size() && entries.get(end).trackId == trackId) {
+        end++;
+      }
+      if (!persistTrackPoints(trackId, entries.subList(start, end))) {
+        /*
+         * The trip statistics already count these track points. Hold them,
+         * with their checkpoint, instead of dropping them.
+         */
+        heldTrackPointEntries.addAll(entries.subList(start, entries.size()));
+        int excess = heldTrackPointEntries.size() - MAX_HELD_TRACK_POINT_ENTRIES;
+        if (excess > 0) {
+          heldTrackPointEntries.subList(0, excess).clear();
+          for (int i = 0; i < excess; i++) {
+            recordingPipeline.getPersistenceMetrics().drop();
+          }
+          Log.e(TAG, "Dropped " + excess + " held entries. The track statistics count track"
+              + " points not in the database.");
+        }
+        Log.e(TAG, "Unable to insert track points. Holding " + heldTrackPointEntries.size()
+            + " entries.");
+        return false;
+      }
+      start = end;
+    }
+    return true;
+  }
+
+  /**
+   * Retries the held entries one last time. Called after the recording
+   * pipeline is shut down.
+   */
+  private void persistHeldTrackPoints() {
+    if (heldTrackPointEntries.isEmpty()) {
       return;
     }
+    persistTrackPoints(Collections.<TrackPointEntry> emptyList());
+    if (!heldTrackPointEntries.isEmpty()) {
+      Log.e(TAG, "Lost " + heldTrackPointEntries.size()
+          + " entries. The track statistics count track points not in the database.");
+    }
+  }
 
+  /**
+   * Persists a batch of track points and checkpoints of a track. Inserts the
+   * track points in one transaction and updates the track once. Returns false
+   * if the track points could not be inserted, in which case nothing is
+   * persisted.
+   * 
+   * @param trackId the track id
+   * @param entries the entries
+   */
+  private boolean persistTrackPoints(long trackId, List<TrackPointEntry> entries) {
+    long startTime = RecordingPipeline.getTime();
+    Track track = myTracksProviderUtils.getTrack(trackId);
+    if (track == null) {
+      Log.w(TAG, "Ignore persistTrackPoints. No track.");
+      return true;
+    }
+    List<Location> locations = new ArrayList<Location>();
+    List<SensorDataSet> sensorDataSets = new ArrayList<SensorDataSet>();
+    for (TrackPointEntry entry : entries) {
+      if (entry.location != null) {
+        locations.add(entry.location);
+      }
+      if (entry.sensorDataSet != null) {
+        sensorDataSets.add(entry.sensorDataSet);
+      }
+    }
+    long[] trackPointIds = null;
+    if (!locations.isEmpty()) {
+      trackPointIds = insertTrackPoints(locations, trackId);
+      if (trackPointIds == null) {
+        return false;
+      }
+    }
+
+    // Sensor points are not in the trip statistics, no need to hold them
+    if (!sensorDataSets.isEmpty()) {
+      try {
+        myTracksProviderUtils.insertSensorPoints(sensorDataSets, trackId);
+      } catch (SQLiteException e) {
+        Log.w(TAG, "SQLiteException", e);
+      }
+    }
+
+    long lastTrackPointId = track.getStopId();
+    int index = 0;
+    TripStatistics tripStatistics = null;
+    TrackPointEntry checkpoint = null;
+    long checkpointTrackPointId = -1L;
+    for (TrackPointEntry entry : entries) {
+      if (entry.location != null) {
+        lastTrackPointId = trackPointIds[index++];
+        if (track.getStartId() < 0) {
+          track.setStartId(lastTrackPointId);
+        }
+        track.setStopId(lastTrackPointId);
+        if (LocationUtils.isValidLocation(entry.location)) {
+          track.setNumberOfPoints(track.getNumberOfPoints() + 1);
+        }
+        tripStatistics = entry.tripStatistics;
+      }
+      if (entry.trackTripStatisticsUpdater != null) {
+        checkpoint = entry;
+        checkpointTrackPointId = lastTrackPointId;
+      }
+    }
+
+    if (tripStatistics != null) {
+      track.setTripStatistics(tripStatistics);
+      myTracksProviderUtils.updateTrack(track);
+      long insertTime = RecordingPipeline.getTime();
+      recordingMetrics.record(RecordingMetrics.Timer.DB_INSERT, insertTime - startTime);
+
+      sendTrackBroadcast(R.string.track_update_broadcast_action, trackId);
+      long now = RecordingPipeline.getTime();
+      recordingMetrics.record(RecordingMetrics.Timer.NOTIFY, now - insertTime);
+      for (TrackPointEntry entry : entries) {
+        if (entry.location != null) {
+          recordingMetrics.record(RecordingMetrics.Timer.END_TO_END, now - entry.receiveTime);
+        }
+      }
+    }
+    if (checkpoint != null && checkpointTrackPointId >= 0) {
+      new TripStatisticsCheckpoint(trackId, checkpointTrackPointId,
+          checkpoint.trackTripStatisticsUpdater, checkpoint.markerTripStatisticsUpdater)
+          .save(this);
+    }
+    return true;
+  }
+
+  /**
+   * Inserts track points in one transaction. Returns the track point ids, or
+   * null if not successful. Doesn't retry, so the persistence stage is never
+   * blocked; the recording pipeline retries the held entries later.
+   * 
+   * @param locations the locations
+   * @param trackId the track id
+   */
+  private long[] insertTrackPoints(List<Location> locations, long trackId) {
     try {
-      Uri uri = myTracksProviderUtils.insertTrackPoint(location, track.getId());
-      long trackPointId = Long.parseLong(uri.getLastPathSegment());
-      ActivityType activityType = CalorieUtils.getActivityType(context, track.getCategory());
-      trackTripStatisticsUpdater.addLocation(
-          location, recordingDistanceInterval, true, activityType, weight);
-      markerTripStatisticsUpdater.addLocation(
-          location, recordingDistanceInterval, true, activityType, weight);
-      updateRecordingTrack(track, trackPointId, LocationUtils.isValidLocation(location));
+      return myTracksProviderUtils.insertTrackPoints(locations, trackId);
     } catch (SQLiteException e) {
       /*
        * Insert failed, most likely because of SqlLite error code 5
-       * (SQLite_BUSY). This is expected to happen extremely rarely (if our
-       * listener gets invoked twice at about the same time).
+       * (SQLite_BUSY). This is expected to happen extremely rarely.
        */
       Log.w(TAG, "SQLiteException", e);
+      return null;
     }
-    voiceExecutor.update();
-    splitExecutor.update();
-    sendTrackBroadcast(R.string.track_update_broadcast_action, track.getId());
   }
 
   /**
@@ -1096,12 +1546,34 @@ public class TrackRecordingService extends Service {
     myTracksProviderUtils.updateTrack(track);
   }
 
-  private SensorDataSet getSensorDataSet() {
-    if (sensorManager == null || !sensorManager.isEnabled()
-        || !sensorManager.isSensorDataSetValid()) {
-      return null;
-    }
-    return sensorManager.getSensorDataSet();
+  /**
+   * Saves a checkpoint of the trip statistics updaters, after the track points
+   * added to them are persisted.
+   * 
+   * @param trackId the track id
+   */
+  private void saveCheckpoint(final long trackId) {
+    recordingPipeline.statistics(new Runnable() {
+        @Override
+      public void run() {
+        TrackPointEntry entry = new TrackPointEntry(trackId, null, null);
+        setCheckpoint(entry);
+        recordingPipeline.persist(entry);
+      }
+    });
+  }
+
+  /**
+   * Adds copies of the trip statistics updaters to an entry, for the
+   * persistence stage to save a checkpoint. Called on the statistics stage.
+   * 
+   * @param entry the entry
+   */
+  private void setCheckpoint(TrackPointEntry entry) {
+    lastCheckpointTime = System.currentTimeMillis();
+    entry.trackTripStatisticsUpdater = TripStatisticsCheckpoint.copy(trackTripStatisticsUpdater);
+    entry.markerTripStatisticsUpdater = TripStatisticsCheckpoint.copy(
+        markerTripStatisticsUpdater);
   }
 
   /**
@@ -1114,14 +1586,29 @@ public class TrackRecordingService extends Service {
     }
     try {
       long interval = locationListenerPolicy.getDesiredPollingInterval();
+      int minDistance = locationListenerPolicy.getMinDistance();
       myTracksLocationManager.requestLocationUpdates(
-          interval, locationListenerPolicy.getMinDistance(), locationListener);
+          interval, minDistance, locationBatchInterval, locationListener);
       currentRecordingInterval = interval;
+      currentMinDistance = minDistance;
+      currentBatchInterval = locationBatchInterval;
     } catch (RuntimeException e) {
       Log.e(TAG, "Could not register location listener.", e);
     }
   }
 
+  /**
+   * Registers the location listener again if the polling interval, the min
+   * distance or the batch interval changed since the last registration.
+   */
+  private void updateLocationListener() {
+    if (currentRecordingInterval != locationListenerPolicy.getDesiredPollingInterval()
+        || currentMinDistance != locationListenerPolicy.getMinDistance()
+        || currentBatchInterval != locationBatchInterval) {
+      registerLocationListener();
+    }
+  }
+
   /**
    * Unregisters the location manager.
    */
@@ -1131,6 +1618,9 @@ public class TrackRecordingService extends Service {
       return;
     }
     myTracksLocationManager.removeLocationUpdates(locationListener);
+
+    // Register again on the next update
+    currentRecordingInterval = -1L;
   }
 
   /**
@@ -1404,6 +1894,36 @@ public class TrackRecordingService extends Service {
       }
       trackRecordingService.updateCalorie();
     }
+
+    @Override
+    public Bundle getRecordingMetrics() {
+      if (!canAccess()) {
+        return null;
+      }
+      return trackRecordingService.getRecordingMetrics();
+    }
+  }
+
+  /**
+   * Inserts a batch of locations as if received from the location manager,
+   * without a binder call per location, e.g., to replay a track.
+   * 
+   * @param locations the locations
+   */
+  @VisibleForTesting
+  void insertLocations(List<Location> locations) {
+    locationListener.onLocationResult(LocationResult.create(locations));
+  }
+
+  /**
+   * Gets the recording metrics. See {@link RecordingMetrics}.
+   */
+  private Bundle getRecordingMetrics() {
+    if (recordingPipeline == null) {
+      return recordingMetrics.toBundle();
+    }
+    return recordingMetrics.toBundle(recordingPipeline.getFilterMetrics(),
+        recordingPipeline.getStatisticsMetrics(), recordingPipeline.getPersistenceMetrics());
   }
 
   /**
@@ -1411,17 +1931,19 @@ public class TrackRecordingService extends Service {
    * edited by user.
    */
   public void updateCalorie() {
-    if (executorService == null || executorService.isShutdown() || executorService.isTerminated()) {
+    if (recordingPipeline == null || recordingPipeline.isShutdown()) {
       return;
     }
-    executorService.submit(new Runnable() {
+    recordingPipeline.statistics(new Runnable() {
         @Override
       public void run() {
         if (!isRecording()) {
           Log.w(TAG, "Ignore updateCalorie. Not recording.");
           return;
         }
-        
+
+        // Update the persisted track and markers after the queued track points
+        recordingPipeline.flushPersistence();
         Track track = myTracksProviderUtils.getTrack(recordingTrackId);
         if (track == null) {
           Log.w(TAG, "Ignore updateCalorie. No track.");
@@ -1429,14 +1951,51 @@ public class TrackRecordingService extends Service {
         }
 
         
-        double[] calories = CalorieUtils.updateTrackCalorie(context, track);
+        double trackCalorie = CalorieUtils.updateTrackCalorie(context, track);
         
         // Update track statistics
-        trackTripStatisticsUpdater.updateCalorie(calories[0]);
+        trackTripStatisticsUpdater.updateCalorie(trackCalorie);
 
-        // Update marker statistics      
-        markerTripStatisticsUpdater.updateCalorie(calories[1]);
+        // Update marker statistics from the current marker calorie inputs
+        ActivityType activityType = CalorieUtils.getActivityType(context, track.getCategory());
+        markerTripStatisticsUpdater.updateCalorie(CalorieUtils.getCalorie(
+            markerTripStatisticsUpdater.getTripStatistics().getCalorieInputs(), weight,
+            activityType));
+
+        saveCheckpoint(recordingTrackId);
       }
     });
   }
+
+  /**
+   * A track point, a sensor point, or only a checkpoint, sent to the
+   * persistence stage of the recording pipeline.
+   */
+  private static class TrackPointEntry {
+    private final long trackId;
+    private final Location location;
+    private final TripStatistics tripStatistics;
+    private final SensorDataSet sensorDataSet;
+
+    // The time the location was received, in microseconds
+    private long receiveTime;
+
+    // Copies of the updaters after adding the location, for a checkpoint
+    private TripStatisticsUpdater trackTripStatisticsUpdater;
+    private TripStatisticsUpdater markerTripStatisticsUpdater;
+
+    private TrackPointEntry(long trackId, Location location, TripStatistics tripStatistics) {
+      this.trackId = trackId;
+      this.location = location;
+      this.tripStatistics = tripStatistics;
+      this.sensorDataSet = null;
+    }
+
+    private TrackPointEntry(long trackId, SensorDataSet sensorDataSet) {
+      this.trackId = trackId;
+      this.location = null;
+      this.tripStatistics = null;
+      this.sensorDataSet = sensorDataSet;
+    }
+  }
 }
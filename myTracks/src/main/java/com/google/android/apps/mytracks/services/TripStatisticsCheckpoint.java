@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.services;
+
+import com.google.android.apps.mytracks.stats.TripStatisticsUpdater;
+import com.google.android.apps.mytracks.util.SystemUtils;
+import com.google.common.annotations.VisibleForTesting;
+
+import android.content.Context;
+import android.os.Parcel;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A checkpoint of the track and marker {@link TripStatisticsUpdater} of the
+ * recording track. Allows {@link TrackRecordingService} to restore the updaters
+ * when restarted and only add the track points after the checkpoint.
+ * <p>
+ * The checkpoint fields are written explicitly with a {@link DataOutputStream}
+ * under {@link #VERSION}. A checkpoint from another version or another app
+ * version, whose updater may keep a different state, is ignored.
+ */
+class TripStatisticsCheckpoint {
+
+  private static final String TAG = TripStatisticsCheckpoint.class.getSimpleName();
+
+  @VisibleForTesting
+  static final String FILE_NAME = "trip_statistics_checkpoint";
+
+  // Increase when changing the checkpoint content
+  private static final int VERSION = 4;
+
+  private final long trackId;
+  private final long trackPointId;
+  private final TripStatisticsUpdater trackTripStatisticsUpdater;
+  private final TripStatisticsUpdater markerTripStatisticsUpdater;
+
+  /**
+   * Constructor.
+   *
+   * @param trackId the track id
+   * @param trackPointId the id of the last track point added to the updaters
+   * @param trackTripStatisticsUpdater the track trip statistics updater
+   * @param markerTripStatisticsUpdater the marker trip statistics updater
+   */
+  TripStatisticsCheckpoint(long trackId, long trackPointId,
+      TripStatisticsUpdater trackTripStatisticsUpdater,
+      TripStatisticsUpdater markerTripStatisticsUpdater) {
+    this.trackId = trackId;
+    this.trackPointId = trackPointId;
+    this.trackTripStatisticsUpdater = trackTripStatisticsUpdater;
+    this.markerTripStatisticsUpdater = markerTripStatisticsUpdater;
+  }
+
+  long getTrackId() {
+    return trackId;
+  }
+
+  long getTrackPointId() {
+    return trackPointId;
+  }
+
+  TripStatisticsUpdater getTrackTripStatisticsUpdater() {
+    return trackTripStatisticsUpdater;
+  }
+
+  TripStatisticsUpdater getMarkerTripStatisticsUpdater() {
+    return markerTripStatisticsUpdater;
+  }
+
+  /**
+   * Saves the checkpoint, replacing the previous one. Returns true if
+   * successful.
+   *
+   * @param context the context
+   */
+  boolean save(Context context) {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+    try {
+      dataOutputStream.writeInt(VERSION);
+      dataOutputStream.writeInt(SystemUtils.getVersionCode(context));
+      dataOutputStream.writeLong(trackId);
+      dataOutputStream.writeLong(trackPointId);
+      trackTripStatisticsUpdater.write(dataOutputStream);
+      markerTripStatisticsUpdater.write(dataOutputStream);
+      dataOutputStream.flush();
+    } catch (IOException e) {
+      Log.e(TAG, "Unable to write checkpoint", e);
+      return false;
+    }
+    byte[] data = byteArrayOutputStream.toByteArray();
+
+    // Write to a temp file first so a partial write never replaces a checkpoint
+    File file = getFile(context);
+    File tempFile = new File(file.getPath() + ".tmp");
+    FileOutputStream fileOutputStream = null;
+    try {
+      fileOutputStream = new FileOutputStream(tempFile);
+      fileOutputStream.write(data);
+      fileOutputStream.getFD().sync();
+    } catch (IOException e) {
+      Log.e(TAG, "Unable to write checkpoint", e);
+      return false;
+    } finally {
+      if (fileOutputStream != null) {
+        try {
+          fileOutputStream.close();
+        } catch (IOException e) {
+          Log.e(TAG, "Unable to close checkpoint", e);
+        }
+      }
+    }
+    if (!tempFile.renameTo(file)) {
+      Log.e(TAG, "Unable to rename checkpoint");
+      tempFile.delete();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Loads the checkpoint of a track. Returns null if not available.
+   *
+   * @param context the context
+   * @param trackId the track id
+   */
+  static TripStatisticsCheckpoint load(Context context, long trackId) {
+    File file = getFile(context);
+    if (!file.exists()) {
+      return null;
+    }
+    DataInputStream dataInputStream = null;
+    try {
+      dataInputStream = new DataInputStream(
+          new BufferedInputStream(new FileInputStream(file)));
+      // The updater state may change with the app version
+      if (dataInputStream.readInt() != VERSION
+          || dataInputStream.readInt() != SystemUtils.getVersionCode(context)) {
+        Log.d(TAG, "Ignore checkpoint. Different version.");
+        return null;
+      }
+      long checkpointTrackId = dataInputStream.readLong();
+      if (checkpointTrackId != trackId) {
+        Log.d(TAG, "Ignore checkpoint. Different track id: " + checkpointTrackId);
+        return null;
+      }
+      long trackPointId = dataInputStream.readLong();
+      TripStatisticsUpdater trackUpdater = new TripStatisticsUpdater(dataInputStream);
+      TripStatisticsUpdater markerUpdater = new TripStatisticsUpdater(dataInputStream);
+      return new TripStatisticsCheckpoint(trackId, trackPointId, trackUpdater, markerUpdater);
+    } catch (IOException e) {
+      Log.e(TAG, "Unable to read checkpoint", e);
+      return null;
+    } finally {
+      if (dataInputStream != null) {
+        try {
+          dataInputStream.close();
+        } catch (IOException e) {
+          Log.e(TAG, "Unable to close checkpoint", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the checkpoint.
+   *
+   * @param context the context
+   */
+  static void delete(Context context) {
+    File file = getFile(context);
+    if (file.exists() && !file.delete()) {
+      Log.e(TAG, "Unable to delete checkpoint");
+    }
+  }
+
+  /**
+   * Copies an updater, for a checkpoint of an updater still in use.
+   *
+   * @param tripStatisticsUpdater the updater
+   */
+  static TripStatisticsUpdater copy(TripStatisticsUpdater tripStatisticsUpdater) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      tripStatisticsUpdater.writeToParcel(parcel);
+      parcel.setDataPosition(0);
+      return new TripStatisticsUpdater(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static File getFile(Context context) {
+    return new File(context.getFilesDir(), FILE_NAME);
+  }
+}
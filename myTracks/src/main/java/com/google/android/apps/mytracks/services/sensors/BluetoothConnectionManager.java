@@ -31,10 +31,16 @@ import android.util.Log;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Manages bluetooth connection. It has a thread for connecting with a bluetooth
  * device and a thread for performing data transmission when connected.
+ * <p>
+ * Frames are read into a pool of buffers and handed over to the handler
+ * without copying. The handler recycles each frame with
+ * {@link #recycleFrame(byte[])} once parsed.
  * 
  * @author Sandor Dornbush
  */
@@ -50,11 +56,16 @@ public class BluetoothConnectionManager {
   // Key for storing the device name
   public static final String KEY_DEVICE_NAME = "device_name";
 
+  // Number of pooled frame buffers
+  private static final int FRAME_POOL_SIZE = 4;
+
   private static final String TAG = BluetoothConnectionManager.class.getSimpleName();
 
   private final BluetoothAdapter bluetoothAdapter;
   private final Handler handler;
   private final MessageParser messageParser;
+  private final BlockingQueue<byte[]> framePool = new ArrayBlockingQueue<byte[]>(
+      FRAME_POOL_SIZE);
   private SensorState sensorState;
 
   private ConnectThread connectThread;
@@ -64,7 +75,7 @@ public class BluetoothConnectionManager {
    * Constructor.
    * 
    * @param bluetoothAdapter the bluetooth adapter
-   * @param handler a hander for sending messages back to the UI activity
+   * @param handler a hander for the messages, on the thread parsing the frames
    * @param messageParser a message parser
    */
   public BluetoothConnectionManager(
@@ -91,6 +102,24 @@ public class BluetoothConnectionManager {
     this.sensorState = sensorState;
   }
 
+  /**
+   * Returns a frame buffer to the pool. Can be called from any thread.
+   * 
+   * @param frame the frame buffer received with {@link #MESSAGE_READ}
+   */
+  public void recycleFrame(byte[] frame) {
+    framePool.offer(frame);
+  }
+
+  /**
+   * Gets a frame buffer from the pool. Allocates one if the pool is empty,
+   * e.g., when frames are lost on a reset.
+   */
+  private byte[] obtainFrame() {
+    byte[] frame = framePool.poll();
+    return frame != null ? frame : new byte[messageParser.getFrameSize()];
+  }
+
   /**
    * Resets the bluetooth connection manager.
    */
@@ -127,6 +156,22 @@ public class BluetoothConnectionManager {
     setState(Sensor.SensorState.CONNECTING);
   }
 
+  /**
+   * Reads the frames from an input stream instead of a bluetooth device, e.g.,
+   * to replay recorded frames. The frames go through the same alignment and
+   * parsing as the frames of a device.
+   * 
+   * @param inputStream the input stream, closed on reset
+   */
+  public synchronized void connect(InputStream inputStream) {
+    Log.d(TAG, "connect to input stream");
+    cancelThreads();
+
+    connectedThread = new ConnectedThread(inputStream);
+    connectedThread.start();
+    setState(Sensor.SensorState.CONNECTED);
+  }
+
   /**
    * Starts the ConnectedThread to read data.
    * 
@@ -218,9 +263,14 @@ public class BluetoothConnectionManager {
    * This thread handles data transmission when connected.
    */
   private class ConnectedThread extends Thread {
-    private final BluetoothSocket bluetoothSSocket;
+    private final BluetoothSocket bluetoothSSocket; // null if reading an input stream
     private final InputStream inputStream;
 
+    public ConnectedThread(InputStream inputStream) {
+      this.bluetoothSSocket = null;
+      this.inputStream = inputStream;
+    }
+
     public ConnectedThread(BluetoothSocket bluetoothSocket) {
       this.bluetoothSSocket = bluetoothSocket;
       InputStream tmp = null;
@@ -235,7 +285,7 @@ public class BluetoothConnectionManager {
 
     @Override
     public void run() {
-      byte[] buffer = new byte[messageParser.getFrameSize()];
+      byte[] buffer = obtainFrame();
       int bytes; // bytes read
       int offset = 0;
 
@@ -269,9 +319,12 @@ public class BluetoothConnectionManager {
 
           offset = 0;
 
-          // Send a copy of the obtained bytes to the handler to avoid memory
-          // inconsistency issues
-          handler.obtainMessage(MESSAGE_READ, bytes, -1, buffer.clone()).sendToTarget();
+          // Hand over the frame and read the next one into another buffer
+          if (!handler.sendMessage(
+              handler.obtainMessage(MESSAGE_READ, buffer.length, -1, buffer))) {
+            recycleFrame(buffer);
+          }
+          buffer = obtainFrame();
         } catch (IOException e) {
           Log.i(TAG, "Bluetooth connection lost.", e);
           setState(Sensor.SensorState.DISCONNECTED);
@@ -285,7 +338,11 @@ public class BluetoothConnectionManager {
      */
     public void cancel() {
       try {
-        bluetoothSSocket.close();
+        if (bluetoothSSocket != null) {
+          bluetoothSSocket.close();
+        } else {
+          inputStream.close();
+        }
       } catch (IOException e) {
         Log.e(TAG, "Unable to close bluetooth socket.", e);
       }
@@ -16,7 +16,6 @@
 
 package com.google.android.apps.mytracks.services.sensors;
 
-import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
 import com.google.android.apps.mytracks.content.Sensor.SensorState;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.apps.mytracks.util.UnitConversions;
@@ -31,6 +30,7 @@ import android.os.Message;
 import android.util.Log;
 import android.widget.Toast;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 
 /**
@@ -89,30 +89,39 @@ public class BluetoothSensorManager extends SensorManager {
   private final Context context;
   private final MessageParser messageParser;
   private final BluetoothConnectionManager bluetoothConnectionManager;
-  private SensorDataSet sensorDataSet = null;
+  private final Handler uiHandler = new Handler(Looper.getMainLooper());
 
-  // Handler that gets information back from the bluetoothConnectionManager
-  private final Handler messageHandler = new Handler(Looper.getMainLooper()) {
+  // Handler that gets information back from the bluetoothConnectionManager, on the sensor thread
+  private final Handler messageHandler = new Handler(getSensorLooper()) {
       @Override
     public void handleMessage(Message message) {
       switch (message.what) {
         case BluetoothConnectionManager.MESSAGE_DEVICE_NAME:
-          String deviceName = message.getData()
+          final String deviceName = message.getData()
               .getString(BluetoothConnectionManager.KEY_DEVICE_NAME);
-          Toast.makeText(context, context.getString(R.string.settings_sensor_connected, deviceName),
-              Toast.LENGTH_SHORT).show();
+          uiHandler.post(new Runnable() {
+              @Override
+            public void run() {
+              Toast.makeText(context,
+                  context.getString(R.string.settings_sensor_connected, deviceName),
+                  Toast.LENGTH_SHORT).show();
+            }
+          });
           break;
         case BluetoothConnectionManager.MESSAGE_READ:
+          byte[] frame = (byte[]) message.obj;
           try {
-            byte[] readBuf = (byte[]) message.obj;
-            sensorDataSet = messageParser.parseBuffer(readBuf);
-            Log.d(TAG, "MESSAGE_READ: " + sensorDataSet);
-          } catch (IllegalArgumentException e) {
-            sensorDataSet = null;
-            Log.i(TAG, "Unexpected exception on read", e);
+            messageParser.parseBuffer(frame, getSensorSnapshot());
+            notifySensorDataChanged();
           } catch (RuntimeException e) {
-            sensorDataSet = null;
             Log.i(TAG, "Unexpected exception on read.", e);
+
+            // Invalidate the previous values instead of reporting them as current
+            getSensorSnapshot().write(0L, SensorSnapshot.NOT_AVAILABLE,
+                SensorSnapshot.NOT_AVAILABLE, SensorSnapshot.NOT_AVAILABLE,
+                SensorSnapshot.NOT_AVAILABLE);
+          } finally {
+            bluetoothConnectionManager.recycleFrame(frame);
           }
           break;
         default:
@@ -163,6 +172,16 @@ public class BluetoothSensorManager extends SensorManager {
     bluetoothConnectionManager.connect(device);
   }
 
+  /**
+   * Reads the frames from an input stream instead of the bluetooth device,
+   * e.g., to replay recorded frames.
+   * 
+   * @param inputStream the input stream, closed when the sensor is stopped
+   */
+  public void replay(InputStream inputStream) {
+    bluetoothConnectionManager.connect(inputStream);
+  }
+
   @Override
   protected void tearDownChannel() {
     bluetoothConnectionManager.reset();
@@ -172,9 +191,4 @@ public class BluetoothSensorManager extends SensorManager {
   public SensorState getSensorState() {
     return bluetoothConnectionManager.getSensorState();
   }
-
-  @Override
-  public SensorDataSet getSensorDataSet() {
-    return sensorDataSet;
-  }
 }
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import com.google.android.apps.mytracks.content.Sensor.SensorState;
+import com.google.common.annotations.VisibleForTesting;
+
+import android.os.Handler;
+import android.os.Message;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link SensorManager} running several sensor managers at once, such as a
+ * Bluetooth heart rate monitor with ANT+ bike sensors. Each source runs on its
+ * own sensor thread and notifies the composite, which merges the latest values
+ * on its sensor thread. For each sensor, the merged snapshot has the value of
+ * the newest source reading having it, ignoring the stale sources.
+ */
+public class CompositeSensorManager extends SensorManager {
+
+  // The weight of a new interval in the average interval between readings
+  private static final double INTERVAL_WEIGHT = 0.1;
+
+  /**
+   * A sensor source, with its latest values and statistics.
+   */
+  public static class SensorSource {
+    private final SensorManager sensorManager;
+    private final long maxAge;
+
+    // Only accessed on the composite sensor thread
+    private final SensorSnapshot latest = new SensorSnapshot();
+
+    // Only written on the composite sensor thread
+    private volatile long lastCreationTime;
+    private volatile long readings;
+    private volatile long drops;
+    private volatile double averageInterval = -1.0; // negative if unknown
+
+    private SensorSource(SensorManager sensorManager) {
+      this.sensorManager = sensorManager;
+      this.maxAge = sensorManager.getMaxSensorDataAge();
+    }
+
+    /**
+     * Gets the sensor manager.
+     */
+    public SensorManager getSensorManager() {
+      return sensorManager;
+    }
+
+    /**
+     * Gets the number of readings merged.
+     */
+    public long getReadings() {
+      return readings;
+    }
+
+    /**
+     * Gets the number of readings dropped, either stale when received or
+     * superseded by a newer reading before being merged.
+     */
+    public long getDrops() {
+      return drops;
+    }
+
+    /**
+     * Gets the average rate of the readings, in readings per second. Returns 0
+     * if unknown.
+     */
+    public double getRate() {
+      double interval = averageInterval;
+      return interval > 0.0 ? 1000.0 / interval : 0.0;
+    }
+
+    /**
+     * Returns true if the latest reading is not stale.
+     * 
+     * @param now the current time
+     */
+    public boolean isFresh(long now) {
+      long creationTime = lastCreationTime;
+      return creationTime != 0 && now - creationTime < maxAge;
+    }
+
+    /**
+     * Records a merged reading.
+     * 
+     * @param creationTime the creation time of the reading
+     */
+    private void onReading(long creationTime) {
+      if (lastCreationTime != 0) {
+        double interval = creationTime - lastCreationTime;
+        averageInterval = averageInterval < 0.0 ? interval
+            : averageInterval + INTERVAL_WEIGHT * (interval - averageInterval);
+      }
+      lastCreationTime = creationTime;
+      readings++;
+    }
+  }
+
+  private final List<SensorSource> sensorSources;
+
+  private final Handler mergeHandler = new Handler(getSensorLooper()) {
+      @Override
+    public void handleMessage(Message message) {
+      merge(sensorSources.get(message.what), System.currentTimeMillis());
+    }
+  };
+
+  /**
+   * Constructor.
+   * 
+   * @param sensorManagers the sensor managers of the sources
+   */
+  public CompositeSensorManager(List<SensorManager> sensorManagers) {
+    List<SensorSource> sources = new ArrayList<SensorSource>(sensorManagers.size());
+    for (SensorManager sensorManager : sensorManagers) {
+      sources.add(new SensorSource(sensorManager));
+    }
+    sensorSources = Collections.unmodifiableList(sources);
+  }
+
+  /**
+   * Gets the sensor sources.
+   */
+  public List<SensorSource> getSensorSources() {
+    return sensorSources;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    for (int i = 0; i < sensorSources.size(); i++) {
+      if (sensorSources.get(i).sensorManager.isEnabled()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void startSensor() {
+    // Each source retries connecting on its own
+    for (int i = 0; i < sensorSources.size(); i++) {
+      final int index = i;
+      SensorManager sensorManager = sensorSources.get(i).sensorManager;
+      sensorManager.setSensorDataListener(new SensorDataListener() {
+          @Override
+        public void onSensorDataChanged(SensorSnapshot sensorSnapshot) {
+          mergeHandler.sendEmptyMessage(index);
+        }
+      });
+      sensorManager.startSensor();
+    }
+  }
+
+  @Override
+  protected void setUpChannel() {
+    // Each source sets up its own channel
+  }
+
+  @Override
+  protected void tearDownChannel() {
+    for (int i = 0; i < sensorSources.size(); i++) {
+      SensorManager sensorManager = sensorSources.get(i).sensorManager;
+      sensorManager.setSensorDataListener(null);
+      sensorManager.stopSensor();
+    }
+  }
+
+  /**
+   * Gets the most advanced state of the sources.
+   */
+  @Override
+  public SensorState getSensorState() {
+    SensorState sensorState = SensorState.NONE;
+    for (int i = 0; i < sensorSources.size(); i++) {
+      SensorState state = sensorSources.get(i).sensorManager.getSensorState();
+      if (getRank(state) > getRank(sensorState)) {
+        sensorState = state;
+      }
+    }
+    return sensorState;
+  }
+
+  @Override
+  protected long getMaxSensorDataAge() {
+    long maxAge = 0;
+    for (int i = 0; i < sensorSources.size(); i++) {
+      maxAge = Math.max(maxAge, sensorSources.get(i).maxAge);
+    }
+    return maxAge;
+  }
+
+  /**
+   * Returns true if any source has a reading not stale.
+   */
+  @Override
+  public boolean isSensorDataSetValid() {
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < sensorSources.size(); i++) {
+      if (sensorSources.get(i).isFresh(now)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Merges the latest reading of a source with the other sources and
+   * publishes the result. To be called from the composite sensor thread.
+   * 
+   * @param updated the source with a new reading
+   * @param now the current time
+   */
+  @VisibleForTesting
+  void merge(SensorSource updated, long now) {
+    updated.sensorManager.getSensorSnapshot().readInto(updated.latest);
+    long creationTime = updated.latest.getCreationTime();
+    if (creationTime <= updated.lastCreationTime || now - creationTime >= updated.maxAge) {
+      updated.drops++;
+      return;
+    }
+    updated.onReading(creationTime);
+
+    long mergedTime = 0;
+    int heartRate = SensorSnapshot.NOT_AVAILABLE;
+    long heartRateTime = 0;
+    int cadence = SensorSnapshot.NOT_AVAILABLE;
+    long cadenceTime = 0;
+    int power = SensorSnapshot.NOT_AVAILABLE;
+    long powerTime = 0;
+    int batteryLevel = SensorSnapshot.NOT_AVAILABLE;
+    long batteryLevelTime = 0;
+    for (int i = 0; i < sensorSources.size(); i++) {
+      SensorSource sensorSource = sensorSources.get(i);
+      if (!sensorSource.isFresh(now)) {
+        continue;
+      }
+      SensorSnapshot latest = sensorSource.latest;
+      long time = latest.getCreationTime();
+      mergedTime = Math.max(mergedTime, time);
+      if (latest.getHeartRate() != SensorSnapshot.NOT_AVAILABLE && time > heartRateTime) {
+        heartRate = latest.getHeartRate();
+        heartRateTime = time;
+      }
+      if (latest.getCadence() != SensorSnapshot.NOT_AVAILABLE && time > cadenceTime) {
+        cadence = latest.getCadence();
+        cadenceTime = time;
+      }
+      if (latest.getPower() != SensorSnapshot.NOT_AVAILABLE && time > powerTime) {
+        power = latest.getPower();
+        powerTime = time;
+      }
+      if (latest.getBatteryLevel() != SensorSnapshot.NOT_AVAILABLE && time > batteryLevelTime) {
+        batteryLevel = latest.getBatteryLevel();
+        batteryLevelTime = time;
+      }
+    }
+    publishSensorData(mergedTime, heartRate, cadence, power, batteryLevel);
+  }
+
+  /**
+   * Gets the rank of a sensor state, higher when closer to sending.
+   * 
+   * @param sensorState the sensor state
+   */
+  private static int getRank(SensorState sensorState) {
+    switch (sensorState) {
+      case SENDING:
+        return 4;
+      case CONNECTED:
+        return 3;
+      case CONNECTING:
+        return 2;
+      case DISCONNECTED:
+        return 1;
+      default:
+        return 0;
+    }
+  }
+}
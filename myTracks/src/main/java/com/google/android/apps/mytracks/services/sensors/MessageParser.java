@@ -16,10 +16,9 @@
 
 package com.google.android.apps.mytracks.services.sensors;
 
-import com.google.android.apps.mytracks.content.Sensor;
-
 /**
- * An interface for parsing a byte array to a SensorData object.
+ * An interface for parsing a byte array to a {@link SensorSnapshot}, without
+ * allocating.
  *
  * @author Sandor Dornbush
  */
@@ -27,7 +26,13 @@ public interface MessageParser {
 
   public int getFrameSize();
   
-  public Sensor.SensorDataSet parseBuffer(byte[] readBuff);
+  /**
+   * Parses a frame and writes the sensor values.
+   * 
+   * @param readBuff the frame
+   * @param sensorSnapshot the sensor snapshot to write
+   */
+  public void parseBuffer(byte[] readBuff, SensorSnapshot sensorSnapshot);
   
   public boolean isValid(byte[] buffer);
 
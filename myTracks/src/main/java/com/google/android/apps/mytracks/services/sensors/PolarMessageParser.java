@@ -60,8 +60,19 @@ public class PolarMessageParser implements MessageParser {
     return headerValid && checkbyteValid && sequenceValid;
   }
   
-  @Override
+  /**
+   * Parses a frame to a sensor data set.
+   * 
+   * @param buffer the frame
+   */
   public Sensor.SensorDataSet parseBuffer(byte[] buffer) {
+    SensorSnapshot sensorSnapshot = new SensorSnapshot();
+    parseBuffer(buffer, sensorSnapshot);
+    return sensorSnapshot.toSensorDataSet();
+  }
+
+  @Override
+  public void parseBuffer(byte[] buffer, SensorSnapshot sensorSnapshot) {
 
     int heartRate = 0;
     boolean heartrateValid = false; 
@@ -84,17 +95,8 @@ public class PolarMessageParser implements MessageParser {
 
     lastHeartRate = heartRate;                          // Remember good value for next time.
 
-    // Heart Rate
-    Sensor.SensorData.Builder b = Sensor.SensorData.newBuilder()
-      .setValue(heartRate)
-      .setState(Sensor.SensorState.SENDING);
-
-    Sensor.SensorDataSet sds = Sensor.SensorDataSet.newBuilder()
-      .setCreationTime(System.currentTimeMillis())
-      .setHeartRate(b)
-      .build();
-    
-    return sds;
+    sensorSnapshot.write(System.currentTimeMillis(), heartRate, SensorSnapshot.NOT_AVAILABLE,
+        SensorSnapshot.NOT_AVAILABLE, SensorSnapshot.NOT_AVAILABLE);
   }
 
   /**
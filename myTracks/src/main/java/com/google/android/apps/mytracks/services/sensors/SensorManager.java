@@ -19,28 +19,80 @@ package com.google.android.apps.mytracks.services.sensors;
 import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
 import com.google.android.apps.mytracks.content.Sensor.SensorState;
 
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
 import android.util.Log;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 /**
- * Manage the connection to a sensor.
+ * Manage the connection to a sensor. Owns a dedicated sensor thread, started
+ * on creation and quit when the sensor is stopped, that retries connecting
+ * and, for the sensors reading a stream, parses the sensor data. The latest
+ * sensor values are published in a {@link SensorSnapshot}.
  * 
  * @author Sandor Dornbush
  */
 public abstract class SensorManager {
 
+  /**
+   * Listener for new sensor data.
+   */
+  public interface SensorDataListener {
+
+    /**
+     * Called when new sensor data is received, on the thread receiving it.
+     * The listener should read the snapshot when it needs the values.
+     * 
+     * @param sensorSnapshot the sensor snapshot, updated in place
+     */
+    public void onSensorDataChanged(SensorSnapshot sensorSnapshot);
+  }
+
+  // The default max age of the sensor data, in milliseconds
+  static final long DEFAULT_MAX_SENSOR_DATA_AGE = 5000;
+
   private static final String TAG = SensorManager.class.getSimpleName();
-  private static final long MAX_SENSOR_DATE_SET_AGE = 5000;
   private static final long MAX_SENSOR_STATE_AGE = 20000;
   private static final int RETRY_PERIOD = 20000;
 
   private SensorState sensorState = SensorState.NONE;
   private long sensorStateTimestamp = System.currentTimeMillis();
 
-  private TimerTask timerTask;
-  private Timer timer;
+  private final HandlerThread sensorThread;
+  private final Handler sensorHandler;
+  private final SensorSnapshot sensorSnapshot = new SensorSnapshot();
+  private volatile SensorDataListener sensorDataListener;
+
+  private final Runnable retryRunnable = new Runnable() {
+      @Override
+    public void run() {
+      switch (getSensorState()) {
+        case CONNECTING:
+          if (System.currentTimeMillis() - sensorStateTimestamp > MAX_SENSOR_STATE_AGE) {
+            Log.i(TAG, "Retry setUpChannel");
+            setUpChannel();
+          }
+          break;
+        case NONE:
+        case DISCONNECTED:
+          setUpChannel();
+          break;
+        default:
+          // CONNECTED or SENDING
+          break;
+      }
+      sensorHandler.postDelayed(this, RETRY_PERIOD);
+    }
+  };
+
+  /**
+   * Constructor. Starts the sensor thread.
+   */
+  protected SensorManager() {
+    sensorThread = new HandlerThread(SensorManager.class.getSimpleName());
+    sensorThread.start();
+    sensorHandler = new Handler(sensorThread.getLooper());
+  }
 
   /**
    * Returns true if the sensor is enabled.
@@ -58,53 +110,80 @@ public abstract class SensorManager {
   protected abstract void tearDownChannel();
 
   /**
-   * Gets the sensor data set.
+   * Gets the looper of the sensor thread.
    */
-  public abstract SensorDataSet getSensorDataSet();
+  protected Looper getSensorLooper() {
+    return sensorThread.getLooper();
+  }
 
   /**
    * Starts the sensor.
    */
   public void startSensor() {
     setUpChannel();
-    timerTask = new TimerTask() {
-      @Override
-      public void run() {
-          switch (getSensorState()) {
-            case CONNECTING:
-              if (System.currentTimeMillis() - sensorStateTimestamp > MAX_SENSOR_STATE_AGE) {
-                Log.i(TAG, "Retry setUpChannel");
-                setUpChannel();
-              }
-              break;
-            case NONE:
-            case DISCONNECTED:
-              setUpChannel();
-              break;
-            default:
-              // CONNECTED or SENDING
-              break;
-          }
-      }
-    };    
-    timer = new Timer(SensorManager.class.getSimpleName());
-    timer.schedule(timerTask, RETRY_PERIOD, RETRY_PERIOD);
+    sensorHandler.postDelayed(retryRunnable, RETRY_PERIOD);
   }
 
   /**
-   * Stops the sensor.
+   * Stops the sensor and quits the sensor thread.
    */
   public void stopSensor() {
-    if (timerTask != null) {
-      timerTask.cancel();
-      timerTask = null;
-    }
-    if (timer != null) {
-      timer.cancel();
-      timer.purge();
-      timer = null;
-    }
+    sensorHandler.removeCallbacks(retryRunnable);
     tearDownChannel();
+    sensorThread.quit();
+  }
+
+  /**
+   * Sets the sensor data listener.
+   * 
+   * @param listener the listener, can be null
+   */
+  public void setSensorDataListener(SensorDataListener listener) {
+    sensorDataListener = listener;
+  }
+
+  /**
+   * Publishes new sensor values and notifies the sensor data listener. To be
+   * called from a single thread.
+   * 
+   * @param creationTime the creation time
+   * @param heartRate the heart rate or {@link SensorSnapshot#NOT_AVAILABLE}
+   * @param cadence the cadence or {@link SensorSnapshot#NOT_AVAILABLE}
+   * @param power the power or {@link SensorSnapshot#NOT_AVAILABLE}
+   * @param batteryLevel the battery level or
+   *          {@link SensorSnapshot#NOT_AVAILABLE}
+   */
+  protected void publishSensorData(
+      long creationTime, int heartRate, int cadence, int power, int batteryLevel) {
+    sensorSnapshot.write(creationTime, heartRate, cadence, power, batteryLevel);
+    notifySensorDataChanged();
+  }
+
+  /**
+   * Notifies the sensor data listener after writing the sensor snapshot.
+   */
+  protected void notifySensorDataChanged() {
+    SensorDataListener listener = sensorDataListener;
+    if (listener != null) {
+      listener.onSensorDataChanged(sensorSnapshot);
+    }
+  }
+
+  /**
+   * Gets the sensor snapshot, updated in place with the latest values.
+   */
+  public SensorSnapshot getSensorSnapshot() {
+    return sensorSnapshot;
+  }
+
+  /**
+   * Gets the sensor data set of the latest values. Returns null if no values
+   * received.
+   */
+  public SensorDataSet getSensorDataSet() {
+    SensorSnapshot copy = new SensorSnapshot();
+    sensorSnapshot.readInto(copy);
+    return copy.toSensorDataSet();
   }
 
   /**
@@ -124,14 +203,19 @@ public abstract class SensorManager {
     return sensorState;
   }
 
+  /**
+   * Gets the max age of the sensor data before it is stale, in milliseconds.
+   * Sensors sending less often should override.
+   */
+  protected long getMaxSensorDataAge() {
+    return DEFAULT_MAX_SENSOR_DATA_AGE;
+  }
+
   /**
    * Returns true if the sensor data set is valid.
    */
   public boolean isSensorDataSetValid() {
-    SensorDataSet sensorDataSet = getSensorDataSet();
-    if (sensorDataSet == null) {
-      return false;
-    }
-    return (System.currentTimeMillis() - sensorDataSet.getCreationTime()) < MAX_SENSOR_DATE_SET_AGE;
+    return (System.currentTimeMillis() - sensorSnapshot.getCreationTime())
+        < getMaxSensorDataAge();
   }
 }
@@ -16,13 +16,18 @@
 
 package com.google.android.apps.mytracks.services.sensors;
 
+import com.dsi.ant.AntInterface;
 import com.google.android.apps.mytracks.services.sensors.ant.AntSensorManager;
 import com.google.android.apps.mytracks.util.AnalyticsUtils;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.maps.mytracks.R;
+import com.google.common.annotations.VisibleForTesting;
 
 import android.content.Context;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A factory of {@link SensorManager}.
  *
@@ -32,6 +37,7 @@ public class SensorManagerFactory {
 
   private static SensorManager systemSensorManager = null;
   private static SensorManager tempSensorManager = null;
+  private static SensorManager replaySensorManager = null;
 
   private SensorManagerFactory() {}
 
@@ -88,11 +94,28 @@ public class SensorManagerFactory {
   }
 
   /**
-   * Gets the sensor manager.
+   * Sets a sensor manager to use instead of the one of the sensor type, e.g.,
+   * fed by a replay. It is stopped when released, so it can be used for one
+   * recording only.
+   *
+   * @param sensorManager the sensor manager, null to use the sensor type
+   */
+  @VisibleForTesting
+  public static void setReplaySensorManager(SensorManager sensorManager) {
+    replaySensorManager = sensorManager;
+  }
+
+  /**
+   * Gets the sensor manager. Combines a Bluetooth sensor manager with the ANT+
+   * sensor manager if set to use the ANT+ sensors with a Bluetooth sensor.
    *
    * @param context the context
    */
   private static SensorManager getSensorManager(Context context, boolean sendPageViews) {
+    if (replaySensorManager != null) {
+      return replaySensorManager;
+    }
+
     String sensorType = PreferencesUtils.getString(
         context, R.string.sensor_type_key, PreferencesUtils.SENSOR_TYPE_DEFAULT);
 
@@ -101,17 +124,34 @@ public class SensorManagerFactory {
         AnalyticsUtils.sendPageViews(context, AnalyticsUtils.SENSOR_ANT);
       }
       return new AntSensorManager(context);
-    } else if (sensorType.equals(context.getString(R.string.sensor_type_value_zephyr))) {
+    }
+
+    SensorManager bluetoothSensorManager;
+    if (sensorType.equals(context.getString(R.string.sensor_type_value_zephyr))) {
       if (sendPageViews) {
         AnalyticsUtils.sendPageViews(context, AnalyticsUtils.SENSOR_ZEPHYR);
       }
-      return new ZephyrSensorManager(context);
+      bluetoothSensorManager = new ZephyrSensorManager(context);
     } else if (sensorType.equals(context.getString(R.string.sensor_type_value_polar))) {
       if (sendPageViews) {
         AnalyticsUtils.sendPageViews(context, AnalyticsUtils.SENSOR_POLAR);
       }
-      return new PolarSensorManager(context);
+      bluetoothSensorManager = new PolarSensorManager(context);
+    } else {
+      return null;
+    }
+
+    boolean antWithBluetooth = PreferencesUtils.getBoolean(context,
+        R.string.sensor_ant_with_bluetooth_key, PreferencesUtils.SENSOR_ANT_WITH_BLUETOOTH_DEFAULT);
+    if (!antWithBluetooth || !AntInterface.hasAntSupport(context)) {
+      return bluetoothSensorManager;
+    }
+    if (sendPageViews) {
+      AnalyticsUtils.sendPageViews(context, AnalyticsUtils.SENSOR_ANT);
     }
-    return null;
+    List<SensorManager> sensorManagers = new ArrayList<SensorManager>();
+    sensorManagers.add(bluetoothSensorManager);
+    sensorManagers.add(new AntSensorManager(context));
+    return new CompositeSensorManager(sensorManagers);
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.services.sensors;
+
+import com.google.android.apps.mytracks.content.Sensor;
+import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
+
+/**
+ * The latest sensor values, as primitives. Published by a single writer
+ * thread and read by any thread without locking, with a sequence lock: the
+ * writer makes the sequence odd while writing, and readers retry until they
+ * read the same even sequence before and after the values. The fields are
+ * volatile to keep the reads and writes in order.
+ * <p>
+ * The {@link SensorDataSet} protobuf is only built from a consistent copy,
+ * when needed.
+ */
+public class SensorSnapshot {
+
+  // The value of a sensor not available
+  public static final int NOT_AVAILABLE = -1;
+
+  // Reads before yielding to the writer
+  private static final int MAX_SPINS = 100;
+
+  private volatile int sequence;
+  private volatile long creationTime;
+  private volatile int heartRate = NOT_AVAILABLE;
+  private volatile int cadence = NOT_AVAILABLE;
+  private volatile int power = NOT_AVAILABLE;
+  private volatile int batteryLevel = NOT_AVAILABLE;
+
+  /**
+   * Publishes new values. To be called from the writer thread only.
+   * 
+   * @param newCreationTime the creation time
+   * @param newHeartRate the heart rate or {@link #NOT_AVAILABLE}
+   * @param newCadence the cadence or {@link #NOT_AVAILABLE}
+   * @param newPower the power or {@link #NOT_AVAILABLE}
+   * @param newBatteryLevel the battery level or {@link #NOT_AVAILABLE}
+   */
+  public void write(long newCreationTime, int newHeartRate, int newCadence, int newPower,
+      int newBatteryLevel) {
+    int start = sequence;
+    sequence = start + 1;
+    creationTime = newCreationTime;
+    heartRate = newHeartRate;
+    cadence = newCadence;
+    power = newPower;
+    batteryLevel = newBatteryLevel;
+    sequence = start + 2;
+  }
+
+  /**
+   * Copies consistent values into another snapshot, not shared with other
+   * threads.
+   * 
+   * @param copy the copy
+   */
+  public void readInto(SensorSnapshot copy) {
+    int spins = 0;
+    while (true) {
+      int start = sequence;
+      if ((start & 1) == 0) {
+        copy.creationTime = creationTime;
+        copy.heartRate = heartRate;
+        copy.cadence = cadence;
+        copy.power = power;
+        copy.batteryLevel = batteryLevel;
+        if (sequence == start) {
+          return;
+        }
+      }
+      if (++spins == MAX_SPINS) {
+        spins = 0;
+        Thread.yield();
+      }
+    }
+  }
+
+  /**
+   * Gets the creation time, 0 if never written.
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  /**
+   * Gets the heart rate, {@link #NOT_AVAILABLE} if not available.
+   */
+  public int getHeartRate() {
+    return heartRate;
+  }
+
+  /**
+   * Gets the cadence, {@link #NOT_AVAILABLE} if not available.
+   */
+  public int getCadence() {
+    return cadence;
+  }
+
+  /**
+   * Gets the power, {@link #NOT_AVAILABLE} if not available.
+   */
+  public int getPower() {
+    return power;
+  }
+
+  /**
+   * Gets the battery level, {@link #NOT_AVAILABLE} if not available.
+   */
+  public int getBatteryLevel() {
+    return batteryLevel;
+  }
+
+  /**
+   * Builds the sensor data set of this snapshot. Returns null if never
+   * written. To be called on a copy, see {@link #readInto(SensorSnapshot)}.
+   */
+  public SensorDataSet toSensorDataSet() {
+    if (creationTime == 0L) {
+      return null;
+    }
+    SensorDataSet.Builder builder = SensorDataSet.newBuilder().setCreationTime(creationTime);
+    if (heartRate != NOT_AVAILABLE) {
+      builder.setHeartRate(newSensorData(heartRate));
+    }
+    if (cadence != NOT_AVAILABLE) {
+      builder.setCadence(newSensorData(cadence));
+    }
+    if (power != NOT_AVAILABLE) {
+      builder.setPower(newSensorData(power));
+    }
+    if (batteryLevel != NOT_AVAILABLE) {
+      builder.setBatteryLevel(newSensorData(batteryLevel));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates a sending sensor data.
+   * 
+   * @param value the value
+   */
+  private static Sensor.SensorData.Builder newSensorData(int value) {
+    return Sensor.SensorData.newBuilder().setValue(value).setState(Sensor.SensorState.SENDING);
+  }
+}
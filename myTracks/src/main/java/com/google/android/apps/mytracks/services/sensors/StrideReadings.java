@@ -15,13 +15,11 @@
  */
 package com.google.android.apps.mytracks.services.sensors;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
  * A history of Zephyr stride counter reading.
  * These can be used as an alternate method to calculate the correct cadence.
  * This is a work around for an issue with some HxM firmware.
+ * The readings are kept in a fixed size ring buffer.
  *
  * @author Dominik Rottsches
  */
@@ -36,32 +34,33 @@ public class StrideReadings {
   // TODO: Check whether 1Hz assumption is okay for cadence calculation
   // otherwise add heart beat timestamp to this list and compute
   // cadence from these timestamps.
-  private final List<Integer> strideReadingsHistory;
-
-  public StrideReadings() {
-    strideReadingsHistory = new LinkedList<Integer>();
-  }
+  private final int[] strideReadingsHistory = new int[NUM_READINGS_FOR_AVERAGE];
+  // Index of the next reading
+  private int nextIndex;
+  private int numReadings;
 
   public void updateStrideReading(int numStrides) {
     // HRM/HxM documentation says, transmission frequency is 1 Hz, 
     // let's keep last NUM_READINGS_FOR_AVERAGE readings.
     // TODO: Calibrate this using a reliable footpod / cadence sensor, 
     // otherwise use heartbeat timestamp for calculation. 
-    strideReadingsHistory.add(0, numStrides);
-    while (strideReadingsHistory.size() > NUM_READINGS_FOR_AVERAGE) {
-      strideReadingsHistory.remove(strideReadingsHistory.size()-1);
-    }
+    // Overwrites the oldest reading when full.
+    strideReadingsHistory[nextIndex] = numStrides;
+    nextIndex = (nextIndex + 1) % NUM_READINGS_FOR_AVERAGE;
+    numReadings = Math.min(numReadings + 1, NUM_READINGS_FOR_AVERAGE);
   }
 
   public int getCadence() {
-    if (strideReadingsHistory.size() < MIN_READINGS_FOR_AVERAGE) {
+    if (numReadings < MIN_READINGS_FOR_AVERAGE) {
       // Bail out if we cannot really get a meaningful average yet.
       return CADENCE_NOT_AVAILABLE;
     }
     // Compute assuming 1 stride reading/second.
-    int timeSinceOldestReadingSecs = strideReadingsHistory.size() - 1; 
-    int stridesThen = strideReadingsHistory.get(strideReadingsHistory.size()-1);
-    int stridesNow = strideReadingsHistory.get(0);
+    int timeSinceOldestReadingSecs = numReadings - 1; 
+    int stridesThen = strideReadingsHistory[
+        (nextIndex - numReadings + NUM_READINGS_FOR_AVERAGE) % NUM_READINGS_FOR_AVERAGE];
+    int stridesNow = strideReadingsHistory[
+        (nextIndex - 1 + NUM_READINGS_FOR_AVERAGE) % NUM_READINGS_FOR_AVERAGE];
     // Contrary to documentation stride value seems to roll over at 128.
     return Math.round( (float)(mod((stridesNow - stridesThen), 128)) /
         timeSinceOldestReadingSecs * 60);
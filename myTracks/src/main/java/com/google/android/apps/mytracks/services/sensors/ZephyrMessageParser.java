@@ -16,9 +16,6 @@
 package com.google.android.apps.mytracks.services.sensors;
 
 import com.google.android.apps.mytracks.content.Sensor;
-import com.google.android.apps.mytracks.util.ApiAdapterFactory;
-
-import java.util.Arrays;
 
 /**
  * An implementation of a Sensor MessageParser for Zephyr.
@@ -36,50 +33,59 @@ public class ZephyrMessageParser implements MessageParser {
   
   private StrideReadings strideReadings;
   
-  @Override
+  /**
+   * Parses a frame to a sensor data set.
+   * 
+   * @param buffer the frame
+   */
   public Sensor.SensorDataSet parseBuffer(byte[] buffer) {
-    Sensor.SensorDataSet.Builder sds =
-      Sensor.SensorDataSet.newBuilder()
-      .setCreationTime(System.currentTimeMillis());
+    SensorSnapshot sensorSnapshot = new SensorSnapshot();
+    parseBuffer(buffer, sensorSnapshot);
+    return sensorSnapshot.toSensorDataSet();
+  }
 
-    Sensor.SensorData.Builder heartrate = Sensor.SensorData.newBuilder()
-      .setValue(buffer[12] & 0xFF)
-      .setState(Sensor.SensorState.SENDING);
-    sds.setHeartRate(heartrate);
-    
-    Sensor.SensorData.Builder batteryLevel = Sensor.SensorData.newBuilder()
-      .setValue(buffer[11])
-      .setState(Sensor.SensorState.SENDING);
-    sds.setBatteryLevel(batteryLevel);
-    
-    setCadence(sds, buffer);
-    
-    return sds.build();
+  @Override
+  public void parseBuffer(byte[] buffer, SensorSnapshot sensorSnapshot) {
+    sensorSnapshot.write(System.currentTimeMillis(), buffer[12] & 0xFF, getCadence(buffer),
+        SensorSnapshot.NOT_AVAILABLE, buffer[11]);
   }
 
-  private void setCadence(Sensor.SensorDataSet.Builder sds, byte[] buffer) {
+  /**
+   * Gets the cadence. Returns {@link SensorSnapshot#NOT_AVAILABLE} if not
+   * available yet.
+   * 
+   * @param buffer the frame
+   */
+  private int getCadence(byte[] buffer) {
     // Device Firmware ID, Firmware Version, Hardware ID, Hardware Version
     // 0x1A00316550003162 produces erroneous values for Cadence and needs
     // a workaround based on the stride counter.
     // Firmware values range from field 3 to 10 (inclusive) of the byte buffer.
-    byte[] hardwareFirmwareId = ApiAdapterFactory.getApiAdapter().copyByteArray(buffer, 3, 11);
-    Sensor.SensorData.Builder cadence = Sensor.SensorData.newBuilder();
-
-    if (Arrays.equals(hardwareFirmwareId, CADENCE_BUG_FW_ID)) {
+    if (hasCadenceBug(buffer)) {
       if (strideReadings == null) {
         strideReadings = new StrideReadings();
       }
       strideReadings.updateStrideReading(buffer[54] & 0xFF);
-      
-      if (strideReadings.getCadence() != StrideReadings.CADENCE_NOT_AVAILABLE) {
-        cadence.setValue(strideReadings.getCadence()).setState(Sensor.SensorState.SENDING);
+      int cadence = strideReadings.getCadence();
+      return cadence != StrideReadings.CADENCE_NOT_AVAILABLE ? cadence
+          : SensorSnapshot.NOT_AVAILABLE;
+    }
+    return SensorUtils.unsignedShortToIntLittleEndian(buffer, 56) / 16;
+  }
+
+  /**
+   * Returns true if the firmware id in the frame has the cadence bug. Compares
+   * in place to avoid copying the frame.
+   * 
+   * @param buffer the frame
+   */
+  private static boolean hasCadenceBug(byte[] buffer) {
+    for (int i = 0; i < CADENCE_BUG_FW_ID.length; i++) {
+      if (buffer[3 + i] != CADENCE_BUG_FW_ID[i]) {
+        return false;
       }
-    } else {
-      cadence
-        .setValue(SensorUtils.unsignedShortToIntLittleEndian(buffer, 56) / 16)
-        .setState(Sensor.SensorState.SENDING);
     }
-    sds.setCadence(cadence);
+    return true;
   }
 
   @Override
@@ -23,9 +23,9 @@ import com.dsi.ant.AntMesg;
 import com.dsi.ant.exception.AntInterfaceException;
 import com.dsi.ant.exception.AntServiceNotConnectedException;
 import com.google.android.apps.mytracks.content.Sensor;
-import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
 import com.google.android.apps.mytracks.content.Sensor.SensorState;
 import com.google.android.apps.mytracks.services.sensors.SensorManager;
+import com.google.android.apps.mytracks.services.sensors.SensorSnapshot;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.maps.mytracks.R;
 
@@ -62,7 +62,6 @@ public class AntSensorManager extends SensorManager {
   public static final short WILDCARD = 0;
   
   private static final String TAG = AntSensorManager.class.getSimpleName();
-  private static final int CHANNELS = 4;
   private static final String RADIO_ANT = "ant";
   private static final byte ANT_NETWORK = (byte) 0x01;
 
@@ -74,7 +73,6 @@ public class AntSensorManager extends SensorManager {
   private boolean serviceConnected = false;
   private boolean hasClaimedInterface = false;
 
-  private SensorDataSet sensorDataSet = null;
   private long lastSensorDataSetTime = 0;
   private AntSensorValue antSensorValue = new AntSensorValue();
 
@@ -122,11 +120,9 @@ public class AntSensorManager extends SensorManager {
   public AntSensorManager(Context context) {
     this.context = context;
 
-    channelConfig = new ChannelConfiguration[CHANNELS];
-    channelConfig[0] = new HeartRateChannelConfiguration();
-    channelConfig[1] = new SpeedDistanceChannelConfiguration();
-    channelConfig[2] = new BikeCadenceChannelConfiguration();
-    channelConfig[3] = new CombinedBikeChannelConfiguration();
+    channelConfig = new ChannelConfiguration[] {
+        new HeartRateChannelConfiguration(), new SpeedDistanceChannelConfiguration(),
+        new BikeCadenceChannelConfiguration(), new CombinedBikeChannelConfiguration() };
 
     statusIntentFilter = new IntentFilter();
     statusIntentFilter.addAction(AntInterfaceIntent.ANT_ENABLED_ACTION);
@@ -177,11 +173,6 @@ public class AntSensorManager extends SensorManager {
     setSensorState(SensorState.DISCONNECTED);
   }
 
-  @Override
-  public SensorDataSet getSensorDataSet() {
-    return sensorDataSet;
-  }
-
   /**
    * Tries to claim the ant interface.
    */
@@ -254,7 +245,7 @@ public class AntSensorManager extends SensorManager {
    * Clears all channels.
    */
   private void clearAllChannels() {
-    for (int i = 0; i < CHANNELS; i++) {
+    for (int i = 0; i < channelConfig.length; i++) {
       channelConfig[i].setChannelState(ChannelStates.CLOSED);
     }
     setSensorState(SensorState.DISCONNECTED);
@@ -502,19 +493,22 @@ public class AntSensorManager extends SensorManager {
     }
     lastSensorDataSetTime = now;
 
-    SensorDataSet.Builder builder = Sensor.SensorDataSet.newBuilder();
-    int heartRate = antSensorValue.getHeartRate();
-    if (heartRate != -1) {
-      builder.setHeartRate(Sensor.SensorData.newBuilder()
-          .setValue(heartRate).setState(Sensor.SensorState.SENDING));
-    }
-    int cadence = antSensorValue.getCadence();
-    if (cadence != -1) {
-      builder.setCadence(Sensor.SensorData.newBuilder()
-          .setValue(cadence).setState(Sensor.SensorState.SENDING));
-    }
-    sensorDataSet = builder.setCreationTime(now).build();
     setSensorState(SensorState.SENDING);
+    publishSensorData(now, antSensorValue.getHeartRate(), antSensorValue.getCadence(),
+        SensorSnapshot.NOT_AVAILABLE, SensorSnapshot.NOT_AVAILABLE);
+  }
+
+  /**
+   * Decodes a broadcast data message without the ANT radio, e.g., to replay
+   * recorded messages. To be called on the main thread, like the data
+   * receiver.
+   *
+   * @param antRxMessage the message, with the channel in the data
+   */
+  public void replayMessage(byte[] antRxMessage) {
+    byte channel = antRxMessage[AntMesg.MESG_DATA_OFFSET];
+    channelConfig[channel].decodeMessage(antRxMessage, antSensorValue);
+    setSensorDataSet();
   }
 
   /**
@@ -547,13 +541,13 @@ public class AntSensorManager extends SensorManager {
     if (enabled) {
       context.registerReceiver(
           dataReceiver, new IntentFilter(AntInterfaceIntent.ANT_RX_MESSAGE_ACTION));
-      for (int i = 0; i < CHANNELS; i++) {
+      for (int i = 0; i < channelConfig.length; i++) {
         openChannel((byte) i);
       }
     } else {
       try {
         context.unregisterReceiver(dataReceiver);
-        for (int i = 0; i < CHANNELS; i++) {
+        for (int i = 0; i < channelConfig.length; i++) {
           closeChannel((byte) i);
         }
       } catch (IllegalArgumentException e) {
@@ -18,10 +18,14 @@ package com.google.android.apps.mytracks.settings;
 
 import com.google.android.apps.mytracks.Constants;
 import com.google.android.apps.mytracks.io.sync.SyncUtils;
+import com.google.android.apps.mytracks.services.RecordingMetrics;
+import com.google.android.apps.mytracks.services.TrackRecordingServiceConnection;
 import com.google.android.apps.mytracks.util.DialogUtils;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
+import com.google.android.apps.mytracks.util.TrackRecordingServiceConnectionUtils;
 import com.google.android.maps.mytracks.R;
 
+import android.app.AlertDialog;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
@@ -37,6 +41,10 @@ import android.preference.Preference.OnPreferenceClickListener;
 import android.util.Log;
 import android.widget.Toast;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * An activity for advanced settings.
  * 
@@ -48,11 +56,13 @@ public class AdvancedSettingsActivity extends AbstractSettingsActivity {
 
   private static final int DIALOG_CONFIRM_ALLOW_ACCESS_ID = 0;
   private static final int DIALOG_CONFIRM_RESET_ID = 1;
+  private static final int DIALOG_RECORDING_METRICS_ID = 2;
 
   private CheckBoxPreference allowAccessCheckBoxPreference;
   private Preference resetPreference;
 
   private SharedPreferences sharedPreferences;
+  private TrackRecordingServiceConnection trackRecordingServiceConnection;
   private long recordingTrackId = PreferencesUtils.RECORDING_TRACK_ID_DEFAULT;
 
   /*
@@ -108,6 +118,18 @@ public class AdvancedSettingsActivity extends AbstractSettingsActivity {
 
     sharedPreferences = getSharedPreferences(Constants.SETTINGS_NAME, Context.MODE_PRIVATE);
 
+    trackRecordingServiceConnection = new TrackRecordingServiceConnection(this, null);
+    Preference recordingMetricsPreference = findPreference(
+        getString(R.string.settings_recording_metrics_key));
+    recordingMetricsPreference.setOnPreferenceClickListener(new OnPreferenceClickListener() {
+        @Override
+      public boolean onPreferenceClick(Preference preference) {
+        removeDialog(DIALOG_RECORDING_METRICS_ID);
+        showDialog(DIALOG_RECORDING_METRICS_ID);
+        return true;
+      }
+    });
+
     resetPreference = findPreference(getString(R.string.settings_reset_key));
     resetPreference.setOnPreferenceClickListener(new OnPreferenceClickListener() {
         @Override
@@ -124,12 +146,14 @@ public class AdvancedSettingsActivity extends AbstractSettingsActivity {
     sharedPreferences.registerOnSharedPreferenceChangeListener(sharedPreferenceChangeListener);
     recordingTrackId = PreferencesUtils.getLong(this, R.string.recording_track_id_key);
     updateUi();
+    trackRecordingServiceConnection.bindIfStarted();
   }
 
   @Override
   protected void onPause() {
     super.onPause();
     sharedPreferences.unregisterOnSharedPreferenceChangeListener(sharedPreferenceChangeListener);
+    trackRecordingServiceConnection.unbind();
   }
 
   @Override
@@ -154,6 +178,10 @@ public class AdvancedSettingsActivity extends AbstractSettingsActivity {
                 onResetPreferencesConfirmed();
               }
             });
+      case DIALOG_RECORDING_METRICS_ID:
+        return new AlertDialog.Builder(this).setMessage(getRecordingMetrics())
+            .setPositiveButton(R.string.generic_ok, null)
+            .setTitle(R.string.settings_recording_metrics).create();
       default:
         return null;
     }
@@ -176,6 +204,37 @@ public class AdvancedSettingsActivity extends AbstractSettingsActivity {
     }
   }
 
+  /**
+   * Gets the recording metrics as text, one metric per line. Latencies are in
+   * microseconds.
+   */
+  private String getRecordingMetrics() {
+    Bundle metrics = TrackRecordingServiceConnectionUtils.getRecordingMetrics(
+        trackRecordingServiceConnection);
+    if (metrics == null) {
+      return getString(R.string.settings_recording_metrics_none);
+    }
+    List<String> keys = new ArrayList<String>(metrics.keySet());
+    Collections.sort(keys);
+    StringBuilder builder = new StringBuilder();
+    for (String key : keys) {
+      Object value = metrics.get(key);
+      builder.append(key).append(": ");
+      if (value instanceof long[]) {
+        long[] histogram = (long[]) value;
+        builder.append("n ").append(histogram[RecordingMetrics.INDEX_COUNT])
+            .append(", p50 ").append(histogram[RecordingMetrics.INDEX_P50])
+            .append(", p90 ").append(histogram[RecordingMetrics.INDEX_P90])
+            .append(", p99 ").append(histogram[RecordingMetrics.INDEX_P99])
+            .append(", max ").append(histogram[RecordingMetrics.INDEX_MAX]);
+      } else {
+        builder.append(value);
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
   /**
    * Updates the UI based on the recording state.
    */
@@ -57,6 +57,9 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
     configListPreference(R.string.min_recording_interval_key,
         PreferencesUtils.MIN_RECORDING_INTERVAL_DEFAULT, R.array.min_recording_interval_values,
         metricUnits);
+    configListPreference(R.string.location_batch_interval_key,
+        PreferencesUtils.LOCATION_BATCH_INTERVAL_DEFAULT, R.array.location_batch_interval_values,
+        metricUnits);
     configListPreference(R.string.recording_distance_interval_key,
         PreferencesUtils.RECORDING_DISTANCE_INTERVAL_DEFAULT,
         R.array.recording_distance_interval_values, metricUnits);
@@ -69,6 +72,9 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
     configListPreference(R.string.auto_resume_track_timeout_key,
         PreferencesUtils.AUTO_RESUME_TRACK_TIMEOUT_DEFAULT,
         R.array.auto_resume_track_timeout_values, metricUnits);
+    configListPreference(R.string.track_compression_key,
+        PreferencesUtils.TRACK_COMPRESSION_DEFAULT, R.array.track_compression_values,
+        metricUnits);
   }
 
   @Override
@@ -137,6 +143,9 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
       case R.string.min_recording_interval_key:
         setMinRecordingIntervalSummaryAndOptions(summary, options, values);
         break;
+      case R.string.location_batch_interval_key:
+        setLocationBatchIntervalSummaryAndOptions(summary, options, values);
+        break;
       case R.string.recording_distance_interval_key:
         setRecordingDistanceIntervalSummaryAndOptions(summary, options, values, metricUnits);
         break;
@@ -149,6 +158,9 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
       case R.string.auto_resume_track_timeout_key:
         setAutoResumeTrackTimeoutSummaryAndOptions(summary, options, values);
         break;
+      case R.string.track_compression_key:
+        setTrackCompressionSummaryAndOptions(summary, options, values, metricUnits);
+        break;
       default:
         return;
     }
@@ -171,6 +183,10 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
           options[i] = getString(R.string.value_adapt_battery_life);
           summary[i] = options[i];
           break;
+        case PreferencesUtils.MIN_RECORDING_INTERVAL_ADAPT_MOTION:
+          options[i] = getString(R.string.value_adapt_motion);
+          summary[i] = options[i];
+          break;
         case PreferencesUtils.MIN_RECORDING_INTERVAL_ADAPT_ACCURACY:
           options[i] = getString(R.string.value_adapt_accuracy);
           summary[i] = options[i];
@@ -188,6 +204,29 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
     }
   }
 
+  /**
+   * Sets the location batch interval summary and options.
+   * 
+   * @param summary the summary
+   * @param options the options
+   * @param values the values
+   */
+  private void setLocationBatchIntervalSummaryAndOptions(
+      String[] summary, String[] options, String[] values) {
+    for (int i = 0; i < values.length; i++) {
+      int value = Integer.parseInt(values[i]);
+      if (value == PreferencesUtils.LOCATION_BATCH_INTERVAL_DEFAULT) {
+        options[i] = getString(R.string.value_off);
+        summary[i] = options[i];
+      } else {
+        options[i] = value < 60 ? getString(R.string.value_integer_second, value)
+            : getString(R.string.value_integer_minute, value / 60);
+        summary[i] = getString(
+            R.string.settings_recording_location_batch_interval_summary, options[i]);
+      }
+    }
+  }
+
   /**
    * Sets the recording distance interval summary and options.
    * 
@@ -358,6 +397,33 @@ public class RecordingSettingsActivity extends AbstractSettingsActivity
     }
   }
 
+  /**
+   * Sets the track compression summary and options.
+   * 
+   * @param summary the summary
+   * @param options the options
+   * @param values the values
+   * @param metricUnits true for metric units
+   */
+  private void setTrackCompressionSummaryAndOptions(
+      String[] summary, String[] options, String[] values, boolean metricUnits) {
+    for (int i = 0; i < values.length; i++) {
+      int value = Integer.parseInt(values[i]);
+      if (value == 0) {
+        options[i] = getString(R.string.value_off);
+        summary[i] = options[i];
+        continue;
+      }
+      if (metricUnits) {
+        options[i] = getString(R.string.value_integer_meter, value);
+      } else {
+        int feet = (int) (value * UnitConversions.M_TO_FT);
+        options[i] = getString(R.string.value_integer_feet, feet);
+      }
+      summary[i] = getString(R.string.settings_recording_track_compression_summary, options[i]);
+    }
+  }
+
   @SuppressWarnings("deprecation")
   public void showChooseActivityTypeDialog() {
     try {
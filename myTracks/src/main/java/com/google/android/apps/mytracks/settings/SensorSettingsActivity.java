@@ -42,6 +42,8 @@ import java.util.List;
  */
 public class SensorSettingsActivity extends AbstractSettingsActivity {
 
+  private String sensorType;
+
   @SuppressWarnings("deprecation")
   @Override
   protected void onCreate(Bundle bundle) {
@@ -61,6 +63,15 @@ public class SensorSettingsActivity extends AbstractSettingsActivity {
           }
         });
 
+    findPreference(getString(R.string.sensor_ant_with_bluetooth_key))
+        .setOnPreferenceChangeListener(new OnPreferenceChangeListener() {
+            @Override
+          public boolean onPreferenceChange(Preference preference, Object newValue) {
+            updateUiBySensorType(sensorType, (Boolean) newValue);
+            return true;
+          }
+        });
+
     if (!hasAntSupport) {
       PreferenceScreen rootPreferenceScreen = (PreferenceScreen) findPreference(
           getString(R.string.settings_sensor_root_key));
@@ -88,7 +99,10 @@ public class SensorSettingsActivity extends AbstractSettingsActivity {
     OnPreferenceChangeListener listener = new OnPreferenceChangeListener() {
         @Override
       public boolean onPreferenceChange(Preference pref, Object newValue) {
-        updateUiBySensorType((String) newValue);
+        sensorType = (String) newValue;
+        updateUiBySensorType(sensorType, PreferencesUtils.getBoolean(SensorSettingsActivity.this,
+            R.string.sensor_ant_with_bluetooth_key,
+            PreferencesUtils.SENSOR_ANT_WITH_BLUETOOTH_DEFAULT));
         return true;
       }
     };
@@ -99,14 +113,18 @@ public class SensorSettingsActivity extends AbstractSettingsActivity {
    * Updates the UI based on the sensor type.
    * 
    * @param sensorType the sensor type
+   * @param antWithBluetooth true to use the ANT+ sensors with a Bluetooth sensor
    */
   @SuppressWarnings("deprecation")
-  private void updateUiBySensorType(String sensorType) {
+  private void updateUiBySensorType(String sensorType, boolean antWithBluetooth) {
     boolean isBluetooth = getString(R.string.sensor_type_value_polar).equals(sensorType)
         || getString(R.string.sensor_type_value_zephyr).equals(sensorType);
     findPreference(getString(R.string.settings_sensor_bluetooth_key)).setEnabled(isBluetooth);
 
-    boolean isAnt = getString(R.string.sensor_type_value_ant).equals(sensorType);
+    findPreference(getString(R.string.sensor_ant_with_bluetooth_key)).setEnabled(isBluetooth);
+
+    boolean isAnt = getString(R.string.sensor_type_value_ant).equals(sensorType)
+        || (isBluetooth && antWithBluetooth);
     updateAntSensor(R.string.settings_sensor_ant_reset_heart_rate_monitor_key,
         R.string.ant_heart_rate_monitor_id_key, isAnt);
     updateAntSensor(R.string.settings_sensor_ant_reset_speed_distance_monitor_key,
@@ -16,6 +16,7 @@
 
 package com.google.android.apps.mytracks.settings;
 
+import com.google.android.apps.mytracks.services.RecalculateService;
 import com.google.android.apps.mytracks.util.PreferencesUtils;
 import com.google.android.maps.mytracks.R;
 
@@ -31,11 +32,15 @@ import android.preference.Preference.OnPreferenceChangeListener;
  */
 public class StatsSettingsActivity extends AbstractSettingsActivity {
 
+  // The units the statistics marker descriptions are in
+  private boolean metricUnits;
+
   @SuppressWarnings("deprecation")
   @Override
   protected void onCreate(Bundle bundle) {
     super.onCreate(bundle);
     addPreferencesFromResource(R.xml.stats_settings);
+    metricUnits = PreferencesUtils.isMetricUnits(this);
 
     /*
      * Note configureUnitsListPreference will trigger
@@ -44,6 +49,17 @@ public class StatsSettingsActivity extends AbstractSettingsActivity {
     configUnitsListPreference();
   }
 
+  @Override
+  protected void onPause() {
+    super.onPause();
+
+    // Regenerate the statistics marker descriptions in the new units
+    if (metricUnits != PreferencesUtils.isMetricUnits(this)) {
+      metricUnits = !metricUnits;
+      RecalculateService.recalculateAll(this, RecalculateService.JOB_MARKER_DESCRIPTION);
+    }
+  }
+
   /**
    * Configures the preferred units list preference.
    */
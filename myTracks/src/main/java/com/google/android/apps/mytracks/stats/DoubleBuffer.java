@@ -16,6 +16,12 @@
 
 package com.google.android.apps.mytracks.stats;
 
+import android.os.Parcel;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * This class maintains a buffer of doubles. This buffer is a convenient class
  * for storing a series of doubles and calculating information about them. This
@@ -118,6 +124,62 @@ public class DoubleBuffer {
     }
   }
 
+  /**
+   * Writes the buffer content to a parcel.
+   * 
+   * @param dest the parcel
+   */
+  public void writeToParcel(Parcel dest) {
+    dest.writeInt(index);
+    dest.writeInt(isFull ? 1 : 0);
+    dest.writeDoubleArray(buffer);
+  }
+
+  /**
+   * Reads the buffer content written by {@link #writeToParcel(Parcel)}. The
+   * buffer size must be the same.
+   * 
+   * @param source the parcel
+   */
+  public void readFromParcel(Parcel source) {
+    index = source.readInt();
+    isFull = source.readInt() == 1;
+    source.readDoubleArray(buffer);
+  }
+
+  /**
+   * Writes the buffer content to a stream.
+   * 
+   * @param dest the stream
+   */
+  public void write(DataOutput dest) throws IOException {
+    dest.writeInt(index);
+    dest.writeBoolean(isFull);
+    dest.writeInt(buffer.length);
+    for (double value : buffer) {
+      dest.writeDouble(value);
+    }
+  }
+
+  /**
+   * Reads the buffer content written by {@link #write(DataOutput)}. The buffer
+   * size must be the same.
+   * 
+   * @param source the stream
+   */
+  public void read(DataInput source) throws IOException {
+    int newIndex = source.readInt();
+    boolean newIsFull = source.readBoolean();
+    if (source.readInt() != buffer.length || newIndex < 0 || newIndex > buffer.length) {
+      throw new IOException("Invalid buffer");
+    }
+    for (int i = 0; i < buffer.length; i++) {
+      buffer[i] = source.readDouble();
+    }
+    index = newIndex;
+    isFull = newIsFull;
+  }
+
   @Override
   public String toString() {
     StringBuffer stringBuffer = new StringBuffer("Full: ");
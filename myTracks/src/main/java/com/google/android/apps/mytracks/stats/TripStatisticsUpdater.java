@@ -25,8 +25,13 @@ import com.google.android.apps.mytracks.util.LocationUtils;
 import com.google.common.annotations.VisibleForTesting;
 
 import android.location.Location;
+import android.os.Parcel;
 import android.util.Log;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Updater for {@link TripStatistics}. For updating track trip statistics as new
  * locations are added. Note that some of the locations represent pause/resume
@@ -104,6 +109,151 @@ public class TripStatisticsUpdater {
     currentSegment = init(startTime);
   }
 
+  /**
+   * Creates a trip statistics updater from a parcel written by
+   * {@link #writeToParcel(Parcel)}.
+   * 
+   * @param source the parcel
+   */
+  public TripStatisticsUpdater(Parcel source) {
+    ClassLoader classLoader = getClass().getClassLoader();
+    tripStatistics = source.readParcelable(classLoader);
+    currentSegment = source.readParcelable(classLoader);
+    lastLocation = source.readParcelable(classLoader);
+
+    // Keep the two locations the same object if they were
+    boolean sameLocation = source.readInt() == 1;
+    lastMovingLocation = sameLocation ? lastLocation : (Location) source.readParcelable(
+        classLoader);
+    elevationBuffer.readFromParcel(source);
+    runBuffer.readFromParcel(source);
+    gradeBuffer.readFromParcel(source);
+    speedBuffer.readFromParcel(source);
+  }
+
+  /**
+   * Writes the updater state to a parcel. Allows to restore the updater
+   * without adding all the locations again.
+   * 
+   * @param dest the parcel
+   */
+  public void writeToParcel(Parcel dest) {
+    dest.writeParcelable(tripStatistics, 0);
+    dest.writeParcelable(currentSegment, 0);
+    dest.writeParcelable(lastLocation, 0);
+    if (lastMovingLocation == lastLocation) {
+      dest.writeInt(1);
+    } else {
+      dest.writeInt(0);
+      dest.writeParcelable(lastMovingLocation, 0);
+    }
+    elevationBuffer.writeToParcel(dest);
+    runBuffer.writeToParcel(dest);
+    gradeBuffer.writeToParcel(dest);
+    speedBuffer.writeToParcel(dest);
+  }
+
+  /**
+   * Creates a trip statistics updater from a stream written by
+   * {@link #write(DataOutput)}.
+   * 
+   * @param source the stream
+   */
+  public TripStatisticsUpdater(DataInput source) throws IOException {
+    tripStatistics = TripStatistics.read(source);
+    currentSegment = TripStatistics.read(source);
+    lastLocation = readLocation(source);
+
+    // Keep the two locations the same object if they were
+    boolean sameLocation = source.readBoolean();
+    lastMovingLocation = sameLocation ? lastLocation : readLocation(source);
+    elevationBuffer.read(source);
+    runBuffer.read(source);
+    gradeBuffer.read(source);
+    speedBuffer.read(source);
+  }
+
+  /**
+   * Writes the updater state to a stream. Unlike
+   * {@link #writeToParcel(Parcel)}, the stream can be stored.
+   * 
+   * @param dest the stream
+   */
+  public void write(DataOutput dest) throws IOException {
+    tripStatistics.write(dest);
+    currentSegment.write(dest);
+    writeLocation(dest, lastLocation);
+    dest.writeBoolean(lastMovingLocation == lastLocation);
+    if (lastMovingLocation != lastLocation) {
+      writeLocation(dest, lastMovingLocation);
+    }
+    elevationBuffer.write(dest);
+    runBuffer.write(dest);
+    gradeBuffer.write(dest);
+    speedBuffer.write(dest);
+  }
+
+  /**
+   * Writes the location fields used by the updater.
+   * 
+   * @param dest the stream
+   * @param location the location, can be null
+   */
+  private static void writeLocation(DataOutput dest, Location location) throws IOException {
+    dest.writeBoolean(location != null);
+    if (location == null) {
+      return;
+    }
+    dest.writeUTF(location.getProvider() != null ? location.getProvider() : "");
+    dest.writeLong(location.getTime());
+    dest.writeDouble(location.getLatitude());
+    dest.writeDouble(location.getLongitude());
+    dest.writeBoolean(location.hasAltitude());
+    dest.writeDouble(location.getAltitude());
+    dest.writeBoolean(location.hasSpeed());
+    dest.writeFloat(location.getSpeed());
+    dest.writeBoolean(location.hasAccuracy());
+    dest.writeFloat(location.getAccuracy());
+    dest.writeBoolean(location.hasBearing());
+    dest.writeFloat(location.getBearing());
+  }
+
+  /**
+   * Reads a location written by {@link #writeLocation(DataOutput, Location)}.
+   * 
+   * @param source the stream
+   */
+  private static Location readLocation(DataInput source) throws IOException {
+    if (!source.readBoolean()) {
+      return null;
+    }
+    Location location = new Location(source.readUTF());
+    location.setTime(source.readLong());
+    location.setLatitude(source.readDouble());
+    location.setLongitude(source.readDouble());
+    boolean hasAltitude = source.readBoolean();
+    double altitude = source.readDouble();
+    if (hasAltitude) {
+      location.setAltitude(altitude);
+    }
+    boolean hasSpeed = source.readBoolean();
+    float speed = source.readFloat();
+    if (hasSpeed) {
+      location.setSpeed(speed);
+    }
+    boolean hasAccuracy = source.readBoolean();
+    float accuracy = source.readFloat();
+    if (hasAccuracy) {
+      location.setAccuracy(accuracy);
+    }
+    boolean hasBearing = source.readBoolean();
+    float bearing = source.readFloat();
+    if (hasBearing) {
+      location.setBearing(bearing);
+    }
+    return location;
+  }
+
   public void updateTime(long time) {
     currentSegment.setStopTime(time);
     currentSegment.setTotalTime(time - currentSegment.getStartTime());
@@ -193,6 +343,11 @@ public class TripStatisticsUpdater {
           location.getTime(), location.getSpeed(), lastLocation.getTime(), lastLocation.getSpeed());
     }
     
+    // Update calorie inputs, same values as CalorieUtils.getCalorie
+    double calorieSpeed = (lastMovingLocation.getSpeed() + location.getSpeed()) / 2.0;
+    currentSegment.getCalorieInputs().add(location.getTime() - lastMovingLocation.getTime(),
+        calorieSpeed, gradeBuffer.getAverage());
+
     if (calculateCalorie) {
       // Update calorie
       double calorie = CalorieUtils.getCalorie(lastMovingLocation, location,
@@ -20,6 +20,8 @@ import com.google.android.apps.mytracks.content.MyTracksProviderUtils.LocationIt
 import com.google.android.apps.mytracks.content.Track;
 import com.google.android.apps.mytracks.content.Waypoint;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.stats.CalorieInputs;
+import com.google.android.apps.mytracks.stats.TripStatistics;
 import com.google.android.apps.mytracks.stats.TripStatisticsUpdater;
 import com.google.android.maps.mytracks.R;
 
@@ -27,6 +29,9 @@ import android.content.Context;
 import android.database.Cursor;
 import android.location.Location;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Utilities to calculate calories.
  * 
@@ -85,22 +90,77 @@ public class CalorieUtils {
   }
 
   /**
-   * Updates calories for a track and its waypoints.
+   * Updates calories for a track and its statistics waypoints. The calories
+   * are computed from the stored calorie inputs, so only the statistics
+   * waypoints are read. Tracks without calorie inputs are replayed once, which
+   * also stores their inputs. Only the calorie columns are written, so edits
+   * to the other columns made meanwhile are kept.
    * 
    * @param context the context
    * @param track the track
-   * @return an array of two doubles, first is the track calorie, second is the
-   *         last statistics waypoint calorie
+   * @return the track calorie
    */
-  public static double[] updateTrackCalorie(Context context, Track track) {
+  public static double updateTrackCalorie(Context context, Track track) {
     MyTracksProviderUtils myTracksProviderUtils = MyTracksProviderUtils.Factory.get(context);
     ActivityType activityType = getActivityType(context, track.getCategory());
 
     if (activityType == ActivityType.INVALID) {
       clearCalorie(myTracksProviderUtils, track);
-      return new double[] { 0.0, 0.0 };
+      return 0.0;
+    }
+
+    TripStatistics tripStatistics = track.getTripStatistics();
+    if (tripStatistics.getCalorieInputs().getDuration() == 0.0
+        && tripStatistics.getMovingTime() > 0) {
+      return replayTrackCalorie(context, myTracksProviderUtils, track, activityType);
+    }
+
+    double weight = getWeight(context);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
+    Cursor cursor = null;
+    try {
+      cursor = myTracksProviderUtils.getWaypointCursor(track.getId(), -1L, -1);
+      if (cursor != null && cursor.moveToFirst()) {
+        /*
+         * Yes, this will skip the first waypoint and that is intentional as the
+         * first waypoint holds the stats for the track.
+         */
+        Waypoint waypoint = getNextStatisticsWaypoint(myTracksProviderUtils, cursor);
+        while (waypoint != null) {
+          TripStatistics waypointTripStatistics = waypoint.getTripStatistics();
+          waypointTripStatistics.setCalorie(
+              getCalorie(waypointTripStatistics.getCalorieInputs(), weight, activityType));
+          waypoints.add(waypoint);
+          waypoint = getNextStatisticsWaypoint(myTracksProviderUtils, cursor);
+        }
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
     }
+    myTracksProviderUtils.updateWaypointsCalorie(waypoints);
+
+    double trackCalorie = getCalorie(tripStatistics.getCalorieInputs(), weight, activityType);
+    tripStatistics.setCalorie(trackCalorie);
+    myTracksProviderUtils.updateTrackCalorie(
+        track.getId(), trackCalorie, tripStatistics.getCalorieInputs());
+    return trackCalorie;
+  }
 
+  /**
+   * Updates calories for a track and its statistics waypoints by replaying the
+   * track points. Also stores the calorie inputs of the track and its
+   * statistics waypoints.
+   * 
+   * @param context the context
+   * @param myTracksProviderUtils the my tracks provider utils
+   * @param track the track
+   * @param activityType the activity type
+   * @return the track calorie
+   */
+  private static double replayTrackCalorie(Context context,
+      MyTracksProviderUtils myTracksProviderUtils, Track track, ActivityType activityType) {
     TripStatisticsUpdater trackTripStatisticsUpdater = new TripStatisticsUpdater(
         track.getTripStatistics().getStartTime());
     TripStatisticsUpdater markerTripStatisticsUpdater = new TripStatisticsUpdater(
@@ -108,8 +168,8 @@ public class CalorieUtils {
     int recordingDistanceInterval = PreferencesUtils.getInt(context,
         R.string.recording_distance_interval_key,
         PreferencesUtils.RECORDING_DISTANCE_INTERVAL_DEFAULT);
-    double weight = PreferencesUtils.getFloat(
-        context, R.string.weight_key, PreferencesUtils.getDefaultWeight(context));
+    double weight = getWeight(context);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
     LocationIterator locationIterator = null;
     Cursor cursor = null;
 
@@ -138,9 +198,11 @@ public class CalorieUtils {
         if (waypoint != null && waypoint.getLocation().getTime() == location.getTime()
             && waypoint.getLocation().getLatitude() == location.getLatitude()
             && waypoint.getLocation().getLongitude() == location.getLongitude()) {
+          TripStatistics markerTripStatistics = markerTripStatisticsUpdater.getTripStatistics();
+          waypoint.getTripStatistics().setCalorie(markerTripStatistics.getCalorie());
           waypoint.getTripStatistics()
-              .setCalorie(markerTripStatisticsUpdater.getTripStatistics().getCalorie());
-          myTracksProviderUtils.updateWaypoint(waypoint);
+              .getCalorieInputs().set(markerTripStatistics.getCalorieInputs());
+          waypoints.add(waypoint);
           markerTripStatisticsUpdater = new TripStatisticsUpdater(location.getTime());
           waypoint = getNextStatisticsWaypoint(myTracksProviderUtils, cursor);
         }
@@ -153,11 +215,63 @@ public class CalorieUtils {
         cursor.close();
       }
     }
-    double trackCalorie = trackTripStatisticsUpdater.getTripStatistics().getCalorie();
+    myTracksProviderUtils.updateWaypointsCalorie(waypoints);
+
+    TripStatistics trackTripStatistics = trackTripStatisticsUpdater.getTripStatistics();
+    double trackCalorie = trackTripStatistics.getCalorie();
     track.getTripStatistics().setCalorie(trackCalorie);
-    myTracksProviderUtils.updateTrack(track);
-    return new double[] {
-        trackCalorie, markerTripStatisticsUpdater.getTripStatistics().getCalorie() };
+    track.getTripStatistics().getCalorieInputs().set(trackTripStatistics.getCalorieInputs());
+    myTracksProviderUtils.updateTrackCalorie(
+        track.getId(), trackCalorie, trackTripStatistics.getCalorieInputs());
+    return trackCalorie;
+  }
+
+  /**
+   * Gets the calorie in kcal of a track or a marker segment from its calorie
+   * inputs. Same as adding {@link #getCalorie(Location, Location, double,
+   * double, ActivityType)} over the moving intervals.
+   * 
+   * @param calorieInputs the calorie inputs
+   * @param weight the weight in kilogram
+   * @param activityType the activity type
+   */
+  public static double getCalorie(
+      CalorieInputs calorieInputs, double weight, ActivityType activityType) {
+    if (activityType == ActivityType.INVALID) {
+      return 0.0;
+    }
+
+    // Duration in min
+    double duration = calorieInputs.getDuration() * UnitConversions.MS_TO_S
+        * UnitConversions.S_TO_MIN;
+
+    if (activityType == ActivityType.CYCLING) {
+      // Sum of power x duration in watt min
+      double power = (EARTH_GRAVITY * weight
+          * (K1 * calorieInputs.getDistance() + calorieInputs.getClimb())
+          + K2 * calorieInputs.getDrag()) * UnitConversions.S_TO_MIN;
+
+      // Sum of work rate x duration in kgm
+      double workRate = power * UnitConversions.W_TO_KGM;
+
+      // Sum of VO2 x weight x duration in kgm
+      double vo2 = 1.8 * workRate + 7 * weight * duration;
+      return vo2 * UnitConversions.KGM_TO_KCAL;
+    } else {
+      /*
+       * Sum of VO2 x duration in mL/kg. Speed in m/min x duration in min is
+       * the distance in m.
+       */
+      double vo2;
+      if (activityType == ActivityType.RUNNING) {
+        vo2 = 0.2 * calorieInputs.getDistance() + 0.9 * calorieInputs.getClimb()
+            + RESTING_VO2 * duration;
+      } else {
+        vo2 = 0.1 * calorieInputs.getDistance() + 1.8 * calorieInputs.getClimb()
+            + RESTING_VO2 * duration;
+      }
+      return vo2 * weight * UnitConversions.ML_TO_L * UnitConversions.L_TO_KCAL;
+    }
   }
 
   /**
@@ -224,7 +338,8 @@ public class CalorieUtils {
    */
   private static void clearCalorie(MyTracksProviderUtils myTracksProviderUtils, Track track) {
     track.getTripStatistics().setCalorie(0);
-    myTracksProviderUtils.updateTrack(track);
+    myTracksProviderUtils.updateTrackCalorie(track.getId(), 0, null);
+    List<Waypoint> waypoints = new ArrayList<Waypoint>();
     Cursor cursor = null;
     try {
       cursor = myTracksProviderUtils.getWaypointCursor(track.getId(), -1L, -1);
@@ -236,7 +351,7 @@ public class CalorieUtils {
         Waypoint waypoint = getNextStatisticsWaypoint(myTracksProviderUtils, cursor);
         while (waypoint != null) {
           waypoint.getTripStatistics().setCalorie(0);
-          myTracksProviderUtils.updateWaypoint(waypoint);
+          waypoints.add(waypoint);
           waypoint = getNextStatisticsWaypoint(myTracksProviderUtils, cursor);
         }
       }
@@ -245,6 +360,17 @@ public class CalorieUtils {
         cursor.close();
       }
     }
+    myTracksProviderUtils.updateWaypointsCalorie(waypoints);
+  }
+
+  /**
+   * Gets the weight in kilogram.
+   * 
+   * @param context the context
+   */
+  private static double getWeight(Context context) {
+    return PreferencesUtils.getFloat(
+        context, R.string.weight_key, PreferencesUtils.getDefaultWeight(context));
   }
 
   /**
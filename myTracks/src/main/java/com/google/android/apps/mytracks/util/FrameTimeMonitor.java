@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.util;
+
+import android.util.Log;
+
+import java.util.Locale;
+
+/**
+ * Collects frame times and reports how many exceed the frame budget. Used to
+ * verify that a view keeps up with 60 fps. Summaries are only logged when
+ * debug logging is enabled for the tag, e.g.,
+ * "adb shell setprop log.tag.ChartView DEBUG".
+ */
+public class FrameTimeMonitor {
+
+  // The frame budget for 60 fps
+  public static final long FRAME_BUDGET_NANOS = 16666667L;
+
+  private final String tag;
+  private final String name;
+  private final int reportInterval;
+
+  private int count;
+  private int overBudgetCount;
+  private long totalNanos;
+  private long maxNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param tag the log tag
+   * @param name the name of the measured operation
+   * @param reportInterval the number of samples between log reports
+   */
+  public FrameTimeMonitor(String tag, String name, int reportInterval) {
+    if (reportInterval < 1) {
+      throw new IllegalArgumentException("The report interval must be at least 1.");
+    }
+    this.tag = tag;
+    this.name = name;
+    this.reportInterval = reportInterval;
+  }
+
+  /**
+   * Returns the current time to pass to {@link #end(long)}.
+   */
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Records a sample started at startNanos.
+   *
+   * @param startNanos the value returned by {@link #start()}
+   */
+  public void end(long startNanos) {
+    add(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Adds a sample.
+   *
+   * @param nanos the sample duration in nanoseconds
+   */
+  public synchronized void add(long nanos) {
+    count++;
+    totalNanos += nanos;
+    if (nanos > maxNanos) {
+      maxNanos = nanos;
+    }
+    if (nanos > FRAME_BUDGET_NANOS) {
+      overBudgetCount++;
+    }
+    if (count >= reportInterval) {
+      if (Log.isLoggable(tag, Log.DEBUG)) {
+        Log.d(tag, toString());
+      }
+      reset();
+    }
+  }
+
+  /**
+   * Gets the number of samples since the last report.
+   */
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the number of samples over the frame budget since the last report.
+   */
+  public synchronized int getOverBudgetCount() {
+    return overBudgetCount;
+  }
+
+  /**
+   * Gets the max sample in nanoseconds since the last report.
+   */
+  public synchronized long getMaxNanos() {
+    return maxNanos;
+  }
+
+  /**
+   * Gets the average sample in nanoseconds since the last report.
+   */
+  public synchronized long getAverageNanos() {
+    return count == 0 ? 0L : totalNanos / count;
+  }
+
+  /**
+   * Resets the samples.
+   */
+  public synchronized void reset() {
+    count = 0;
+    overBudgetCount = 0;
+    totalNanos = 0L;
+    maxNanos = 0L;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(Locale.US, "%s: %d samples, avg %.2f ms, max %.2f ms, %d over budget",
+        name, count, getAverageNanos() / 1e6, maxNanos / 1e6, overBudgetCount);
+  }
+}
@@ -37,6 +37,7 @@ import android.util.Log;
 public class PreferencesUtils {
 
   public static final int ACTIVITY_RECOGNITION_TYPE_DEFAULT = DetectedActivity.UNKNOWN;
+  public static final boolean ACTIVITY_STILL_DEFAULT = false;
   
   /*
    * Preferences values. The defaults need to match the defaults in the xml
@@ -75,12 +76,16 @@ public class PreferencesUtils {
   public static final int FREQUENCY_OFF = 0;
 
   public static final String GOOGLE_ACCOUNT_DEFAULT = "";
+
+  // Value for location_batch_interval_key
+  public static final int LOCATION_BATCH_INTERVAL_DEFAULT = 0; // off
   public static final int MAP_TYPE_DEFAUlT = 1;
   public static final int MAX_RECORDING_DISTANCE_DEFAULT = 200;
   
   // Values for min_recording_interval_key
   public static final int MIN_RECORDING_INTERVAL_ADAPT_ACCURACY = -1;
   public static final int MIN_RECORDING_INTERVAL_ADAPT_BATTERY_LIFE = -2;
+  public static final int MIN_RECORDING_INTERVAL_ADAPT_MOTION = -3;
   public static final int MIN_RECORDING_INTERVAL_DEFAULT = 0;
 
   public static final int PHOTO_SIZE_DEFAULT = 1024; // 1024 kB
@@ -94,6 +99,7 @@ public class PreferencesUtils {
   public static final long RECORDING_TRACK_ID_DEFAULT = -1L;
   public static final boolean RECORDING_TRACK_PAUSED_DEFAULT = true;
   public static final long SELECTED_TRACK_ID_DEFAULT = -1L;
+  public static final boolean SENSOR_ANT_WITH_BLUETOOTH_DEFAULT = false;
   public static final String SENSOR_TYPE_DEFAULT = "NONE";
 
   // Share track
@@ -101,7 +107,11 @@ public class PreferencesUtils {
   public static final boolean SHARE_TRACK_INVITE_DEFAULT = false;
   public static final boolean SHARE_TRACK_PUBLIC_DEFAULT = false;
 
+  public static final boolean SMOOTH_LOCATIONS_DEFAULT = false;
   public static final int SPLIT_FREQUENCY_DEFAULT = 0;
+
+  // Value for track_compression_key
+  public static final int TRACK_COMPRESSION_DEFAULT = 0; // off
   
   // Stats
   public static final String STATS_RATE_DEFAULT = "SPEED";
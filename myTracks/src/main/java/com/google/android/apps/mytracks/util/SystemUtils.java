@@ -52,6 +52,21 @@ public class SystemUtils {
     }
   }
 
+  /**
+   * Gets the version code of the app.
+   * 
+   * @param context the context
+   * @return the version code, or -1 in case of failure.
+   */
+  public static int getVersionCode(Context context) {
+    try {
+      return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).versionCode;
+    } catch (NameNotFoundException e) {
+      Log.w(TAG, "Failed to get version info.", e);
+      return -1;
+    }
+  }
+
   /**
    * Tries to acquire a partial wake lock if not already acquired. Logs errors
    * and gives up trying in case the wake lock cannot be acquired.
@@ -28,6 +28,7 @@ import android.app.ActivityManager.RunningServiceInfo;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Bundle;
 import android.os.RemoteException;
 import android.util.Log;
 import android.widget.Toast;
@@ -214,4 +215,27 @@ public class TrackRecordingServiceConnectionUtils {
       }
     }
   }
+
+  /**
+   * Gets the recording metrics. Returns null if not available.
+   * 
+   * @param trackRecordingServiceConnection the track recording service connection
+   */
+  public static Bundle getRecordingMetrics(
+      TrackRecordingServiceConnection trackRecordingServiceConnection) {
+    ITrackRecordingService trackRecordingService = trackRecordingServiceConnection
+        .getServiceIfBound();
+    if (trackRecordingService == null) {
+      Log.d(TAG, "Unable to get recording metrics, no track recording service");
+      return null;
+    }
+    try {
+      return trackRecordingService.getRecordingMetrics();
+    } catch (RemoteException e) {
+      Log.e(TAG, "Unable to get recording metrics", e);
+    } catch (IllegalStateException e) {
+      Log.e(TAG, "Unable to get recording metrics", e);
+    }
+    return null;
+  }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.benchmark;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+import com.google.android.apps.mytracks.core.util.LocationUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link LocationUtils#decimate(double, List, List)} at the
+ * tolerances of the map zoom levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecimateBenchmark {
+
+  @Param({ "3600", "36000" })
+  public int size;
+
+  @Param({ "1", "10", "100" })
+  public double tolerance;
+
+  private List<TrackPoint> trackPoints;
+  private List<TrackPoint> decimated;
+
+  @Setup
+  public void setUp() {
+    List<TrackPoint> track = SyntheticTrack.create(size, 1L);
+
+    // Decimate the segments, like the app, without the separators
+    trackPoints = new ArrayList<TrackPoint>(track.size());
+    for (TrackPoint trackPoint : track) {
+      if (LocationUtils.isValidLocation(trackPoint)) {
+        trackPoints.add(trackPoint);
+      }
+    }
+    decimated = new ArrayList<TrackPoint>(trackPoints.size());
+  }
+
+  @Benchmark
+  public int decimate() {
+    LocationUtils.decimate(tolerance, trackPoints, decimated);
+    return decimated.size();
+  }
+}
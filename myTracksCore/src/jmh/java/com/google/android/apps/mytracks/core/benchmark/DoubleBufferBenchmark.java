@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.benchmark;
+
+import com.google.android.apps.mytracks.core.stats.DoubleBuffer;
+import com.google.android.apps.mytracks.core.stats.ExtremityMonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the smoothing {@link DoubleBuffer} and the
+ * {@link ExtremityMonitor}, called for every recorded point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoubleBufferBenchmark {
+
+  // The number of values, a power of 2
+  private static final int VALUES = 1024;
+
+  @Param({ "5", "25" })
+  public int bufferSize;
+
+  private final double[] values = new double[VALUES];
+  private DoubleBuffer doubleBuffer;
+  private ExtremityMonitor extremityMonitor;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1L);
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = 100.0 + random.nextGaussian();
+    }
+    doubleBuffer = new DoubleBuffer(bufferSize);
+    extremityMonitor = new ExtremityMonitor();
+  }
+
+  @Benchmark
+  public double setNextAndGetAverage() {
+    doubleBuffer.setNext(values[index++ & (VALUES - 1)]);
+    return doubleBuffer.getAverage();
+  }
+
+  @Benchmark
+  public boolean updateExtremities() {
+    return extremityMonitor.update(values[index++ & (VALUES - 1)]);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.benchmark;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic tracks for the benchmarks. A track is a bike ride at
+ * one point per second with noisy altitude and speed, gentle turns and a pause
+ * every {@link #PAUSE_INTERVAL} points. Seeded, so every run measures the same
+ * track.
+ */
+public class SyntheticTrack {
+
+  // Meters per degree of latitude
+  private static final double METERS_PER_DEGREE = 111320.0;
+
+  // The number of points between pauses
+  static final int PAUSE_INTERVAL = 3600;
+
+  private SyntheticTrack() {}
+
+  /**
+   * Creates a track.
+   * 
+   * @param size the number of points
+   * @param seed the random seed
+   */
+  public static List<TrackPoint> create(int size, long seed) {
+    Random random = new Random(seed);
+    List<TrackPoint> trackPoints = new ArrayList<TrackPoint>(size);
+    long time = 1000000000000L;
+    double latitude = 37.4;
+    double longitude = -122.1;
+    double altitude = 100.0;
+    double bearing = 0.0;
+    for (int i = 0; i < size; i++) {
+      if (i > 0 && i % PAUSE_INTERVAL == 0) {
+        trackPoints.add(
+            new TrackPoint(time, TrackPoint.PAUSE_LATITUDE, 0.0, Double.NaN, Float.NaN));
+        time += 60000L;
+        trackPoints.add(
+            new TrackPoint(time, TrackPoint.RESUME_LATITUDE, 0.0, Double.NaN, Float.NaN));
+        continue;
+      }
+      float speed = (float) Math.max(0.0, 6.0 + random.nextGaussian());
+      bearing += random.nextGaussian() * 5.0;
+      altitude += random.nextGaussian();
+      double distance = speed / METERS_PER_DEGREE;
+      latitude += distance * Math.cos(Math.toRadians(bearing));
+      longitude += distance * Math.sin(Math.toRadians(bearing))
+          / Math.cos(Math.toRadians(latitude));
+      trackPoints.add(new TrackPoint(time, latitude, longitude, altitude, speed));
+      time += 1000L;
+    }
+    return trackPoints;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.benchmark;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+import com.google.android.apps.mytracks.core.stats.TripStatistics;
+import com.google.android.apps.mytracks.core.stats.TripStatisticsUpdater;
+import com.google.android.apps.mytracks.core.util.CalorieUtils;
+import com.google.android.apps.mytracks.core.util.CalorieUtils.ActivityType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TripStatisticsUpdater} over a whole track, like the
+ * recording service and the statistics recomputation, and
+ * {@link CalorieUtils#getCalorie(TrackPoint, TrackPoint, double, double,
+ * ActivityType)} per point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripStatisticsUpdaterBenchmark {
+
+  private static final int MIN_RECORDING_DISTANCE = 10;
+  private static final double WEIGHT = 65.0;
+
+  @Param({ "3600", "36000" })
+  public int size;
+
+  private List<TrackPoint> trackPoints;
+
+  @Setup
+  public void setUp() {
+    trackPoints = SyntheticTrack.create(size, 1L);
+  }
+
+  @Benchmark
+  public TripStatistics addTrackPoints() {
+    TripStatisticsUpdater tripStatisticsUpdater = new TripStatisticsUpdater(
+        trackPoints.get(0).getTime());
+    for (int i = 0; i < trackPoints.size(); i++) {
+      tripStatisticsUpdater.addTrackPoint(
+          trackPoints.get(i), MIN_RECORDING_DISTANCE, true, ActivityType.WALKING, WEIGHT);
+    }
+    return tripStatisticsUpdater.getTripStatistics();
+  }
+
+  @Benchmark
+  public double getCalorie() {
+    double calorie = 0.0;
+    for (int i = 1; i < trackPoints.size(); i++) {
+      calorie += CalorieUtils.getCalorie(
+          trackPoints.get(i - 1), trackPoints.get(i), 0.01, WEIGHT, ActivityType.CYCLING);
+    }
+    return calorie;
+  }
+}
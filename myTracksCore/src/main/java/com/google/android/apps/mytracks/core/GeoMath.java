@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.core;
+
+/**
+ * Geodesic computations on the WGS84 ellipsoid.
+ */
+public class GeoMath {
+
+  // The WGS84 major and minor axes, in meters
+  private static final double MAJOR_AXIS = 6378137.0;
+  private static final double MINOR_AXIS = 6356752.3142;
+
+  private static final int MAX_ITERATIONS = 20;
+
+  private GeoMath() {}
+
+  /**
+   * Gets the distance between two points, in meters. Uses the inverse formula
+   * of Vincenty, like android.location.Location.distanceBetween.
+   * 
+   * @param latitude1 the latitude of the first point, in degrees
+   * @param longitude1 the longitude of the first point, in degrees
+   * @param latitude2 the latitude of the second point, in degrees
+   * @param longitude2 the longitude of the second point, in degrees
+   */
+  public static double distanceBetween(
+      double latitude1, double longitude1, double latitude2, double longitude2) {
+    double lat1 = Math.toRadians(latitude1);
+    double lat2 = Math.toRadians(latitude2);
+    double a = MAJOR_AXIS;
+    double b = MINOR_AXIS;
+    double f = (a - b) / a;
+    double aSqMinusBSqOverBSq = (a * a - b * b) / (b * b);
+
+    double l = Math.toRadians(longitude2) - Math.toRadians(longitude1);
+    double u1 = Math.atan((1.0 - f) * Math.tan(lat1));
+    double u2 = Math.atan((1.0 - f) * Math.tan(lat2));
+    double cosU1 = Math.cos(u1);
+    double cosU2 = Math.cos(u2);
+    double sinU1 = Math.sin(u1);
+    double sinU2 = Math.sin(u2);
+    double cosU1cosU2 = cosU1 * cosU2;
+    double sinU1sinU2 = sinU1 * sinU2;
+
+    double bigA = 0.0;
+    double sigma = 0.0;
+    double deltaSigma = 0.0;
+    double lambda = l;
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      double lambdaOrig = lambda;
+      double cosLambda = Math.cos(lambda);
+      double sinLambda = Math.sin(lambda);
+      double t1 = cosU2 * sinLambda;
+      double t2 = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+      double sinSigma = Math.sqrt(t1 * t1 + t2 * t2);
+      double cosSigma = sinU1sinU2 + cosU1cosU2 * cosLambda;
+      sigma = Math.atan2(sinSigma, cosSigma);
+      double sinAlpha = sinSigma == 0.0 ? 0.0 : cosU1cosU2 * sinLambda / sinSigma;
+      double cosSqAlpha = 1.0 - sinAlpha * sinAlpha;
+      double cos2SM = cosSqAlpha == 0.0 ? 0.0 : cosSigma - 2.0 * sinU1sinU2 / cosSqAlpha;
+
+      double uSquared = cosSqAlpha * aSqMinusBSqOverBSq;
+      bigA = 1 + (uSquared / 16384.0)
+          * (4096.0 + uSquared * (-768 + uSquared * (320.0 - 175.0 * uSquared)));
+      double bigB = (uSquared / 1024.0)
+          * (256.0 + uSquared * (-128.0 + uSquared * (74.0 - 47.0 * uSquared)));
+      double c = (f / 16.0) * cosSqAlpha * (4.0 + f * (4.0 - 3.0 * cosSqAlpha));
+      double cos2SMSq = cos2SM * cos2SM;
+      deltaSigma = bigB * sinSigma * (cos2SM + (bigB / 4.0) * (cosSigma * (-1.0 + 2.0 * cos2SMSq)
+          - (bigB / 6.0) * cos2SM * (-3.0 + 4.0 * sinSigma * sinSigma) * (-3.0 + 4.0 * cos2SMSq)));
+      lambda = l + (1.0 - c) * f * sinAlpha
+          * (sigma + c * sinSigma * (cos2SM + c * cosSigma * (-1.0 + 2.0 * cos2SM * cos2SM)));
+
+      double delta = (lambda - lambdaOrig) / lambda;
+      if (Math.abs(delta) < 1.0e-12) {
+        break;
+      }
+    }
+    return b * bigA * (sigma - deltaSigma);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.core;
+
+/**
+ * A track point, with primitive fields instead of an Android location.
+ * Immutable.
+ */
+public class TrackPoint {
+
+  // The latitudes of the pause and resume separators
+  public static final double PAUSE_LATITUDE = 100.0;
+  public static final double RESUME_LATITUDE = 200.0;
+
+  private final long time;
+  private final double latitude;
+  private final double longitude;
+  private final double altitude; // NaN if none
+  private final float speed; // NaN if none
+
+  /**
+   * Constructor.
+   * 
+   * @param time the time in milliseconds since epoch
+   * @param latitude the latitude in degrees
+   * @param longitude the longitude in degrees
+   * @param altitude the altitude in meters, NaN if none
+   * @param speed the speed in meters per second, NaN if none
+   */
+  public TrackPoint(long time, double latitude, double longitude, double altitude, float speed) {
+    this.time = time;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.altitude = altitude;
+    this.speed = speed;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public double getLatitude() {
+    return latitude;
+  }
+
+  public double getLongitude() {
+    return longitude;
+  }
+
+  public boolean hasAltitude() {
+    return !Double.isNaN(altitude);
+  }
+
+  /**
+   * Gets the altitude. Returns 0 if none.
+   */
+  public double getAltitude() {
+    return hasAltitude() ? altitude : 0.0;
+  }
+
+  public boolean hasSpeed() {
+    return !Float.isNaN(speed);
+  }
+
+  /**
+   * Gets the speed. Returns 0 if none.
+   */
+  public float getSpeed() {
+    return hasSpeed() ? speed : 0f;
+  }
+
+  /**
+   * Gets the distance to another point, in meters. See
+   * {@link GeoMath#distanceBetween(double, double, double, double)}.
+   * 
+   * @param other the other point
+   */
+  public double distanceTo(TrackPoint other) {
+    return GeoMath.distanceBetween(latitude, longitude, other.latitude, other.longitude);
+  }
+
+  @Override
+  public String toString() {
+    return "TrackPoint[" + time + ", " + latitude + ", " + longitude + ", " + altitude + ", "
+        + speed + "]";
+  }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.stats;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+import com.google.android.apps.mytracks.core.util.CalorieUtils;
+import com.google.android.apps.mytracks.core.util.CalorieUtils.ActivityType;
+import com.google.android.apps.mytracks.core.util.LocationUtils;
+
+/**
+ * Updater for {@link TripStatistics}. For updating track trip statistics as new
+ * track points are added. Note that some of the track points represent
+ * pause/resume separator. Same as the app TripStatisticsUpdater, on
+ * {@link TrackPoint}s and without the parcel support and the calorie inputs.
+ */
+public class TripStatisticsUpdater {
+
+  /**
+   * The max speed (m/s) considered as not moving.
+   */
+  public static final double MAX_NO_MOVEMENT_SPEED = 0.224;
+
+  /**
+   * The number of elevation readings to smooth to get a somewhat accurate
+   * signal.
+   */
+  static final int ELEVATION_SMOOTHING_FACTOR = 25;
+
+  /**
+   * The number of run readings to smooth for calculating grade.
+   */
+  static final int RUN_SMOOTHING_FACTOR = 25;
+
+  /**
+   * The number of grade readings to smooth to get a somewhat accurate signal.
+   */
+  public static final int GRADE_SMOOTHING_FACTOR = 5;
+
+  /**
+   * The number of speed reading to smooth to get a somewhat accurate signal.
+   */
+  static final int SPEED_SMOOTHING_FACTOR = 25;
+
+  /**
+   * Ignore any acceleration faster than this. Will ignore any speeds that imply
+   * acceleration greater than 2g's 2g = 19.6 m/s^2 = 0.0002 m/ms^2 = 0.02
+   * m/(m*ms)
+   */
+  private static final double MAX_ACCELERATION = 0.02;
+
+  // The track's trip statistics
+  private final TripStatistics tripStatistics;
+
+  // The current segment's trip statistics
+  private TripStatistics currentSegment;
+
+  // Current segment's last track point
+  private TrackPoint lastTrackPoint;
+
+  // Current segment's last moving track point
+  private TrackPoint lastMovingTrackPoint;
+
+  // A buffer of the recent elevation readings (m)
+  private final DoubleBuffer elevationBuffer = new DoubleBuffer(ELEVATION_SMOOTHING_FACTOR);
+
+  // A buffer of the recent run readings (m) for calculating grade
+  private final DoubleBuffer runBuffer = new DoubleBuffer(RUN_SMOOTHING_FACTOR);
+
+  // A buffer of the recent grade calculations (%)
+  private final DoubleBuffer gradeBuffer = new DoubleBuffer(GRADE_SMOOTHING_FACTOR);
+
+  // A buffer of the recent speed readings (m/s) for calculating max speed
+  private final DoubleBuffer speedBuffer = new DoubleBuffer(SPEED_SMOOTHING_FACTOR);
+  
+  /**
+   * Creates a new trip statistics updater.
+   * 
+   * @param startTime the start time
+   */
+  public TripStatisticsUpdater(long startTime) {
+    tripStatistics = init(startTime);
+    currentSegment = init(startTime);
+  }
+
+  public void updateTime(long time) {
+    currentSegment.setStopTime(time);
+    currentSegment.setTotalTime(time - currentSegment.getStartTime());
+  }
+
+  /**
+   * Gets the track's trip statistics.
+   */
+  public TripStatistics getTripStatistics() {
+    // Take a snapshot - we don't want anyone messing with our tripStatistics
+    TripStatistics stats = new TripStatistics(tripStatistics);
+    stats.merge(currentSegment);
+    return stats;
+  }
+  
+  /**
+   * Adds a track point. TODO: This assume track point has a valid time.
+   * 
+   * @param trackPoint the track point
+   * @param minRecordingDistance the min recording distance
+   * @param calculateCalorie true means calculate calorie
+   * @param activityType the activity type of current track which is used to
+   *          calculate calorie
+   * @param weight the weight to calculate calorie which is used to calculate
+   *          calorie
+   */
+  public void addTrackPoint(TrackPoint trackPoint, int minRecordingDistance,
+      boolean calculateCalorie, ActivityType activityType, double weight) {
+    // Always update time
+    updateTime(trackPoint.getTime());
+    if (!LocationUtils.isValidLocation(trackPoint)) {
+      // Either pause or resume marker
+      if (trackPoint.getLatitude() == TrackPoint.PAUSE_LATITUDE) {
+        if (lastTrackPoint != null && lastMovingTrackPoint != null
+            && lastTrackPoint != lastMovingTrackPoint) {
+          currentSegment.addTotalDistance(lastMovingTrackPoint.distanceTo(lastTrackPoint));
+        }
+        tripStatistics.merge(currentSegment);
+      }
+      currentSegment = init(trackPoint.getTime());
+      lastTrackPoint = null;
+      lastMovingTrackPoint = null;
+      elevationBuffer.reset();
+      runBuffer.reset();
+      gradeBuffer.reset();
+      speedBuffer.reset();
+      return;
+    }
+    currentSegment.updateLatitudeExtremities(trackPoint.getLatitude());
+    currentSegment.updateLongitudeExtremities(trackPoint.getLongitude());
+
+    double elevationDifference = trackPoint.hasAltitude()
+        ? updateElevation(trackPoint.getAltitude()) : 0.0;
+
+    if (lastTrackPoint == null || lastMovingTrackPoint == null) {
+      lastTrackPoint = trackPoint;
+      lastMovingTrackPoint = trackPoint;
+      return;
+    }
+
+    double movingDistance = lastMovingTrackPoint.distanceTo(trackPoint);
+    if (movingDistance < minRecordingDistance
+        && (!trackPoint.hasSpeed() || trackPoint.getSpeed() < MAX_NO_MOVEMENT_SPEED)) {
+      speedBuffer.reset();
+      lastTrackPoint = trackPoint;
+      return;
+    }
+    long movingTime = trackPoint.getTime() - lastTrackPoint.getTime();
+    if (movingTime < 0) {
+      lastTrackPoint = trackPoint;
+      return;
+    }
+
+    // Update total distance
+    currentSegment.addTotalDistance(movingDistance);
+
+    // Update moving time
+    currentSegment.addMovingTime(movingTime);
+
+    // Update grade
+    double run = lastTrackPoint.distanceTo(trackPoint);
+    updateGrade(run, elevationDifference);
+
+    // Update max speed
+    if (trackPoint.hasSpeed() && lastTrackPoint.hasSpeed()) {
+      updateSpeed(trackPoint.getTime(), trackPoint.getSpeed(), lastTrackPoint.getTime(),
+          lastTrackPoint.getSpeed());
+    }
+    
+    if (calculateCalorie) {
+      // Update calorie
+      double calorie = CalorieUtils.getCalorie(lastMovingTrackPoint, trackPoint,
+          gradeBuffer.getAverage(), weight, activityType);
+      currentSegment.addCalorie(calorie);
+    }
+    lastTrackPoint = trackPoint;
+    lastMovingTrackPoint = trackPoint;
+  }
+  
+  /**
+   * Gets the smoothed elevation over several readings. The elevation readings
+   * is noisy so the smoothed elevation is better than the raw elevation for
+   * many tasks.
+   */
+  public double getSmoothedElevation() {
+    return elevationBuffer.getAverage();
+  }
+
+  public double getSmoothedSpeed() {
+    return speedBuffer.getAverage();
+  }
+
+  /**
+   * Updates a speed reading. Assumes the user is moving.
+   * 
+   * @param time the time
+   * @param speed the speed
+   * @param lastTrackPointTime the last track point time
+   * @param lastTrackPointSpeed the last track point speed
+   */
+  void updateSpeed(
+      long time, double speed, long lastTrackPointTime, double lastTrackPointSpeed) {
+    if (speed < MAX_NO_MOVEMENT_SPEED) {
+      speedBuffer.reset();
+    } else if (isValidSpeed(time, speed, lastTrackPointTime, lastTrackPointSpeed)) {
+      speedBuffer.setNext(speed);
+      if (speedBuffer.getAverage() > currentSegment.getMaxSpeed()) {
+        currentSegment.setMaxSpeed(speedBuffer.getAverage());
+      }
+    }
+  }
+
+  /**
+   * Updates an elevation reading. Returns the difference.
+   * 
+   * @param elevation the elevation
+   */
+  double updateElevation(double elevation) {
+    // Update elevation using the smoothed average
+    double oldAverage = elevationBuffer.getAverage();
+    elevationBuffer.setNext(elevation);
+    double newAverage = elevationBuffer.getAverage();
+   
+    currentSegment.updateElevationExtremities(newAverage);
+    double difference = newAverage - oldAverage;
+    if (difference > 0) {
+      currentSegment.addTotalElevationGain(difference);
+    }
+    return difference;
+  }
+
+  /**
+   * Updates a grade reading.
+   * 
+   * @param run the run
+   * @param rise the rise
+   */
+  void updateGrade(double run, double rise) {
+    runBuffer.setNext(run);
+
+    double smoothedRun = runBuffer.getAverage();
+
+    /*
+     * With the error in the altitude measurement it is dangerous to divide by
+     * anything less than 5.
+     */
+    if (smoothedRun < 5.0) {
+      return;
+    }
+    gradeBuffer.setNext(rise / smoothedRun);
+    currentSegment.updateGradeExtremities(gradeBuffer.getAverage());    
+  }
+
+  private TripStatistics init(long time) {
+    TripStatistics stats = new TripStatistics();
+    stats.setStartTime(time);
+    stats.setStopTime(time);
+    return stats;
+  }
+
+  /**
+   * Returns true if the speed is valid.
+   * 
+   * @param time the time
+   * @param speed the speed
+   * @param lastTrackPointTime the last track point time
+   * @param lastTrackPointSpeed the last track point speed
+   */
+  private boolean isValidSpeed(
+      long time, double speed, long lastTrackPointTime, double lastTrackPointSpeed) {
+
+    /*
+     * There are a lot of noisy speed readings. Do the cheapest checks first,
+     * most expensive last.
+     */
+    if (speed == 0) {
+      return false;
+    }
+
+    /*
+     * The following code will ignore unlikely readings. 128 m/s seems to be an
+     * internal android error code.
+     */
+    if (Math.abs(speed - 128) < 1) {
+      return false;
+    }
+
+    /*
+     * See if the speed seems physically likely. Ignore any speeds that imply
+     * acceleration greater than 2g.
+     */
+    long timeDifference = time - lastTrackPointTime;
+    double speedDifference = Math.abs(lastTrackPointSpeed - speed);
+    if (speedDifference > MAX_ACCELERATION * timeDifference) {
+      return false;
+    }
+
+    /*
+     * Only check if the speed buffer is full. Check that the speed is less than
+     * 10X the smoothed average and the speed difference doesn't imply 2g
+     * acceleration.
+     */
+    if (speedBuffer.isFull()) {
+      double average = speedBuffer.getAverage();
+      double diff = Math.abs(average - speed);
+      return (speed < average * 10) && (diff < MAX_ACCELERATION * timeDifference);
+    } else {
+      return true;
+    }
+  }
+  
+  /**
+   * Updates the calorie value.
+   * 
+   * @param calorie the calorie
+   */
+  public void updateCalorie(double calorie) {
+    tripStatistics.setCalorie(calorie);
+    currentSegment.setCalorie(0);
+  }
+}
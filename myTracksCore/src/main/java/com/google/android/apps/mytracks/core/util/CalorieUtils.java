@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.util;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+
+/**
+ * Utilities to calculate calories. Same formulas as the app CalorieUtils, on
+ * {@link TrackPoint}s.
+ */
+public class CalorieUtils {
+
+  /**
+   * Activity types.
+   */
+  public enum ActivityType {
+    CYCLING, RUNNING, WALKING, INVALID
+  }
+
+  private CalorieUtils() {}
+
+  /**
+   * Resting VO2 is 3.5 milliliters per kilogram of body weight per minute
+   * (ml/kg/min). The resting VO2 is the same for everyone.
+   */
+  private static final double RESTING_VO2 = 3.5;
+
+  /**
+   * Standard gravity in meters per second squared (m/s^2).
+   */
+  private static final double EARTH_GRAVITY = 9.81;
+
+  /**
+   * Lumped constant for all frictional losses (tires, bearings, chain).
+   */
+  private static final double K1 = 0.0053;
+
+  /**
+   * Lumped constant for aerodynamic drag (kg/m)
+   */
+  private static final double K2 = 0.185;
+
+  // Unit conversions, see the app UnitConversions
+  private static final double MS_TO_MIN = 1 / 60000.0;
+  private static final double W_TO_KGM = 6.12;
+  private static final double KGM_TO_KCAL = 1 / 427.0;
+  private static final double ML_TO_L = 1 / 1000.0;
+  private static final double L_TO_KCAL = 5.0;
+
+  /**
+   * Gets the calorie in kcal between two track points.
+   * 
+   * @param start the start track point
+   * @param stop the stop track point
+   * @param grade the grade
+   * @param weight the weight in kilogram. For cycling, weight of the rider plus
+   *          bike. For foot, weight of the user
+   * @param activityType the activity type
+   */
+  public static double getCalorie(TrackPoint start, TrackPoint stop, double grade, double weight,
+      ActivityType activityType) {
+    if (activityType == ActivityType.INVALID) {
+      return 0.0;
+    }
+
+    if (grade < 0) {
+      grade = 0.0;
+    }
+
+    // Speed in m/s
+    double speed = (start.getSpeed() + stop.getSpeed()) / 2.0;
+    // Duration in min
+    double duration = (double) (stop.getTime() - start.getTime()) * MS_TO_MIN;
+
+    if (activityType == ActivityType.CYCLING) {
+      /*
+       * Power in watt (Joule/second). See
+       * http://en.wikipedia.org/wiki/Bicycle_performance.
+       */
+      double power = EARTH_GRAVITY * weight * speed * (K1 + grade) + K2 * (speed * speed * speed);
+
+      // WorkRate in kgm/min
+      double workRate = power * W_TO_KGM;
+
+      /*
+       * VO2 in kgm/min/kg 1.8 = oxygen cost of producing 1 kgm/min of power
+       * output. 7 = oxygen cost of unloaded cycling plus resting oxygen
+       * consumption
+       */
+      double vo2 = (1.8 * workRate / weight) + 7;
+
+      // Calorie in kcal
+      return vo2 * duration * weight * KGM_TO_KCAL;
+    } else {
+      double vo2 = activityType == ActivityType.RUNNING ? getRunningVo2(speed, grade)
+          : getWalkingVo2(speed, grade);
+
+      /*
+       * Calorie in kcal (mL/kg/min * min * kg * L/mL * kcal/L)
+       */
+      return vo2 * duration * weight * ML_TO_L * L_TO_KCAL;
+    }
+  }
+
+  /**
+   * Gets the running VO2 in ml/kg/min. This equation is appropriate for speeds
+   * greater than 5 mi/hr (or 3 mi/hr or greater if the subject is truly
+   * jogging).
+   * 
+   * @param speed the speed in m/s
+   * @param grade the grade
+   */
+  private static double getRunningVo2(double speed, double grade) {
+    // Change from m/s to m/min
+    speed = speed * 60.0;
+
+    /*
+     * 0.2 = oxygen cost per meter of moving each kg of body weight while
+     * running (horizontally). 0.9 = oxygen cost per meter of moving total body
+     * mass against gravity (vertically).
+     */
+    return 0.2 * speed + 0.9 * speed * grade + RESTING_VO2;
+  }
+
+  /**
+   * Gets the walking VO2 in ml/kg/min. This equation is appropriate for speed
+   * from 1.9 to 4 mi/hr.
+   * 
+   * @param speed the speed in m/s
+   * @param grade the grade
+   */
+  private static double getWalkingVo2(double speed, double grade) {
+    // Change from m/s to m/min
+    speed = speed * 60.0;
+
+    /*
+     * 0.1 = oxygen cost per meter of moving each kilogram (kg) of body weight
+     * while walking (horizontally). 1.8 = oxygen cost per meter of moving total
+     * body mass against gravity (vertically).
+     */
+    return 0.1 * speed + 1.8 * speed * grade + RESTING_VO2;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.util;
+
+import com.google.android.apps.mytracks.core.GeoMath;
+import com.google.android.apps.mytracks.core.TrackPoint;
+
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Utility class for decimating tracks at a given level of precision. Same as
+ * the app LocationUtils, on {@link TrackPoint}s.
+ */
+public class LocationUtils {
+
+  private LocationUtils() {}
+
+  /**
+   * Computes the distance on the two sphere between the point c0 and the line
+   * segment c1 to c2.
+   * 
+   * @param c0 the first coordinate
+   * @param c1 the beginning of the line segment
+   * @param c2 the end of the lone segment
+   * @return the distance in m (assuming spherical earth)
+   */
+  private static double distance(final TrackPoint c0, final TrackPoint c1, final TrackPoint c2) {
+    if (c1.equals(c2)) {
+      return c2.distanceTo(c0);
+    }
+
+    final double s0lat = Math.toRadians(c0.getLatitude());
+    final double s0lng = Math.toRadians(c0.getLongitude());
+    final double s1lat = Math.toRadians(c1.getLatitude());
+    final double s1lng = Math.toRadians(c1.getLongitude());
+    final double s2lat = Math.toRadians(c2.getLatitude());
+    final double s2lng = Math.toRadians(c2.getLongitude());
+
+    double s2s1lat = s2lat - s1lat;
+    double s2s1lng = s2lng - s1lng;
+    final double u = ((s0lat - s1lat) * s2s1lat + (s0lng - s1lng) * s2s1lng)
+        / (s2s1lat * s2s1lat + s2s1lng * s2s1lng);
+    if (u <= 0) {
+      return c0.distanceTo(c1);
+    }
+    if (u >= 1) {
+      return c0.distanceTo(c2);
+    }
+    return GeoMath.distanceBetween(c0.getLatitude() - c1.getLatitude(),
+        c0.getLongitude() - c1.getLongitude(), u * (c2.getLatitude() - c1.getLatitude()),
+        u * (c2.getLongitude() - c1.getLongitude()));
+  }
+
+  /**
+   * Decimates the given track points. This uses a Douglas-Peucker decimation
+   * algorithm.
+   * 
+   * @param tolerance in meters
+   * @param trackPoints input
+   * @param decimated output
+   */
+  public static void decimate(
+      double tolerance, List<TrackPoint> trackPoints, List<TrackPoint> decimated) {
+    final int n = trackPoints.size();
+    if (n < 1) {
+      return;
+    }
+    int idx;
+    int maxIdx = 0;
+    Stack<int[]> stack = new Stack<int[]>();
+    double[] dists = new double[n];
+    dists[0] = 1;
+    dists[n - 1] = 1;
+    double maxDist;
+    double dist = 0.0;
+    int[] current;
+
+    if (n > 2) {
+      int[] stackVal = new int[] { 0, (n - 1) };
+      stack.push(stackVal);
+      while (stack.size() > 0) {
+        current = stack.pop();
+        maxDist = 0;
+        for (idx = current[0] + 1; idx < current[1]; ++idx) {
+          dist = LocationUtils.distance(
+              trackPoints.get(idx), trackPoints.get(current[0]), trackPoints.get(current[1]));
+          if (dist > maxDist) {
+            maxDist = dist;
+            maxIdx = idx;
+          }
+        }
+        if (maxDist > tolerance) {
+          dists[maxIdx] = maxDist;
+          int[] stackValCurMax = { current[0], maxIdx };
+          stack.push(stackValCurMax);
+          int[] stackValMaxCur = { maxIdx, current[1] };
+          stack.push(stackValMaxCur);
+        }
+      }
+    }
+
+    idx = 0;
+    decimated.clear();
+    for (TrackPoint trackPoint : trackPoints) {
+      if (dists[idx] != 0) {
+        decimated.add(trackPoint);
+      }
+      idx++;
+    }
+  }
+
+  /**
+   * Checks if a given track point is a valid (i.e. physically possible)
+   * location on Earth. Note: The special separator points (which have latitude
+   * = 100 or 200) will not qualify as valid.
+   * 
+   * @param trackPoint the track point to test
+   * @return true if the track point is a valid location.
+   */
+  public static boolean isValidLocation(TrackPoint trackPoint) {
+    return trackPoint != null && Math.abs(trackPoint.getLatitude()) <= 90
+        && Math.abs(trackPoint.getLongitude()) <= 180;
+  }
+}
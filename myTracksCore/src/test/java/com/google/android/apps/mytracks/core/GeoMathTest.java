@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link GeoMath}.
+ */
+public class GeoMathTest extends TestCase {
+
+  /**
+   * Tests the distance of the same point.
+   */
+  public void testDistanceBetween_samePoint() {
+    assertEquals(0.0, GeoMath.distanceBetween(37.4, -122.1, 37.4, -122.1));
+  }
+
+  /**
+   * Tests the distances along the equator and a meridian, against the WGS84
+   * values.
+   */
+  public void testDistanceBetween() {
+    // 1 degree of longitude on the equator
+    assertEquals(111319.49, GeoMath.distanceBetween(0.0, 0.0, 0.0, 1.0), 0.01);
+    // 1 degree of latitude from the equator
+    assertEquals(110574.39, GeoMath.distanceBetween(0.0, 0.0, 1.0, 0.0), 0.01);
+    // Same distance both ways
+    assertEquals(GeoMath.distanceBetween(48.85, 2.35, 51.5, -0.12),
+        GeoMath.distanceBetween(51.5, -0.12, 48.85, 2.35), 1e-6);
+  }
+
+  /**
+   * Tests {@link TrackPoint#distanceTo(TrackPoint)}.
+   */
+  public void testDistanceTo() {
+    TrackPoint start = new TrackPoint(0L, 0.0, 45.0, Double.NaN, Float.NaN);
+    TrackPoint end = new TrackPoint(1000L, 0.001, 45.0, Double.NaN, Float.NaN);
+    assertEquals(110.57, start.distanceTo(end), 0.01);
+    assertFalse(start.hasAltitude());
+    assertFalse(start.hasSpeed());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.core.util;
+
+import com.google.android.apps.mytracks.core.TrackPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LocationUtils}.
+ */
+public class LocationUtilsTest extends TestCase {
+
+  /**
+   * Tests that a straight line is decimated to its end points.
+   */
+  public void testDecimate_straight() {
+    List<TrackPoint> trackPoints = new ArrayList<TrackPoint>();
+    for (int i = 0; i < 100; i++) {
+      trackPoints.add(createTrackPoint(i, i * 0.0001, 0.0));
+    }
+    List<TrackPoint> decimated = new ArrayList<TrackPoint>();
+    LocationUtils.decimate(1.0, trackPoints, decimated);
+    assertEquals(2, decimated.size());
+    assertSame(trackPoints.get(0), decimated.get(0));
+    assertSame(trackPoints.get(99), decimated.get(1));
+  }
+
+  /**
+   * Tests that the corner of a track is kept.
+   */
+  public void testDecimate_corner() {
+    List<TrackPoint> trackPoints = new ArrayList<TrackPoint>();
+    for (int i = 0; i < 50; i++) {
+      trackPoints.add(createTrackPoint(i, i * 0.0001, 0.0));
+    }
+    for (int i = 0; i < 50; i++) {
+      trackPoints.add(createTrackPoint(50 + i, 0.0049, (i + 1) * 0.0001));
+    }
+    List<TrackPoint> decimated = new ArrayList<TrackPoint>();
+    LocationUtils.decimate(1.0, trackPoints, decimated);
+    assertEquals(3, decimated.size());
+    assertSame(trackPoints.get(49), decimated.get(1));
+  }
+
+  /**
+   * Tests that the pause and resume separators are not valid locations.
+   */
+  public void testIsValidLocation() {
+    assertTrue(LocationUtils.isValidLocation(createTrackPoint(0, 45.0, 90.0)));
+    assertFalse(LocationUtils.isValidLocation(
+        createTrackPoint(0, TrackPoint.PAUSE_LATITUDE, 0.0)));
+    assertFalse(LocationUtils.isValidLocation(
+        createTrackPoint(0, TrackPoint.RESUME_LATITUDE, 0.0)));
+    assertFalse(LocationUtils.isValidLocation(null));
+  }
+
+  /**
+   * Creates a track point.
+   * 
+   * @param time the time in seconds
+   * @param latitude the latitude
+   * @param longitude the longitude
+   */
+  private TrackPoint createTrackPoint(long time, double latitude, double longitude) {
+    return new TrackPoint(time * 1000L, latitude, longitude, Double.NaN, Float.NaN);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import com.google.android.apps.mytracks.stats.TripStatistics;
+
+/**
+ * The merged statistics of a group of tracks, read from the
+ * {@link AggregatedStatsColumns#TABLE_NAME} table.
+ */
+public class AggregatedStats {
+
+  private final int type;
+  private final String category;
+  private final long periodStart;
+  private final int numTracks;
+  private final TripStatistics tripStatistics;
+
+  /**
+   * Constructor.
+   * 
+   * @param type the aggregation type, one of the
+   *          {@link AggregatedStatsColumns} TYPE constants
+   * @param category the category for
+   *          {@link AggregatedStatsColumns#TYPE_CATEGORY}
+   * @param periodStart the period start time for
+   *          {@link AggregatedStatsColumns#TYPE_MONTH} and
+   *          {@link AggregatedStatsColumns#TYPE_WEEK}
+   * @param numTracks the number of tracks
+   * @param tripStatistics the merged trip statistics
+   */
+  public AggregatedStats(int type, String category, long periodStart, int numTracks,
+      TripStatistics tripStatistics) {
+    this.type = type;
+    this.category = category;
+    this.periodStart = periodStart;
+    this.numTracks = numTracks;
+    this.tripStatistics = tripStatistics;
+  }
+
+  public int getType() {
+    return type;
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public long getPeriodStart() {
+    return periodStart;
+  }
+
+  public int getNumTracks() {
+    return numTracks;
+  }
+
+  public TripStatistics getTripStatistics() {
+    return tripStatistics;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+/**
+ * Constants for the aggregated track statistics table. Each row holds the
+ * merged statistics of a group of tracks: all tracks, the tracks of a category,
+ * or the tracks started in a month or a week. The rows are maintained by
+ * triggers on the {@link TracksColumns#TABLE_NAME} table. Sums are updated in
+ * place. Extremes are widened in place, and the row is marked dirty and
+ * recomputed on the next read when a track is deleted or an extreme shrinks.
+ */
+public interface AggregatedStatsColumns extends BaseColumns {
+
+  public static final String TABLE_NAME = "aggregatedstats";
+
+  /**
+   * Aggregated stats provider uri.
+   */
+  public static final Uri CONTENT_URI = Uri.parse(
+      "content://com.google.android.maps.mytracks/aggregatedstats");
+
+  /**
+   * Aggregated stats content type.
+   */
+  public static final String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.google.aggregatedstats";
+
+  /**
+   * Aggregated stats table default sort order.
+   */
+  public static final String DEFAULT_SORT_ORDER = "type, period DESC, category";
+
+  // Types
+  public static final int TYPE_ALL = 0; // all tracks
+  public static final int TYPE_CATEGORY = 1; // tracks of a category
+  public static final int TYPE_MONTH = 2; // tracks started in a month
+  public static final int TYPE_WEEK = 3; // tracks started in a week
+
+  // Columns
+  public static final String TYPE = "type"; // aggregation type
+
+  // category for TYPE_CATEGORY, otherwise empty
+  public static final String CATEGORY = TracksColumns.CATEGORY;
+
+  // local date (yyyy-MM-dd) of the month or week (starting on Monday) start
+  // for TYPE_MONTH and TYPE_WEEK, otherwise empty. Keys the rows.
+  public static final String PERIOD = "period";
+
+  // start time of PERIOD in the time zone when the row was inserted for
+  // TYPE_MONTH and TYPE_WEEK, otherwise 0
+  public static final String PERIODSTART = "periodstart";
+  public static final String NUMTRACKS = "numtracks"; // number of tracks
+  public static final String STARTTIME = TracksColumns.STARTTIME; // min start time
+  public static final String STOPTIME = TracksColumns.STOPTIME; // max stop time
+  public static final String TOTALDISTANCE = TracksColumns.TOTALDISTANCE; // total distance
+  public static final String TOTALTIME = TracksColumns.TOTALTIME; // total time
+  public static final String MOVINGTIME = TracksColumns.MOVINGTIME; // moving time
+  public static final String MAXSPEED = TracksColumns.MAXSPEED; // maximum speed
+  public static final String MINELEVATION = TracksColumns.MINELEVATION; // minimum elevation
+  public static final String MAXELEVATION = TracksColumns.MAXELEVATION; // maximum elevation
+  public static final String ELEVATIONGAIN = TracksColumns.ELEVATIONGAIN; // elevation gain
+  public static final String MINGRADE = TracksColumns.MINGRADE; // minimum grade
+  public static final String MAXGRADE = TracksColumns.MAXGRADE; // maximum grade
+  public static final String CALORIE = TracksColumns.CALORIE; // calorie
+
+  // non-zero if the row needs to be recomputed from the tracks table
+  public static final String DIRTY = "dirty";
+
+  public static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME
+      + " (" // table
+      + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " // id
+      + TYPE + " INTEGER NOT NULL, " // type
+      + CATEGORY + " STRING NOT NULL DEFAULT '', " // category
+      + PERIOD + " STRING NOT NULL DEFAULT '', " // period
+      + PERIODSTART + " INTEGER NOT NULL DEFAULT 0, " // period start
+      + NUMTRACKS + " INTEGER NOT NULL DEFAULT 0, " // num tracks
+      + STARTTIME + " INTEGER, " // start time
+      + STOPTIME + " INTEGER, " // stop time
+      + TOTALDISTANCE + " FLOAT NOT NULL DEFAULT 0, " // total distance
+      + TOTALTIME + " INTEGER NOT NULL DEFAULT 0, " // total time
+      + MOVINGTIME + " INTEGER NOT NULL DEFAULT 0, " // moving time
+      + MAXSPEED + " FLOAT, " // max speed
+      + MINELEVATION + " FLOAT, " // min elevation
+      + MAXELEVATION + " FLOAT, " // max elevation
+      + ELEVATIONGAIN + " FLOAT NOT NULL DEFAULT 0, " // elevation gain
+      + MINGRADE + " FLOAT, " // min grade
+      + MAXGRADE + " FLOAT, " // max grade
+      + CALORIE + " FLOAT NOT NULL DEFAULT 0, " // calorie
+      + DIRTY + " INTEGER NOT NULL DEFAULT 0, " // dirty
+      + "UNIQUE (" + TYPE + ", " + CATEGORY + ", " + PERIOD + "));";
+}
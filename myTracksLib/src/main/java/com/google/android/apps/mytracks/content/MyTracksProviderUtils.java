@@ -16,7 +16,9 @@
 
 package com.google.android.apps.mytracks.content;
 
+import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.stats.CalorieInputs;
 
 import android.content.Context;
 import android.database.Cursor;
@@ -40,6 +42,11 @@ public interface MyTracksProviderUtils {
    */
   public static final String AUTHORITY = "com.google.android.maps.mytracks";
 
+  /**
+   * The max age of a sensor point joined to a track point, in milliseconds.
+   */
+  public static final long MAX_SENSOR_POINT_AGE = 5000L;
+
   /**
    * Clears a track. Removes waypoints and trackpoints. Only keeps the track id.
    * 
@@ -66,6 +73,13 @@ public interface MyTracksProviderUtils {
    */
   public void deleteTrack(Context context, long trackId);
 
+  /**
+   * Gets the aggregated stats of all the tracks, per category, per month, and
+   * per week, ordered by type, latest period first, and category. If no track
+   * exists, an empty list is returned.
+   */
+  public List<AggregatedStats> getAggregatedStats();
+
   /**
    * Gets all the tracks. If no track exists, an empty list is returned.
    * <p>
@@ -97,6 +111,79 @@ public interface MyTracksProviderUtils {
    */
   public Cursor getTrackCursor(String selection, String[] selectionArgs, String sortOrder);
 
+  /**
+   * Gets a track cursor with the given projection. Use with
+   * {@link TrackSummary.RowMapper} to read only the needed columns. The caller
+   * owns the returned cursor and is responsible for closing it.
+   * 
+   * @param projection the projection, e.g.,
+   *          {@link TrackSummary#SYNC_PROJECTION}. Null for all the columns
+   * @param selection the selection. Can be null
+   * @param selectionArgs the selection arguments. Can be null
+   * @param sortOrder the sort order. Can be null
+   */
+  public Cursor getTrackCursor(
+      String[] projection, String selection, String[] selectionArgs, String sortOrder);
+
+  /**
+   * Gets the summaries of the tracks matching a selection. If no track
+   * matches, an empty list is returned.
+   * 
+   * @param projection the projection, e.g.,
+   *          {@link TrackSummary#SYNC_PROJECTION}
+   * @param selection the selection. Can be null
+   * @param selectionArgs the selection arguments. Can be null
+   * @param sortOrder the sort order. Can be null
+   */
+  public List<TrackSummary> getTrackSummaries(
+      String[] projection, String selection, String[] selectionArgs, String sortOrder);
+
+  /**
+   * Gets the summary of a track. Returns null if doesn't exist.
+   * 
+   * @param projection the projection, e.g.,
+   *          {@link TrackSummary#SYNC_PROJECTION}
+   * @param trackId the track id
+   */
+  public TrackSummary getTrackSummary(String[] projection, long trackId);
+
+  /**
+   * Gets a full-text search track cursor with the
+   * {@link TracksSearchColumns#DOCID} and the
+   * {@link TracksSearchColumns#MATCH_INFO} blob of every matching track, for
+   * ranking the matches before loading their rows. The caller owns the
+   * returned cursor and is responsible for closing it.
+   * 
+   * @param matchQuery the SQLite full-text MATCH expression
+   */
+  public Cursor getTrackSearchCursor(String matchQuery);
+
+  /**
+   * Gets a cursor of the tracks whose bounds intersect a bounding box. Uses the
+   * track spatial index. Tracks without valid bounds are never returned. The
+   * caller owns the returned cursor and is responsible for closing it.
+   * 
+   * @param minLatitude the min latitude in microdegrees
+   * @param maxLatitude the max latitude in microdegrees
+   * @param minLongitude the min longitude in microdegrees
+   * @param maxLongitude the max longitude in microdegrees
+   * @param maxTracks the maximum number of tracks to return. -1 for no limit
+   */
+  public Cursor getTrackCursorInBounds(
+      int minLatitude, int maxLatitude, int minLongitude, int maxLongitude, int maxTracks);
+
+  /**
+   * Gets the tracks nearest to a location, ordered by the distance from the
+   * location to the track bounds. Uses the track spatial index. If no track
+   * exists, an empty list is returned.
+   * <p>
+   * Note that the returned tracks do not have any track points attached.
+   * 
+   * @param location the location
+   * @param maxTracks the maximum number of tracks to return
+   */
+  public List<Track> getNearestTracks(Location location, int maxTracks);
+
   /**
    * Inserts a track.
    * <p>
@@ -107,6 +194,29 @@ public interface MyTracksProviderUtils {
    */
   public Uri insertTrack(Track track);
 
+  /**
+   * Updates the Google Drive columns of a track, leaving the other columns
+   * untouched.
+   * 
+   * @param trackId the track id
+   * @param driveId the drive id
+   * @param modifiedTime the drive file modified time
+   * @param sharedWithMe true if the drive file is shared with me
+   * @param sharedOwner the owner of the shared with me drive file
+   */
+  public void updateTrackDriveInfo(long trackId, String driveId, long modifiedTime,
+      boolean sharedWithMe, String sharedOwner);
+
+  /**
+   * Updates the calorie columns of a track, leaving the other columns
+   * untouched.
+   * 
+   * @param trackId the track id
+   * @param calorie the calorie
+   * @param calorieInputs the calorie inputs, or null to keep the stored inputs
+   */
+  public void updateTrackCalorie(long trackId, double calorie, CalorieInputs calorieInputs);
+
   /**
    * Updates a track.
    * <p>
@@ -190,6 +300,41 @@ public interface MyTracksProviderUtils {
    */
   public Cursor getWaypointCursor(long trackId, long minWaypointId, int maxWaypoints);
 
+  /**
+   * Gets a full-text search waypoint cursor with the
+   * {@link WaypointsSearchColumns#DOCID} and the
+   * {@link WaypointsSearchColumns#MATCH_INFO} blob of every matching
+   * waypoint, for ranking the matches before loading their rows. The caller
+   * owns the returned cursor and is responsible for closing it.
+   * 
+   * @param matchQuery the SQLite full-text MATCH expression
+   */
+  public Cursor getWaypointSearchCursor(String matchQuery);
+
+  /**
+   * Gets a cursor of the waypoints inside a bounding box. Uses the waypoint
+   * spatial index. The caller owns the returned cursor and is responsible for
+   * closing it.
+   * 
+   * @param minLatitude the min latitude in microdegrees
+   * @param maxLatitude the max latitude in microdegrees
+   * @param minLongitude the min longitude in microdegrees
+   * @param maxLongitude the max longitude in microdegrees
+   * @param maxWaypoints the maximum number of waypoints to return. -1 for no
+   *          limit
+   */
+  public Cursor getWaypointCursorInBounds(
+      int minLatitude, int maxLatitude, int minLongitude, int maxLongitude, int maxWaypoints);
+
+  /**
+   * Gets the waypoints nearest to a location, ordered by distance. Uses the
+   * waypoint spatial index. If no waypoint exists, an empty list is returned.
+   * 
+   * @param location the location
+   * @param maxWaypoints the maximum number of waypoints to return
+   */
+  public List<Waypoint> getNearestWaypoints(Location location, int maxWaypoints);
+
   /**
    * Gets the number of waypoints for a track.
    * 
@@ -212,6 +357,29 @@ public interface MyTracksProviderUtils {
    */
   public boolean updateWaypoint(Waypoint waypoint);
 
+  /**
+   * Updates waypoints in a single transaction. Returns true if successful.
+   * 
+   * @param waypoints the waypoints
+   */
+  public boolean updateWaypoints(List<Waypoint> waypoints);
+
+  /**
+   * Updates the calorie columns of waypoints in a single transaction, leaving
+   * the other columns untouched. Returns true if successful.
+   * 
+   * @param waypoints the waypoints
+   */
+  public boolean updateWaypointsCalorie(List<Waypoint> waypoints);
+
+  /**
+   * Updates the description column of waypoints in a single transaction,
+   * leaving the other columns untouched. Returns true if successful.
+   * 
+   * @param waypoints the waypoints
+   */
+  public boolean updateWaypointsDescription(List<Waypoint> waypoints);
+
   /**
    * Inserts multiple track points.
    * 
@@ -223,6 +391,15 @@ public interface MyTracksProviderUtils {
    */
   public int bulkInsertTrackPoint(Location[] locations, int length, long trackId);
 
+  /**
+   * Inserts track points in a single transaction. Returns the track point ids
+   * in the order of the locations, or null if not successful.
+   * 
+   * @param locations the locations
+   * @param trackId the track id
+   */
+  public long[] insertTrackPoints(List<Location> locations, long trackId);
+
   /**
    * Creates a location object from a cursor.
    * 
@@ -295,8 +472,11 @@ public interface MyTracksProviderUtils {
    * {@link UnsupportedOperationException}. Each call to
    * {@link LocationIterator#next()} may advance to the next DB record, and if
    * so, the iterator calls {@link LocationFactory#createLocation()} and
-   * populates it with information retrieved from the record. When done with
-   * iteration, {@link LocationIterator#close()} must be called.
+   * populates it with information retrieved from the record. Track points
+   * without sensor data get the latest sensor point of the track at most
+   * {@link #MAX_SENSOR_POINT_AGE} before them, if the location is a
+   * {@link MyTracksLocation}. When done with iteration,
+   * {@link LocationIterator#close()} must be called.
    * 
    * @param trackId the track id
    * @param startTrackPointId the starting track point id. -1L to ignore
@@ -316,6 +496,34 @@ public interface MyTracksProviderUtils {
    */
   public Uri insertTrackPoint(Location location, long trackId);
 
+  /**
+   * Inserts sensor points in a single transaction. The time of a sensor point
+   * is the creation time of its sensor data set. Returns the number of sensor
+   * points inserted.
+   * 
+   * @param sensorDataSets the sensor data sets
+   * @param trackId the track id
+   */
+  public int insertSensorPoints(List<SensorDataSet> sensorDataSets, long trackId);
+
+  /**
+   * Creates a sensor point cursor, sorted by time. The caller owns the
+   * returned cursor and is responsible for closing it.
+   * 
+   * @param trackId the track id
+   * @param time the start time. -1L to ignore
+   * @param descending true to sort the result in descending order (latest
+   *          sensor point first)
+   */
+  public Cursor getSensorPointCursor(long trackId, long time, boolean descending);
+
+  /**
+   * Creates a sensor data set from a sensor point cursor.
+   * 
+   * @param cursor the cursor pointing to the sensor point
+   */
+  public SensorDataSet createSensorDataSet(Cursor cursor);
+
   /**
    * A lightweight wrapper around the original {@link Cursor} with a method to
    * clean up.
@@ -16,23 +16,34 @@
 
 package com.google.android.apps.mytracks.content;
 
+import com.google.android.apps.mytracks.content.Sensor.SensorData;
 import com.google.android.apps.mytracks.content.Sensor.SensorDataSet;
+import com.google.android.apps.mytracks.content.Sensor.SensorState;
 import com.google.android.apps.mytracks.content.Waypoint.WaypointType;
+import com.google.android.apps.mytracks.stats.CalorieInputs;
 import com.google.android.apps.mytracks.stats.TripStatistics;
 import com.google.android.apps.mytracks.util.FileUtils;
 import com.google.protobuf.InvalidProtocolBufferException;
 
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
+import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.location.Location;
 import android.net.Uri;
+import android.os.RemoteException;
 import android.util.Log;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -46,6 +57,15 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
 
   private static final int MAX_LATITUDE = 90000000;
 
+  // Initial half size of the nearest search bounding box, about 1 km
+  private static final int NEAREST_INITIAL_RADIUS = 10000;
+
+  // Half size of the nearest search bounding box covering all latitudes
+  private static final int NEAREST_MAX_RADIUS = 2 * MAX_LATITUDE;
+
+  // Meters per microdegree of latitude
+  private static final double METERS_PER_MICRODEGREE = 6371009.0 * Math.PI / 180.0 / 1E6;
+
   private final ContentResolver contentResolver;
   private int defaultCursorBatchSize = 2000;
 
@@ -91,6 +111,10 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     int sharedWithMeIndex = cursor.getColumnIndexOrThrow(TracksColumns.SHAREDWITHME);
     int sharedOwnerIndex = cursor.getColumnIndexOrThrow(TracksColumns.SHAREDOWNER);
     int caloriesIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIE);
+    int calorieDurationIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIEDURATION);
+    int calorieDistanceIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIEDISTANCE);
+    int calorieClimbIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIECLIMB);
+    int calorieDragIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIEDRAG);
     
     Track track = new Track();
     TripStatistics tripStatistics = track.getTripStatistics();
@@ -159,6 +183,12 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     if (!cursor.isNull(caloriesIndex)) {
       tripStatistics.setCalorie(cursor.getFloat(caloriesIndex));
     }
+    if (!cursor.isNull(calorieDurationIndex) && !cursor.isNull(calorieDistanceIndex)
+        && !cursor.isNull(calorieClimbIndex) && !cursor.isNull(calorieDragIndex)) {
+      tripStatistics.getCalorieInputs().set(cursor.getDouble(calorieDurationIndex),
+          cursor.getDouble(calorieDistanceIndex), cursor.getDouble(calorieClimbIndex),
+          cursor.getDouble(calorieDragIndex));
+    }
     if (!cursor.isNull(iconIndex)) {
       track.setIcon(cursor.getString(iconIndex));
     }
@@ -180,6 +210,7 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
   @Override
   public void deleteAllTracks(Context context) {
     contentResolver.delete(TrackPointsColumns.CONTENT_URI, null, null);
+    contentResolver.delete(SensorPointsColumns.CONTENT_URI, null, null);
     contentResolver.delete(WaypointsColumns.CONTENT_URI, null, null);
     // Delete tracks last since it triggers a database vaccum call
     contentResolver.delete(TracksColumns.CONTENT_URI, null, null);
@@ -198,7 +229,7 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
   }
 
   /**
-   * Deletes track points and waypoints of a track. Assumes
+   * Deletes track points, sensor points, and waypoints of a track. Assumes
    * {@link TracksColumns#STARTID}, {@link TracksColumns#STOPID}, and
    * {@link TracksColumns#NUMPOINTS} will be updated by the caller.
    * 
@@ -212,6 +243,8 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
           Long.toString(track.getStartId()), Long.toString(track.getStopId()) };
       contentResolver.delete(TrackPointsColumns.CONTENT_URI, where, selectionArgs);
     }
+    contentResolver.delete(SensorPointsColumns.CONTENT_URI, SensorPointsColumns.TRACKID + "=?",
+        new String[] { Long.toString(trackId) });
     contentResolver.delete(WaypointsColumns.CONTENT_URI, WaypointsColumns.TRACKID + "=?",
         new String[] { Long.toString(trackId) });    
     deleteDirectoryRecurse(context, FileUtils.getPhotoDir(trackId));  
@@ -234,6 +267,81 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     }
   }
 
+  @Override
+  public List<AggregatedStats> getAggregatedStats() {
+    ArrayList<AggregatedStats> aggregatedStats = new ArrayList<AggregatedStats>();
+    Cursor cursor = null;
+    try {
+      cursor = contentResolver.query(AggregatedStatsColumns.CONTENT_URI, null,
+          AggregatedStatsColumns.NUMTRACKS + ">0", null, null);
+      if (cursor != null && cursor.moveToFirst()) {
+        aggregatedStats.ensureCapacity(cursor.getCount());
+        do {
+          aggregatedStats.add(createAggregatedStats(cursor));
+        } while (cursor.moveToNext());
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    return aggregatedStats;
+  }
+
+  /**
+   * Creates an {@link AggregatedStats} from a cursor.
+   * 
+   * @param cursor the cursor pointing to an aggregated stats row
+   */
+  private AggregatedStats createAggregatedStats(Cursor cursor) {
+    int typeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.TYPE);
+    int categoryIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.CATEGORY);
+    int periodStartIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.PERIODSTART);
+    int numTracksIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.NUMTRACKS);
+    int startTimeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.STARTTIME);
+    int stopTimeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.STOPTIME);
+    int totalDistanceIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.TOTALDISTANCE);
+    int totalTimeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.TOTALTIME);
+    int movingTimeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MOVINGTIME);
+    int maxSpeedIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MAXSPEED);
+    int minElevationIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MINELEVATION);
+    int maxElevationIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MAXELEVATION);
+    int elevationGainIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.ELEVATIONGAIN);
+    int minGradeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MINGRADE);
+    int maxGradeIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.MAXGRADE);
+    int calorieIndex = cursor.getColumnIndexOrThrow(AggregatedStatsColumns.CALORIE);
+
+    TripStatistics tripStatistics = new TripStatistics();
+    if (!cursor.isNull(startTimeIndex)) {
+      tripStatistics.setStartTime(cursor.getLong(startTimeIndex));
+    }
+    if (!cursor.isNull(stopTimeIndex)) {
+      tripStatistics.setStopTime(cursor.getLong(stopTimeIndex));
+    }
+    tripStatistics.setTotalDistance(cursor.getDouble(totalDistanceIndex));
+    tripStatistics.setTotalTime(cursor.getLong(totalTimeIndex));
+    tripStatistics.setMovingTime(cursor.getLong(movingTimeIndex));
+    if (!cursor.isNull(maxSpeedIndex)) {
+      tripStatistics.setMaxSpeed(cursor.getDouble(maxSpeedIndex));
+    }
+    if (!cursor.isNull(minElevationIndex)) {
+      tripStatistics.setMinElevation(cursor.getDouble(minElevationIndex));
+    }
+    if (!cursor.isNull(maxElevationIndex)) {
+      tripStatistics.setMaxElevation(cursor.getDouble(maxElevationIndex));
+    }
+    tripStatistics.setTotalElevationGain(cursor.getDouble(elevationGainIndex));
+    if (!cursor.isNull(minGradeIndex)) {
+      tripStatistics.setMinGrade(cursor.getDouble(minGradeIndex));
+    }
+    if (!cursor.isNull(maxGradeIndex)) {
+      tripStatistics.setMaxGrade(cursor.getDouble(maxGradeIndex));
+    }
+    tripStatistics.setCalorie(cursor.getDouble(calorieIndex));
+    return new AggregatedStats(cursor.getInt(typeIndex), cursor.getString(categoryIndex),
+        cursor.getLong(periodStartIndex), cursor.getInt(numTracksIndex), tripStatistics);
+  }
+
   @Override
   public List<Track> getAllTracks() {
     ArrayList<Track> tracks = new ArrayList<Track>();
@@ -297,6 +405,85 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     return getTrackCursor(null, selection, selectionArgs, sortOrder);
   }
 
+  @Override
+  public List<TrackSummary> getTrackSummaries(
+      String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+    ArrayList<TrackSummary> summaries = new ArrayList<TrackSummary>();
+    Cursor cursor = null;
+    try {
+      cursor = getTrackCursor(projection, selection, selectionArgs, sortOrder);
+      if (cursor != null && cursor.moveToFirst()) {
+        summaries.ensureCapacity(cursor.getCount());
+        TrackSummary.RowMapper rowMapper = new TrackSummary.RowMapper(cursor);
+        do {
+          summaries.add(rowMapper.map(cursor));
+        } while (cursor.moveToNext());
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    return summaries;
+  }
+
+  @Override
+  public TrackSummary getTrackSummary(String[] projection, long trackId) {
+    if (trackId < 0) {
+      return null;
+    }
+    List<TrackSummary> summaries = getTrackSummaries(projection, TracksColumns._ID + "=?",
+        new String[] { Long.toString(trackId) }, null);
+    return summaries.isEmpty() ? null : summaries.get(0);
+  }
+
+  @Override
+  public Cursor getTrackSearchCursor(String matchQuery) {
+    return contentResolver.query(TracksSearchColumns.CONTENT_URI, TracksSearchColumns.PROJECTION,
+        TracksSearchColumns.SELECTION, new String[] { matchQuery }, null);
+  }
+
+  @Override
+  public Cursor getTrackCursorInBounds(
+      int minLatitude, int maxLatitude, int minLongitude, int maxLongitude, int maxTracks) {
+    return getSpatialCursor(TracksSpatialColumns.CONTENT_URI, TracksSpatialColumns.TABLE_NAME,
+        TracksSpatialColumns.PROJECTION, minLatitude, maxLatitude, minLongitude, maxLongitude,
+        maxTracks);
+  }
+
+  @Override
+  public List<Track> getNearestTracks(Location location, int maxTracks) {
+    List<Long> trackIds = getNearestIds(
+        TracksSpatialColumns.CONTENT_URI, TracksSpatialColumns.TABLE_NAME, location, maxTracks);
+    ArrayList<Track> tracks = new ArrayList<Track>();
+    if (trackIds.isEmpty()) {
+      return tracks;
+    }
+    Map<Long, Track> trackMap = new HashMap<Long, Track>();
+    Cursor cursor = null;
+    try {
+      cursor = getSpatialCursor(TracksSpatialColumns.CONTENT_URI,
+          TracksSpatialColumns.TABLE_NAME, TracksSpatialColumns.PROJECTION, trackIds);
+      if (cursor != null) {
+        while (cursor.moveToNext()) {
+          Track track = createTrack(cursor);
+          trackMap.put(track.getId(), track);
+        }
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    for (long trackId : trackIds) {
+      Track track = trackMap.get(trackId);
+      if (track != null) {
+        tracks.add(track);
+      }
+    }
+    return tracks;
+  }
+
   @Override
   public Uri insertTrack(Track track) {
     return contentResolver.insert(TracksColumns.CONTENT_URI, createContentValues(track));
@@ -308,6 +495,32 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         TracksColumns._ID + "=?", new String[] { Long.toString(track.getId()) });
   }
 
+  @Override
+  public void updateTrackDriveInfo(long trackId, String driveId, long modifiedTime,
+      boolean sharedWithMe, String sharedOwner) {
+    ContentValues values = new ContentValues();
+    values.put(TracksColumns.DRIVEID, driveId);
+    values.put(TracksColumns.MODIFIEDTIME, modifiedTime);
+    values.put(TracksColumns.SHAREDWITHME, sharedWithMe);
+    values.put(TracksColumns.SHAREDOWNER, sharedOwner);
+    contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?",
+        new String[] { Long.toString(trackId) });
+  }
+
+  @Override
+  public void updateTrackCalorie(long trackId, double calorie, CalorieInputs calorieInputs) {
+    ContentValues values = new ContentValues();
+    values.put(TracksColumns.CALORIE, calorie);
+    if (calorieInputs != null) {
+      values.put(TracksColumns.CALORIEDURATION, calorieInputs.getDuration());
+      values.put(TracksColumns.CALORIEDISTANCE, calorieInputs.getDistance());
+      values.put(TracksColumns.CALORIECLIMB, calorieInputs.getClimb());
+      values.put(TracksColumns.CALORIEDRAG, calorieInputs.getDrag());
+    }
+    contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?",
+        new String[] { Long.toString(trackId) });
+  }
+
   private ContentValues createContentValues(Track track) {
     ContentValues values = new ContentValues();
     TripStatistics tripStatistics = track.getTripStatistics();
@@ -345,19 +558,17 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     values.put(TracksColumns.SHAREDWITHME, track.isSharedWithMe());
     values.put(TracksColumns.SHAREDOWNER, track.getSharedOwner());
     values.put(TracksColumns.CALORIE, tripStatistics.getCalorie());
+    CalorieInputs calorieInputs = tripStatistics.getCalorieInputs();
+    values.put(TracksColumns.CALORIEDURATION, calorieInputs.getDuration());
+    values.put(TracksColumns.CALORIEDISTANCE, calorieInputs.getDistance());
+    values.put(TracksColumns.CALORIECLIMB, calorieInputs.getClimb());
+    values.put(TracksColumns.CALORIEDRAG, calorieInputs.getDrag());
     
     return values;
   }
 
-  /**
-   * Gets a track cursor.
-   * 
-   * @param projection the projection
-   * @param selection the selection
-   * @param selectionArgs the selection arguments
-   * @param sortOrder the sort oder
-   */
-  private Cursor getTrackCursor(
+  @Override
+  public Cursor getTrackCursor(
       String[] projection, String selection, String[] selectionArgs, String sortOrder) {
     return contentResolver.query(
         TracksColumns.CONTENT_URI, projection, selection, selectionArgs, sortOrder);
@@ -394,6 +605,10 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     int minGradeIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.MINGRADE);
     int maxGradeIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.MAXGRADE);
     int calorieIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.CALORIE);
+    int calorieDurationIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.CALORIEDURATION);
+    int calorieDistanceIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.CALORIEDISTANCE);
+    int calorieClimbIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.CALORIECLIMB);
+    int calorieDragIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.CALORIEDRAG);
     int photoUrlIndex = cursor.getColumnIndexOrThrow(WaypointsColumns.PHOTOURL);
     
     Waypoint waypoint = new Waypoint();
@@ -500,6 +715,13 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
       tripStatistics.setCalorie(cursor.getFloat(calorieIndex));
       hasTripStatistics = true;
     }
+    if (!cursor.isNull(calorieDurationIndex) && !cursor.isNull(calorieDistanceIndex)
+        && !cursor.isNull(calorieClimbIndex) && !cursor.isNull(calorieDragIndex)) {
+      tripStatistics.getCalorieInputs().set(cursor.getDouble(calorieDurationIndex),
+          cursor.getDouble(calorieDistanceIndex), cursor.getDouble(calorieClimbIndex),
+          cursor.getDouble(calorieDragIndex));
+      hasTripStatistics = true;
+    }
     if (hasTripStatistics) {
       waypoint.setTripStatistics(tripStatistics);
     }
@@ -542,8 +764,8 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         }                      
       }
     }
-    contentResolver.delete(WaypointsColumns.CONTENT_URI, WaypointsColumns._ID + "=?",
-        new String[] { Long.toString(waypointId) });
+    contentResolver.delete(
+        ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, waypointId), null, null);
   }
 
   @Override
@@ -661,6 +883,54 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     return getWaypointCursor(null, selection, selectionArgs, WaypointsColumns._ID, maxWaypoints);
   }
 
+  @Override
+  public Cursor getWaypointSearchCursor(String matchQuery) {
+    return contentResolver.query(WaypointsSearchColumns.CONTENT_URI,
+        WaypointsSearchColumns.PROJECTION, WaypointsSearchColumns.SELECTION,
+        new String[] { matchQuery }, null);
+  }
+
+  @Override
+  public Cursor getWaypointCursorInBounds(
+      int minLatitude, int maxLatitude, int minLongitude, int maxLongitude, int maxWaypoints) {
+    return getSpatialCursor(WaypointsSpatialColumns.CONTENT_URI,
+        WaypointsSpatialColumns.TABLE_NAME, WaypointsSpatialColumns.PROJECTION, minLatitude,
+        maxLatitude, minLongitude, maxLongitude, maxWaypoints);
+  }
+
+  @Override
+  public List<Waypoint> getNearestWaypoints(Location location, int maxWaypoints) {
+    List<Long> waypointIds = getNearestIds(WaypointsSpatialColumns.CONTENT_URI,
+        WaypointsSpatialColumns.TABLE_NAME, location, maxWaypoints);
+    ArrayList<Waypoint> waypoints = new ArrayList<Waypoint>();
+    if (waypointIds.isEmpty()) {
+      return waypoints;
+    }
+    Map<Long, Waypoint> waypointMap = new HashMap<Long, Waypoint>();
+    Cursor cursor = null;
+    try {
+      cursor = getSpatialCursor(WaypointsSpatialColumns.CONTENT_URI,
+          WaypointsSpatialColumns.TABLE_NAME, WaypointsSpatialColumns.PROJECTION, waypointIds);
+      if (cursor != null) {
+        while (cursor.moveToNext()) {
+          Waypoint waypoint = createWaypoint(cursor);
+          waypointMap.put(waypoint.getId(), waypoint);
+        }
+      }
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    for (long waypointId : waypointIds) {
+      Waypoint waypoint = waypointMap.get(waypointId);
+      if (waypoint != null) {
+        waypoints.add(waypoint);
+      }
+    }
+    return waypoints;
+  }
+
   @Override
   public int getWaypointCount(long trackId) {
     if (trackId < 0) {
@@ -687,11 +957,72 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
 
   @Override
   public boolean updateWaypoint(Waypoint waypoint) {
-    int rows = contentResolver.update(WaypointsColumns.CONTENT_URI, createContentValues(waypoint),
-        WaypointsColumns._ID + "=?", new String[] { Long.toString(waypoint.getId()) });
+    int rows = contentResolver.update(
+        ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, waypoint.getId()),
+        createContentValues(waypoint), null, null);
     return rows == 1;
   }
 
+  @Override
+  public boolean updateWaypoints(List<Waypoint> waypoints) {
+    ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+    for (Waypoint waypoint : waypoints) {
+      operations.add(ContentProviderOperation.newUpdate(
+          ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, waypoint.getId()))
+          .withValues(createContentValues(waypoint)).build());
+    }
+    return applyWaypointOperations(operations);
+  }
+
+  @Override
+  public boolean updateWaypointsCalorie(List<Waypoint> waypoints) {
+    ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+    for (Waypoint waypoint : waypoints) {
+      TripStatistics tripStatistics = waypoint.getTripStatistics();
+      CalorieInputs calorieInputs = tripStatistics.getCalorieInputs();
+      operations.add(ContentProviderOperation.newUpdate(
+          ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, waypoint.getId()))
+          .withValue(WaypointsColumns.CALORIE, tripStatistics.getCalorie())
+          .withValue(WaypointsColumns.CALORIEDURATION, calorieInputs.getDuration())
+          .withValue(WaypointsColumns.CALORIEDISTANCE, calorieInputs.getDistance())
+          .withValue(WaypointsColumns.CALORIECLIMB, calorieInputs.getClimb())
+          .withValue(WaypointsColumns.CALORIEDRAG, calorieInputs.getDrag()).build());
+    }
+    return applyWaypointOperations(operations);
+  }
+
+  @Override
+  public boolean updateWaypointsDescription(List<Waypoint> waypoints) {
+    ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+    for (Waypoint waypoint : waypoints) {
+      operations.add(ContentProviderOperation.newUpdate(
+          ContentUris.withAppendedId(WaypointsColumns.CONTENT_URI, waypoint.getId()))
+          .withValue(WaypointsColumns.DESCRIPTION, waypoint.getDescription()).build());
+    }
+    return applyWaypointOperations(operations);
+  }
+
+  /**
+   * Applies waypoint operations in a single transaction. Returns true if
+   * successful.
+   * 
+   * @param operations the operations
+   */
+  private boolean applyWaypointOperations(ArrayList<ContentProviderOperation> operations) {
+    if (operations.isEmpty()) {
+      return true;
+    }
+    try {
+      contentResolver.applyBatch(AUTHORITY, operations);
+      return true;
+    } catch (RemoteException e) {
+      Log.e(TAG, "Unable to update waypoints", e);
+    } catch (OperationApplicationException e) {
+      Log.e(TAG, "Unable to update waypoints", e);
+    }
+    return false;
+  }
+
   ContentValues createContentValues(Waypoint waypoint) {
     ContentValues values = new ContentValues();
 
@@ -744,6 +1075,11 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
       values.put(WaypointsColumns.MINGRADE, tripStatistics.getMinGrade());
       values.put(WaypointsColumns.MAXGRADE, tripStatistics.getMaxGrade());
       values.put(WaypointsColumns.CALORIE, tripStatistics.getCalorie());
+      CalorieInputs calorieInputs = tripStatistics.getCalorieInputs();
+      values.put(WaypointsColumns.CALORIEDURATION, calorieInputs.getDuration());
+      values.put(WaypointsColumns.CALORIEDISTANCE, calorieInputs.getDistance());
+      values.put(WaypointsColumns.CALORIECLIMB, calorieInputs.getClimb());
+      values.put(WaypointsColumns.CALORIEDRAG, calorieInputs.getDrag());
     }
     
     values.put(WaypointsColumns.PHOTOURL, waypoint.getPhotoUrl());    
@@ -790,6 +1126,153 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         WaypointsColumns.CONTENT_URI, projection, selection, selectionArgs, sortOrder);
   }
 
+  /**
+   * Gets a spatial cursor for a bounding box. The track and waypoint spatial
+   * tables have the same columns.
+   * 
+   * @param uri the spatial content uri
+   * @param tableName the spatial table name
+   * @param projection the projection
+   * @param minLatitude the min latitude in microdegrees
+   * @param maxLatitude the max latitude in microdegrees
+   * @param minLongitude the min longitude in microdegrees
+   * @param maxLongitude the max longitude in microdegrees
+   * @param maxRows the maximum number of rows. -1 for no limit
+   */
+  private Cursor getSpatialCursor(Uri uri, String tableName, String[] projection,
+      int minLatitude, int maxLatitude, int minLongitude, int maxLongitude, int maxRows) {
+    String selection = tableName + "." + TracksSpatialColumns.MAXLAT + ">=? AND " + tableName
+        + "." + TracksSpatialColumns.MINLAT + "<=? AND " + tableName + "."
+        + TracksSpatialColumns.MAXLON + ">=? AND " + tableName + "."
+        + TracksSpatialColumns.MINLON + "<=?";
+    String[] selectionArgs = new String[] { Integer.toString(minLatitude),
+        Integer.toString(maxLatitude), Integer.toString(minLongitude),
+        Integer.toString(maxLongitude) };
+    String sortOrder = tableName + "." + TracksSpatialColumns.ID;
+    if (maxRows >= 0) {
+      sortOrder += " LIMIT " + maxRows;
+    }
+    return contentResolver.query(uri, projection, selection, selectionArgs, sortOrder);
+  }
+
+  /**
+   * Gets a spatial cursor for the rows with the given ids, joined with their
+   * track or waypoint rows in a single query.
+   * 
+   * @param uri the spatial content uri
+   * @param tableName the spatial table name
+   * @param projection the projection
+   * @param ids the ids
+   */
+  private Cursor getSpatialCursor(
+      Uri uri, String tableName, String[] projection, List<Long> ids) {
+    StringBuilder selection = new StringBuilder(tableName).append('.')
+        .append(TracksSpatialColumns.ID).append(" IN (");
+    for (int i = 0; i < ids.size(); i++) {
+      if (i > 0) {
+        selection.append(',');
+      }
+      selection.append(ids.get(i).longValue());
+    }
+    selection.append(')');
+    return contentResolver.query(uri, projection, selection.toString(), null, null);
+  }
+
+  /**
+   * Gets the ids of the rows of a spatial table nearest to a location. Queries
+   * a bounding box around the location, doubling its size until it contains
+   * enough rows, and sorts the rows by the distance from the location to their
+   * bounds. Bounding boxes crossing the 180th meridian are not handled.
+   * 
+   * @param uri the spatial content uri
+   * @param tableName the spatial table name
+   * @param location the location
+   * @param maxRows the maximum number of rows
+   */
+  private List<Long> getNearestIds(Uri uri, String tableName, Location location, int maxRows) {
+    ArrayList<Long> ids = new ArrayList<Long>();
+    if (location == null || maxRows <= 0) {
+      return ids;
+    }
+    int latitude = (int) (location.getLatitude() * 1E6);
+    int longitude = (int) (location.getLongitude() * 1E6);
+    double cosLatitude = Math.max(Math.cos(Math.toRadians(location.getLatitude())), 0.01);
+    String[] projection = new String[] { tableName + "." + TracksSpatialColumns.ID,
+        tableName + "." + TracksSpatialColumns.MINLAT,
+        tableName + "." + TracksSpatialColumns.MAXLAT,
+        tableName + "." + TracksSpatialColumns.MINLON,
+        tableName + "." + TracksSpatialColumns.MAXLON };
+    float[] results = new float[1];
+
+    for (long radius = NEAREST_INITIAL_RADIUS;; radius *= 2) {
+      long longitudeRadius = Math.min((long) (radius / cosLatitude), 2L * NEAREST_MAX_RADIUS);
+      ArrayList<SpatialRow> rows = new ArrayList<SpatialRow>();
+      Cursor cursor = null;
+      try {
+        cursor = getSpatialCursor(uri, tableName, projection, clamp(latitude - radius),
+            clamp(latitude + radius), clamp(longitude - longitudeRadius),
+            clamp(longitude + longitudeRadius), -1);
+        if (cursor != null) {
+          while (cursor.moveToNext()) {
+            // The closest point of the bounds
+            double closestLatitude = Math.min(
+                Math.max(latitude, cursor.getInt(1)), cursor.getInt(2)) / 1E6;
+            double closestLongitude = Math.min(
+                Math.max(longitude, cursor.getInt(3)), cursor.getInt(4)) / 1E6;
+            Location.distanceBetween(location.getLatitude(), location.getLongitude(),
+                closestLatitude, closestLongitude, results);
+            rows.add(new SpatialRow(cursor.getLong(0), results[0]));
+          }
+        }
+      } finally {
+        if (cursor != null) {
+          cursor.close();
+        }
+      }
+      boolean coversAll = radius >= NEAREST_MAX_RADIUS;
+      if (rows.size() < maxRows && !coversAll) {
+        continue;
+      }
+      Collections.sort(rows);
+
+      // Rows outside the bounding box are at least radius away
+      int size = Math.min(maxRows, rows.size());
+      if (coversAll || rows.get(size - 1).distance <= radius * METERS_PER_MICRODEGREE) {
+        for (int i = 0; i < size; i++) {
+          ids.add(rows.get(i).id);
+        }
+        return ids;
+      }
+    }
+  }
+
+  /**
+   * Clamps a microdegree value to the int range.
+   * 
+   * @param value the value
+   */
+  private static int clamp(long value) {
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+  }
+
+  /**
+   * A spatial table row id and its distance from a location.
+   */
+  private static class SpatialRow implements Comparable<SpatialRow> {
+    public final long id;
+    public final float distance;
+
+    public SpatialRow(long id, float distance) {
+      this.id = id;
+      this.distance = distance;
+    }
+
+    @Override
+    public int compareTo(SpatialRow other) {
+      return Float.compare(distance, other.distance);
+    }
+  }
+
   @Override
   public int bulkInsertTrackPoint(Location[] locations, int length, long trackId) {
     if (length == -1) {
@@ -802,6 +1285,31 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
     return contentResolver.bulkInsert(TrackPointsColumns.CONTENT_URI, values);
   }
 
+  @Override
+  public long[] insertTrackPoints(List<Location> locations, long trackId) {
+    ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+    for (Location location : locations) {
+      operations.add(ContentProviderOperation.newInsert(TrackPointsColumns.CONTENT_URI)
+          .withValues(createContentValues(location, trackId)).build());
+    }
+    try {
+      ContentProviderResult[] results = contentResolver.applyBatch(AUTHORITY, operations);
+      if (results.length != locations.size()) {
+        return null;
+      }
+      long[] ids = new long[results.length];
+      for (int i = 0; i < results.length; i++) {
+        ids[i] = Long.parseLong(results[i].uri.getLastPathSegment());
+      }
+      return ids;
+    } catch (RemoteException e) {
+      Log.e(TAG, "Unable to insert track points", e);
+    } catch (OperationApplicationException e) {
+      Log.e(TAG, "Unable to insert track points", e);
+    }
+    return null;
+  }
+
   @Override
   public Location createTrackPoint(Cursor cursor) {
     Location location = new MyTracksLocation("");
@@ -956,6 +1464,8 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
       private final CachedTrackPointsIndexes
           indexes = cursor != null ? new CachedTrackPointsIndexes(cursor)
               : null;
+      private final SensorPointJoiner sensorPointJoiner = new SensorPointJoiner(
+          trackId, descending);
 
       /**
        * Gets the track point cursor.
@@ -1013,6 +1523,7 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         lastTrackPointId = cursor.getLong(indexes.idIndex);
         Location location = locationFactory.createLocation();
         fillTrackPoint(cursor, indexes, location);
+        sensorPointJoiner.join(location);
         return location;
       }
 
@@ -1022,6 +1533,7 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
           cursor.close();
           cursor = null;
         }
+        sensorPointJoiner.close();
       }
 
         @Override
@@ -1037,6 +1549,100 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         TrackPointsColumns.CONTENT_URI, createContentValues(location, trackId));
   }
 
+  @Override
+  public int insertSensorPoints(List<SensorDataSet> sensorDataSets, long trackId) {
+    ContentValues[] values = new ContentValues[sensorDataSets.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = createContentValues(sensorDataSets.get(i), trackId);
+    }
+    return contentResolver.bulkInsert(SensorPointsColumns.CONTENT_URI, values);
+  }
+
+  @Override
+  public Cursor getSensorPointCursor(long trackId, long time, boolean descending) {
+    if (trackId < 0) {
+      return null;
+    }
+    String selection;
+    String[] selectionArgs;
+    if (time >= 0) {
+      String comparison = descending ? "<=" : ">=";
+      selection = SensorPointsColumns.TRACKID + "=? AND " + SensorPointsColumns.TIME + comparison
+          + "?";
+      selectionArgs = new String[] { Long.toString(trackId), Long.toString(time) };
+    } else {
+      selection = SensorPointsColumns.TRACKID + "=?";
+      selectionArgs = new String[] { Long.toString(trackId) };
+    }
+    String sortOrder = SensorPointsColumns.TIME;
+    if (descending) {
+      sortOrder += " DESC";
+    }
+    return contentResolver.query(
+        SensorPointsColumns.CONTENT_URI, null, selection, selectionArgs, sortOrder);
+  }
+
+  @Override
+  public SensorDataSet createSensorDataSet(Cursor cursor) {
+    SensorDataSet.Builder builder = SensorDataSet.newBuilder();
+    builder.setCreationTime(
+        cursor.getLong(cursor.getColumnIndexOrThrow(SensorPointsColumns.TIME)));
+    int heartRateIndex = cursor.getColumnIndexOrThrow(SensorPointsColumns.HEART_RATE);
+    if (!cursor.isNull(heartRateIndex)) {
+      builder.setHeartRate(createSensorData(cursor.getInt(heartRateIndex)));
+    }
+    int cadenceIndex = cursor.getColumnIndexOrThrow(SensorPointsColumns.CADENCE);
+    if (!cursor.isNull(cadenceIndex)) {
+      builder.setCadence(createSensorData(cursor.getInt(cadenceIndex)));
+    }
+    int powerIndex = cursor.getColumnIndexOrThrow(SensorPointsColumns.POWER);
+    if (!cursor.isNull(powerIndex)) {
+      builder.setPower(createSensorData(cursor.getInt(powerIndex)));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates the {@link SensorData} of a sending sensor.
+   * 
+   * @param value the value
+   */
+  private SensorData createSensorData(int value) {
+    return SensorData.newBuilder().setValue(value).setState(SensorState.SENDING).build();
+  }
+
+  /**
+   * Creates the {@link ContentValues} for a {@link SensorDataSet}. Only keeps
+   * the values of the sending sensors.
+   * 
+   * @param sensorDataSet the sensor data set
+   * @param trackId the track id
+   */
+  private ContentValues createContentValues(SensorDataSet sensorDataSet, long trackId) {
+    ContentValues values = new ContentValues();
+    values.put(SensorPointsColumns.TRACKID, trackId);
+    values.put(SensorPointsColumns.TIME, sensorDataSet.getCreationTime());
+    if (sensorDataSet.hasHeartRate() && isSending(sensorDataSet.getHeartRate())) {
+      values.put(SensorPointsColumns.HEART_RATE, sensorDataSet.getHeartRate().getValue());
+    }
+    if (sensorDataSet.hasCadence() && isSending(sensorDataSet.getCadence())) {
+      values.put(SensorPointsColumns.CADENCE, sensorDataSet.getCadence().getValue());
+    }
+    if (sensorDataSet.hasPower() && isSending(sensorDataSet.getPower())) {
+      values.put(SensorPointsColumns.POWER, sensorDataSet.getPower().getValue());
+    }
+    return values;
+  }
+
+  /**
+   * Returns true if a sensor is sending a value.
+   * 
+   * @param sensorData the sensor data
+   */
+  private static boolean isSending(SensorData sensorData) {
+    return sensorData.getState() == SensorState.SENDING && sensorData.hasValue();
+  }
+
   /**
    * Creates the {@link ContentValues} for a {@link Location}.
    * 
@@ -1148,6 +1754,99 @@ public class MyTracksProviderUtilsImpl implements MyTracksProviderUtils {
         TrackPointsColumns.CONTENT_URI, projection, selection, selectionArgs, sortOrder);
   }
 
+  /**
+   * Joins the sensor points of a track to its track points by time, for a
+   * {@link LocationIterator}. Reads the sensor points with one cursor, in the
+   * order of the track points, starting at the first joined track point.
+   */
+  private class SensorPointJoiner {
+    private final long trackId;
+    private final boolean descending;
+    private Cursor cursor;
+    private boolean opened;
+
+    /*
+     * The position of the latest sensor point at or before the last joined
+     * track point, or -1 if none. Its sensor data set, or null if not created
+     * yet.
+     */
+    private int position = -1;
+    private SensorDataSet sensorDataSet;
+
+    public SensorPointJoiner(long trackId, boolean descending) {
+      this.trackId = trackId;
+      this.descending = descending;
+    }
+
+    /**
+     * Sets the sensor data set of a location without one, if a sensor point is
+     * at most {@link #MAX_SENSOR_POINT_AGE} before it.
+     * 
+     * @param location the location
+     */
+    public void join(Location location) {
+      if (!(location instanceof MyTracksLocation)
+          || ((MyTracksLocation) location).getSensorDataSet() != null
+          || location.getLatitude() * 1E6 > MAX_LATITUDE) {
+        return;
+      }
+      long time = location.getTime();
+      if (!opened) {
+        opened = true;
+        cursor = getSensorPointCursor(
+            trackId, descending ? time : time - MAX_SENSOR_POINT_AGE, descending);
+      }
+      if (cursor == null || !moveTo(time)) {
+        return;
+      }
+      if (sensorDataSet == null) {
+        sensorDataSet = createSensorDataSet(cursor);
+      }
+      if (time - sensorDataSet.getCreationTime() <= MAX_SENSOR_POINT_AGE) {
+        ((MyTracksLocation) location).setSensorDataSet(sensorDataSet);
+      }
+    }
+
+    /**
+     * Moves the cursor to the latest sensor point at or before a time. Returns
+     * false if none.
+     * 
+     * @param time the time
+     */
+    private boolean moveTo(long time) {
+      int timeIndex = cursor.getColumnIndexOrThrow(SensorPointsColumns.TIME);
+      if (descending) {
+        // Skip the sensor points after the time
+        int next = Math.max(position, 0);
+        while (cursor.moveToPosition(next) && cursor.getLong(timeIndex) > time) {
+          next++;
+        }
+        if (next != position) {
+          position = next;
+          sensorDataSet = null;
+        }
+        return cursor.moveToPosition(position);
+      }
+      // Advance to the last sensor point not after the time
+      int next = position + 1;
+      while (cursor.moveToPosition(next) && cursor.getLong(timeIndex) <= time) {
+        next++;
+      }
+      if (next - 1 != position) {
+        position = next - 1;
+        sensorDataSet = null;
+      }
+      return position >= 0 && cursor.moveToPosition(position);
+    }
+
+    public void close() {
+      if (cursor != null) {
+        cursor.close();
+        cursor = null;
+      }
+    }
+  }
+
   /**
    * A cache of track points indexes.
    */
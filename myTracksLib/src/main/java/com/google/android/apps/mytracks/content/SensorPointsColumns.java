@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.android.apps.mytracks.content;
+
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+/**
+ * Constants for the sensor points table, the heart rate, cadence, and power
+ * time series of a track at the sensor rate. A sensor point is joined on read
+ * to the track points at or shortly after its time. A value column is null if
+ * the sensor was not sending.
+ */
+public interface SensorPointsColumns extends BaseColumns {
+
+  public static final String TABLE_NAME = "sensorpoints";
+  public static final Uri CONTENT_URI = Uri.parse(
+      "content://com.google.android.maps.mytracks/sensorpoints");
+  public static final String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.google.sensorpoint";
+  public static final String DEFAULT_SORT_ORDER = "time";
+
+  // Columns
+  public static final String TRACKID = "trackid"; // track id
+  public static final String TIME = "time"; // time
+  public static final String HEART_RATE = "heartrate"; // heart rate
+  public static final String CADENCE = "cadence"; // cadence
+  public static final String POWER = "power"; // power
+
+  public static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " ("
+      + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " // id
+      + TRACKID + " INTEGER, " // track id
+      + TIME + " INTEGER, " // time
+      + HEART_RATE + " INTEGER, " // heart rate
+      + CADENCE + " INTEGER, " // cadence
+      + POWER + " INTEGER)"; // power
+
+  public static final String CREATE_INDEX = "CREATE INDEX IF NOT EXISTS " + TABLE_NAME
+      + "_index ON " + TABLE_NAME + "(" + TRACKID + ", " + TIME + ")";
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.database.Cursor;
+
+/**
+ * A lightweight, read-only view of a track row, read with an explicit
+ * projection. Only the columns in the projection are read, the other fields
+ * keep the {@link Track} defaults. Unlike {@link Track}, it has no
+ * {@link com.google.android.apps.mytracks.stats.TripStatistics}.
+ */
+public class TrackSummary {
+
+  /**
+   * The projection for syncing with Google Drive.
+   */
+  public static final String[] SYNC_PROJECTION = { TracksColumns._ID, // id
+      TracksColumns.NAME, // name
+      TracksColumns.DRIVEID, // drive id
+      TracksColumns.MODIFIEDTIME, // modified time
+      TracksColumns.SHAREDWITHME, // shared with me
+      TracksColumns.SHAREDOWNER }; // shared owner
+
+  /**
+   * The projection for scoring and showing search results.
+   */
+  public static final String[] SEARCH_PROJECTION = { TracksColumns._ID, // id
+      TracksColumns.NAME, // name
+      TracksColumns.DESCRIPTION, // description
+      TracksColumns.CATEGORY, // category
+      TracksColumns.ICON, // icon
+      TracksColumns.STARTTIME, // start time
+      TracksColumns.STOPTIME, // stop time
+      TracksColumns.TOTALDISTANCE, // total distance
+      TracksColumns.TOTALTIME, // total time
+      TracksColumns.MINLAT, // min latitude
+      TracksColumns.MAXLAT, // max latitude
+      TracksColumns.MINLON, // min longitude
+      TracksColumns.MAXLON, // max longitude
+      TracksColumns.SHAREDOWNER }; // shared owner
+
+  private long id = -1L;
+  private String name = "";
+  private String description = "";
+  private String category = "";
+  private String icon = "";
+  private long startTime = -1L;
+  private long stopTime = -1L;
+  private double totalDistance;
+  private long totalTime;
+  private double meanLatitude = Double.NaN;
+  private double meanLongitude = Double.NaN;
+  private String driveId = "";
+  private long modifiedTime = -1L;
+  private boolean sharedWithMe = false;
+  private String sharedOwner = "";
+
+  public long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public String getIcon() {
+    return icon;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getStopTime() {
+    return stopTime;
+  }
+
+  public double getTotalDistance() {
+    return totalDistance;
+  }
+
+  public long getTotalTime() {
+    return totalTime;
+  }
+
+  /**
+   * Gets the mean latitude of the track bounds, in signed degrees. NaN if the
+   * bounds are not in the projection.
+   */
+  public double getMeanLatitude() {
+    return meanLatitude;
+  }
+
+  /**
+   * Gets the mean longitude of the track bounds, in signed degrees. NaN if the
+   * bounds are not in the projection.
+   */
+  public double getMeanLongitude() {
+    return meanLongitude;
+  }
+
+  public String getDriveId() {
+    return driveId;
+  }
+
+  public long getModifiedTime() {
+    return modifiedTime;
+  }
+
+  public boolean isSharedWithMe() {
+    return sharedWithMe;
+  }
+
+  public String getSharedOwner() {
+    return sharedOwner;
+  }
+
+  /**
+   * Maps the rows of a track cursor to {@link TrackSummary}. The column indexes
+   * are looked up once, when the mapper is created for the cursor, and columns
+   * not in the cursor projection are skipped.
+   */
+  public static class RowMapper {
+
+    private final int idIndex;
+    private final int nameIndex;
+    private final int descriptionIndex;
+    private final int categoryIndex;
+    private final int iconIndex;
+    private final int startTimeIndex;
+    private final int stopTimeIndex;
+    private final int totalDistanceIndex;
+    private final int totalTimeIndex;
+    private final int minLatIndex;
+    private final int maxLatIndex;
+    private final int minLonIndex;
+    private final int maxLonIndex;
+    private final int driveIdIndex;
+    private final int modifiedTimeIndex;
+    private final int sharedWithMeIndex;
+    private final int sharedOwnerIndex;
+
+    /**
+     * Constructor.
+     * 
+     * @param cursor the cursor, its projection determines the columns read
+     */
+    public RowMapper(Cursor cursor) {
+      idIndex = cursor.getColumnIndex(TracksColumns._ID);
+      nameIndex = cursor.getColumnIndex(TracksColumns.NAME);
+      descriptionIndex = cursor.getColumnIndex(TracksColumns.DESCRIPTION);
+      categoryIndex = cursor.getColumnIndex(TracksColumns.CATEGORY);
+      iconIndex = cursor.getColumnIndex(TracksColumns.ICON);
+      startTimeIndex = cursor.getColumnIndex(TracksColumns.STARTTIME);
+      stopTimeIndex = cursor.getColumnIndex(TracksColumns.STOPTIME);
+      totalDistanceIndex = cursor.getColumnIndex(TracksColumns.TOTALDISTANCE);
+      totalTimeIndex = cursor.getColumnIndex(TracksColumns.TOTALTIME);
+      minLatIndex = cursor.getColumnIndex(TracksColumns.MINLAT);
+      maxLatIndex = cursor.getColumnIndex(TracksColumns.MAXLAT);
+      minLonIndex = cursor.getColumnIndex(TracksColumns.MINLON);
+      maxLonIndex = cursor.getColumnIndex(TracksColumns.MAXLON);
+      driveIdIndex = cursor.getColumnIndex(TracksColumns.DRIVEID);
+      modifiedTimeIndex = cursor.getColumnIndex(TracksColumns.MODIFIEDTIME);
+      sharedWithMeIndex = cursor.getColumnIndex(TracksColumns.SHAREDWITHME);
+      sharedOwnerIndex = cursor.getColumnIndex(TracksColumns.SHAREDOWNER);
+    }
+
+    /**
+     * Maps the current row of the cursor.
+     * 
+     * @param cursor the cursor this mapper was created for
+     */
+    public TrackSummary map(Cursor cursor) {
+      TrackSummary summary = new TrackSummary();
+      if (hasValue(cursor, idIndex)) {
+        summary.id = cursor.getLong(idIndex);
+      }
+      if (hasValue(cursor, nameIndex)) {
+        summary.name = cursor.getString(nameIndex);
+      }
+      if (hasValue(cursor, descriptionIndex)) {
+        summary.description = cursor.getString(descriptionIndex);
+      }
+      if (hasValue(cursor, categoryIndex)) {
+        summary.category = cursor.getString(categoryIndex);
+      }
+      if (hasValue(cursor, iconIndex)) {
+        summary.icon = cursor.getString(iconIndex);
+      }
+      if (hasValue(cursor, startTimeIndex)) {
+        summary.startTime = cursor.getLong(startTimeIndex);
+      }
+      if (hasValue(cursor, stopTimeIndex)) {
+        summary.stopTime = cursor.getLong(stopTimeIndex);
+      }
+      if (hasValue(cursor, totalDistanceIndex)) {
+        summary.totalDistance = cursor.getFloat(totalDistanceIndex);
+      }
+      if (hasValue(cursor, totalTimeIndex)) {
+        summary.totalTime = cursor.getLong(totalTimeIndex);
+      }
+      if (hasValue(cursor, minLatIndex) && hasValue(cursor, maxLatIndex)
+          && hasValue(cursor, minLonIndex) && hasValue(cursor, maxLonIndex)) {
+        summary.meanLatitude = (cursor.getInt(minLatIndex) / 1E6 + cursor.getInt(maxLatIndex)
+            / 1E6) / 2.0;
+        summary.meanLongitude = (cursor.getInt(minLonIndex) / 1E6 + cursor.getInt(maxLonIndex)
+            / 1E6) / 2.0;
+      }
+      if (hasValue(cursor, driveIdIndex)) {
+        summary.driveId = cursor.getString(driveIdIndex);
+      }
+      if (hasValue(cursor, modifiedTimeIndex)) {
+        summary.modifiedTime = cursor.getLong(modifiedTimeIndex);
+      }
+      if (hasValue(cursor, sharedWithMeIndex)) {
+        summary.sharedWithMe = cursor.getInt(sharedWithMeIndex) == 1;
+      }
+      if (hasValue(cursor, sharedOwnerIndex)) {
+        summary.sharedOwner = cursor.getString(sharedOwnerIndex);
+      }
+      return summary;
+    }
+
+    /**
+     * Returns true if the column is in the projection and not null.
+     */
+    private static boolean hasValue(Cursor cursor, int index) {
+      return index != -1 && !cursor.isNull(index);
+    }
+  }
+}
@@ -92,6 +92,12 @@ public interface TracksColumns extends BaseColumns {
   // Calorie burned of the track
   public static final String CALORIE = "calorie";
 
+  // Inputs to recompute the calorie, see CalorieInputs
+  public static final String CALORIEDURATION = "calorieduration";
+  public static final String CALORIEDISTANCE = "caloriedistance";
+  public static final String CALORIECLIMB = "calorieclimb";
+  public static final String CALORIEDRAG = "caloriedrag";
+
   public static final String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " (" // table
       + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " // id
       + NAME + " STRING, " // name
@@ -124,7 +130,11 @@ public interface TracksColumns extends BaseColumns {
       + MODIFIEDTIME + " INTEGER, " // modified time
       + SHAREDWITHME + " INTEGER, " // shared with me
       + SHAREDOWNER + " STRING, " // shared owner
-      + CALORIE + " FLOAT);"; // calorie
+      + CALORIE + " FLOAT, " // calorie
+      + CALORIEDURATION + " FLOAT, " // calorie duration
+      + CALORIEDISTANCE + " FLOAT, " // calorie distance
+      + CALORIECLIMB + " FLOAT, " // calorie climb
+      + CALORIEDRAG + " FLOAT);"; // calorie drag
 
   public static final String[] COLUMNS = { _ID, // id
       NAME, // name
@@ -157,7 +167,11 @@ public interface TracksColumns extends BaseColumns {
       MODIFIEDTIME, // modified time
       SHAREDWITHME, // shared with me
       SHAREDOWNER,// shared owner
-      CALORIE }; // calorie
+      CALORIE, // calorie
+      CALORIEDURATION, // calorie duration
+      CALORIEDISTANCE, // calorie distance
+      CALORIECLIMB, // calorie climb
+      CALORIEDRAG }; // calorie drag
 
   public static final byte[] COLUMN_TYPES = { ContentTypeIds.LONG_TYPE_ID, // id
       ContentTypeIds.STRING_TYPE_ID, // name
@@ -190,6 +204,10 @@ public interface TracksColumns extends BaseColumns {
       ContentTypeIds.LONG_TYPE_ID, // modified time
       ContentTypeIds.BOOLEAN_TYPE_ID, // shared with me
       ContentTypeIds.STRING_TYPE_ID, // shared owner
-      ContentTypeIds.FLOAT_TYPE_ID // calorie
+      ContentTypeIds.FLOAT_TYPE_ID, // calorie
+      ContentTypeIds.FLOAT_TYPE_ID, // calorie duration
+      ContentTypeIds.FLOAT_TYPE_ID, // calorie distance
+      ContentTypeIds.FLOAT_TYPE_ID, // calorie climb
+      ContentTypeIds.FLOAT_TYPE_ID // calorie drag
   };
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.net.Uri;
+
+/**
+ * Constants for the track bounding box spatial index table. The table is an
+ * SQLite R*Tree virtual table, or a regular indexed table if the R*Tree module
+ * is not available. Its id is the track id. It is kept in sync with the
+ * {@link TracksColumns#TABLE_NAME} table by triggers. Tracks without valid
+ * bounds are not indexed.
+ */
+public interface TracksSpatialColumns {
+
+  public static final String TABLE_NAME = "tracks_rtree";
+
+  /**
+   * Track spatial provider uri. Queries take the min latitude, max latitude,
+   * min longitude, and max longitude (in microdegrees) of a bounding box as
+   * selection arguments.
+   */
+  public static final Uri CONTENT_URI = Uri.parse(
+      "content://com.google.android.maps.mytracks/tracks_rtree");
+
+  // Columns
+  public static final String ID = "id"; // track id
+  public static final String MINLAT = TracksColumns.MINLAT; // minimum latitude
+  public static final String MAXLAT = TracksColumns.MAXLAT; // maximum latitude
+  public static final String MINLON = TracksColumns.MINLON; // minimum longitude
+  public static final String MAXLON = TracksColumns.MAXLON; // maximum longitude
+
+  /**
+   * The projection for spatial queries, all the track columns.
+   */
+  public static final String[] PROJECTION = { TracksColumns.TABLE_NAME + ".*" };
+
+  /**
+   * The tables to query, the spatial table joined with the tracks table.
+   */
+  public static final String TABLES = TABLE_NAME + " JOIN " + TracksColumns.TABLE_NAME + " ON "
+      + TracksColumns.TABLE_NAME + "." + TracksColumns._ID + "=" + TABLE_NAME + "." + ID;
+
+  public static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_NAME
+      + " USING rtree(" // table
+      + ID + ", " // id
+      + MINLAT + ", " // min latitude
+      + MAXLAT + ", " // max latitude
+      + MINLON + ", " // min longitude
+      + MAXLON + ")"; // max longitude
+
+  /**
+   * Creates the table when the R*Tree module is not available.
+   */
+  public static final String CREATE_FALLBACK_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME
+      + " (" // table
+      + ID + " INTEGER PRIMARY KEY, " // id
+      + MINLAT + " INTEGER, " // min latitude
+      + MAXLAT + " INTEGER, " // max latitude
+      + MINLON + " INTEGER, " // min longitude
+      + MAXLON + " INTEGER)"; // max longitude
+
+  public static final String CREATE_FALLBACK_INDEX = "CREATE INDEX IF NOT EXISTS " + TABLE_NAME
+      + "_index ON " + TABLE_NAME + "(" + MINLAT + ", " + MAXLAT + ")";
+
+  /**
+   * The condition for a tracks table row to have valid bounds.
+   */
+  public static final String VALID_BOUNDS = "new." + MINLAT + "<=new." + MAXLAT + " AND new."
+      + MINLON + "<=new." + MAXLON;
+
+  public static final String[] CREATE_TRIGGERS = {
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_insert AFTER INSERT ON "
+          + TracksColumns.TABLE_NAME + " WHEN " + VALID_BOUNDS + " BEGIN INSERT INTO "
+          + TABLE_NAME + " (" + ID + ", " + MINLAT + ", " + MAXLAT + ", " + MINLON + ", "
+          + MAXLON + ") VALUES (new." + TracksColumns._ID + ", new." + MINLAT + ", new."
+          + MAXLAT + ", new." + MINLON + ", new." + MAXLON + "); END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_update AFTER UPDATE OF " + MINLAT + ", "
+          + MAXLAT + ", " + MINLON + ", " + MAXLON + " ON " + TracksColumns.TABLE_NAME
+          + " BEGIN DELETE FROM " + TABLE_NAME + " WHERE " + ID + "=old." + TracksColumns._ID
+          + "; INSERT INTO " + TABLE_NAME + " (" + ID + ", " + MINLAT + ", " + MAXLAT + ", "
+          + MINLON + ", " + MAXLON + ") SELECT new." + TracksColumns._ID + ", new." + MINLAT
+          + ", new." + MAXLAT + ", new." + MINLON + ", new." + MAXLON + " WHERE "
+          + VALID_BOUNDS + "; END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_delete AFTER DELETE ON "
+          + TracksColumns.TABLE_NAME + " BEGIN DELETE FROM " + TABLE_NAME + " WHERE " + ID
+          + "=old." + TracksColumns._ID + "; END" };
+
+  /**
+   * Populates the spatial table from the tracks table.
+   */
+  public static final String POPULATE_TABLE = "INSERT INTO " + TABLE_NAME + " (" + ID + ", "
+      + MINLAT + ", " + MAXLAT + ", " + MINLON + ", " + MAXLON + ") SELECT "
+      + TracksColumns._ID + ", " + MINLAT + ", " + MAXLAT + ", " + MINLON + ", " + MAXLON
+      + " FROM " + TracksColumns.TABLE_NAME + " WHERE " + MINLAT + "<=" + MAXLAT + " AND "
+      + MINLON + "<=" + MAXLON;
+}
@@ -71,6 +71,10 @@ public interface WaypointsColumns extends BaseColumns {
   public static final String MINGRADE = "mingrade"; // min grade
   public static final String MAXGRADE = "maxgrade"; // max grade
   public static final String CALORIE = "calorie"; // calorie
+  public static final String CALORIEDURATION = "calorieduration"; // calorie duration
+  public static final String CALORIEDISTANCE = "caloriedistance"; // calorie distance
+  public static final String CALORIECLIMB = "calorieclimb"; // calorie climb
+  public static final String CALORIEDRAG = "caloriedrag"; // calorie drag
   
   public static final String PHOTOURL = "photoUrl"; // url for the photo
   
@@ -106,6 +110,10 @@ public interface WaypointsColumns extends BaseColumns {
       + MINGRADE + " FLOAT, "
       + MAXGRADE + " FLOAT, "
       + CALORIE + " FLOAT, "  
+      + CALORIEDURATION + " FLOAT, "
+      + CALORIEDISTANCE + " FLOAT, "
+      + CALORIECLIMB + " FLOAT, "
+      + CALORIEDRAG + " FLOAT, "
       + PHOTOURL + " STRING"
       + ");";
   
@@ -141,6 +149,10 @@ public interface WaypointsColumns extends BaseColumns {
       MINGRADE,
       MAXGRADE,
       CALORIE,
+      CALORIEDURATION,
+      CALORIEDISTANCE,
+      CALORIECLIMB,
+      CALORIEDRAG,
       PHOTOURL
     };
     
@@ -176,6 +188,10 @@ public interface WaypointsColumns extends BaseColumns {
       FLOAT_TYPE_ID, // min grade
       FLOAT_TYPE_ID, // max grade
       FLOAT_TYPE_ID, // calorie
+      FLOAT_TYPE_ID, // calorie duration
+      FLOAT_TYPE_ID, // calorie distance
+      FLOAT_TYPE_ID, // calorie climb
+      FLOAT_TYPE_ID, // calorie drag
       STRING_TYPE_ID // photo url
     };
 }
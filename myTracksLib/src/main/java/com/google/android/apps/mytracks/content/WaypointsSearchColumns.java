@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.net.Uri;
+
+/**
+ * Constants for the waypoint full-text search table. The table is an SQLite FTS4
+ * virtual table whose docid is the waypoint id. It is kept in sync with the
+ * {@link WaypointsColumns#TABLE_NAME} table by triggers.
+ */
+public interface WaypointsSearchColumns {
+
+  public static final String TABLE_NAME = "waypoints_fts";
+
+  /**
+   * Waypoint search provider uri. Queries take a full-text MATCH expression as the
+   * only selection argument.
+   */
+  public static final Uri CONTENT_URI = Uri.parse(
+      "content://com.google.android.maps.mytracks/waypoints_fts");
+
+  // Columns
+  public static final String DOCID = "docid"; // waypoint id
+  public static final String NAME = WaypointsColumns.NAME; // waypoint name
+  public static final String DESCRIPTION = WaypointsColumns.DESCRIPTION; // waypoint description
+  public static final String CATEGORY = WaypointsColumns.CATEGORY; // waypoint category
+
+  /**
+   * Alias of the matchinfo blob returned by search queries. The blob is
+   * computed with {@link #MATCH_INFO_FORMAT}.
+   */
+  public static final String MATCH_INFO = "matchinfo";
+  public static final String MATCH_INFO_FORMAT = "pcnalx";
+
+  /**
+   * The selection for search queries.
+   */
+  public static final String SELECTION = TABLE_NAME + " MATCH ?";
+
+  /**
+   * The projection for search queries, the waypoint id and the matchinfo
+   * blob. Only the search table is read, the matches are ranked before their
+   * waypoint rows are loaded.
+   */
+  public static final String[] PROJECTION = { DOCID,
+      "matchinfo(" + TABLE_NAME + ", '" + MATCH_INFO_FORMAT + "') AS " + MATCH_INFO };
+
+  public static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_NAME
+      + " USING fts4(" // table
+      + NAME + ", " // name
+      + DESCRIPTION + ", " // description
+      + CATEGORY + ")"; // category
+
+  public static final String[] CREATE_TRIGGERS = {
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_insert AFTER INSERT ON "
+          + WaypointsColumns.TABLE_NAME + " BEGIN INSERT INTO " + TABLE_NAME + " (" + DOCID + ", "
+          + NAME + ", " + DESCRIPTION + ", " + CATEGORY + ") VALUES (new." + WaypointsColumns._ID
+          + ", new." + NAME + ", new." + DESCRIPTION + ", new." + CATEGORY + "); END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_update AFTER UPDATE OF " + NAME + ", "
+          + DESCRIPTION + ", " + CATEGORY + " ON " + WaypointsColumns.TABLE_NAME + " BEGIN UPDATE "
+          + TABLE_NAME + " SET " + NAME + "=new." + NAME + ", " + DESCRIPTION + "=new."
+          + DESCRIPTION + ", " + CATEGORY + "=new." + CATEGORY + " WHERE " + DOCID + "=new."
+          + WaypointsColumns._ID + "; END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_delete AFTER DELETE ON "
+          + WaypointsColumns.TABLE_NAME + " BEGIN DELETE FROM " + TABLE_NAME + " WHERE " + DOCID
+          + "=old." + WaypointsColumns._ID + "; END" };
+
+  /**
+   * Populates the search table from the waypoint table.
+   */
+  public static final String POPULATE_TABLE = "INSERT INTO " + TABLE_NAME + " (" + DOCID + ", "
+      + NAME + ", " + DESCRIPTION + ", " + CATEGORY + ") SELECT " + WaypointsColumns._ID + ", "
+      + NAME + ", " + DESCRIPTION + ", " + CATEGORY + " FROM " + WaypointsColumns.TABLE_NAME;
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.content;
+
+import android.net.Uri;
+
+/**
+ * Constants for the waypoint position spatial index table. The table is an
+ * SQLite R*Tree virtual table, or a regular indexed table if the R*Tree module
+ * is not available. Its id is the waypoint id. It is kept in sync with the
+ * {@link WaypointsColumns#TABLE_NAME} table by triggers. Waypoints without a
+ * valid location are not indexed.
+ */
+public interface WaypointsSpatialColumns {
+
+  public static final String TABLE_NAME = "waypoints_rtree";
+
+  /**
+   * Waypoint spatial provider uri. Queries take the min latitude, max
+   * latitude, min longitude, and max longitude (in microdegrees) of a bounding
+   * box as selection arguments.
+   */
+  public static final Uri CONTENT_URI = Uri.parse(
+      "content://com.google.android.maps.mytracks/waypoints_rtree");
+
+  // Columns
+  public static final String ID = "id"; // waypoint id
+  public static final String MINLAT = "minlat"; // latitude
+  public static final String MAXLAT = "maxlat"; // latitude
+  public static final String MINLON = "minlon"; // longitude
+  public static final String MAXLON = "maxlon"; // longitude
+
+  /**
+   * The projection for spatial queries, all the waypoint columns.
+   */
+  public static final String[] PROJECTION = { WaypointsColumns.TABLE_NAME + ".*" };
+
+  /**
+   * The tables to query, the spatial table joined with the waypoints table.
+   */
+  public static final String TABLES = TABLE_NAME + " JOIN " + WaypointsColumns.TABLE_NAME
+      + " ON " + WaypointsColumns.TABLE_NAME + "." + WaypointsColumns._ID + "=" + TABLE_NAME
+      + "." + ID;
+
+  public static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_NAME
+      + " USING rtree(" // table
+      + ID + ", " // id
+      + MINLAT + ", " // min latitude
+      + MAXLAT + ", " // max latitude
+      + MINLON + ", " // min longitude
+      + MAXLON + ")"; // max longitude
+
+  /**
+   * Creates the table when the R*Tree module is not available.
+   */
+  public static final String CREATE_FALLBACK_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME
+      + " (" // table
+      + ID + " INTEGER PRIMARY KEY, " // id
+      + MINLAT + " INTEGER, " // min latitude
+      + MAXLAT + " INTEGER, " // max latitude
+      + MINLON + " INTEGER, " // min longitude
+      + MAXLON + " INTEGER)"; // max longitude
+
+  public static final String CREATE_FALLBACK_INDEX = "CREATE INDEX IF NOT EXISTS " + TABLE_NAME
+      + "_index ON " + TABLE_NAME + "(" + MINLAT + ", " + MINLON + ")";
+
+  /**
+   * The condition for a waypoints table row to have a valid location.
+   */
+  public static final String VALID_LOCATION = "new." + WaypointsColumns.LATITUDE
+      + " IS NOT NULL AND new." + WaypointsColumns.LONGITUDE + " IS NOT NULL AND abs(new."
+      + WaypointsColumns.LATITUDE + ")<=90000000 AND abs(new." + WaypointsColumns.LONGITUDE
+      + ")<=180000000";
+
+  /**
+   * Trigger statement indexing the new waypoints table row.
+   */
+  public static final String INSERT_NEW = "INSERT INTO " + TABLE_NAME + " (" + ID + ", "
+      + MINLAT + ", " + MAXLAT + ", " + MINLON + ", " + MAXLON + ") SELECT new."
+      + WaypointsColumns._ID + ", new." + WaypointsColumns.LATITUDE + ", new."
+      + WaypointsColumns.LATITUDE + ", new." + WaypointsColumns.LONGITUDE + ", new."
+      + WaypointsColumns.LONGITUDE + " WHERE " + VALID_LOCATION;
+
+  public static final String[] CREATE_TRIGGERS = {
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_insert AFTER INSERT ON "
+          + WaypointsColumns.TABLE_NAME + " BEGIN " + INSERT_NEW + "; END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_update AFTER UPDATE OF "
+          + WaypointsColumns.LATITUDE + ", " + WaypointsColumns.LONGITUDE + " ON "
+          + WaypointsColumns.TABLE_NAME + " BEGIN DELETE FROM " + TABLE_NAME + " WHERE " + ID
+          + "=old." + WaypointsColumns._ID + "; " + INSERT_NEW + "; END",
+      "CREATE TRIGGER IF NOT EXISTS " + TABLE_NAME + "_delete AFTER DELETE ON "
+          + WaypointsColumns.TABLE_NAME + " BEGIN DELETE FROM " + TABLE_NAME + " WHERE " + ID
+          + "=old." + WaypointsColumns._ID + "; END" };
+
+  /**
+   * Populates the spatial table from the waypoints table.
+   */
+  public static final String POPULATE_TABLE = "INSERT INTO " + TABLE_NAME + " (" + ID + ", "
+      + MINLAT + ", " + MAXLAT + ", " + MINLON + ", " + MAXLON + ") SELECT "
+      + WaypointsColumns._ID + ", " + WaypointsColumns.LATITUDE + ", "
+      + WaypointsColumns.LATITUDE + ", " + WaypointsColumns.LONGITUDE + ", "
+      + WaypointsColumns.LONGITUDE + " FROM " + WaypointsColumns.TABLE_NAME + " WHERE "
+      + VALID_LOCATION.replace("new.", "");
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.android.apps.mytracks.stats;
+
+/**
+ * The sums over the moving intervals of a track or a marker segment that the
+ * calorie depends on. The calorie of an interval is linear in its duration,
+ * speed x duration, speed x grade x duration and speed^3 x duration, and the
+ * weight only scales those terms. So the calorie can be recomputed for any
+ * weight and activity type from these sums without the track points.
+ */
+public class CalorieInputs {
+
+  // The duration of the moving intervals in milliseconds
+  private double duration;
+
+  // The sum of speed x duration in meters
+  private double distance;
+
+  // The sum of speed x grade x duration in meters, negative grades count as 0
+  private double climb;
+
+  // The sum of speed^3 x duration in m^3/s^2, for the cycling drag
+  private double drag;
+
+  /**
+   * Adds a moving interval.
+   *
+   * @param time the interval duration in milliseconds
+   * @param speed the average speed in meters per second
+   * @param grade the grade
+   */
+  public void add(long time, double speed, double grade) {
+    double seconds = time / 1000.0;
+    duration += time;
+    distance += speed * seconds;
+    if (grade > 0) {
+      climb += speed * grade * seconds;
+    }
+    drag += speed * speed * speed * seconds;
+  }
+
+  /**
+   * Adds the sums of another object.
+   *
+   * @param other another calorie inputs object
+   */
+  public void merge(CalorieInputs other) {
+    duration += other.duration;
+    distance += other.distance;
+    climb += other.climb;
+    drag += other.drag;
+  }
+
+  /**
+   * Sets the sums to the ones of another object.
+   *
+   * @param other another calorie inputs object
+   */
+  public void set(CalorieInputs other) {
+    set(other.duration, other.distance, other.climb, other.drag);
+  }
+
+  /**
+   * Sets the sums.
+   *
+   * @param duration the duration in milliseconds
+   * @param distance the sum of speed x duration in meters
+   * @param climb the sum of speed x grade x duration in meters
+   * @param drag the sum of speed^3 x duration in m^3/s^2
+   */
+  public void set(double duration, double distance, double climb, double drag) {
+    this.duration = duration;
+    this.distance = distance;
+    this.climb = climb;
+    this.drag = drag;
+  }
+
+  /**
+   * Gets the duration of the moving intervals in milliseconds.
+   */
+  public double getDuration() {
+    return duration;
+  }
+
+  /**
+   * Gets the sum of speed x duration in meters.
+   */
+  public double getDistance() {
+    return distance;
+  }
+
+  /**
+   * Gets the sum of speed x grade x duration in meters.
+   */
+  public double getClimb() {
+    return climb;
+  }
+
+  /**
+   * Gets the sum of speed^3 x duration in m^3/s^2.
+   */
+  public double getDrag() {
+    return drag;
+  }
+}
@@ -19,6 +19,10 @@ package com.google.android.apps.mytracks.stats;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Statistical data about a trip. The data in this class should be filled out by
  * TripStatisticsBuilder.
@@ -65,6 +69,9 @@ public class TripStatistics implements Parcelable {
   // The calorie of current track.
   private double calorie = 0.0;
 
+  // The inputs to recompute the calorie.
+  private final CalorieInputs calorieInputs = new CalorieInputs();
+
   /**
    * Default constructor.
    */
@@ -90,6 +97,7 @@ public class TripStatistics implements Parcelable {
     totalElevationGain = other.totalElevationGain;
     gradeExtremities.set(other.gradeExtremities.getMin(), other.gradeExtremities.getMax());
     calorie = other.calorie;
+    calorieInputs.set(other.calorieInputs);
   }
 
   /**
@@ -123,6 +131,7 @@ public class TripStatistics implements Parcelable {
       gradeExtremities.update(other.gradeExtremities.getMax());
     }
     calorie += other.calorie;
+    calorieInputs.merge(other.calorieInputs);
   }
 
   /**
@@ -532,6 +541,12 @@ public class TripStatistics implements Parcelable {
       data.gradeExtremities.set(minGrade, maxGrade);
       
       data.calorie = source.readDouble();
+
+      double duration = source.readDouble();
+      double distance = source.readDouble();
+      double climb = source.readDouble();
+      double drag = source.readDouble();
+      data.calorieInputs.set(duration, distance, climb, drag);
       return data;
     }
 
@@ -569,6 +584,81 @@ public class TripStatistics implements Parcelable {
     dest.writeDouble(gradeExtremities.getMin());
     dest.writeDouble(gradeExtremities.getMax());
     dest.writeDouble(calorie);
+    dest.writeDouble(calorieInputs.getDuration());
+    dest.writeDouble(calorieInputs.getDistance());
+    dest.writeDouble(calorieInputs.getClimb());
+    dest.writeDouble(calorieInputs.getDrag());
+  }
+
+  /**
+   * Writes the statistics to a stream. Unlike a parcel, the stream can be
+   * stored.
+   * 
+   * @param dest the stream
+   */
+  public void write(DataOutput dest) throws IOException {
+    dest.writeLong(startTime);
+    dest.writeLong(stopTime);
+    dest.writeDouble(totalDistance);
+    dest.writeLong(totalTime);
+    dest.writeLong(movingTime);
+    dest.writeDouble(latitudeExtremities.getMin());
+    dest.writeDouble(latitudeExtremities.getMax());
+    dest.writeDouble(longitudeExtremities.getMin());
+    dest.writeDouble(longitudeExtremities.getMax());
+    dest.writeDouble(maxSpeed);
+    dest.writeDouble(elevationExtremities.getMin());
+    dest.writeDouble(elevationExtremities.getMax());
+    dest.writeDouble(totalElevationGain);
+    dest.writeDouble(gradeExtremities.getMin());
+    dest.writeDouble(gradeExtremities.getMax());
+    dest.writeDouble(calorie);
+    dest.writeDouble(calorieInputs.getDuration());
+    dest.writeDouble(calorieInputs.getDistance());
+    dest.writeDouble(calorieInputs.getClimb());
+    dest.writeDouble(calorieInputs.getDrag());
+  }
+
+  /**
+   * Reads statistics written by {@link #write(DataOutput)}.
+   * 
+   * @param source the stream
+   */
+  public static TripStatistics read(DataInput source) throws IOException {
+    TripStatistics data = new TripStatistics();
+    data.startTime = source.readLong();
+    data.stopTime = source.readLong();
+    data.totalDistance = source.readDouble();
+    data.totalTime = source.readLong();
+    data.movingTime = source.readLong();
+
+    double minLat = source.readDouble();
+    double maxLat = source.readDouble();
+    data.latitudeExtremities.set(minLat, maxLat);
+
+    double minLong = source.readDouble();
+    double maxLong = source.readDouble();
+    data.longitudeExtremities.set(minLong, maxLong);
+
+    data.maxSpeed = source.readDouble();
+
+    double minElev = source.readDouble();
+    double maxElev = source.readDouble();
+    data.elevationExtremities.set(minElev, maxElev);
+    data.totalElevationGain = source.readDouble();
+
+    double minGrade = source.readDouble();
+    double maxGrade = source.readDouble();
+    data.gradeExtremities.set(minGrade, maxGrade);
+
+    data.calorie = source.readDouble();
+
+    double duration = source.readDouble();
+    double distance = source.readDouble();
+    double climb = source.readDouble();
+    double drag = source.readDouble();
+    data.calorieInputs.set(duration, distance, climb, drag);
+    return data;
   }
 
   /**
@@ -595,4 +685,11 @@ public class TripStatistics implements Parcelable {
   public double getCalorie() {
     return calorie;
   }
+
+  /**
+   * Gets the inputs to recompute the calorie.
+   */
+  public CalorieInputs getCalorieInputs() {
+    return calorieInputs;
+  }
 }
\ No newline at end of file